@@ -0,0 +1,48 @@
+-- --------------------------------------------------------
+-- Migrate a policydb_core database created before the node_properties table existed, or with the first version of it.
+-- Creates the table, allows values of any length and null values, and copies the properties of every node from the
+-- node_property column. Properties that already have a row are left as they are, so the script can be run again.
+-- Works on MySQL 5.7 and later.
+-- --------------------------------------------------------
+
+USE `policydb_core`;
+
+CREATE TABLE IF NOT EXISTS `node_properties` (
+  `node_id` int(11) NOT NULL,
+  `property_key` varchar(100) NOT NULL,
+  `property_value` text DEFAULT NULL,
+  PRIMARY KEY (`node_id`,`property_key`),
+  KEY `idx_node_properties_key_value` (`property_key`,`property_value`(255)),
+  CONSTRAINT `fk_node_properties_node_id` FOREIGN KEY (`node_id`) REFERENCES `node` (`node_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='One row per node property, indexed for searches by property';
+
+-- the first version of the table only allowed values of up to 255 characters and no null values
+ALTER TABLE `node_properties` DROP INDEX `idx_node_properties_key_value`;
+ALTER TABLE `node_properties` MODIFY `property_value` text DEFAULT NULL;
+ALTER TABLE `node_properties` ADD KEY `idx_node_properties_key_value` (`property_key`,`property_value`(255));
+
+-- one row per key of each node's properties, the i-th key of a node is read with JSON_KEYS for i up to 9999
+INSERT IGNORE INTO `node_properties` (`node_id`, `property_key`, `property_value`)
+SELECT p.node_id, p.property_key,
+       CASE JSON_TYPE(p.value) WHEN 'NULL' THEN NULL ELSE JSON_UNQUOTE(p.value) END
+FROM (
+    SELECT k.node_id, k.property_key,
+           JSON_EXTRACT(k.node_property, CONCAT('$."', REPLACE(k.property_key, '"', '\\"'), '"')) AS value
+    FROM (
+        SELECT n.node_id, n.node_property,
+               JSON_UNQUOTE(JSON_EXTRACT(JSON_KEYS(n.node_property), CONCAT('$[', i.i, ']'))) AS property_key
+        FROM `node` n
+        JOIN (
+            SELECT d1.d + d2.d * 10 + d3.d * 100 + d4.d * 1000 AS i
+            FROM (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL
+                  SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) d1
+            CROSS JOIN (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL
+                  SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) d2
+            CROSS JOIN (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL
+                  SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) d3
+            CROSS JOIN (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL
+                  SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) d4
+        ) i ON i.i < JSON_LENGTH(JSON_KEYS(n.node_property))
+        WHERE n.node_property IS NOT NULL
+    ) k
+) p;
@@ -78,6 +78,7 @@ CREATE TABLE IF NOT EXISTS `deny` (
   KEY `deny_user_attribute_id_idx` (`user_attribute_id`),
   KEY `deny_type_id_idx` (`deny_type_id`),
   KEY `idx_deny_deny_name` (`deny_name`),
+  KEY `idx_deny_subject_name` (`subject_name`),
   CONSTRAINT `fk_deny_type_id` FOREIGN KEY (`deny_type_id`) REFERENCES `deny_type` (`deny_type_id`),
   CONSTRAINT `fk_deny_user_attribute_node_id` FOREIGN KEY (`user_attribute_id`) REFERENCES `node` (`node_id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='Deny';
@@ -117,6 +118,34 @@ INSERT INTO `deny_type` (`deny_type_id`, `name`, `abbreviation`) VALUES
 	(3, 'process', 'p');
 /*!40000 ALTER TABLE `deny_type` ENABLE KEYS */;
 
+-- Dumping structure for table policydb_core.policy_changelog
+CREATE TABLE IF NOT EXISTS `policy_changelog` (
+  `seq` bigint(20) NOT NULL,
+  `operation` varchar(20) NOT NULL,
+  `payload` json NOT NULL,
+  PRIMARY KEY (`seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='Ordered log of graph writes replayed by in memory mirrors';
+
+-- Dumping structure for table policydb_core.policy_changelog_seq
+CREATE TABLE IF NOT EXISTS `policy_changelog_seq` (
+  `id` int(11) NOT NULL,
+  `seq` bigint(20) NOT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='The last sequence number of the change log, locked by each logged write until it commits';
+
+-- Dumping data for table policydb_core.policy_changelog_seq: ~1 rows (approximately)
+/*!40000 ALTER TABLE `policy_changelog_seq` DISABLE KEYS */;
+INSERT INTO `policy_changelog_seq` (`id`, `seq`) VALUES
+	(1, 0);
+/*!40000 ALTER TABLE `policy_changelog_seq` ENABLE KEYS */;
+
+-- Dumping structure for table policydb_core.policy_changelog_mirror
+CREATE TABLE IF NOT EXISTS `policy_changelog_mirror` (
+  `mirror_id` varchar(64) NOT NULL,
+  `seq` bigint(20) NOT NULL,
+  PRIMARY KEY (`mirror_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='The last change applied by each in memory mirror';
+
 -- Dumping structure for table policydb_core.node
 CREATE TABLE IF NOT EXISTS `node` (
   `node_id` int(11) NOT NULL AUTO_INCREMENT,
@@ -143,6 +172,34 @@ insert into `node`(`node_id`, `node_type_id`, `name`, `node_property`) values
 	(9, 4, 'super_o', '{\"namespace\": \"super\"}');
 /*!40000 ALTER TABLE `node` ENABLE KEYS */;
 
+-- Dumping structure for table policydb_core.node_properties
+CREATE TABLE IF NOT EXISTS `node_properties` (
+  `node_id` int(11) NOT NULL,
+  `property_key` varchar(100) NOT NULL,
+  `property_value` text DEFAULT NULL,
+  PRIMARY KEY (`node_id`,`property_key`),
+  KEY `idx_node_properties_key_value` (`property_key`,`property_value`(255)),
+  CONSTRAINT `fk_node_properties_node_id` FOREIGN KEY (`node_id`) REFERENCES `node` (`node_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='One row per node property, indexed for searches by property';
+
+-- Dumping data for table policydb_core.node_properties: ~13 rows (approximately)
+/*!40000 ALTER TABLE `node_properties` DISABLE KEYS */;
+INSERT INTO `node_properties` (`node_id`, `property_key`, `property_value`) VALUES
+	(1,'namespace','super'),
+	(1,'default_oa','super_pc_default_OA'),
+	(1,'default_ua','super_pc_default_UA'),
+	(1,'rep','super_pc_rep'),
+	(2,'namespace','super'),
+	(3,'namespace','super'),
+	(4,'namespace','super'),
+	(5,'namespace','super'),
+	(6,'namespace','super_pc'),
+	(7,'namespace','super_pc'),
+	(8,'namespace','super_pc'),
+	(8,'pc','super_pc'),
+	(9,'namespace','super');
+/*!40000 ALTER TABLE `node_properties` ENABLE KEYS */;
+
 -- Dumping structure for table policydb_core.node_type
 CREATE TABLE IF NOT EXISTS `node_type` (
   `node_type_id` int(11) NOT NULL,
@@ -0,0 +1,67 @@
+package gov.nist.csd.pm.common;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for running PDP requests and obligation evaluations. On a JDK with virtual threads, each task runs on its own
+ * virtual thread, so tens of thousands of requests can be blocked on the database at once without a thread per request.
+ * On older JDKs the tasks share a bounded pool of platform threads instead.
+ *
+ * Virtual threads are looked up at runtime so the library can still be built for and run on JDKs without them.
+ */
+public final class RequestExecutors {
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+    private RequestExecutors() {}
+
+    private static Method findVirtualThreadExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the running JDK supports virtual threads.
+     */
+    public static boolean supportsVirtualThreads() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * Create an executor that runs each task on a new virtual thread. If the JDK does not support virtual threads, the
+     * tasks run on a pool of up to fallbackThreads platform threads, and tasks submitted while every thread is busy wait
+     * in the pool's queue.
+     *
+     * @param fallbackThreads the number of platform threads to use if virtual threads are not supported.
+     * @return the executor.
+     */
+    public static ExecutorService newPerTaskExecutor(int fallbackThreads) {
+        if (fallbackThreads <= 0) {
+            throw new IllegalArgumentException("the number of fallback threads must be positive");
+        }
+
+        if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // fall through to the platform thread pool
+            }
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(fallbackThreads, fallbackThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "pm-request-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,17 @@
+package gov.nist.csd.pm.common.tx;
+
+import gov.nist.csd.pm.exceptions.PMException;
+
+/**
+ * A graph, prohibitions, or obligations that passes its changes on to another one, like the PAP's admins and the PDP's
+ * services. Transactions lock the store at the end of the chain, so two transactions on the same store exclude each
+ * other no matter which layer each one was started on.
+ */
+public interface TxDelegate {
+
+    /**
+     * @return the graph, prohibitions, or obligations this one passes its changes on to.
+     * @throws PMException if there is an error getting the delegate.
+     */
+    Object getDelegate() throws PMException;
+}
@@ -0,0 +1,76 @@
+package gov.nist.csd.pm.common.tx;
+
+import gov.nist.csd.pm.exceptions.PMException;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The locks transactions hold while they commit to a graph, prohibitions, and obligations. Transactions used to
+ * synchronize on the targets themselves, which pins a virtual thread to its carrier for the whole commit, including any
+ * I/O the commit does. Each target has one ReentrantLock instead, held for as long as the target is reachable.
+ */
+public final class TxLocks {
+
+    private static final Map<Object, Lock> locks = new WeakHashMap<>();
+    private static final Lock locksLock = new ReentrantLock();
+
+    private TxLocks() {}
+
+    /**
+     * @return the lock for the given target.
+     */
+    public static Lock of(Object target) {
+        locksLock.lock();
+        try {
+            return locks.computeIfAbsent(target, k -> new ReentrantLock());
+        } finally {
+            locksLock.unlock();
+        }
+    }
+
+    /**
+     * @return the store at the end of the chain of delegates starting at the given target, or the target if it does
+     * not delegate.
+     * @throws PMException if there is an error getting a delegate.
+     */
+    public static Object unwrap(Object target) throws PMException {
+        while (target instanceof TxDelegate) {
+            target = ((TxDelegate) target).getDelegate();
+        }
+        return target;
+    }
+
+    /**
+     * Run a commit while holding the locks of the stores underneath the graph, prohibitions, and obligations, always
+     * acquired in that order.
+     */
+    public static void commit(Tx tx, Commit commit) throws PMException {
+        Lock graphLock = of(unwrap(tx.graph));
+        Lock prohibitionsLock = of(unwrap(tx.prohibitions));
+        Lock obligationsLock = of(unwrap(tx.obligations));
+
+        graphLock.lock();
+        try {
+            prohibitionsLock.lock();
+            try {
+                obligationsLock.lock();
+                try {
+                    commit.run();
+                } finally {
+                    obligationsLock.unlock();
+                }
+            } finally {
+                prohibitionsLock.unlock();
+            }
+        } finally {
+            graphLock.unlock();
+        }
+    }
+
+    public interface Commit {
+        void run() throws PMException;
+    }
+}
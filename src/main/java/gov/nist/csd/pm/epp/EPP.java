@@ -8,25 +8,54 @@ import gov.nist.csd.pm.pdp.services.UserContext;
 import gov.nist.csd.pm.common.FunctionalEntity;
 import gov.nist.csd.pm.pip.obligations.model.*;
 
+import gov.nist.csd.pm.pap.ObligationsAdmin;
+import gov.nist.csd.pm.pip.obligations.Obligations;
 import gov.nist.csd.pm.pap.PAP;
 import gov.nist.csd.pm.pdp.services.UserContext;
 import gov.nist.csd.pm.pip.obligations.model.Obligation;
 import gov.nist.csd.pm.pip.obligations.model.ResponsePattern;
 import gov.nist.csd.pm.pip.obligations.model.Rule;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class EPP {
+public class EPP implements AutoCloseable {
 
     private FunctionalEntity pap;
     private PDP pdp;
     private FunctionEvaluator functionEvaluator;
+    private Executor obligationExecutor;
+    private RuleIndex ruleIndex;
+    private EventPipeline eventPipeline;
+    private final ReentrantLock processLock = new ReentrantLock();
+    private final ThreadLocal<Boolean> evaluating = ThreadLocal.withInitial(() -> false);
 
     public EPP(FunctionalEntity pap, PDP pdp, EPPOptions eppOptions) throws PMException {
         this.pap = pap;
         this.pdp = pdp;
         this.functionEvaluator = new FunctionEvaluator();
+
+        // the index is only kept up to date incrementally if every change to the obligations goes through the admin
+        Obligations obligations = pap.getObligations();
+        boolean tracked = obligations instanceof ObligationsAdmin;
+        this.ruleIndex = new RuleIndex(obligations, tracked, functionEvaluator);
+        if (tracked) {
+            ((ObligationsAdmin) obligations).addListener(ruleIndex);
+        }
+
         if (eppOptions != null) {
+            this.obligationExecutor = eppOptions.getObligationExecutor();
+            if (eppOptions.getEventWorkers() > 0) {
+                this.eventPipeline = new EventPipeline(this, eppOptions.getEventWorkers(),
+                        eppOptions.getEventCapacity(), eppOptions.getEventBatchSize());
+            }
             for (FunctionExecutor executor : eppOptions.getExecutors()) {
                 this.functionEvaluator.addFunctionExecutor(executor);
             }
@@ -45,18 +74,167 @@ public class EPP {
         return pdp;
     }
 
-    public synchronized void processEvent(EventContext eventCtx) throws PMException {
-        List<Obligation> obligations = pap.getObligations().getAll();
-        for(Obligation obligation : obligations) {
-            if (!obligation.isEnabled()) {
-                continue;
+    /**
+     * @return the pipeline events are processed on, or null if events are processed on the thread that causes them.
+     */
+    public EventPipeline getEventPipeline() {
+        return eventPipeline;
+    }
+
+    /**
+     * Shut down the event pipeline, if there is one. Events already submitted are still processed, and submitting an
+     * event afterwards fails.
+     */
+    @Override
+    public void close() {
+        if (eventPipeline != null) {
+            eventPipeline.close();
+        }
+    }
+
+    /**
+     * Wait until the events submitted to the event pipeline so far have been processed, so a caller can read the
+     * changes the obligations made in response to its own changes. If there is no event pipeline, or this is called
+     * while an obligation is being evaluated, this returns immediately.
+     *
+     * @throws PMException if an event failed to be processed.
+     */
+    public void awaitEvents() throws PMException {
+        if (eventPipeline != null && !evaluating.get()) {
+            eventPipeline.await();
+        }
+    }
+
+    /**
+     * Evaluate the enabled obligations against an event. Only the rules the rule index finds could match the event are
+     * evaluated. Events are processed one at a time. An event caused by the response of an obligation is processed as
+     * part of the event that triggered the obligation, on the same thread.
+     *
+     * If the EPP has an event pipeline, the event is queued on it instead and this returns once it is queued, unless
+     * the event is caused by the response of an obligation.
+     *
+     * @param eventCtx the event to process.
+     * @throws PMException if an obligation fails to be evaluated.
+     */
+    public void processEvent(EventContext eventCtx) throws PMException {
+        // an obligation evaluated on the executor already runs under the lock held by the thread that submitted it
+        boolean nested = evaluating.get();
+        if (eventPipeline != null && !nested) {
+            eventPipeline.submit(eventCtx);
+            return;
+        }
+
+        if (!nested) {
+            processLock.lock();
+        }
+
+        try {
+            Map<Obligation, List<Rule>> candidates = ruleIndex.getCandidates(eventCtx);
+            if (obligationExecutor == null || nested || candidates.size() == 1) {
+                for (Map.Entry<Obligation, List<Rule>> e : candidates.entrySet()) {
+                    evaluate(e.getKey(), e.getValue(), eventCtx);
+                }
+            } else {
+                evaluateConcurrently(candidates, eventCtx);
+            }
+        } finally {
+            if (!nested) {
+                processLock.unlock();
+            }
+        }
+    }
+
+    private void evaluateConcurrently(Map<Obligation, List<Rule>> candidates, EventContext eventCtx) throws PMException {
+        List<Future<?>> futures = new ArrayList<>();
+        for (Map.Entry<Obligation, List<Rule>> e : candidates.entrySet()) {
+            FutureTask<Void> task = new FutureTask<>(() -> {
+                evaluating.set(true);
+                try {
+                    evaluate(e.getKey(), e.getValue(), eventCtx);
+                } finally {
+                    evaluating.remove();
+                }
+                return null;
+            });
+            obligationExecutor.execute(task);
+            futures.add(task);
+        }
+
+        // wait for every obligation, then report the first one that failed, an unchecked exception before any other
+        RuntimeException unchecked = null;
+        PMException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PMException("interrupted while processing event " + eventCtx.getEvent());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    if (unchecked == null) {
+                        unchecked = (RuntimeException) e.getCause();
+                    }
+                } else if (failure == null) {
+                    failure = e.getCause() instanceof PMException
+                            ? (PMException) e.getCause()
+                            : new PMException(String.valueOf(e.getCause()));
+                }
+            }
+        }
+
+        if (unchecked != null) {
+            throw unchecked;
+        } else if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Process a batch of events from the event pipeline. The events are matched against each obligation in the order
+     * they were queued, and the obligation's responses to all of them are committed in one transaction. An obligation
+     * that fails does not stop the others from being evaluated, and the first failure is thrown once they all have been.
+     */
+    void processBatch(List<EventContext> events) throws PMException {
+        Map<Obligation, List<Map.Entry<EventContext, List<Rule>>>> byObligation = new LinkedHashMap<>();
+        for (EventContext eventCtx : events) {
+            for (Map.Entry<Obligation, List<Rule>> e : ruleIndex.getCandidates(eventCtx).entrySet()) {
+                byObligation.computeIfAbsent(e.getKey(), k -> new ArrayList<>())
+                        .add(Map.entry(eventCtx, e.getValue()));
+            }
+        }
+
+        evaluating.set(true);
+        try {
+            PMException failure = null;
+            for (Map.Entry<Obligation, List<Map.Entry<EventContext, List<Rule>>>> e : byObligation.entrySet()) {
+                try {
+                    evaluate(e.getKey(), e.getValue());
+                } catch (PMException ex) {
+                    if (failure == null) {
+                        failure = ex;
+                    }
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
             }
+        } finally {
+            evaluating.remove();
+        }
+    }
+
+    private void evaluate(Obligation obligation, List<Rule> rules, EventContext eventCtx) throws PMException {
+        evaluate(obligation, List.of(Map.entry(eventCtx, rules)));
+    }
 
-            UserContext definingUser = new UserContext(obligation.getUser());
+    private void evaluate(Obligation obligation, List<Map.Entry<EventContext, List<Rule>>> events) throws PMException {
+        UserContext definingUser = new UserContext(obligation.getUser());
 
-            pdp.withUser(definingUser).runTx((g, p, o) -> {
-                List<Rule> rules = obligation.getRules();
-                for(Rule rule : rules) {
+        pdp.withUser(definingUser).runTx((g, p, o) -> {
+            for (Map.Entry<EventContext, List<Rule>> event : events) {
+                EventContext eventCtx = event.getKey();
+                for(Rule rule : event.getValue()) {
                     if(!eventCtx.matchesPattern(rule.getEventPattern(), g)) {
                         continue;
                     }
@@ -64,7 +242,7 @@ public class EPP {
                     ResponsePattern responsePattern = rule.getResponsePattern();
                     responsePattern.apply(g, p, o, functionEvaluator, eventCtx, rule, obligation.getLabel());
                 }
-            });
-        }
+            }
+        });
     }
 }
@@ -4,10 +4,15 @@ import gov.nist.csd.pm.epp.functions.FunctionExecutor;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public class EPPOptions {
 
     private List<FunctionExecutor> executors;
+    private Executor obligationExecutor;
+    private int eventWorkers;
+    private int eventCapacity;
+    private int eventBatchSize;
 
     public EPPOptions(FunctionExecutor ... executors) {
         this.executors = Arrays.asList(executors);
@@ -16,4 +21,53 @@ public class EPPOptions {
     public List<FunctionExecutor> getExecutors() {
         return executors;
     }
+
+    public Executor getObligationExecutor() {
+        return obligationExecutor;
+    }
+
+    /**
+     * Evaluate the obligations for an event concurrently on the given executor, such as one from
+     * RequestExecutors.newPerTaskExecutor. Each obligation is still evaluated and committed in its own transaction, but
+     * the order in which the obligations commit is no longer the order they were added in. By default, obligations are
+     * evaluated one at a time on the thread that processes the event.
+     *
+     * @param obligationExecutor the executor to evaluate obligations on, or null to evaluate them one at a time.
+     * @return these options.
+     */
+    public EPPOptions setObligationExecutor(Executor obligationExecutor) {
+        this.obligationExecutor = obligationExecutor;
+        return this;
+    }
+
+    public int getEventWorkers() {
+        return eventWorkers;
+    }
+
+    public int getEventCapacity() {
+        return eventCapacity;
+    }
+
+    public int getEventBatchSize() {
+        return eventBatchSize;
+    }
+
+    /**
+     * Process events asynchronously on an EventPipeline instead of on the thread that causes them. Events on the same
+     * target are processed in order, a caller that causes an event waits only if the event's partition is full, and
+     * each obligation's responses to a batch of events are committed in one transaction. Use EPP.awaitEvents to wait
+     * for the obligations to respond to the events caused so far. By default, events are processed on the thread that
+     * causes them.
+     *
+     * @param workers the number of worker threads, or 0 to process events on the thread that causes them.
+     * @param capacity the number of events each worker can queue.
+     * @param batchSize the most events a worker processes in one batch.
+     * @return these options.
+     */
+    public EPPOptions setEventPipeline(int workers, int capacity, int batchSize) {
+        this.eventWorkers = workers;
+        this.eventCapacity = capacity;
+        this.eventBatchSize = batchSize;
+        return this;
+    }
 }
@@ -0,0 +1,211 @@
+package gov.nist.csd.pm.epp;
+
+import gov.nist.csd.pm.epp.events.EventContext;
+import gov.nist.csd.pm.exceptions.PMException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Processes the events of an EPP asynchronously, so the PDP call that caused an event returns before the obligations are
+ * evaluated. Events are partitioned by the name of their target and each partition has a bounded queue and one worker:
+ *
+ * - events on the same target are processed in the order they were submitted, events on different targets can be
+ * processed concurrently.
+ * - submitting an event to a full partition blocks until the partition's worker makes room.
+ * - a worker takes up to maxBatchSize queued events at once, and each obligation's responses to all of them are
+ * committed in one transaction.
+ *
+ * Events caused by the responses of an obligation are processed on the worker as part of the event that caused them.
+ * An error evaluating an obligation does not stop the worker. The first error is reported by the next call to await.
+ */
+public class EventPipeline implements AutoCloseable {
+
+    private final EPP epp;
+    private final int maxBatchSize;
+    private final Partition[] partitions;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition progress = lock.newCondition();
+    private PMException failure;
+    private boolean closed;
+
+    /**
+     * @param epp the EPP to process events with.
+     * @param workers the number of partitions, each with its own worker thread.
+     * @param capacity the number of events each partition can queue before submitting blocks.
+     * @param maxBatchSize the most events a worker processes at once.
+     */
+    EventPipeline(EPP epp, int workers, int capacity, int maxBatchSize) {
+        if (workers <= 0 || capacity <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("the workers, capacity, and batch size of an event pipeline must be positive");
+        }
+
+        this.epp = epp;
+        this.maxBatchSize = maxBatchSize;
+        this.partitions = new Partition[workers];
+        for (int i = 0; i < workers; i++) {
+            partitions[i] = new Partition(i, capacity);
+            partitions[i].worker.start();
+        }
+    }
+
+    /**
+     * Queue an event, waiting for room in its partition if the partition is full.
+     *
+     * @param eventCtx the event.
+     * @throws PMException if the pipeline is closed or the thread is interrupted while waiting.
+     */
+    public void submit(EventContext eventCtx) throws PMException {
+        String target = eventCtx.getTarget() == null ? "" : eventCtx.getTarget().getName();
+        Partition partition = partitions[Math.floorMod(target.hashCode(), partitions.length)];
+
+        // the event is counted under the same lock the worker checks before it stops, so a worker does not stop while an
+        // event accepted before the pipeline closed is still on its way to the queue
+        lock.lock();
+        try {
+            if (closed) {
+                throw new PMException("the event pipeline is closed");
+            }
+            partition.submitted++;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            partition.queue.put(eventCtx);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            partition.done(1);
+            throw new PMException("interrupted while submitting event " + eventCtx.getEvent());
+        }
+    }
+
+    /**
+     * Wait until every event submitted before this call, and every event they caused, has been processed. If
+     * processing an event failed since the last call to await, the first failure is thrown.
+     *
+     * @throws PMException if an event failed to be processed or the thread is interrupted while waiting.
+     */
+    public void await() throws PMException {
+        lock.lock();
+        try {
+            long[] targets = new long[partitions.length];
+            for (int i = 0; i < partitions.length; i++) {
+                targets[i] = partitions[i].submitted;
+            }
+
+            for (int i = 0; i < partitions.length; i++) {
+                while (partitions[i].completed < targets[i]) {
+                    progress.await();
+                }
+            }
+
+            PMException e = failure;
+            failure = null;
+            if (e != null) {
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PMException("interrupted while waiting for events to be processed");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop accepting events and stop the workers once they have processed the events already submitted.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class Partition {
+        private final BlockingQueue<EventContext> queue;
+        private final Thread worker;
+        private long submitted;
+        private long completed;
+
+        Partition(int index, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.worker = new Thread(this::run, "pm-epp-events-" + index);
+            this.worker.setDaemon(true);
+        }
+
+        private void run() {
+            List<EventContext> batch = new ArrayList<>(maxBatchSize);
+            while (true) {
+                EventContext first;
+                try {
+                    first = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    first = null;
+                }
+
+                if (first == null) {
+                    if (isDrained()) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+
+                PMException batchFailure = null;
+                try {
+                    epp.processBatch(batch);
+                } catch (PMException e) {
+                    batchFailure = e;
+                } catch (RuntimeException e) {
+                    batchFailure = new PMException(String.valueOf(e));
+                }
+
+                lock.lock();
+                try {
+                    if (failure == null) {
+                        failure = batchFailure;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                done(batch.size());
+                batch.clear();
+            }
+        }
+
+        /**
+         * @return true if the pipeline is closed and every event submitted to this partition has been processed.
+         */
+        private boolean isDrained() {
+            lock.lock();
+            try {
+                return closed && completed == submitted;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void done(int events) {
+            lock.lock();
+            try {
+                completed += events;
+                progress.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -8,20 +8,33 @@ import gov.nist.csd.pm.pdp.services.UserContext;
 import gov.nist.csd.pm.pip.graph.Graph;
 import gov.nist.csd.pm.pip.graph.model.nodes.Node;
 import gov.nist.csd.pm.pip.obligations.Obligations;
+import gov.nist.csd.pm.pip.obligations.model.*;
+import gov.nist.csd.pm.pip.obligations.model.actions.*;
+import gov.nist.csd.pm.pip.obligations.model.functions.Arg;
 import gov.nist.csd.pm.pip.obligations.model.functions.Function;
 import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
 import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Evaluates the functions in obligations using the registered FunctionExecutors.
+ *
+ * The functions of a rule can be compiled ahead of time with compile. A compiled function has its executor resolved
+ * once, and its result is reused when the executor declares it does not depend on the graph: a call to a function that
+ * depends only on its constant arguments is evaluated when it is compiled, and a call to a function that depends only on
+ * the event and its constant arguments is evaluated once per event. Functions that were not compiled are evaluated as
+ * they are. Compiled functions are recompiled when an executor is added or removed.
+ */
 public class FunctionEvaluator {
 
     private Map<String, FunctionExecutor> funExecs;
+    private final Map<Function, CompiledFunction> compiled;
 
     public FunctionEvaluator() throws PMException {
-        funExecs = new HashMap<>();
+        funExecs = new ConcurrentHashMap<>();
+        compiled = new ConcurrentHashMap<>();
 
         // add the build in functions
         addFunctionExecutor(new ChildOfAssignExecutor());
@@ -39,66 +52,297 @@ public class FunctionEvaluator {
 
     public void addFunctionExecutor(FunctionExecutor executor) {
         this.funExecs.put(executor.getFunctionName(), executor);
+        recompile();
     }
 
     public void removeFunctionExecutor(FunctionExecutor executor) {
         this.funExecs.remove(executor.getFunctionName());
+        recompile();
     }
 
     public FunctionExecutor getFunctionExecutor(String name) throws PMException {
-        if (!funExecs.containsKey(name)) {
+        FunctionExecutor executor = funExecs.get(name);
+        if (executor == null) {
             throw new PMException(name + " is not a recognized function");
         }
-        return funExecs.get(name);
+        return executor;
+    }
+
+    /**
+     * Compile every function in the event and response patterns of a rule, including the functions in their arguments.
+     *
+     * @param rule the rule to compile.
+     * @return the functions that were compiled, to release when the rule is no longer used.
+     */
+    public List<Function> compile(Rule rule) {
+        List<Function> functions = new ArrayList<>();
+        collect(rule, functions);
+        for (Function function : functions) {
+            compiled.put(function, compile(function));
+        }
+        return functions;
+    }
+
+    /**
+     * Release the compiled forms of functions returned by compile.
+     *
+     * @param functions the functions to release.
+     */
+    public void release(List<Function> functions) {
+        for (Function function : functions) {
+            compiled.remove(function);
+        }
+    }
+
+    private void recompile() {
+        compiled.replaceAll((function, compiledFunction) -> compile(function));
     }
 
     public boolean evalBool(Graph graph, Prohibitions prohibitions, Obligations obligations,
                             EventContext eventCtx, Function function) throws PMException {
-        String functionName = function.getName();
-        FunctionExecutor functionExecutor = getFunctionExecutor(functionName);
-
-        return (boolean)functionExecutor.exec(graph, prohibitions, obligations, eventCtx, function, this);
+        return (boolean) eval(graph, prohibitions, obligations, eventCtx, function);
     }
 
     public List evalNodeList(Graph graph, Prohibitions prohibitions, Obligations obligations,
                              EventContext eventCtx, Function function) throws PMException {
-        String functionName = function.getName();
-        FunctionExecutor functionExecutor = getFunctionExecutor(functionName);
-        return (List) functionExecutor.exec(graph, prohibitions, obligations, eventCtx, function, this);
+        return (List) eval(graph, prohibitions, obligations, eventCtx, function);
     }
 
     public Node evalNode(Graph graph, Prohibitions prohibitions, Obligations obligations,
                          EventContext eventCtx, Function function) throws PMException {
-        String functionName = function.getName();
-        FunctionExecutor functionExecutor = getFunctionExecutor(functionName);
-        return (Node)functionExecutor.exec(graph, prohibitions, obligations, eventCtx, function, this);
+        return (Node) eval(graph, prohibitions, obligations, eventCtx, function);
     }
 
     public String evalString(Graph graph, Prohibitions prohibitions, Obligations obligations,
                              EventContext eventCtx, Function function) throws PMException {
-        String functionName = function.getName();
-        FunctionExecutor functionExecutor = getFunctionExecutor(functionName);
-        return (String)functionExecutor.exec(graph, prohibitions, obligations, eventCtx, function, this);
+        return (String) eval(graph, prohibitions, obligations, eventCtx, function);
     }
 
     public String evalLong(Graph graph, Prohibitions prohibitions, Obligations obligations,
                            EventContext eventCtx, Function function) throws PMException {
-        String functionName = function.getName();
-        FunctionExecutor functionExecutor = getFunctionExecutor(functionName);
-        return (String)functionExecutor.exec(graph, prohibitions, obligations, eventCtx, function, this);
+        return (String) eval(graph, prohibitions, obligations, eventCtx, function);
     }
 
     public Map evalMap(Graph graph, Prohibitions prohibitions, Obligations obligations,
                        EventContext eventCtx, Function function) throws PMException {
-        String functionName = function.getName();
-        FunctionExecutor functionExecutor = getFunctionExecutor(functionName);
-        return (Map)functionExecutor.exec(graph, prohibitions, obligations, eventCtx, function, this);
+        return (Map) eval(graph, prohibitions, obligations, eventCtx, function);
     }
 
     public Object evalObject(Graph graph, Prohibitions prohibitions, Obligations obligations,
                              EventContext eventCtx, Function function) throws PMException {
-        String functionName = function.getName();
-        FunctionExecutor functionExecutor = getFunctionExecutor(functionName);
+        return eval(graph, prohibitions, obligations, eventCtx, function);
+    }
+
+    private Object eval(Graph graph, Prohibitions prohibitions, Obligations obligations,
+                        EventContext eventCtx, Function function) throws PMException {
+        CompiledFunction compiledFunction = compiled.get(function);
+        if (compiledFunction != null) {
+            return compiledFunction.eval(graph, prohibitions, obligations, eventCtx);
+        }
+
+        FunctionExecutor functionExecutor = getFunctionExecutor(function.getName());
         return functionExecutor.exec(graph, prohibitions, obligations, eventCtx, function, this);
     }
+
+    private CompiledFunction compile(Function function) {
+        FunctionExecutor executor = funExecs.get(function.getName());
+        if (executor == null) {
+            // evaluating the function reports the missing executor
+            return new CompiledFunction(function, null, false, null, null);
+        }
+
+        FunctionExecutor.Dependency dependency = executor.getDependency();
+        if (dependency == FunctionExecutor.Dependency.GRAPH || !hasConstantArgs(function)) {
+            return new CompiledFunction(function, executor, false, null, null);
+        } else if (dependency == FunctionExecutor.Dependency.EVENT) {
+            List<Object> key = new ArrayList<>();
+            key.add(function.getName());
+            if (function.getArgs() != null) {
+                for (Arg arg : function.getArgs()) {
+                    key.add(arg.getValue());
+                }
+            }
+            return new CompiledFunction(function, executor, false, null, key);
+        }
+
+        try {
+            Object value = executor.exec(null, null, null, null, function, this);
+            return new CompiledFunction(function, executor, true, value, null);
+        } catch (PMException | RuntimeException e) {
+            // evaluating the function reports the error
+            return new CompiledFunction(function, executor, false, null, null);
+        }
+    }
+
+    private boolean hasConstantArgs(Function function) {
+        if (function.getArgs() == null) {
+            return true;
+        }
+
+        for (Arg arg : function.getArgs()) {
+            if (arg.getFunction() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void collect(Rule rule, List<Function> functions) {
+        EventPattern eventPattern = rule.getEventPattern();
+        if (eventPattern != null && eventPattern.getTarget() != null) {
+            collect(eventPattern.getTarget().getPolicyElements(), functions);
+            collect(eventPattern.getTarget().getContainers(), functions);
+        }
+
+        ResponsePattern responsePattern = rule.getResponsePattern();
+        if (responsePattern == null) {
+            return;
+        }
+
+        collect(responsePattern.getCondition(), responsePattern.getNegatedCondition(), functions);
+        for (Action action : responsePattern.getActions()) {
+            if (action == null) {
+                continue;
+            }
+
+            collect(action.getCondition(), action.getNegatedCondition(), functions);
+            if (action instanceof AssignAction) {
+                collect((AssignAction) action, functions);
+            } else if (action instanceof CreateAction) {
+                List<CreateAction.CreateNode> createNodes = ((CreateAction) action).getCreateNodesList();
+                if (createNodes != null) {
+                    for (CreateAction.CreateNode createNode : createNodes) {
+                        collect(createNode.getWhere(), functions);
+                    }
+                }
+            } else if (action instanceof DeleteAction) {
+                DeleteAction deleteAction = (DeleteAction) action;
+                collect(deleteAction.getNodes(), functions);
+                collect(deleteAction.getAssignments(), functions);
+                if (deleteAction.getAssociations() != null) {
+                    for (GrantAction grantAction : deleteAction.getAssociations()) {
+                        collect(grantAction.getSubject(), functions);
+                        collect(grantAction.getTarget(), functions);
+                    }
+                }
+            } else if (action instanceof DenyAction) {
+                DenyAction denyAction = (DenyAction) action;
+                collect(denyAction.getSubject(), functions);
+                if (denyAction.getTarget() != null && denyAction.getTarget().getContainers() != null) {
+                    for (DenyAction.Target.Container container : denyAction.getTarget().getContainers()) {
+                        collect(container.getFunction(), functions);
+                    }
+                }
+            } else if (action instanceof GrantAction) {
+                collect(((GrantAction) action).getSubject(), functions);
+                collect(((GrantAction) action).getTarget(), functions);
+            } else if (action instanceof FunctionAction) {
+                collect(((FunctionAction) action).getFunction(), functions);
+            }
+        }
+    }
+
+    private static void collect(Condition condition, NegatedCondition negatedCondition, List<Function> functions) {
+        if (condition != null && condition.getCondition() != null) {
+            for (Function function : condition.getCondition()) {
+                collect(function, functions);
+            }
+        }
+        if (negatedCondition != null && negatedCondition.getCondition() != null) {
+            for (Function function : negatedCondition.getCondition()) {
+                collect(function, functions);
+            }
+        }
+    }
+
+    private static void collect(AssignAction assignAction, List<Function> functions) {
+        if (assignAction == null || assignAction.getAssignments() == null) {
+            return;
+        }
+
+        for (AssignAction.Assignment assignment : assignAction.getAssignments()) {
+            collect(assignment.getWhat(), functions);
+            collect(assignment.getWhere(), functions);
+        }
+    }
+
+    private static void collect(List<EvrNode> nodes, List<Function> functions) {
+        if (nodes == null) {
+            return;
+        }
+
+        for (EvrNode node : nodes) {
+            collect(node, functions);
+        }
+    }
+
+    private static void collect(EvrNode node, List<Function> functions) {
+        if (node != null) {
+            collect(node.getFunction(), functions);
+        }
+    }
+
+    /**
+     * Add a function and the functions in its arguments.
+     */
+    private static void collect(Function function, List<Function> functions) {
+        if (function == null) {
+            return;
+        }
+
+        if (function.getArgs() != null) {
+            for (Arg arg : function.getArgs()) {
+                collect(arg.getFunction(), functions);
+            }
+        }
+        functions.add(function);
+    }
+
+    /**
+     * A function with its executor resolved. A constant function holds its value, and an event scoped function holds
+     * the key its result is stored under in the event.
+     */
+    private class CompiledFunction {
+        private final Function function;
+        private final FunctionExecutor executor;
+        private final boolean constant;
+        private final Object value;
+        private final List<Object> eventKey;
+
+        CompiledFunction(Function function, FunctionExecutor executor, boolean constant, Object value,
+                         List<Object> eventKey) {
+            this.function = function;
+            this.executor = executor;
+            this.constant = constant;
+            this.value = value;
+            this.eventKey = eventKey;
+        }
+
+        Object eval(Graph graph, Prohibitions prohibitions, Obligations obligations,
+                    EventContext eventCtx) throws PMException {
+            if (executor == null) {
+                return getFunctionExecutor(function.getName())
+                        .exec(graph, prohibitions, obligations, eventCtx, function, FunctionEvaluator.this);
+            } else if (constant) {
+                return copy(value);
+            } else if (eventKey != null && eventCtx != null) {
+                return eventCtx.getFunctionResult(graph, eventKey,
+                        () -> executor.exec(graph, prohibitions, obligations, eventCtx, function, FunctionEvaluator.this));
+            }
+
+            return executor.exec(graph, prohibitions, obligations, eventCtx, function, FunctionEvaluator.this);
+        }
+
+        /**
+         * Callers may modify the maps and lists functions return, so each caller gets its own copy of a constant.
+         */
+        private Object copy(Object value) {
+            if (value instanceof Map) {
+                return new HashMap<>((Map<?, ?>) value);
+            } else if (value instanceof List) {
+                return new ArrayList<>((List<?>) value);
+            }
+            return value;
+        }
+    }
 }
@@ -0,0 +1,299 @@
+package gov.nist.csd.pm.epp;
+
+import gov.nist.csd.pm.epp.events.EventContext;
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.pip.obligations.Obligations;
+import gov.nist.csd.pm.pip.obligations.ObligationsListener;
+import gov.nist.csd.pm.pip.obligations.model.*;
+import gov.nist.csd.pm.pip.obligations.model.functions.Function;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An index of the rules of the enabled obligations by the event operations they match. For an event, only the rules
+ * whose pattern lists the event's operation, or lists no operations, are considered, and a rule with target policy
+ * elements is only considered if the target of the event is one of them.
+ *
+ * These checks only discard rules that cannot match whatever the graph holds, so every rule returned still needs to be
+ * matched against the event with EventContext.matchesPattern. Target containers and subjects depend on the ancestors
+ * of the target and user, which the responses of earlier rules can change, so they are only checked when the rule is
+ * matched.
+ *
+ * The index is loaded from the obligations on first use. When it is registered as a listener of the obligations, only
+ * the obligations that changed are reloaded. Otherwise, it is rebuilt when the list returned by Obligations.getAll is
+ * a different list than the one it was built from, once the same list has been returned twice in a row. Until then,
+ * and for stores that return a new list every time, the obligations are scanned for each event without compiling
+ * their functions. If the index has a FunctionEvaluator, the functions of each indexed rule are compiled when the rule
+ * is indexed and released when it is removed.
+ */
+public class RuleIndex implements ObligationsListener {
+
+    private final Obligations obligations;
+    private final boolean tracked;
+    private final FunctionEvaluator functionEvaluator;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, List<IndexedRule>> byLabel = new LinkedHashMap<>();
+    private final Map<String, Set<IndexedRule>> byOperation = new HashMap<>();
+    private final Set<IndexedRule> anyOperation = new LinkedHashSet<>();
+    private final Set<String> changed = new HashSet<>();
+    private boolean loaded;
+    private long nextOrder;
+    private List<Obligation> indexedAll;
+    private List<Obligation> lastAll;
+
+    /**
+     * @param obligations the obligations to index.
+     * @param tracked true if the index will be notified of every change to the obligations.
+     */
+    public RuleIndex(Obligations obligations, boolean tracked) {
+        this(obligations, tracked, null);
+    }
+
+    /**
+     * @param obligations the obligations to index.
+     * @param tracked true if the index will be notified of every change to the obligations.
+     * @param functionEvaluator the evaluator to compile the functions of the indexed rules with, or null to not
+     *                          compile them.
+     */
+    public RuleIndex(Obligations obligations, boolean tracked, FunctionEvaluator functionEvaluator) {
+        this.obligations = obligations;
+        this.tracked = tracked;
+        this.functionEvaluator = functionEvaluator;
+    }
+
+    @Override
+    public void obligationChanged(String label) {
+        lock.lock();
+        try {
+            changed.add(label);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the rules that could match the given event, grouped by obligation in the order the obligations were indexed.
+     * Within an obligation, the rules are in the order they are defined in.
+     *
+     * @param eventCtx the event.
+     * @return the obligations with at least one rule that could match the event, and those rules.
+     * @throws PMException if there is an error loading the obligations.
+     */
+    public Map<Obligation, List<Rule>> getCandidates(EventContext eventCtx) throws PMException {
+        List<IndexedRule> rules = new ArrayList<>();
+        lock.lock();
+        try {
+            List<Obligation> scan = refresh();
+            if (scan != null) {
+                return scan(scan, eventCtx);
+            }
+
+            Set<IndexedRule> forOperation = byOperation.get(eventCtx.getEvent());
+            if (forOperation != null) {
+                rules.addAll(forOperation);
+            }
+            rules.addAll(anyOperation);
+        } finally {
+            lock.unlock();
+        }
+        rules.sort(Comparator.comparingLong(r -> r.order));
+
+        Map<Obligation, List<Rule>> candidates = new LinkedHashMap<>();
+        for (IndexedRule rule : rules) {
+            if (rule.targetMayMatch(eventCtx)) {
+                candidates.computeIfAbsent(rule.obligation, k -> new ArrayList<>()).add(rule.rule);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Bring the index up to date with the obligations.
+     *
+     * @return the obligations to scan for this event if the index cannot be used for it, otherwise null.
+     */
+    private List<Obligation> refresh() throws PMException {
+        if (!tracked) {
+            List<Obligation> all = obligations.getAll();
+            if (loaded && all == indexedAll) {
+                return null;
+            }
+
+            // a list seen for the first time may never be returned again, so it is only indexed once it is
+            if (all != lastAll) {
+                lastAll = all;
+                return all;
+            }
+
+            rebuild(all);
+            indexedAll = all;
+            return null;
+        }
+
+        if (!loaded) {
+            rebuild(obligations.getAll());
+            return null;
+        }
+
+        for (String label : changed) {
+            List<IndexedRule> removed = byLabel.remove(label);
+            if (removed != null) {
+                for (IndexedRule rule : removed) {
+                    unindex(rule);
+                    release(rule);
+                }
+            }
+
+            Obligation obligation = obligations.get(label);
+            if (obligation != null) {
+                index(obligation);
+            }
+        }
+        changed.clear();
+        return null;
+    }
+
+    private void rebuild(List<Obligation> all) {
+        for (List<IndexedRule> rules : byLabel.values()) {
+            for (IndexedRule rule : rules) {
+                release(rule);
+            }
+        }
+        byLabel.clear();
+        byOperation.clear();
+        anyOperation.clear();
+        changed.clear();
+        for (Obligation obligation : all) {
+            index(obligation);
+        }
+        loaded = true;
+    }
+
+    /**
+     * Find the candidates for an event by going through every rule of the given obligations.
+     */
+    private Map<Obligation, List<Rule>> scan(List<Obligation> all, EventContext eventCtx) {
+        Map<Obligation, List<Rule>> candidates = new LinkedHashMap<>();
+        for (Obligation obligation : all) {
+            if (!obligation.isEnabled()) {
+                continue;
+            }
+
+            for (Rule rule : obligation.getRules()) {
+                EventPattern pattern = rule.getEventPattern();
+                if (pattern == null || !pattern.getClass().equals(EventPattern.class) ||
+                        (pattern.getOperations() != null && !pattern.getOperations().contains(eventCtx.getEvent())) ||
+                        !new IndexedRule(obligation, rule, 0).targetMayMatch(eventCtx)) {
+                    continue;
+                }
+
+                candidates.computeIfAbsent(obligation, k -> new ArrayList<>()).add(rule);
+            }
+        }
+        return candidates;
+    }
+
+    private void index(Obligation obligation) {
+        if (!obligation.isEnabled()) {
+            return;
+        }
+
+        List<IndexedRule> indexed = new ArrayList<>();
+        for (Rule rule : obligation.getRules()) {
+            EventPattern pattern = rule.getEventPattern();
+            // only an EventPattern can match a built in event
+            if (pattern == null || !pattern.getClass().equals(EventPattern.class)) {
+                continue;
+            }
+
+            IndexedRule indexedRule = new IndexedRule(obligation, rule, nextOrder++);
+            if (functionEvaluator != null) {
+                indexedRule.functions = functionEvaluator.compile(rule);
+            }
+            indexed.add(indexedRule);
+            if (pattern.getOperations() == null) {
+                anyOperation.add(indexedRule);
+            } else {
+                for (String op : pattern.getOperations()) {
+                    byOperation.computeIfAbsent(op, k -> new LinkedHashSet<>()).add(indexedRule);
+                }
+            }
+        }
+        byLabel.put(obligation.getLabel(), indexed);
+    }
+
+    private void release(IndexedRule rule) {
+        if (functionEvaluator != null && rule.functions != null) {
+            functionEvaluator.release(rule.functions);
+        }
+    }
+
+    private void unindex(IndexedRule rule) {
+        anyOperation.remove(rule);
+        List<String> ops = rule.rule.getEventPattern().getOperations();
+        if (ops == null) {
+            return;
+        }
+
+        for (String op : ops) {
+            Set<IndexedRule> rules = byOperation.get(op);
+            if (rules != null) {
+                rules.remove(rule);
+                if (rules.isEmpty()) {
+                    byOperation.remove(op);
+                }
+            }
+        }
+    }
+
+    private static class IndexedRule {
+        private final Obligation obligation;
+        private final Rule rule;
+        private final long order;
+        private final Set<String> policyElements;
+        private List<Function> functions;
+
+        IndexedRule(Obligation obligation, Rule rule, long order) {
+            this.obligation = obligation;
+            this.rule = rule;
+            this.order = order;
+
+            Target target = rule.getEventPattern().getTarget();
+            this.policyElements = target == null ? null : names(target.getPolicyElements());
+        }
+
+        /**
+         * The names of the nodes, or null if any of them is computed by a function and cannot be indexed.
+         */
+        private static Set<String> names(List<EvrNode> nodes) {
+            if (nodes == null) {
+                return null;
+            }
+
+            Set<String> names = new HashSet<>();
+            for (EvrNode node : nodes) {
+                if (node.getName() == null) {
+                    return null;
+                }
+                names.add(node.getName());
+            }
+            return names;
+        }
+
+        /**
+         * A rule that lists target policy elements can only match an event on one of them. Target containers are left
+         * to the full match.
+         */
+        boolean targetMayMatch(EventContext eventCtx) {
+            Target target = rule.getEventPattern().getTarget();
+            if (target == null || target.getContainers() != null || target.getPolicyElements() == null) {
+                return true;
+            }
+
+            return policyElements == null || policyElements.isEmpty() || eventCtx.getTarget() == null ||
+                    policyElements.contains(eventCtx.getTarget().getName());
+        }
+    }
+}
@@ -3,15 +3,12 @@ package gov.nist.csd.pm.epp.events;
 import gov.nist.csd.pm.exceptions.PMException;
 import gov.nist.csd.pm.pdp.services.UserContext;
 import gov.nist.csd.pm.pip.graph.Graph;
-import gov.nist.csd.pm.pip.graph.dag.searcher.DepthFirstSearcher;
-import gov.nist.csd.pm.pip.graph.dag.searcher.Direction;
-import gov.nist.csd.pm.pip.graph.dag.visitor.Visitor;
 import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import gov.nist.csd.pm.pip.memory.MemGraph;
 import gov.nist.csd.pm.pip.obligations.model.*;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.UA;
 
@@ -28,6 +25,9 @@ public class EventContext {
     private UserContext userCtx;
     private String event;
     private Node   target;
+    private final Map<Graph, Map<String, Set<String>>> ancestors = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Map<Graph, Map<List<Object>, Optional<Object>>> functionResults =
+            Collections.synchronizedMap(new IdentityHashMap<>());
 
     public EventContext(UserContext userCtx, String event, Node target) {
         this.userCtx = userCtx;
@@ -96,32 +96,21 @@ public class EventContext {
             return true;
         }
 
-        DepthFirstSearcher dfs = new DepthFirstSearcher(graph);
-
         // check each user in the anyUser list
         // there can be users and user attributes
+        Set<String> userAncestors = null;
         for (String u : anyUser) {
-            Node anyUserNode = graph.getNode(u);
-
             // if the node in anyUser == the user than return true
-            if (anyUserNode.getName().equals(userNode.getName())) {
+            if (u.equals(userNode.getName())) {
                 return true;
             }
 
-            // if the anyUser is not an UA, move to the next one
-            if (anyUserNode.getType() != UA) {
-                continue;
+            if (userAncestors == null) {
+                userAncestors = getAncestors(graph, userNode.getName());
             }
 
-            Set<String> nodes = new HashSet<>();
-            Visitor visitor = node -> {
-                if (node.getName().equals(userNode.getName())) {
-                    nodes.add(node.getName());
-                }
-            };
-            dfs.traverse(userNode, (c, p) -> {}, visitor, Direction.PARENTS);
-
-            if (nodes.contains(anyUserNode.getName())) {
+            // the user is in the anyUser node if it is an UA the user is contained in
+            if (userAncestors.contains(u) && graph.getNode(u).getType() == UA) {
                 return true;
             }
         }
@@ -150,12 +139,11 @@ public class EventContext {
             }
 
             // check that target is contained in any container
-            Set<Node> containers = getContainersOf(graph, target.getName());
+            Set<String> containers = getAncestors(graph, target.getName());
             for(EvrNode evrContainer : matchTarget.getContainers()) {
-                for(Node contNode : containers) {
-                    if (nodesMatch(evrContainer, contNode)) {
-                        return true;
-                    }
+                if (containers.contains(evrContainer.getName()) &&
+                        nodesMatch(evrContainer, graph.getNode(evrContainer.getName()))) {
+                    return true;
                 }
             }
 
@@ -178,14 +166,85 @@ public class EventContext {
         return false;
     }
 
-    private Set<Node> getContainersOf(Graph graph, String name) throws PMException {
-        Set<Node> nodes = new HashSet<>();
-        Set<String> parents = graph.getParents(name);
-        for (String parent : parents) {
-            nodes.add(graph.getNode(parent));
-            nodes.addAll(getContainersOf(graph, parent));
+    /**
+     * Get the ancestors of a node in the given graph. The ancestors are computed once per graph until a response to
+     * this event changes the policy, so every rule matched against the event in between shares them. If the graph is a
+     * MemGraph with a closure index, the index is used instead.
+     *
+     * @param graph the graph to read the ancestors from.
+     * @param name the name of the node.
+     * @return the names of the nodes the node is directly or indirectly assigned to, not including the node itself.
+     * @throws PMException if the node or one of its ancestors does not exist in the graph.
+     */
+    public Set<String> getAncestors(Graph graph, String name) throws PMException {
+        if (graph instanceof MemGraph && ((MemGraph) graph).getClosureIndex() != null) {
+            if (!graph.exists(name)) {
+                throw new PMException(String.format("node %s does not exist in the graph", name));
+            }
+            return ((MemGraph) graph).getClosureIndex().getAncestors(name);
+        }
+
+        Map<String, Set<String>> graphAncestors = ancestors.computeIfAbsent(graph, k -> new ConcurrentHashMap<>());
+        Set<String> nodeAncestors = graphAncestors.get(name);
+        if (nodeAncestors != null) {
+            return nodeAncestors;
+        }
+
+        // each node is expanded once, so diamonds are not walked twice and cycles terminate
+        nodeAncestors = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(name);
+        while (!queue.isEmpty()) {
+            for (String parent : graph.getParents(queue.poll())) {
+                if (nodeAncestors.add(parent)) {
+                    queue.add(parent);
+                }
+            }
+        }
+
+        nodeAncestors = Collections.unmodifiableSet(nodeAncestors);
+        graphAncestors.put(name, nodeAncestors);
+        return nodeAncestors;
+    }
+
+    /**
+     * Forget the ancestors computed so far. Called after a response to this event is applied, since it may have changed
+     * the assignments they were computed from.
+     */
+    public void clearAncestors() {
+        ancestors.clear();
+    }
+
+    /**
+     * Forget the function results computed so far. Called after a response to this event is applied, along with
+     * clearAncestors.
+     */
+    public void clearFunctionResults() {
+        functionResults.clear();
+    }
+
+    /**
+     * Get the result of a function that depends only on this event and its arguments. The function is called the first
+     * time a result is requested with the given graph and key, and the result is reused for the rest of the event.
+     *
+     * @param graph the graph the function is evaluated against.
+     * @param key the name and arguments of the function.
+     * @param function the function.
+     * @return the result of the function.
+     * @throws PMException if the function fails.
+     */
+    public Object getFunctionResult(Graph graph, List<Object> key, FunctionCall function) throws PMException {
+        Map<List<Object>, Optional<Object>> results = functionResults.computeIfAbsent(graph, k -> new ConcurrentHashMap<>());
+        Optional<Object> result = results.get(key);
+        if (result == null) {
+            result = Optional.ofNullable(function.call());
+            results.put(key, result);
         }
-        return nodes;
+        return result.orElse(null);
+    }
+
+    public interface FunctionCall {
+        Object call() throws PMException;
     }
 
     private boolean nodesMatch(EvrNode evrNode, Node node) {
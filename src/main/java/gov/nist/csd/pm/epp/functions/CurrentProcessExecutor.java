@@ -20,6 +20,11 @@ public class CurrentProcessExecutor implements FunctionExecutor {
         return 0;
     }
 
+    @Override
+    public Dependency getDependency() {
+        return Dependency.EVENT;
+    }
+
     @Override
     public String exec(Graph graph, Prohibitions prohibitions, Obligations obligations, EventContext eventCtx, Function function, FunctionEvaluator functionEvaluator) throws PMException {
         return eventCtx.getUserCtx().getProcess();
@@ -22,6 +22,11 @@ public class CurrentTargetExecutor implements FunctionExecutor {
         return 0;
     }
 
+    @Override
+    public Dependency getDependency() {
+        return Dependency.EVENT;
+    }
+
     @Override
     public Node exec(Graph graph, Prohibitions prohibitions, Obligations obligations, EventContext eventCtx, Function function, FunctionEvaluator functionEvaluator) throws PMException {
         return eventCtx.getTarget();
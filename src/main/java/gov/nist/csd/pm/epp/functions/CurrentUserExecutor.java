@@ -22,6 +22,12 @@ public class CurrentUserExecutor implements FunctionExecutor {
         return 0;
     }
 
+    @Override
+    public Dependency getDependency() {
+        // the user's node is read from the graph
+        return Dependency.GRAPH;
+    }
+
     @Override
     public Node exec(Graph graph, Prohibitions prohibitions, Obligations obligations, EventContext eventCtx, Function function, FunctionEvaluator functionEvaluator) throws PMException {
         return graph.getNode(eventCtx.getUserCtx().getUser());
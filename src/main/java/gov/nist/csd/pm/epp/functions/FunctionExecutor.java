@@ -37,4 +37,31 @@ public interface FunctionExecutor {
      */
     Object exec(Graph graph, Prohibitions prohibitions, Obligations obligations,
                 EventContext eventCtx, Function function, FunctionEvaluator functionEvaluator) throws PMException;
-}
\ No newline at end of file
+
+    /**
+     * What the result of the function depends on besides its arguments. The FunctionEvaluator uses this to evaluate a
+     * function in an obligation once, when the obligation is indexed, or once per event, instead of every time a
+     * response uses it. By default the function is evaluated every time.
+     * @return what the result of the function depends on.
+     */
+    default Dependency getDependency() {
+        return Dependency.GRAPH;
+    }
+
+    enum Dependency {
+        /**
+         * The result depends only on the arguments, so a call with constant arguments is evaluated once. The function
+         * is called with a null graph, prohibitions, obligations, and event.
+         */
+        NONE,
+        /**
+         * The result depends only on the arguments and the event being processed, so a call with constant arguments is
+         * evaluated once per event.
+         */
+        EVENT,
+        /**
+         * The result can depend on the state of the graph, prohibitions, or obligations.
+         */
+        GRAPH
+    }
+}
@@ -25,6 +25,11 @@ public class ToPropertiesExecutor implements FunctionExecutor {
         return 0;
     }
 
+    @Override
+    public Dependency getDependency() {
+        return Dependency.NONE;
+    }
+
     @Override
     public Map<String, String> exec(Graph graph, Prohibitions prohibitions, Obligations obligations, EventContext eventCtx, Function function, FunctionEvaluator functionEvaluator) throws PMException {
         Map<String, String> props = new HashMap<>();
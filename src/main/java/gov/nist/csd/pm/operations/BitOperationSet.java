@@ -0,0 +1,147 @@
+package gov.nist.csd.pm.operations;
+
+import java.util.Arrays;
+
+/**
+ * A set of operations stored as a bitset of the operations' indexes in an OperationRegistry. Unions, intersections, and
+ * differences of two sets are word by word ORs, ANDs, and AND NOTs. A BitOperationSet only has meaning together with the
+ * registry that produced it.
+ *
+ * This class is not thread safe.
+ */
+public class BitOperationSet {
+
+    private long[] words;
+
+    public BitOperationSet() {
+        this.words = new long[1];
+    }
+
+    public BitOperationSet(BitOperationSet ops) {
+        this.words = ops.words.clone();
+    }
+
+    public void add(int index) {
+        int word = index >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(words.length * 2, word + 1));
+        }
+        words[word] |= 1L << index;
+    }
+
+    public void remove(int index) {
+        int word = index >>> 6;
+        if (word < words.length) {
+            words[word] &= ~(1L << index);
+        }
+    }
+
+    public boolean contains(int index) {
+        int word = index >>> 6;
+        return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    /**
+     * Add every operation in the given set to this set.
+     */
+    public void addAll(BitOperationSet ops) {
+        if (ops.words.length > words.length) {
+            words = Arrays.copyOf(words, ops.words.length);
+        }
+        for (int i = 0; i < ops.words.length; i++) {
+            words[i] |= ops.words[i];
+        }
+    }
+
+    /**
+     * Remove every operation from this set that is not in the given set.
+     */
+    public void retainAll(BitOperationSet ops) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= i < ops.words.length ? ops.words[i] : 0;
+        }
+    }
+
+    /**
+     * Remove every operation in the given set from this set.
+     */
+    public void removeAll(BitOperationSet ops) {
+        int length = Math.min(words.length, ops.words.length);
+        for (int i = 0; i < length; i++) {
+            words[i] &= ~ops.words[i];
+        }
+    }
+
+    public boolean containsAll(BitOperationSet ops) {
+        for (int i = 0; i < ops.words.length; i++) {
+            long word = i < words.length ? words[i] : 0;
+            if ((ops.words[i] & ~word) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param from the index to start at.
+     * @return the index of the first operation in the set at or after from, or -1 if there is none.
+     */
+    public int nextIndex(int from) {
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return word * 64 + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BitOperationSet)) {
+            return false;
+        }
+
+        BitOperationSet ops = (BitOperationSet) o;
+        int length = Math.max(words.length, ops.words.length);
+        for (int i = 0; i < length; i++) {
+            long a = i < words.length ? words[i] : 0;
+            long b = i < ops.words.length ? ops.words[i] : 0;
+            if (a != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // trailing empty words do not affect the hash so equal sets of different lengths hash the same
+        long h = 1234;
+        for (int i = words.length; --i >= 0; ) {
+            h ^= words[i] * (i + 1);
+        }
+        return (int) ((h >> 32) ^ h);
+    }
+}
@@ -0,0 +1,116 @@
+package gov.nist.csd.pm.operations;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static gov.nist.csd.pm.operations.Operations.*;
+
+/**
+ * Interns operation names as small integer indexes so sets of operations can be stored as BitOperationSets. The
+ * registry starts with the admin operations, the special operations *, *a, and *r, and any given resource operations.
+ * Operations defined later, such as new resource operations, must be registered explicitly, and an operation's index
+ * never changes. Other operation names are not interned, so names read from the policy cannot grow the registry.
+ */
+public class OperationRegistry {
+
+    /**
+     * The indexes of the special operations, which are the same in every registry.
+     */
+    public static final int ALL_OPS_INDEX = 0;
+    public static final int ALL_ADMIN_OPS_INDEX = 1;
+    public static final int ALL_RESOURCE_OPS_INDEX = 2;
+
+    /**
+     * The index returned for an operation that is not interned.
+     */
+    public static final int NOT_INTERNED = -1;
+
+    private final Map<String, Integer> indexes;
+    private volatile String[] operations;
+
+    public OperationRegistry(Collection<String> resourceOps) {
+        this.indexes = new ConcurrentHashMap<>();
+        this.operations = new String[0];
+
+        register(ALL_OPS);
+        register(ALL_ADMIN_OPS);
+        register(ALL_RESOURCE_OPS);
+        for (String op : ADMIN_OPS) {
+            register(op);
+        }
+        if (resourceOps != null) {
+            for (String op : resourceOps) {
+                register(op);
+            }
+        }
+    }
+
+    /**
+     * Intern an admin or resource operation.
+     *
+     * @param op the operation.
+     * @return the index of the operation, registering it if it is not already known.
+     */
+    public int register(String op) {
+        Integer index = indexes.get(op);
+        if (index != null) {
+            return index;
+        }
+
+        synchronized (this) {
+            index = indexes.get(op);
+            if (index != null) {
+                return index;
+            }
+
+            String[] ops = Arrays.copyOf(operations, operations.length + 1);
+            ops[ops.length - 1] = op;
+            operations = ops;
+            indexes.put(op, ops.length - 1);
+            return ops.length - 1;
+        }
+    }
+
+    /**
+     * @param op the operation.
+     * @return the index of the operation, or NOT_INTERNED if it is not registered.
+     */
+    public int indexOf(String op) {
+        Integer index = indexes.get(op);
+        return index == null ? NOT_INTERNED : index;
+    }
+
+    public String getOperation(int index) {
+        return operations[index];
+    }
+
+    public int size() {
+        return operations.length;
+    }
+
+    /**
+     * Convert the operations to a BitOperationSet. Operations that are not interned are left out, since they are neither
+     * admin nor resource operations and are never part of a decision.
+     */
+    public BitOperationSet toBits(Collection<String> ops) {
+        BitOperationSet bits = new BitOperationSet();
+        for (String op : ops) {
+            int index = indexOf(op);
+            if (index != NOT_INTERNED) {
+                bits.add(index);
+            }
+        }
+        return bits;
+    }
+
+    public OperationSet toOperationSet(BitOperationSet bits) {
+        String[] ops = operations;
+        OperationSet set = new OperationSet();
+        for (int i = bits.nextIndex(0); i >= 0; i = bits.nextIndex(i + 1)) {
+            set.add(ops[i]);
+        }
+        return set;
+    }
+}
@@ -4,6 +4,7 @@ import gov.nist.csd.pm.exceptions.PMException;
 import gov.nist.csd.pm.operations.OperationSet;
 import gov.nist.csd.pm.pap.policies.SuperPolicy;
 import gov.nist.csd.pm.common.FunctionalEntity;
+import gov.nist.csd.pm.common.tx.TxDelegate;
 import gov.nist.csd.pm.pip.graph.Graph;
 import gov.nist.csd.pm.pip.graph.model.nodes.Node;
 import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
@@ -18,7 +19,7 @@ import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
 import static gov.nist.csd.pm.pip.graph.model.nodes.Properties.NAMESPACE_PROPERTY;
 import static gov.nist.csd.pm.pip.graph.model.nodes.Properties.REP_PROPERTY;
 
-public class GraphAdmin implements Graph {
+public class GraphAdmin implements Graph, TxDelegate {
 
     private FunctionalEntity pip;
     private Graph graph;
@@ -31,6 +32,11 @@ public class GraphAdmin implements Graph {
         this.superPolicy.configure(this.graph);
     }
 
+    @Override
+    public Graph getDelegate() {
+        return graph;
+    }
+
     public SuperPolicy getSuperPolicy() {
         return superPolicy;
     }
@@ -291,4 +297,9 @@ public class GraphAdmin implements Graph {
     public void fromJson(String s) throws PMException {
         graph.fromJson(s);
     }
+
+    @Override
+    public Graph snapshot() throws PMException {
+        return graph.snapshot();
+    }
 }
@@ -2,22 +2,47 @@ package gov.nist.csd.pm.pap;
 
 import gov.nist.csd.pm.exceptions.PMException;
 import gov.nist.csd.pm.common.FunctionalEntity;
+import gov.nist.csd.pm.common.tx.TxDelegate;
 import gov.nist.csd.pm.pip.obligations.Obligations;
+import gov.nist.csd.pm.pip.obligations.ObligationsListener;
 import gov.nist.csd.pm.pip.obligations.model.Obligation;
 
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-public class ObligationsAdmin implements Obligations {
+public class ObligationsAdmin implements Obligations, TxDelegate {
 
     private Obligations obligations;
+    private List<ObligationsListener> listeners;
 
     public ObligationsAdmin(FunctionalEntity pip) throws PMException {
         this.obligations = pip.getObligations();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    @Override
+    public Obligations getDelegate() {
+        return obligations;
+    }
+
+    public void addListener(ObligationsListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ObligationsListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners(String label) {
+        for (ObligationsListener listener : listeners) {
+            listener.obligationChanged(label);
+        }
     }
 
     @Override
     public void add(Obligation obligation, boolean enable) throws PMException {
         obligations.add(obligation, enable);
+        notifyListeners(obligation.getLabel());
     }
 
     @Override
@@ -33,16 +58,22 @@ public class ObligationsAdmin implements Obligations {
     @Override
     public void update(String label, Obligation obligation) throws PMException {
         obligations.update(label, obligation);
+        notifyListeners(label);
+        if (obligation.getLabel() != null && !obligation.getLabel().equals(label)) {
+            notifyListeners(obligation.getLabel());
+        }
     }
 
     @Override
     public void delete(String label) throws PMException {
         obligations.delete(label);
+        notifyListeners(label);
     }
 
     @Override
     public void setEnable(String label, boolean enabled) throws PMException {
         obligations.setEnable(label, enabled);
+        notifyListeners(label);
     }
 
     @Override
@@ -2,12 +2,13 @@ package gov.nist.csd.pm.pap;
 
 import gov.nist.csd.pm.exceptions.PMException;
 import gov.nist.csd.pm.common.FunctionalEntity;
+import gov.nist.csd.pm.common.tx.TxDelegate;
 import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
 import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
 
 import java.util.List;
 
-public class ProhibitionsAdmin implements Prohibitions {
+public class ProhibitionsAdmin implements Prohibitions, TxDelegate {
 
     private Prohibitions prohibitions;
 
@@ -15,6 +16,11 @@ public class ProhibitionsAdmin implements Prohibitions {
         this.prohibitions = pip.getProhibitions();
     }
 
+    @Override
+    public Prohibitions getDelegate() {
+        return prohibitions;
+    }
+
     @Override
     public void add(Prohibition prohibition) throws PMException {
         String name = prohibition.getName();
@@ -16,6 +16,10 @@ import gov.nist.csd.pm.pip.obligations.Obligations;
 import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
 import gov.nist.csd.pm.common.tx.TxRunner;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
 public class PDP {
 
     /**
@@ -42,6 +46,7 @@ public class PDP {
     private Decider decider;
     private Auditor auditor;
     private OperationSet resourceOps;
+    private Executor requestExecutor;
 
 
     /**
@@ -98,6 +103,58 @@ public class PDP {
         return new WithUser(userCtx, pap, epp, decider, auditor);
     }
 
+    public Executor getRequestExecutor() {
+        return requestExecutor;
+    }
+
+    /**
+     * Set the executor that submitted requests run on. With an executor from RequestExecutors.newPerTaskExecutor, each
+     * request runs on its own virtual thread when the JDK supports them, so a request blocked on the database does not
+     * hold a platform thread.
+     *
+     * @param requestExecutor the executor to run requests on, or null to run them on the submitting thread.
+     */
+    public void setRequestExecutor(Executor requestExecutor) {
+        this.requestExecutor = requestExecutor;
+    }
+
+    /**
+     * Run a request as the given user on the request executor.
+     *
+     * @param userCtx the user making the request.
+     * @param request the request to run.
+     * @return a future that completes with the result of the request, or exceptionally with the PMException it threw.
+     */
+    public <T> CompletableFuture<T> submit(UserContext userCtx, Request<T> request) {
+        WithUser withUser = withUser(userCtx);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                future.complete(request.run(withUser));
+            } catch (PMException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        };
+
+        if (requestExecutor == null) {
+            task.run();
+        } else {
+            try {
+                requestExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * A request made to the PDP on behalf of a user.
+     */
+    public interface Request<T> {
+        T run(WithUser pdp) throws PMException;
+    }
+
     public static class WithUser implements FunctionalEntity {
 
         private UserContext userCtx;
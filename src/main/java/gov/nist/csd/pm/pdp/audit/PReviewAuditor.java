@@ -31,11 +31,14 @@ public class PReviewAuditor implements Auditor {
 
     @Override
     public Explain explain(String userID, String target) throws PMException {
+        // both sides of the explanation are read from the same snapshot of the graph
+        Graph graph = this.graph.snapshot();
+
         Node userNode = graph.getNode(userID);
         Node targetNode = graph.getNode(target);
 
-        List<EdgePath> userPaths = dfs(userNode);
-        List<EdgePath> targetPaths = dfs(targetNode);
+        List<EdgePath> userPaths = dfs(graph, userNode);
+        List<EdgePath> targetPaths = dfs(graph, targetNode);
 
         Map<String, PolicyClass> resolvedPaths = resolvePaths(userPaths, targetPaths, target);
         Set<String> perms = resolvePermissions(resolvedPaths);
@@ -259,7 +262,7 @@ public class PReviewAuditor implements Auditor {
         ops.removeIf(op -> !resourceOps.contains(op) && !ADMIN_OPS.contains(op));
     }
 
-    private List<EdgePath> dfs(Node start) throws PMException {
+    private List<EdgePath> dfs(Graph graph, Node start) throws PMException {
         DepthFirstSearcher searcher = new DepthFirstSearcher(graph);
 
         final List<EdgePath> paths = new ArrayList<>();
@@ -2,6 +2,7 @@ package gov.nist.csd.pm.pdp.decider;
 
 import gov.nist.csd.pm.exceptions.PMException;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -34,6 +35,19 @@ public interface Decider {
      */
     Set<String> list(String subject, String process, String target) throws PMException;
 
+    /**
+     * List the permissions that the subject has on each of the target nodes. This is equivalent to calling list for each
+     * target, but the user side of the decision is only computed once and the object side is traversed once for all of
+     * the targets.
+     *
+     * @param subject    the name of the subject.
+     * @param process    the name of the process if applicable.
+     * @param targets  the names of the target nodes.
+     * @return a map of each target to the set of operations that the subject is allowed to perform on it.
+     * @throws PMException if there is an exception traversing the graph.
+     */
+    Map<String, Set<String>> listAll(String subject, String process, Collection<String> targets) throws PMException;
+
     /**
      * Given a list of nodes filter out any nodes that the given subject does not have the given permissions on. To filter
      * based on any permissions use Operations.ANY as the permission to check for.
@@ -0,0 +1,91 @@
+package gov.nist.csd.pm.pdp.decider;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.mysql.MySQLConnection;
+import gov.nist.csd.pm.pip.mysql.MySQLDecisionLoader;
+import gov.nist.csd.pm.pip.mysql.MySQLGraph;
+import gov.nist.csd.pm.pip.mysql.MySQLProhibitions;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Decider for policies stored in MySQL. Decisions on a single target load the subject's and target's ancestry, the
+ * associations between them, and the relevant prohibitions in one statement using a MySQLDecisionLoader, and then resolve
+ * the decision in memory. This costs one round trip per target instead of several per node visited.
+ *
+ * Requests that need the whole graph, such as capability lists and ACLs, are resolved by a PReviewDecider reading the
+ * MySQL graph directly.
+ */
+public class MySQLDecider implements Decider {
+
+    private MySQLDecisionLoader loader;
+    private OperationSet resourceOps;
+    private PReviewDecider graphDecider;
+
+    public MySQLDecider(MySQLConnection connection, OperationSet resourceOps) throws PMException {
+        if (connection == null) {
+            throw new IllegalArgumentException("the MySQL connection cannot be null");
+        }
+
+        this.loader = new MySQLDecisionLoader(connection);
+        this.resourceOps = resourceOps;
+        this.graphDecider = new PReviewDecider(new MySQLGraph(connection), new MySQLProhibitions(connection), resourceOps);
+    }
+
+    @Override
+    public boolean check(String subject, String process, String target, String... perms) throws PMException {
+        return getDecider(subject, process, target).check(subject, process, target, perms);
+    }
+
+    @Override
+    public Set<String> list(String subject, String process, String target) throws PMException {
+        return getDecider(subject, process, target).list(subject, process, target);
+    }
+
+    @Override
+    public Map<String, Set<String>> listAll(String subject, String process, Collection<String> targets) throws PMException {
+        Map<String, Set<String>> results = new HashMap<>();
+        for (String target : targets) {
+            results.put(target, list(subject, process, target));
+        }
+        return results;
+    }
+
+    @Override
+    public Set<String> filter(String subject, String process, Set<String> nodes, String... perms) throws PMException {
+        return graphDecider.filter(subject, process, nodes, perms);
+    }
+
+    @Override
+    public Set<String> getChildren(String subject, String process, String target, String... perms) throws PMException {
+        return graphDecider.getChildren(subject, process, target, perms);
+    }
+
+    @Override
+    public Map<String, Set<String>> getCapabilityList(String subject, String process) throws PMException {
+        return graphDecider.getCapabilityList(subject, process);
+    }
+
+    @Override
+    public Map<String, Set<String>> generateACL(String target, String process) throws PMException {
+        return graphDecider.generateACL(target, process);
+    }
+
+    @Override
+    public Map<String, Map<String, Set<String>>> getPolicyClassPermissions(String subject, String process, String... targets) throws PMException {
+        Map<String, Map<String, Set<String>>> results = new HashMap<>();
+        for (String target : targets) {
+            results.putAll(getDecider(subject, process, target).getPolicyClassPermissions(subject, process, target));
+        }
+        return results;
+    }
+
+    private PReviewDecider getDecider(String subject, String process, String target) throws PMException {
+        MySQLDecisionLoader.DecisionPolicy policy = loader.load(subject, process, target);
+        return new PReviewDecider(policy.getGraph(), policy.getProhibitions(), resourceOps);
+    }
+}
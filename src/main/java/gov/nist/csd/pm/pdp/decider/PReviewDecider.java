@@ -1,6 +1,8 @@
 package gov.nist.csd.pm.pdp.decider;
 
 import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.BitOperationSet;
+import gov.nist.csd.pm.operations.OperationRegistry;
 import gov.nist.csd.pm.operations.OperationSet;
 import gov.nist.csd.pm.pip.graph.Graph;
 import gov.nist.csd.pm.pip.graph.dag.propagator.Propagator;
@@ -10,24 +12,37 @@ import gov.nist.csd.pm.pip.graph.dag.searcher.Direction;
 import gov.nist.csd.pm.pip.graph.dag.visitor.Visitor;
 import gov.nist.csd.pm.pip.graph.model.nodes.Node;
 import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
+import gov.nist.csd.pm.pip.memory.ClosureIndex;
+import gov.nist.csd.pm.pip.memory.GraphSnapshot;
+import gov.nist.csd.pm.pip.memory.MemGraph;
 import gov.nist.csd.pm.pip.memory.MemProhibitions;
 import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
 import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
 
 import java.util.*;
 
+import static gov.nist.csd.pm.operations.OperationRegistry.*;
 import static gov.nist.csd.pm.operations.Operations.*;
 import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.U;
 import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.UA;
 
 /**
- * An implementation of the Decider interface that uses an in memory NGAC graph
+ * An implementation of the Decider interface that uses an in memory NGAC graph. Each call to the decider reads from a
+ * single snapshot of the graph, so a decision is never made against a policy that is changing underneath it.
+ *
+ * Operations are interned in an OperationRegistry and all permission algebra is done on BitOperationSets. Operation
+ * names are only used again when the result is returned.
  */
 public class PReviewDecider implements Decider {
 
     private Graph graph;
     private Prohibitions prohibitions;
     private OperationSet resourceOps;
+    private UserContextCache userCtxCache;
+    private final OperationRegistry registry;
+    private final BitOperationSet adminOpBits;
+    private volatile BitOperationSet resourceOpBits;
+    private volatile BitOperationSet knownOpBits;
 
     public PReviewDecider(Graph graph, OperationSet resourceOps) {
         if (graph == null) {
@@ -36,7 +51,9 @@ public class PReviewDecider implements Decider {
 
         this.graph = graph;
         this.prohibitions = new MemProhibitions();
-        this.resourceOps = resourceOps;
+        this.registry = new OperationRegistry(resourceOps);
+        this.adminOpBits = registry.toBits(ADMIN_OPS);
+        setResourceOps(resourceOps);
     }
 
     public PReviewDecider(Graph graph, Prohibitions prohibitions, OperationSet resourceOps) {
@@ -50,7 +67,9 @@ public class PReviewDecider implements Decider {
 
         this.graph = graph;
         this.prohibitions = prohibitions;
-        this.resourceOps = resourceOps;
+        this.registry = new OperationRegistry(resourceOps);
+        this.adminOpBits = registry.toBits(ADMIN_OPS);
+        setResourceOps(resourceOps);
     }
 
     public OperationSet getResourceOps() {
@@ -59,143 +78,448 @@ public class PReviewDecider implements Decider {
 
     public void setResourceOps(OperationSet resourceOps) {
         this.resourceOps = resourceOps;
+
+        BitOperationSet resourceOpBits = new BitOperationSet();
+        if (resourceOps != null) {
+            for (String op : resourceOps) {
+                resourceOpBits.add(registry.register(op));
+            }
+        }
+        BitOperationSet knownOpBits = new BitOperationSet(resourceOpBits);
+        knownOpBits.addAll(adminOpBits);
+        this.resourceOpBits = resourceOpBits;
+        this.knownOpBits = knownOpBits;
+
+        // cached user contexts left out the operations that were not interned yet
+        UserContextCache userCtxCache = this.userCtxCache;
+        if (userCtxCache != null) {
+            userCtxCache.clear();
+        }
+    }
+
+    public UserContextCache getUserContextCache() {
+        return userCtxCache;
+    }
+
+    /**
+     * Set the cache to store the user side of decisions in. The cache must be registered as a listener on the graph and
+     * prohibitions this decider uses so entries are invalidated when the policy changes. A null cache disables caching.
+     *
+     * @param userCtxCache the cache to use.
+     */
+    public void setUserContextCache(UserContextCache userCtxCache) {
+        this.userCtxCache = userCtxCache;
     }
 
     @Override
     public boolean check(String subject, String process, String target, String... perms) throws PMException {
-        Set<String> allowed = list(subject, process, target);
+        long generation = getCacheGeneration();
+        return hasPermissions(list(graph.snapshot(), generation, subject, process, target), perms);
+    }
+
+    private boolean hasPermissions(BitOperationSet allowed, String... perms) {
         if(perms.length == 0) {
             return !allowed.isEmpty();
-        } else {
-            return  allowed.containsAll(Arrays.asList(perms));
         }
+
+        for (String perm : perms) {
+            int index = registry.indexOf(perm);
+            if (index == NOT_INTERNED || !allowed.contains(index)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public Set<String> list(String subject, String process, String target) throws PMException {
-        Set<String> perms = new HashSet<>();
+        long generation = getCacheGeneration();
+        return registry.toOperationSet(list(graph.snapshot(), generation, subject, process, target));
+    }
 
+    private BitOperationSet list(Graph graph, long generation, String subject, String process, String target) throws PMException {
         // traverse the user side of the graph to get the associations
-        UserContext userCtx = processUserDAG(subject, process);
+        UserContext userCtx = getUserContext(graph, generation, subject, process);
         if (userCtx.getBorderTargets().isEmpty()) {
-            return perms;
+            return new BitOperationSet();
         }
 
         // traverse the target side of the graph to get permissions per policy class
-        TargetContext targetCtx = processTargetDAG(target, userCtx);
+        TargetContext targetCtx = processTargetDAG(graph, target, userCtx);
 
         // resolve the permissions
         return resolvePermissions(userCtx, targetCtx, target);
     }
 
     @Override
-    public Set<String> filter(String subject, String process, Set<String> nodes, String... perms) {
-        nodes.removeIf(n -> {
-            try {
-                return !check(subject, process, n, perms);
+    public Map<String, Set<String>> listAll(String subject, String process, Collection<String> targets) throws PMException {
+        Map<String, Set<String>> results = new HashMap<>();
+        long generation = getCacheGeneration();
+        for (Map.Entry<String, BitOperationSet> e : listAll(graph.snapshot(), generation, subject, process, targets).entrySet()) {
+            results.put(e.getKey(), registry.toOperationSet(e.getValue()));
+        }
+        return results;
+    }
+
+    private Map<String, BitOperationSet> listAll(Graph graph, long generation, String subject, String process,
+                                                 Collection<String> targets) throws PMException {
+        Map<String, BitOperationSet> results = new HashMap<>();
+
+        // traverse the user side of the graph once for every target
+        UserContext userCtx = getUserContext(graph, generation, subject, process);
+        if (userCtx.getBorderTargets().isEmpty()) {
+            for (String target : targets) {
+                results.put(target, new BitOperationSet());
             }
-            catch (PMException e) {
-                return true;
+            return results;
+        }
+
+        ClosureIndex index = getClosureIndex(graph);
+        if (index != null) {
+            for (String target : targets) {
+                TargetContext targetCtx = processTargetIndex(graph, target, userCtx, index);
+                results.put(target, resolvePermissions(userCtx, targetCtx, target));
             }
-        });
+            return results;
+        }
+
+        // the containers of the user's prohibitions are the only reached nodes needed to resolve prohibitions
+        Set<String> containers = new HashSet<>();
+        for (Prohibition prohibition : userCtx.getProhibitions()) {
+            containers.addAll(prohibition.getContainers().keySet());
+        }
+
+        TargetTraversal traversal = new TargetTraversal(graph, userCtx.getBorderTargets(), containers);
+        for (String target : targets) {
+            TargetContext targetCtx = traversal.process(target);
+            results.put(target, resolvePermissions(userCtx, targetCtx, target));
+        }
+
+        return results;
+    }
+
+    @Override
+    public Set<String> filter(String subject, String process, Set<String> nodes, String... perms) {
+        long generation = getCacheGeneration();
+        Graph graph;
+        try {
+            graph = this.graph.snapshot();
+        }
+        catch (PMException e) {
+            nodes.clear();
+            return nodes;
+        }
+
+        return filter(graph, generation, subject, process, nodes, perms);
+    }
+
+    private Set<String> filter(Graph graph, long generation, String subject, String process, Set<String> nodes,
+                               String... perms) {
+        Map<String, BitOperationSet> allowed;
+        try {
+            // nodes that do not exist are filtered out rather than failing the whole request
+            nodes.removeIf(n -> {
+                try {
+                    return !graph.exists(n);
+                }
+                catch (PMException e) {
+                    return true;
+                }
+            });
+
+            allowed = listAll(graph, generation, subject, process, nodes);
+        }
+        catch (PMException e) {
+            nodes.clear();
+            return nodes;
+        }
+
+        nodes.removeIf(n -> !hasPermissions(allowed.get(n), perms));
         return nodes;
     }
 
     @Override
     public Set<String> getChildren(String subject, String process, String target, String... perms) throws PMException {
+        long generation = getCacheGeneration();
+        Graph graph = this.graph.snapshot();
         Set<String> children = graph.getChildren(target);
-        return filter(subject, process, children, perms);
+        return filter(graph, generation, subject, process, children, perms);
     }
 
+    /**
+     * Build the capability list of the subject in one pass over the object side of the graph. Permissions are pushed
+     * down from the border targets in topological order, so the permissions of each node under each policy class are
+     * computed once and reused by all of its children. Each call reads from its own snapshot of the graph and shares no
+     * state with other calls, so capability lists can be built concurrently.
+     */
     @Override
-    public synchronized Map<String, Set<String>> getCapabilityList(String subject, String process) throws PMException {
+    public Map<String, Set<String>> getCapabilityList(String subject, String process) throws PMException {
         Map<String, Set<String>> results = new HashMap<>();
+        long generation = getCacheGeneration();
+        Graph graph = this.graph.snapshot();
 
         //get border nodes.  Can be OA or UA.  Return empty set if no OAs are reachable
-        UserContext userCtx = processUserDAG(subject, process);
+        UserContext userCtx = getUserContext(graph, generation, subject, process);
         if (userCtx.getBorderTargets().isEmpty()) {
             return results;
         }
 
-        for(String borderTarget : userCtx.getBorderTargets().keySet()) {
-            Set<String> objects = getAscendants(graph.getNode(borderTarget).getName());
-            for (String object : objects) {
-                if (results.containsKey(object)) {
-                    continue;
-                }
-
-                // run dfs on the object
-                TargetContext targetCtx = processTargetDAG(object, userCtx);
-
-                Set<String> permissions = resolvePermissions(userCtx, targetCtx, object);
-                results.put(object, permissions);
-            }
+        Map<String, TargetContext> targetCtxs = new CapabilityTraversal(graph, userCtx).process();
+        for (Map.Entry<String, TargetContext> e : targetCtxs.entrySet()) {
+            results.put(e.getKey(), registry.toOperationSet(resolvePermissions(userCtx, e.getValue(), e.getKey())));
         }
 
         return results;
     }
 
+    /**
+     * Generate the ACL of the target by walking from the target up to the policy classes, collecting the associations
+     * each node on the way is the target of. Only the user attributes in those associations are expanded down to their
+     * users, and the permissions of each user attribute under each policy class are pushed down in topological order so
+     * they are computed once. Users that do not have any permissions on the target are not included.
+     */
     @Override
     public Map<String, Set<String>> generateACL(String target, String process) throws PMException {
         Map<String, Set<String>> acl = new HashMap<>();
-        Set<Node> search = graph.search(U, null);
-        for (Node user : search) {
-            Set<String> list = list(user.getName(), process, target);
-            acl.put(user.getName(), list);
+        Graph graph = this.graph.snapshot();
+        Node targetNode = graph.getNode(target);
+
+        // walk up from the target, recording the policy classes each node can reach
+        Map<String, Set<String>> pcsOf = new HashMap<>();
+        Set<String> targetPcs = getReachablePolicyClasses(graph, targetNode.getName(), pcsOf);
+        Set<String> reached = new HashSet<>(pcsOf.keySet());
+
+        // collect the operations each user attribute has on the target under each policy class
+        Map<String, Map<String, BitOperationSet>> uaOps = new HashMap<>();
+        for (String node : reached) {
+            Map<String, OperationSet> assocs = graph.getTargetAssociations(node);
+            for (Map.Entry<String, OperationSet> e : assocs.entrySet()) {
+                BitOperationSet ops = registry.toBits(e.getValue());
+                Map<String, BitOperationSet> pcOps = uaOps.computeIfAbsent(e.getKey(), k -> new HashMap<>());
+                for (String pc : pcsOf.get(node)) {
+                    pcOps.computeIfAbsent(pc, k -> new BitOperationSet()).addAll(ops);
+                }
+            }
         }
 
+        if (uaOps.isEmpty()) {
+            return addUsersWithoutPermissions(graph, acl);
+        }
+
+        // the node itself is handled separately when resolving prohibitions
+        reached.remove(targetNode.getName());
+
+        // group the prohibitions by subject so each subject's prohibitions are looked up once
+        Map<String, List<Prohibition>> prohibitionsBySubject = new HashMap<>();
+        for (Prohibition prohibition : prohibitions.getAll()) {
+            prohibitionsBySubject.computeIfAbsent(prohibition.getSubject(), k -> new ArrayList<>()).add(prohibition);
+        }
+        List<Prohibition> processProhibitions = process == null ?
+                Collections.emptyList() : prohibitionsBySubject.getOrDefault(process, Collections.emptyList());
+        Map<String, Set<Prohibition>> prohibitionsAbove = new HashMap<>();
+
+        Map<String, Map<String, BitOperationSet>> userPcOps = pushDown(graph, uaOps);
+        for (Map.Entry<String, Map<String, BitOperationSet>> e : userPcOps.entrySet()) {
+            String user = e.getKey();
+
+            // every policy class of the target must be present so a policy class without permissions denies access
+            Map<String, BitOperationSet> pcSet = new HashMap<>();
+            for (String pc : targetPcs) {
+                BitOperationSet ops = e.getValue().get(pc);
+                pcSet.put(pc, ops == null ? new BitOperationSet() : ops);
+            }
+
+            Set<Prohibition> userProhibitions = new HashSet<>(processProhibitions);
+            if (!prohibitionsBySubject.isEmpty()) {
+                userProhibitions.addAll(getProhibitionsAbove(graph, user, prohibitionsBySubject, prohibitionsAbove));
+            }
+
+            UserContext userCtx = new UserContext(registry, Collections.emptyMap(), userProhibitions);
+            BitOperationSet perms = resolvePermissions(userCtx, new TargetContext(pcSet, reached), targetNode.getName());
+            acl.put(user, registry.toOperationSet(perms));
+        }
+
+        return addUsersWithoutPermissions(graph, acl);
+    }
+
+    /**
+     * Add every user the walk up from the target did not reach to the ACL with no permissions.
+     */
+    private Map<String, Set<String>> addUsersWithoutPermissions(Graph graph, Map<String, Set<String>> acl) throws PMException {
+        for (Node user : graph.search(U, null)) {
+            acl.putIfAbsent(user.getName(), new OperationSet());
+        }
         return acl;
     }
 
+    /**
+     * Get the policy classes reachable from the node, recording the policy classes of every node visited on the way.
+     */
+    private Set<String> getReachablePolicyClasses(Graph graph, String node, Map<String, Set<String>> pcsOf) throws PMException {
+        Set<String> pcs = pcsOf.get(node);
+        if (pcs != null) {
+            return pcs;
+        }
+
+        pcs = new HashSet<>();
+        if (graph.getNode(node).getType() == NodeType.PC) {
+            pcs.add(node);
+        }
+        for (String parent : graph.getParents(node)) {
+            pcs.addAll(getReachablePolicyClasses(graph, parent, pcsOf));
+        }
+
+        pcsOf.put(node, pcs);
+        return pcs;
+    }
+
+    /**
+     * Push the per policy class operations of the given user attributes down to every user assigned to them. Nodes are
+     * processed in topological order so each node's operations are the union of its parents' operations.
+     *
+     * @return the operations under each policy class for every user below the given user attributes.
+     */
+    private Map<String, Map<String, BitOperationSet>> pushDown(Graph graph, Map<String, Map<String, BitOperationSet>> uaOps) throws PMException {
+        // collect every node at or below the user attributes
+        Set<String> region = new HashSet<>(uaOps.keySet());
+        Deque<String> queue = new ArrayDeque<>(region);
+        while (!queue.isEmpty()) {
+            for (String child : graph.getChildren(queue.poll())) {
+                if (region.add(child)) {
+                    queue.add(child);
+                }
+            }
+        }
+
+        Map<String, Integer> inDegree = new HashMap<>();
+        for (String node : region) {
+            int count = 0;
+            for (String parent : graph.getParents(node)) {
+                if (region.contains(parent)) {
+                    count++;
+                }
+            }
+
+            inDegree.put(node, count);
+            if (count == 0) {
+                queue.add(node);
+            }
+        }
+
+        Map<String, Map<String, BitOperationSet>> nodeOps = new HashMap<>();
+        Map<String, Map<String, BitOperationSet>> userOps = new HashMap<>();
+        while (!queue.isEmpty()) {
+            String node = queue.poll();
+
+            Map<String, BitOperationSet> ops = nodeOps.remove(node);
+            if (ops == null) {
+                ops = new HashMap<>();
+            }
+
+            Map<String, BitOperationSet> assocOps = uaOps.get(node);
+            if (assocOps != null) {
+                for (Map.Entry<String, BitOperationSet> e : assocOps.entrySet()) {
+                    ops.computeIfAbsent(e.getKey(), k -> new BitOperationSet()).addAll(e.getValue());
+                }
+            }
+
+            Set<String> children = graph.getChildren(node);
+            if (children.isEmpty() && graph.getNode(node).getType() == U) {
+                userOps.put(node, ops);
+                continue;
+            }
+
+            for (String child : children) {
+                Map<String, BitOperationSet> childOps = nodeOps.computeIfAbsent(child, k -> new HashMap<>());
+                for (Map.Entry<String, BitOperationSet> e : ops.entrySet()) {
+                    childOps.computeIfAbsent(e.getKey(), k -> new BitOperationSet()).addAll(e.getValue());
+                }
+
+                int count = inDegree.get(child) - 1;
+                inDegree.put(child, count);
+                if (count == 0) {
+                    queue.add(child);
+                }
+            }
+        }
+
+        return userOps;
+    }
+
+    /**
+     * Get the prohibitions of the node and of every node it is assigned to, memoizing the result for each node.
+     */
+    private Set<Prohibition> getProhibitionsAbove(Graph graph, String node, Map<String, List<Prohibition>> bySubject,
+                                                  Map<String, Set<Prohibition>> memo) throws PMException {
+        Set<Prohibition> above = memo.get(node);
+        if (above != null) {
+            return above;
+        }
+
+        above = new HashSet<>(bySubject.getOrDefault(node, Collections.emptyList()));
+        for (String parent : graph.getParents(node)) {
+            above.addAll(getProhibitionsAbove(graph, parent, bySubject, memo));
+        }
+
+        memo.put(node, above);
+        return above;
+    }
+
     @Override
     public Map<String, Map<String, Set<String>>> getPolicyClassPermissions(String subject, String process, String... targets) throws PMException {
         Map<String, Map<String, Set<String>>> pcPerms = new HashMap<>();
+        long generation = getCacheGeneration();
+        Graph graph = this.graph.snapshot();
 
         // traverse the user side of the graph to get the associations
-        UserContext userCtx = processUserDAG(subject, process);
+        UserContext userCtx = getUserContext(graph, generation, subject, process);
         if (userCtx.getBorderTargets().isEmpty()) {
             return pcPerms;
         }
 
         for (String target : targets) {
             // traverse the target side of the graph to get permissions per policy class
-            TargetContext targetCtx = processTargetDAG(target, userCtx);
+            TargetContext targetCtx = processTargetDAG(graph, target, userCtx);
 
-            pcPerms.put(target, targetCtx.getPcSet());
+            Map<String, Set<String>> pcSet = new HashMap<>();
+            for (Map.Entry<String, BitOperationSet> e : targetCtx.getPcSet().entrySet()) {
+                pcSet.put(e.getKey(), registry.toOperationSet(e.getValue()));
+            }
+            pcPerms.put(target, pcSet);
         }
 
         return pcPerms;
     }
 
-    private Set<String> resolvePermissions(UserContext userContext, TargetContext targetCtx, String target) {
-        Set<String> allowed = resolveAllowedPermissions(targetCtx);
+    private BitOperationSet resolvePermissions(UserContext userContext, TargetContext targetCtx, String target) {
+        BitOperationSet allowed = resolveAllowedPermissions(targetCtx);
 
         // resolve any special permissions to real permissions
         // *, *a, *r to their actual permissions
         resolveSpecialPermissions(allowed);
 
         // retain only the ops that the decider knows about
-        allowed.removeIf(op -> !resourceOps.contains(op) && !ADMIN_OPS.contains(op));
+        allowed.retainAll(knownOpBits);
 
         // remove any prohibited operations
-        Set<String> denied = resolveProhibitions(userContext, targetCtx, target);
+        BitOperationSet denied = resolveProhibitions(userContext, targetCtx, target);
         allowed.removeAll(denied);
 
         return allowed;
     }
 
-    private Set<String> resolveAllowedPermissions(TargetContext targetCtx) {
-        Map<String, Set<String>> pcMap = targetCtx.getPcSet();
+    private BitOperationSet resolveAllowedPermissions(TargetContext targetCtx) {
+        Map<String, BitOperationSet> pcMap = targetCtx.getPcSet();
 
-        HashSet<String> allowed = new HashSet<>();
+        BitOperationSet allowed = new BitOperationSet();
         boolean first = true;
         for (String pc : pcMap.keySet()) {
-            Set<String> ops = pcMap.get(pc);
+            BitOperationSet ops = pcMap.get(pc);
             if(first) {
                 allowed.addAll(ops);
                 first = false;
             } else {
-                if (allowed.contains(ALL_OPS)) {
+                if (allowed.contains(ALL_OPS_INDEX)) {
                     // clear all of the existing permissions because the intersection already had *
                     // all permissions can be added
                     allowed.clear();
@@ -205,7 +529,7 @@ public class PReviewDecider implements Decider {
                     if (ops.isEmpty()) {
                         allowed.clear();
                         break;
-                    } else if (!ops.contains(ALL_OPS)) {
+                    } else if (!ops.contains(ALL_OPS_INDEX)) {
                         allowed.retainAll(ops);
                     }
                 }
@@ -215,32 +539,32 @@ public class PReviewDecider implements Decider {
         return allowed;
     }
 
-    private void resolveSpecialPermissions(Set<String> permissions) {
+    private void resolveSpecialPermissions(BitOperationSet permissions) {
         // if the permission set includes *, remove the * and add all resource operations
-        if (permissions.contains(ALL_OPS)) {
-            permissions.remove(ALL_OPS);
-            permissions.addAll(ADMIN_OPS);
-            permissions.addAll(resourceOps);
+        if (permissions.contains(ALL_OPS_INDEX)) {
+            permissions.remove(ALL_OPS_INDEX);
+            permissions.addAll(adminOpBits);
+            permissions.addAll(resourceOpBits);
         } else {
             // if the permissions includes *a or *r add all the admin ops/resource ops as necessary
-            if (permissions.contains(ALL_ADMIN_OPS)) {
-                permissions.remove(ALL_ADMIN_OPS);
-                permissions.addAll(ADMIN_OPS);
+            if (permissions.contains(ALL_ADMIN_OPS_INDEX)) {
+                permissions.remove(ALL_ADMIN_OPS_INDEX);
+                permissions.addAll(adminOpBits);
             }
-            if (permissions.contains(ALL_RESOURCE_OPS)) {
-                permissions.remove(ALL_RESOURCE_OPS);
-                permissions.addAll(resourceOps);
+            if (permissions.contains(ALL_RESOURCE_OPS_INDEX)) {
+                permissions.remove(ALL_RESOURCE_OPS_INDEX);
+                permissions.addAll(resourceOpBits);
             }
         }
     }
 
-    private Set<String> resolveProhibitions(UserContext userCtx, TargetContext targetCtx, String target) {
-        Set<String> denied = new HashSet<>();
+    private BitOperationSet resolveProhibitions(UserContext userCtx, TargetContext targetCtx, String target) {
+        BitOperationSet denied = new BitOperationSet();
 
-        Set<Prohibition> prohibitions = userCtx.getProhibitions();
+        Map<Prohibition, BitOperationSet> prohibitions = userCtx.getProhibitionOps();
         Set<String> reachedTargets = targetCtx.getReachedTargets();
 
-        for(Prohibition p : prohibitions) {
+        for(Prohibition p : prohibitions.keySet()) {
             boolean inter = p.isIntersection();
             Map<String, Boolean> containers = p.getContainers();
 
@@ -281,7 +605,7 @@ public class PReviewDecider implements Decider {
             }
 
             if (addOps) {
-                denied.addAll(p.getOperations());
+                denied.addAll(prohibitions.get(p));
             }
         }
         return denied;
@@ -293,30 +617,37 @@ public class PReviewDecider implements Decider {
      * end of each dfs iteration the visitedNodes map will contain the operations the user is permitted on the target under
      * each policy class.
      *
+     * If the graph has a closure index, the index is used instead of traversing the graph.
+     *
      * @param target      the name of the current target node.
      */
-    private TargetContext processTargetDAG(String target, UserContext userCtx) throws PMException {
-        Map<String, Set<String>> borderTargets = userCtx.getBorderTargets();
+    private TargetContext processTargetDAG(Graph graph, String target, UserContext userCtx) throws PMException {
+        ClosureIndex index = getClosureIndex(graph);
+        if (index != null) {
+            return processTargetIndex(graph, target, userCtx, index);
+        }
 
-        Map<String, Map<String, Set<String>>> visitedNodes = new HashMap<>();
+        Map<String, BitOperationSet> borderTargets = userCtx.getBorderTargets();
+
+        Map<String, Map<String, BitOperationSet>> visitedNodes = new HashMap<>();
         Set<String> reachedTargets = new HashSet<>();
 
         Visitor visitor = node -> {
             // mark the node as reached, to be used for resolving prohibitions
             reachedTargets.add(node.getName());
 
-            Map<String, Set<String>> nodeCtx = visitedNodes.getOrDefault(node.getName(), new HashMap<>());
+            Map<String, BitOperationSet> nodeCtx = visitedNodes.getOrDefault(node.getName(), new HashMap<>());
             if (nodeCtx.isEmpty()) {
                 visitedNodes.put(node.getName(), nodeCtx);
             }
 
             if (node.getType().equals(NodeType.PC)) {
-                nodeCtx.put(node.getName(), new HashSet<>());
+                nodeCtx.put(node.getName(), new BitOperationSet());
             } else {
                 if (borderTargets.containsKey(node.getName())) {
-                    Set<String> uaOps = borderTargets.get(node.getName());
+                    BitOperationSet uaOps = borderTargets.get(node.getName());
                     for (String pc : nodeCtx.keySet()) {
-                        Set<String> pcOps = nodeCtx.getOrDefault(pc, new HashSet<>());
+                        BitOperationSet pcOps = nodeCtx.getOrDefault(pc, new BitOperationSet());
                         pcOps.addAll(uaOps);
                         nodeCtx.put(pc, pcOps);
                     }
@@ -325,10 +656,10 @@ public class PReviewDecider implements Decider {
         };
 
         Propagator propagator = (parent, child) -> {
-            Map<String, Set<String>> parentCtx = visitedNodes.get(parent.getName());
-            Map<String, Set<String>> nodeCtx = visitedNodes.getOrDefault(child.getName(), new HashMap<>());
+            Map<String, BitOperationSet> parentCtx = visitedNodes.get(parent.getName());
+            Map<String, BitOperationSet> nodeCtx = visitedNodes.getOrDefault(child.getName(), new HashMap<>());
             for (String name : parentCtx.keySet()) {
-                Set<String> ops = nodeCtx.getOrDefault(name, new HashSet<>());
+                BitOperationSet ops = nodeCtx.getOrDefault(name, new BitOperationSet());
                 ops.addAll(parentCtx.get(name));
                 nodeCtx.put(name, ops);
             }
@@ -341,6 +672,325 @@ public class PReviewDecider implements Decider {
         return new TargetContext(visitedNodes.get(target), reachedTargets);
     }
 
+    /**
+     * A depth first search of the object side of the graph that is shared by several targets. The operations available
+     * under each policy class and the prohibition containers reached are computed once for each node, so any part of the
+     * graph above more than one target is only traversed once.
+     */
+    private static class TargetTraversal {
+        private final Graph graph;
+        private final Map<String, BitOperationSet> borderTargets;
+        private final Set<String> containers;
+        private final DepthFirstSearcher searcher;
+        private final Map<String, Map<String, BitOperationSet>> visitedNodes;
+        private final Map<String, Set<String>> reachedContainers;
+        private final Visitor visitor;
+        private final Propagator propagator;
+
+        TargetTraversal(Graph graph, Map<String, BitOperationSet> borderTargets, Set<String> containers) {
+            this.graph = graph;
+            this.borderTargets = borderTargets;
+            this.containers = containers;
+            this.searcher = new DepthFirstSearcher(graph);
+            this.visitedNodes = new HashMap<>();
+            this.reachedContainers = new HashMap<>();
+
+            this.visitor = node -> {
+                if (containers.contains(node.getName())) {
+                    reachedContainers.computeIfAbsent(node.getName(), k -> new HashSet<>()).add(node.getName());
+                }
+
+                Map<String, BitOperationSet> nodeCtx = visitedNodes.computeIfAbsent(node.getName(), k -> new HashMap<>());
+                if (node.getType().equals(NodeType.PC)) {
+                    nodeCtx.put(node.getName(), new BitOperationSet());
+                } else if (borderTargets.containsKey(node.getName())) {
+                    BitOperationSet uaOps = borderTargets.get(node.getName());
+                    for (BitOperationSet pcOps : nodeCtx.values()) {
+                        pcOps.addAll(uaOps);
+                    }
+                }
+            };
+
+            this.propagator = (parent, child) -> {
+                Map<String, BitOperationSet> parentCtx = visitedNodes.get(parent.getName());
+                Map<String, BitOperationSet> nodeCtx = visitedNodes.computeIfAbsent(child.getName(), k -> new HashMap<>());
+                for (String name : parentCtx.keySet()) {
+                    nodeCtx.computeIfAbsent(name, k -> new BitOperationSet()).addAll(parentCtx.get(name));
+                }
+
+                Set<String> parentReached = reachedContainers.get(parent.getName());
+                if (parentReached != null) {
+                    reachedContainers.computeIfAbsent(child.getName(), k -> new HashSet<>()).addAll(parentReached);
+                }
+            };
+        }
+
+        TargetContext process(String target) throws PMException {
+            // nodes visited for previous targets are skipped by the searcher and their results reused
+            searcher.traverse(graph.getNode(target), propagator, visitor, Direction.PARENTS);
+
+            return new TargetContext(visitedNodes.get(target),
+                    reachedContainers.getOrDefault(target, Collections.emptySet()));
+        }
+    }
+
+    /**
+     * Computes the target context of every node the subject's border targets contain. The nodes below the border targets
+     * are processed in topological order: a node's permissions under each policy class are the union of its parents'
+     * permissions, plus the operations of any association it is the target of.  Parents outside of the border targets'
+     * descendants carry no operations, only the policy classes and prohibition containers they can reach, which are
+     * memoized as they are looked up.
+     */
+    private static class CapabilityTraversal {
+        private final Graph graph;
+        private final Map<String, BitOperationSet> borderTargets;
+        private final Set<String> containers;
+        private final ClosureIndex index;
+        private final Map<String, Set<String>> outsidePolicyClasses;
+        private final Map<String, Set<String>> outsideContainers;
+
+        CapabilityTraversal(Graph graph, UserContext userCtx) {
+            this.graph = graph;
+            this.borderTargets = userCtx.getBorderTargets();
+            this.containers = new HashSet<>();
+            for (Prohibition prohibition : userCtx.getProhibitions()) {
+                containers.addAll(prohibition.getContainers().keySet());
+            }
+            this.index = getClosureIndex(graph);
+            this.outsidePolicyClasses = new HashMap<>();
+            this.outsideContainers = new HashMap<>();
+        }
+
+        Map<String, TargetContext> process() throws PMException {
+            // collect every node at or below a border target
+            Set<String> region = new HashSet<>();
+            Deque<String> queue = new ArrayDeque<>();
+            for (String borderTarget : borderTargets.keySet()) {
+                if (region.add(borderTarget)) {
+                    queue.add(borderTarget);
+                }
+            }
+            while (!queue.isEmpty()) {
+                for (String child : graph.getChildren(queue.poll())) {
+                    if (region.add(child)) {
+                        queue.add(child);
+                    }
+                }
+            }
+
+            // count the parents of each node that are in the region
+            Map<String, Set<String>> parents = new HashMap<>();
+            Map<String, Integer> inDegree = new HashMap<>();
+            for (String node : region) {
+                Set<String> nodeParents = graph.getParents(node);
+                parents.put(node, nodeParents);
+
+                int count = 0;
+                for (String parent : nodeParents) {
+                    if (region.contains(parent)) {
+                        count++;
+                    }
+                }
+
+                inDegree.put(node, count);
+                if (count == 0) {
+                    queue.add(node);
+                }
+            }
+
+            Map<String, TargetContext> targetCtxs = new HashMap<>();
+            while (!queue.isEmpty()) {
+                String node = queue.poll();
+
+                Map<String, BitOperationSet> pcSet = new HashMap<>();
+                Set<String> reached = new HashSet<>();
+                if (containers.contains(node)) {
+                    reached.add(node);
+                }
+
+                for (String parent : parents.get(node)) {
+                    TargetContext parentCtx = targetCtxs.get(parent);
+                    if (parentCtx != null) {
+                        for (Map.Entry<String, BitOperationSet> e : parentCtx.getPcSet().entrySet()) {
+                            pcSet.computeIfAbsent(e.getKey(), k -> new BitOperationSet()).addAll(e.getValue());
+                        }
+                        reached.addAll(parentCtx.getReachedTargets());
+                    } else {
+                        for (String pc : getOutsidePolicyClasses(parent)) {
+                            pcSet.computeIfAbsent(pc, k -> new BitOperationSet());
+                        }
+                        reached.addAll(getOutsideContainers(parent));
+                    }
+                }
+
+                BitOperationSet ops = borderTargets.get(node);
+                if (ops != null) {
+                    for (BitOperationSet pcOps : pcSet.values()) {
+                        pcOps.addAll(ops);
+                    }
+                }
+
+                targetCtxs.put(node, new TargetContext(pcSet, reached));
+
+                for (String child : graph.getChildren(node)) {
+                    int count = inDegree.get(child) - 1;
+                    inDegree.put(child, count);
+                    if (count == 0) {
+                        queue.add(child);
+                    }
+                }
+            }
+
+            return targetCtxs;
+        }
+
+        private Set<String> getOutsidePolicyClasses(String node) throws PMException {
+            if (index != null) {
+                return index.getPolicyClasses(node);
+            }
+
+            Set<String> pcs = outsidePolicyClasses.get(node);
+            if (pcs != null) {
+                return pcs;
+            }
+
+            pcs = new HashSet<>();
+            if (graph.getNode(node).getType() == NodeType.PC) {
+                pcs.add(node);
+            }
+            for (String parent : graph.getParents(node)) {
+                pcs.addAll(getOutsidePolicyClasses(parent));
+            }
+
+            outsidePolicyClasses.put(node, pcs);
+            return pcs;
+        }
+
+        private Set<String> getOutsideContainers(String node) throws PMException {
+            if (containers.isEmpty()) {
+                return Collections.emptySet();
+            }
+
+            Set<String> reached = outsideContainers.get(node);
+            if (reached != null) {
+                return reached;
+            }
+
+            reached = new HashSet<>();
+            if (containers.contains(node)) {
+                reached.add(node);
+            }
+
+            if (index != null) {
+                for (String container : containers) {
+                    if (index.getAncestors(node).contains(container)) {
+                        reached.add(container);
+                    }
+                }
+            } else {
+                for (String parent : graph.getParents(node)) {
+                    reached.addAll(getOutsideContainers(parent));
+                }
+            }
+
+            outsideContainers.put(node, reached);
+            return reached;
+        }
+    }
+
+    /**
+     * Resolve the target context using the closure index of the graph.  A border target contributes its operations to
+     * the policy classes it can reach if it is the target or one of the target's ancestors.
+     */
+    private TargetContext processTargetIndex(Graph graph, String target, UserContext userCtx, ClosureIndex index) throws PMException {
+        if (!graph.exists(target)) {
+            throw new PMException(String.format("a node with the name %s does not exist", target));
+        }
+
+        Map<String, BitOperationSet> pcSet = new HashMap<>();
+        for (String pc : index.getPolicyClasses(target)) {
+            pcSet.put(pc, new BitOperationSet());
+        }
+
+        Set<String> ancestors = index.getAncestors(target);
+        Map<String, BitOperationSet> borderTargets = userCtx.getBorderTargets();
+        if (borderTargets.size() <= ancestors.size()) {
+            for (String borderTarget : borderTargets.keySet()) {
+                if (borderTarget.equals(target) || ancestors.contains(borderTarget)) {
+                    addBorderTargetOps(pcSet, index.getPolicyClasses(borderTarget), borderTargets.get(borderTarget));
+                }
+            }
+        } else {
+            for (String ancestor : ancestors) {
+                BitOperationSet ops = borderTargets.get(ancestor);
+                if (ops != null) {
+                    addBorderTargetOps(pcSet, index.getPolicyClasses(ancestor), ops);
+                }
+            }
+
+            BitOperationSet ops = borderTargets.get(target);
+            if (ops != null) {
+                addBorderTargetOps(pcSet, index.getPolicyClasses(target), ops);
+            }
+        }
+
+        // the target itself is handled separately when resolving prohibitions so only the ancestors are needed
+        return new TargetContext(pcSet, ancestors);
+    }
+
+    private static ClosureIndex getClosureIndex(Graph graph) {
+        if (graph instanceof GraphSnapshot) {
+            return ((GraphSnapshot) graph).getClosureIndex();
+        } else if (graph instanceof MemGraph) {
+            return ((MemGraph) graph).getClosureIndex();
+        }
+
+        return null;
+    }
+
+    private void addBorderTargetOps(Map<String, BitOperationSet> pcSet, Set<String> pcs, BitOperationSet ops) {
+        for (String pc : pcs) {
+            BitOperationSet pcOps = pcSet.get(pc);
+            if (pcOps != null) {
+                pcOps.addAll(ops);
+            }
+        }
+    }
+
+    /**
+     * Read the generation of the user context cache, or 0 if there is no cache. Callers read it before taking the
+     * snapshot a user context is computed from, so a change made between the two leaves the context stale and it is not
+     * cached.
+     */
+    private long getCacheGeneration() {
+        UserContextCache userCtxCache = this.userCtxCache;
+        return userCtxCache == null ? 0 : userCtxCache.getGeneration();
+    }
+
+    /**
+     * Get the user side of the decision for the subject and process.  If a cache is set and holds a user context for
+     * the subject and process it is returned, otherwise the user side of the graph is traversed and the result cached
+     * under the given generation, which must have been read before the graph was.
+     */
+    private UserContext getUserContext(Graph graph, long generation, String subject, String process) throws PMException {
+        UserContextCache userCtxCache = this.userCtxCache;
+        if (userCtxCache == null) {
+            return processUserDAG(graph, subject, process, new HashSet<>());
+        }
+
+        // a context cached by a decider with a different registry cannot be read by this one
+        UserContext userCtx = userCtxCache.get(subject, process);
+        if (userCtx != null && userCtx.getRegistry() == registry) {
+            return userCtx;
+        }
+
+        Set<String> ancestry = new HashSet<>();
+        userCtx = processUserDAG(graph, subject, process, ancestry);
+        userCtxCache.put(subject, process, userCtx, ancestry, generation);
+
+        return userCtx;
+    }
+
     /**
      * Find the target nodes that are reachable by the subject via an association. This is done by a breadth first search
      * starting at the subject node and walking up the user side of the graph until all user attributes the subject is assigned
@@ -348,45 +998,32 @@ public class PReviewDecider implements Decider {
      * target of that association as well as the operations in a map. If a target node is reached multiple times, add any
      * new operations to the already existing ones.
      *
+     * @param ancestry the set to add the name of each visited node to.
      * @return a Map of target nodes that the subject can reach via associations and the operations the user has on each.
      */
-    private UserContext processUserDAG(String subject, String process) throws PMException {
+    private UserContext processUserDAG(Graph graph, String subject, String process, Set<String> ancestry) throws PMException {
         BreadthFirstSearcher searcher = new BreadthFirstSearcher(graph);
 
         Node start = graph.getNode(subject);
 
-        final Map<String, Set<String>> borderTargets = new HashMap<>();
+        final Map<String, BitOperationSet> borderTargets = new HashMap<>();
         // initialize with the prohibitions or the provided process
         final Set<Prohibition> reachedProhibitions = new HashSet<>(prohibitions.getProhibitionsFor(process));
 
-        // if the start node is an UA, get it's associations
-        if (start.getType() == UA) {
-            Map<String, OperationSet> assocs = graph.getSourceAssociations(start.getName());
-            collectAssociations(assocs, borderTargets);
-        }
-
+        // the bfs visits the subject and every node it is assigned to, so each node only needs to collect its
+        // own prohibitions and associations
         Visitor visitor = node -> {
+            ancestry.add(node.getName());
+
             List<Prohibition> subjectProhibitions = prohibitions.getProhibitionsFor(node.getName());
             reachedProhibitions.addAll(subjectProhibitions);
 
-            //get the parents of the subject to start bfs on user side
-            Set<String> parents = graph.getParents(node.getName());
-            while (!parents.isEmpty()) {
-                String parentNode = parents.iterator().next();
-                Node parentN = graph.getNode(parentNode);
-                if (parentN.getType() == UA) {
-
-                    //get the associations the current parent node is the source of
-                    Map<String, OperationSet> assocs = graph.getSourceAssociations(parentNode);
-
-                    //collect the target and operation information for each association
-                    collectAssociations(assocs, borderTargets);
-                }
-                //add all of the current parent node's parents to the queue
-                parents.addAll(graph.getParents(parentNode));
+            if (node.getType() == UA) {
+                //get the associations the current node is the source of
+                Map<String, OperationSet> assocs = graph.getSourceAssociations(node.getName());
 
-                //remove the current parent from the queue
-                parents.remove(parentNode);
+                //collect the target and operation information for each association
+                collectAssociations(assocs, borderTargets);
             }
         };
 
@@ -396,69 +1033,61 @@ public class PReviewDecider implements Decider {
         // start the bfs
         searcher.traverse(start, propagator, visitor, Direction.PARENTS);
 
-        return new UserContext(borderTargets, reachedProhibitions);
+        return new UserContext(registry, borderTargets, reachedProhibitions);
     }
 
-    private void collectAssociations(Map<String, OperationSet> assocs, Map<String, Set<String>> borderTargets) {
+    private void collectAssociations(Map<String, OperationSet> assocs, Map<String, BitOperationSet> borderTargets) {
         for (String target : assocs.keySet()) {
-            Set<String> ops = assocs.get(target);
-            Set<String> exOps = borderTargets.get(target);
             //if the target is not in the map already, put it
             //else add the found operations to the existing ones.
-            if (exOps == null) {
-                borderTargets.put(target, ops);
-            } else {
-                ops.addAll(exOps);
-                borderTargets.put(target, ops);
-            }
+            borderTargets.computeIfAbsent(target, k -> new BitOperationSet())
+                    .addAll(registry.toBits(assocs.get(target)));
         }
     }
 
-    private Set<String> getAscendants(String vNode) throws PMException {
-        Set<String> ascendants = new HashSet<>();
-        ascendants.add(vNode);
+    static class UserContext {
+        private OperationRegistry registry;
+        private Map<String, BitOperationSet> borderTargets;
+        private Map<Prohibition, BitOperationSet> prohibitionOps;
 
-        Set<String> children = graph.getChildren(vNode);
-        if (children.isEmpty()) {
-            return ascendants;
-        }
+        UserContext(OperationRegistry registry, Map<String, BitOperationSet> borderTargets, Set<Prohibition> prohibitions) {
+            this.registry = registry;
+            this.borderTargets = borderTargets;
 
-        ascendants.addAll(children);
-        for (String child : children) {
-            ascendants.addAll(getAscendants(child));
+            // convert the operations of each prohibition once rather than every time it is resolved
+            this.prohibitionOps = new LinkedHashMap<>();
+            for (Prohibition p : prohibitions) {
+                prohibitionOps.put(p, registry.toBits(p.getOperations()));
+            }
         }
 
-        return ascendants;
-    }
-
-    private static class UserContext {
-        private Map<String, Set<String>> borderTargets;
-        private Set<Prohibition> prohibitions;
-
-        UserContext(Map<String, Set<String>> borderTargets, Set<Prohibition> prohibitions) {
-            this.borderTargets = borderTargets;
-            this.prohibitions = prohibitions;
+        OperationRegistry getRegistry() {
+            return registry;
         }
 
-        Map<String, Set<String>> getBorderTargets() {
+        Map<String, BitOperationSet> getBorderTargets() {
             return borderTargets;
         }
 
         Set<Prohibition> getProhibitions() {
-            return prohibitions;
+            return prohibitionOps.keySet();
+        }
+
+        Map<Prohibition, BitOperationSet> getProhibitionOps() {
+            return prohibitionOps;
         }
     }
 
     private static class TargetContext {
-        Map<String, Set<String>> pcSet;
+        Map<String, BitOperationSet> pcSet;
         Set<String> reachedTargets;
 
-        TargetContext(Map<String, Set<String>> pcSet, Set<String> reachedTargets) {
+        TargetContext(Map<String, BitOperationSet> pcSet, Set<String> reachedTargets) {
             this.pcSet = pcSet;
             this.reachedTargets = reachedTargets;
         }
 
-        Map<String, Set<String>> getPcSet() {
+        Map<String, BitOperationSet> getPcSet() {
             return pcSet;
         }
 
@@ -0,0 +1,145 @@
+package gov.nist.csd.pm.pdp.decider;
+
+import gov.nist.csd.pm.pip.graph.GraphListener;
+import gov.nist.csd.pm.pip.prohibitions.ProhibitionsListener;
+
+import java.util.*;
+
+/**
+ * A bounded, least recently used cache of the user side of a decision, keyed by subject and process. An entry is
+ * invalidated when an assignment, association, or prohibition changes for any node in the subject's ancestry, or when
+ * a prohibition on the process changes.
+ *
+ * The cache must be registered as a listener with the graph and prohibitions the decider reads from, otherwise entries
+ * will never be invalidated.
+ */
+public class UserContextCache implements GraphListener, ProhibitionsListener {
+
+    private final Map<Key, Entry> entries;
+    private long generation;
+
+    /**
+     * Create a new cache that will hold at most maxSize user contexts.
+     *
+     * @param maxSize the maximum number of entries.
+     */
+    public UserContextCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("the size of a user context cache must be greater than 0");
+        }
+
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the number of user contexts currently cached.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove every cached user context.
+     */
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Remove any cached user context that has the given node in its ancestry or the given process.
+     *
+     * @param name the name of the node or process that changed.
+     */
+    public synchronized void invalidate(String name) {
+        generation++;
+        entries.values().removeIf(entry -> entry.ancestry.contains(name));
+    }
+
+    @Override
+    public void nodeDeleted(String name) {
+        invalidate(name);
+    }
+
+    @Override
+    public void assignmentChanged(String child, String parent) {
+        invalidate(child);
+    }
+
+    @Override
+    public void associationChanged(String ua, String target) {
+        invalidate(ua);
+    }
+
+    @Override
+    public void prohibitionsChanged(String subject) {
+        invalidate(subject);
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    synchronized PReviewDecider.UserContext get(String subject, String process) {
+        Entry entry = entries.get(new Key(subject, process));
+        return entry == null ? null : entry.userCtx;
+    }
+
+    /**
+     * Cache the user context for the subject and process. If any invalidation occurred since the given generation was
+     * read, the user context may have been computed from stale information and is not cached.
+     */
+    synchronized void put(String subject, String process, PReviewDecider.UserContext userCtx,
+                          Set<String> ancestry, long generation) {
+        if (generation != this.generation) {
+            return;
+        }
+
+        Set<String> names = new HashSet<>(ancestry);
+        if (process != null) {
+            names.add(process);
+        }
+
+        entries.put(new Key(subject, process), new Entry(userCtx, names));
+    }
+
+    private static class Entry {
+        private final PReviewDecider.UserContext userCtx;
+        private final Set<String> ancestry;
+
+        Entry(PReviewDecider.UserContext userCtx, Set<String> ancestry) {
+            this.userCtx = userCtx;
+            this.ancestry = ancestry;
+        }
+    }
+
+    private static class Key {
+        private final String subject;
+        private final String process;
+
+        Key(String subject, String process) {
+            this.subject = subject;
+            this.process = process;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return Objects.equals(subject, key.subject) && Objects.equals(process, key.process);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subject, process);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package gov.nist.csd.pm.pdp.report;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pdp.decider.PReviewDecider;
+import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
+import gov.nist.csd.pm.pip.memory.MemProhibitions;
+import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
+import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.O;
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.U;
+
+/**
+ * Generates ACL and capability reports for many targets or users at once. The work is split across a ForkJoinPool and
+ * every entry is passed to a ReportSink as soon as it is computed, so only the entries currently being computed are held
+ * in memory.
+ *
+ * Each report reads from a snapshot of the graph and a copy of the prohibitions taken when the report starts. Changes
+ * made to the policy while a report is running are not reflected in it.
+ */
+public class AccessReporter {
+
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+    private Graph graph;
+    private Prohibitions prohibitions;
+    private OperationSet resourceOps;
+    private ForkJoinPool pool;
+    private int batchSize;
+
+    /**
+     * Create a reporter that runs on the common ForkJoinPool.
+     */
+    public AccessReporter(Graph graph, Prohibitions prohibitions, OperationSet resourceOps) {
+        this(graph, prohibitions, resourceOps, ForkJoinPool.commonPool());
+    }
+
+    public AccessReporter(Graph graph, Prohibitions prohibitions, OperationSet resourceOps, ForkJoinPool pool) {
+        if (graph == null) {
+            throw new IllegalArgumentException("NGAC graph cannot be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("the pool to run reports on cannot be null");
+        }
+
+        this.graph = graph;
+        this.prohibitions = prohibitions == null ? new MemProhibitions() : prohibitions;
+        this.resourceOps = resourceOps;
+        this.pool = pool;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the number of targets or users a single task will process before the work is not split any further.
+     *
+     * @param batchSize the batch size, must be greater than 0.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("the batch size of a report must be greater than 0");
+        }
+
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Generate the ACL of every object in the graph.
+     *
+     * @param process the process requesting the report, can be null or empty.
+     * @param sink the sink to send the ACL of each object to.
+     * @throws PMException if there is an error generating an ACL or the sink fails.
+     */
+    public void generateACLs(String process, ReportSink sink) throws PMException {
+        Graph snapshot = graph.snapshot();
+        run(snapshot, getNames(snapshot, O), sink, (decider, target) -> decider.generateACL(target, process));
+    }
+
+    /**
+     * Generate the ACL of each of the given targets.
+     *
+     * @param targets the targets to generate ACLs for.
+     * @param process the process requesting the report, can be null or empty.
+     * @param sink the sink to send the ACL of each target to.
+     * @throws PMException if there is an error generating an ACL or the sink fails.
+     */
+    public void generateACLs(Collection<String> targets, String process, ReportSink sink) throws PMException {
+        run(graph.snapshot(), new ArrayList<>(targets), sink, (decider, target) -> decider.generateACL(target, process));
+    }
+
+    /**
+     * Generate the capability list of every user in the graph.
+     *
+     * @param process the process requesting the report, can be null or empty.
+     * @param sink the sink to send the capability list of each user to.
+     * @throws PMException if there is an error generating a capability list or the sink fails.
+     */
+    public void generateCapabilityLists(String process, ReportSink sink) throws PMException {
+        Graph snapshot = graph.snapshot();
+        run(snapshot, getNames(snapshot, U), sink, (decider, user) -> decider.getCapabilityList(user, process));
+    }
+
+    /**
+     * Generate the capability list of each of the given users.
+     *
+     * @param users the users to generate capability lists for.
+     * @param process the process requesting the report, can be null or empty.
+     * @param sink the sink to send the capability list of each user to.
+     * @throws PMException if there is an error generating a capability list or the sink fails.
+     */
+    public void generateCapabilityLists(Collection<String> users, String process, ReportSink sink) throws PMException {
+        run(graph.snapshot(), new ArrayList<>(users), sink, (decider, user) -> decider.getCapabilityList(user, process));
+    }
+
+    private List<String> getNames(Graph graph, NodeType type) throws PMException {
+        List<String> names = new ArrayList<>();
+        for (Node node : graph.search(type, null)) {
+            names.add(node.getName());
+        }
+        return names;
+    }
+
+    private void run(Graph snapshot, List<String> names, ReportSink sink, Entry entry) throws PMException {
+        // copy the prohibitions so every entry of the report is resolved against the same prohibitions
+        MemProhibitions prohibitionsCopy = new MemProhibitions();
+        for (Prohibition prohibition : prohibitions.getAll()) {
+            prohibitionsCopy.add(prohibition);
+        }
+
+        PReviewDecider decider = new PReviewDecider(snapshot, prohibitionsCopy, resourceOps);
+        ReportTask task = new ReportTask(decider, names, 0, names.size(), sink, entry);
+        try {
+            pool.invoke(task);
+        } catch (ReportException e) {
+            // the pool may wrap the exception thrown by a worker in a copy of it
+            Throwable cause = e.getCause();
+            while (cause instanceof ReportException) {
+                cause = cause.getCause();
+            }
+            throw (PMException) cause;
+        }
+    }
+
+    private interface Entry {
+        Map<String, Set<String>> compute(PReviewDecider decider, String name) throws PMException;
+    }
+
+    private class ReportTask extends RecursiveAction {
+        private final PReviewDecider decider;
+        private final List<String> names;
+        private final int from;
+        private final int to;
+        private final ReportSink sink;
+        private final Entry entry;
+
+        ReportTask(PReviewDecider decider, List<String> names, int from, int to, ReportSink sink, Entry entry) {
+            this.decider = decider;
+            this.names = names;
+            this.from = from;
+            this.to = to;
+            this.sink = sink;
+            this.entry = entry;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > batchSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ReportTask(decider, names, from, mid, sink, entry),
+                        new ReportTask(decider, names, mid, to, sink, entry));
+                return;
+            }
+
+            for (int i = from; i < to; i++) {
+                String name = names.get(i);
+                try {
+                    sink.accept(name, entry.compute(decider, name));
+                } catch (PMException e) {
+                    throw new ReportException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Carries a PMException out of the pool so it can be rethrown to the caller of the report.
+     */
+    private static class ReportException extends RuntimeException {
+        ReportException(PMException cause) {
+            super(cause);
+        }
+    }
+}
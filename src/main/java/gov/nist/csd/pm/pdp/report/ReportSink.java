@@ -0,0 +1,26 @@
+package gov.nist.csd.pm.pdp.report;
+
+import gov.nist.csd.pm.exceptions.PMException;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Receives the entries of an access report as they are generated. An entry of an ACL report is a target and the
+ * permissions each user has on it, and an entry of a capability report is a user and the permissions they have on each
+ * node.
+ *
+ * Entries are delivered from the worker threads of the report, in no particular order, so implementations must be
+ * thread safe.
+ */
+public interface ReportSink {
+
+    /**
+     * Accept one entry of a report.
+     *
+     * @param name the name of the target or user the entry is for.
+     * @param permissions the permissions of the entry.
+     * @throws PMException if there is an error handling the entry. The report is stopped.
+     */
+    void accept(String name, Map<String, Set<String>> permissions) throws PMException;
+}
@@ -10,6 +10,7 @@ import gov.nist.csd.pm.pdp.decider.Decider;
 import gov.nist.csd.pm.pap.policies.SuperPolicy;
 import gov.nist.csd.pm.pdp.services.guard.GraphGuard;
 import gov.nist.csd.pm.common.FunctionalEntity;
+import gov.nist.csd.pm.common.tx.TxDelegate;
 import gov.nist.csd.pm.pip.graph.Graph;
 import gov.nist.csd.pm.pip.graph.model.nodes.Node;
 import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
@@ -26,7 +27,7 @@ import static gov.nist.csd.pm.pip.graph.model.nodes.Properties.REP_PROPERTY;
  * GraphService provides methods to maintain an NGAC graph, while also ensuring any user interacting with the graph,
  * has the correct permissions to do so.
  */
-public class GraphService extends Service implements Graph {
+public class GraphService extends Service implements Graph, TxDelegate {
 
     private Graph graph;
     private GraphGuard guard;
@@ -37,6 +38,11 @@ public class GraphService extends Service implements Graph {
         this.guard = new GraphGuard(pap, decider);
     }
 
+    @Override
+    public Graph getDelegate() {
+        return graph;
+    }
+
     @Override
     public Node createPolicyClass(String name, Map<String, String> properties) throws PMException {
         // check user has permission to create a policy class
@@ -6,6 +6,7 @@ import gov.nist.csd.pm.pdp.audit.Auditor;
 import gov.nist.csd.pm.pdp.decider.Decider;
 import gov.nist.csd.pm.pdp.services.guard.ObligationsGuard;
 import gov.nist.csd.pm.common.FunctionalEntity;
+import gov.nist.csd.pm.common.tx.TxDelegate;
 import gov.nist.csd.pm.pip.obligations.Obligations;
 import gov.nist.csd.pm.pip.obligations.model.Obligation;
 
@@ -13,7 +14,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-public class ObligationsService extends Service implements Obligations {
+public class ObligationsService extends Service implements Obligations, TxDelegate {
 
     private ObligationsGuard guard;
 
@@ -23,6 +24,11 @@ public class ObligationsService extends Service implements Obligations {
         this.guard = new ObligationsGuard(pap, decider);
     }
 
+    @Override
+    public Obligations getDelegate() throws PMException {
+        return getObligationsAdmin();
+    }
+
     @Override
     public void add(Obligation obligation, boolean enable) throws PMException {
         guard.checkAdd(userCtx);
@@ -6,13 +6,14 @@ import gov.nist.csd.pm.pdp.audit.Auditor;
 import gov.nist.csd.pm.pdp.decider.Decider;
 import gov.nist.csd.pm.pdp.services.guard.ProhibitionsGuard;
 import gov.nist.csd.pm.common.FunctionalEntity;
+import gov.nist.csd.pm.common.tx.TxDelegate;
 import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
 import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-public class ProhibitionsService extends Service implements Prohibitions {
+public class ProhibitionsService extends Service implements Prohibitions, TxDelegate {
 
     private ProhibitionsGuard guard;
 
@@ -22,6 +23,11 @@ public class ProhibitionsService extends Service implements Prohibitions {
         this.guard = new ProhibitionsGuard(pap, decider);
     }
 
+    @Override
+    public Prohibitions getDelegate() throws PMException {
+        return getProhibitionsAdmin();
+    }
+
     @Override
     public void add(Prohibition prohibition) throws PMException {
         guard.checkAdd(userCtx, prohibition);
@@ -9,6 +9,8 @@ import gov.nist.csd.pm.common.FunctionalEntity;
 import gov.nist.csd.pm.pip.graph.model.nodes.Node;
 import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -123,33 +125,43 @@ public class GraphGuard extends Guard {
     }
 
     public void filter(UserContext userCtx, Set<String> nodes) throws PMException {
-        nodes.removeIf(node -> {
-            try {
-                return !hasPermissions(userCtx, node);
-            } catch (PMException e) {
-                return true;
-            }
-        });
+        nodes.retainAll(getPermittedOrCheckEach(userCtx, nodes));
     }
 
     public void filterNodes(UserContext userCtx, Set<Node> nodes) {
-        nodes.removeIf(node -> {
-            try {
-                return !hasPermissions(userCtx, node.getName());
-            } catch (PMException e) {
-                return true;
-            }
-        });
+        Set<String> names = new HashSet<>();
+        for (Node node : nodes) {
+            names.add(node.getName());
+        }
+
+        Set<String> permitted = getPermittedOrCheckEach(userCtx, names);
+        nodes.removeIf(node -> !permitted.contains(node.getName()));
     }
 
     public void filter(UserContext userCtx, Map<String, OperationSet> map) {
-        map.keySet().removeIf(key -> {
-            try {
-                return !hasPermissions(userCtx, key);
-            } catch (PMException e) {
-                return true;
+        map.keySet().retainAll(getPermittedOrCheckEach(userCtx, map.keySet()));
+    }
+
+    /**
+     * Get the targets the user has at least one permission on. If the batched decision fails, each target is checked on
+     * its own, so an error deciding one target only filters out that target.
+     */
+    private Set<String> getPermittedOrCheckEach(UserContext userCtx, Collection<String> targets) {
+        try {
+            return getPermitted(userCtx, targets);
+        } catch (PMException e) {
+            Set<String> permitted = new HashSet<>();
+            for (String target : targets) {
+                try {
+                    if (hasPermissions(userCtx, target)) {
+                        permitted.add(target);
+                    }
+                } catch (PMException ex) {
+                    // the target is filtered out
+                }
             }
-        });
+            return permitted;
+        }
     }
 
     public void checkAssign(UserContext userCtx, String child, String parent) throws PMException {
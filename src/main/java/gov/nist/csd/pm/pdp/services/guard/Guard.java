@@ -9,8 +9,7 @@ import gov.nist.csd.pm.pdp.services.UserContext;
 import gov.nist.csd.pm.common.FunctionalEntity;
 import gov.nist.csd.pm.pip.graph.model.nodes.Node;
 
-import java.util.Arrays;
-import java.util.Set;
+import java.util.*;
 
 import static gov.nist.csd.pm.operations.Operations.RESET;
 import static gov.nist.csd.pm.pap.policies.SuperPolicy.SUPER_PC_REP;
@@ -57,6 +56,46 @@ public class Guard {
         }
     }
 
+    /**
+     * Get the targets the user has at least one permission on. The decisions for all of the targets are made with a single
+     * call to the decider. Targets that do not exist, or that are policy classes without a rep node, are not included.
+     */
+    Set<String> getPermitted(UserContext userCtx, Collection<String> targets) throws PMException {
+        // assert that the user context is not null
+        assertUserCtx(userCtx);
+
+        // if checking the permissions on a PC, check the permissions on the rep node for the PC
+        Map<String, String> decisionTargets = new HashMap<>();
+        for (String target : targets) {
+            if (!pap.getGraph().exists(target)) {
+                continue;
+            }
+
+            Node node = pap.getGraph().getNode(target);
+            if (node.getType().equals(PC)) {
+                String rep = node.getProperties().get(REP_PROPERTY);
+                if (rep != null) {
+                    decisionTargets.put(target, rep);
+                }
+            } else {
+                decisionTargets.put(target, target);
+            }
+        }
+
+        Map<String, Set<String>> allowed = decider.listAll(userCtx.getUser(), userCtx.getProcess(),
+                new HashSet<>(decisionTargets.values()));
+
+        Set<String> permitted = new HashSet<>();
+        for (Map.Entry<String, String> e : decisionTargets.entrySet()) {
+            Set<String> ops = allowed.get(e.getValue());
+            if (ops != null && !ops.isEmpty()) {
+                permitted.add(e.getKey());
+            }
+        }
+
+        return permitted;
+    }
+
     public void checkReset(UserContext userCtx) throws PMException {
         // check that the user can reset the graph
         if (!hasPermissions(userCtx, SUPER_PC_REP, RESET)) {
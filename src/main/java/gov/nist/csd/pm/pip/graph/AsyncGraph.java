@@ -0,0 +1,139 @@
+package gov.nist.csd.pm.pip.graph;
+
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * A non blocking variant of the Graph interface. Each method returns immediately with a future that completes with the
+ * result of the operation, or completes exceptionally with the PMException the operation failed with. Independent
+ * lookups can be issued together and run concurrently, such as the parents of every node in a level of a breadth first
+ * search.
+ */
+public interface AsyncGraph {
+
+    /**
+     * Adapt a Graph to an AsyncGraph that runs each operation on the given executor.
+     *
+     * @param graph the graph to adapt.
+     * @param executor the executor to run the operations on.
+     * @return an AsyncGraph backed by the given graph.
+     */
+    static AsyncGraph of(Graph graph, Executor executor) {
+        return new AsyncGraphAdapter(graph, executor);
+    }
+
+    CompletableFuture<Node> createPolicyClass(String name, Map<String, String> properties);
+
+    CompletableFuture<Node> createNode(String name, NodeType type, Map<String, String> properties, String initialParent, String ... additionalParents);
+
+    CompletableFuture<Void> updateNode(String name, Map<String, String> properties);
+
+    CompletableFuture<Void> deleteNode(String name);
+
+    CompletableFuture<Boolean> exists(String name);
+
+    CompletableFuture<Set<String>> getPolicyClasses();
+
+    CompletableFuture<Set<Node>> getNodes();
+
+    CompletableFuture<Node> getNode(String name);
+
+    CompletableFuture<Node> getNode(NodeType type, Map<String, String> properties);
+
+    CompletableFuture<Set<Node>> search(NodeType type, Map<String, String> properties);
+
+    CompletableFuture<Set<String>> getChildren(String name);
+
+    CompletableFuture<Set<String>> getParents(String name);
+
+    CompletableFuture<Void> assign(String child, String parent);
+
+    CompletableFuture<Void> deassign(String child, String parent);
+
+    CompletableFuture<Boolean> isAssigned(String child, String parent);
+
+    CompletableFuture<Void> associate(String ua, String target, OperationSet operations);
+
+    CompletableFuture<Void> dissociate(String ua, String target);
+
+    CompletableFuture<Map<String, OperationSet>> getSourceAssociations(String source);
+
+    CompletableFuture<Map<String, OperationSet>> getTargetAssociations(String target);
+
+    /**
+     * Get the nodes with the given names. The lookups are issued together.
+     *
+     * @param names the names of the nodes.
+     * @return a future with a map of each name to its node.
+     */
+    default CompletableFuture<Map<String, Node>> getNodes(Collection<String> names) {
+        return forEach(names, this::getNode);
+    }
+
+    /**
+     * Get the children of each of the given nodes. The lookups are issued together.
+     *
+     * @param names the names of the nodes.
+     * @return a future with a map of each name to the names of its children.
+     */
+    default CompletableFuture<Map<String, Set<String>>> getChildren(Collection<String> names) {
+        return forEach(names, this::getChildren);
+    }
+
+    /**
+     * Get the parents of each of the given nodes. The lookups are issued together.
+     *
+     * @param names the names of the nodes.
+     * @return a future with a map of each name to the names of its parents.
+     */
+    default CompletableFuture<Map<String, Set<String>>> getParents(Collection<String> names) {
+        return forEach(names, this::getParents);
+    }
+
+    /**
+     * Get the associations each of the given nodes is the source of. The lookups are issued together.
+     *
+     * @param sources the names of the source nodes.
+     * @return a future with a map of each source to its associations.
+     */
+    default CompletableFuture<Map<String, Map<String, OperationSet>>> getSourceAssociations(Collection<String> sources) {
+        return forEach(sources, this::getSourceAssociations);
+    }
+
+    /**
+     * Issue a lookup for each key and combine the results into a map once all of them complete. If any lookup fails, the
+     * returned future fails with the first failure.
+     */
+    static <T> CompletableFuture<Map<String, T>> forEach(Collection<String> keys,
+                                                         Function<String, CompletableFuture<T>> lookup) {
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (String key : keys) {
+            futures.put(key, lookup.apply(key));
+        }
+
+        CompletableFuture<Map<String, T>> result = new CompletableFuture<>();
+        CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                .whenComplete((v, ex) -> {
+                    if (ex != null) {
+                        // complete with the failure of the lookup rather than the CompletionException wrapping it
+                        result.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null
+                                ? ex.getCause() : ex);
+                        return;
+                    }
+
+                    Map<String, T> results = new LinkedHashMap<>();
+                    for (Map.Entry<String, CompletableFuture<T>> e : futures.entrySet()) {
+                        results.put(e.getKey(), e.getValue().join());
+                    }
+                    result.complete(results);
+                });
+        return result;
+    }
+}
@@ -0,0 +1,166 @@
+package gov.nist.csd.pm.pip.graph;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An AsyncGraph that runs each operation of a Graph on an executor. The concurrency of the lookups is bounded by the
+ * executor, so a graph that is backed by a connection pool should be given an executor with no more threads than the
+ * pool has connections.
+ */
+public class AsyncGraphAdapter implements AsyncGraph {
+
+    private final Graph graph;
+    private final Executor executor;
+
+    public AsyncGraphAdapter(Graph graph, Executor executor) {
+        if (graph == null || executor == null) {
+            throw new IllegalArgumentException("an async graph requires a graph and an executor");
+        }
+
+        this.graph = graph;
+        this.executor = executor;
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    @Override
+    public CompletableFuture<Node> createPolicyClass(String name, Map<String, String> properties) {
+        return supply(() -> graph.createPolicyClass(name, properties));
+    }
+
+    @Override
+    public CompletableFuture<Node> createNode(String name, NodeType type, Map<String, String> properties, String initialParent, String... additionalParents) {
+        return supply(() -> graph.createNode(name, type, properties, initialParent, additionalParents));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateNode(String name, Map<String, String> properties) {
+        return run(() -> graph.updateNode(name, properties));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteNode(String name) {
+        return run(() -> graph.deleteNode(name));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(String name) {
+        return supply(() -> graph.exists(name));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> getPolicyClasses() {
+        return supply(graph::getPolicyClasses);
+    }
+
+    @Override
+    public CompletableFuture<Set<Node>> getNodes() {
+        return supply(graph::getNodes);
+    }
+
+    @Override
+    public CompletableFuture<Node> getNode(String name) {
+        return supply(() -> graph.getNode(name));
+    }
+
+    @Override
+    public CompletableFuture<Node> getNode(NodeType type, Map<String, String> properties) {
+        return supply(() -> graph.getNode(type, properties));
+    }
+
+    @Override
+    public CompletableFuture<Set<Node>> search(NodeType type, Map<String, String> properties) {
+        return supply(() -> graph.search(type, properties));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> getChildren(String name) {
+        return supply(() -> graph.getChildren(name));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> getParents(String name) {
+        return supply(() -> graph.getParents(name));
+    }
+
+    @Override
+    public CompletableFuture<Void> assign(String child, String parent) {
+        return run(() -> graph.assign(child, parent));
+    }
+
+    @Override
+    public CompletableFuture<Void> deassign(String child, String parent) {
+        return run(() -> graph.deassign(child, parent));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isAssigned(String child, String parent) {
+        return supply(() -> graph.isAssigned(child, parent));
+    }
+
+    @Override
+    public CompletableFuture<Void> associate(String ua, String target, OperationSet operations) {
+        return run(() -> graph.associate(ua, target, operations));
+    }
+
+    @Override
+    public CompletableFuture<Void> dissociate(String ua, String target) {
+        return run(() -> graph.dissociate(ua, target));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, OperationSet>> getSourceAssociations(String source) {
+        return supply(() -> graph.getSourceAssociations(source));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, OperationSet>> getTargetAssociations(String target) {
+        return supply(() -> graph.getTargetAssociations(target));
+    }
+
+    private interface Call<T> {
+        T call() throws PMException;
+    }
+
+    private interface Action {
+        void run() throws PMException;
+    }
+
+    private CompletableFuture<Void> run(Action action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run the call on the executor. The returned future completes exceptionally with the exception thrown by the call
+     * itself, not a CompletionException wrapping it.
+     */
+    private <T> CompletableFuture<T> supply(Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (PMException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -246,4 +246,16 @@ public interface Graph {
      * @param s the string representation of the graph
      */
     void fromJson(String s) throws PMException;
+
+    /**
+     * Get a read only view of the graph that will not change while it is being read. Implementations that support
+     * snapshots return an immutable copy of the graph at its current version; the default implementation does not
+     * and returns this graph.
+     *
+     * @return a snapshot of the graph.
+     * @throws PMException if there is an error taking the snapshot.
+     */
+    default Graph snapshot() throws PMException {
+        return this;
+    }
 }
@@ -0,0 +1,32 @@
+package gov.nist.csd.pm.pip.graph;
+
+/**
+ * Interface for receiving notifications when the relations of a graph change. Implementations of the Graph interface
+ * that support listeners call these methods after the change has been applied.
+ */
+public interface GraphListener {
+
+    /**
+     * Called after the node with the given name is deleted from the graph. The assignments and associations deleted with
+     * the node are reported before it.
+     *
+     * @param name the name of the deleted node.
+     */
+    void nodeDeleted(String name);
+
+    /**
+     * Called after the child is assigned to or deassigned from the parent.
+     *
+     * @param child the name of the child node.
+     * @param parent the name of the parent node.
+     */
+    void assignmentChanged(String child, String parent);
+
+    /**
+     * Called after an association between the user attribute and target is created, updated, or deleted.
+     *
+     * @param ua the name of the user attribute.
+     * @param target the name of the target node.
+     */
+    void associationChanged(String ua, String target);
+}
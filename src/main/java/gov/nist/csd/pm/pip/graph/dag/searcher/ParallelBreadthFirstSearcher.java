@@ -0,0 +1,92 @@
+package gov.nist.csd.pm.pip.graph.dag.searcher;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.pip.graph.AsyncGraph;
+import gov.nist.csd.pm.pip.graph.dag.propagator.Propagator;
+import gov.nist.csd.pm.pip.graph.dag.visitor.Visitor;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A breadth first search that expands a whole level at a time. The next level of every node in the frontier is looked
+ * up with one set of concurrent queries, and the nodes that have not been seen yet are then fetched together. The nodes
+ * are visited and propagated to in the same order as the BreadthFirstSearcher.
+ */
+public class ParallelBreadthFirstSearcher implements Searcher {
+
+    private AsyncGraph graph;
+
+    public ParallelBreadthFirstSearcher(AsyncGraph graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public void traverse(Node start, Propagator propagator, Visitor visitor, Direction direction) throws PMException {
+        Set<String> seen = new HashSet<>();
+        List<Node> frontier = new ArrayList<>();
+        frontier.add(start);
+        seen.add(start.getName());
+
+        while (!frontier.isEmpty()) {
+            List<String> names = new ArrayList<>();
+            for (Node node : frontier) {
+                names.add(node.getName());
+            }
+            Map<String, Set<String>> nextLevels = await(direction == Direction.PARENTS
+                    ? graph.getParents(names)
+                    : graph.getChildren(names));
+
+            // fetch the nodes of the next level that have not been seen yet in one round
+            Set<String> unseen = new LinkedHashSet<>();
+            for (Set<String> nextLevel : nextLevels.values()) {
+                for (String name : nextLevel) {
+                    if (!seen.contains(name)) {
+                        unseen.add(name);
+                    }
+                }
+            }
+            Map<String, Node> nodes = await(graph.getNodes(unseen));
+
+            List<Node> next = new ArrayList<>();
+            for (Node node : frontier) {
+                // visit the current node
+                visitor.visit(node);
+
+                for (String name : nextLevels.get(node.getName())) {
+                    // if this node has already been seen, we don't need to see it again
+                    if (!seen.add(name)) {
+                        continue;
+                    }
+
+                    Node n = nodes.get(name);
+                    next.add(n);
+
+                    // propagate from the nextLevel to the current node
+                    propagator.propagate(node, n);
+                }
+            }
+
+            frontier = next;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws PMException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PMException("interrupted while searching the graph");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PMException) {
+                throw (PMException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PMException(String.valueOf(cause));
+        }
+    }
+}
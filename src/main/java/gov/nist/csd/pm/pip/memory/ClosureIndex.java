@@ -0,0 +1,199 @@
+package gov.nist.csd.pm.pip.memory;
+
+import gov.nist.csd.pm.pip.graph.model.relationships.Association;
+import gov.nist.csd.pm.pip.graph.model.relationships.Relationship;
+import org.jgrapht.DirectedGraph;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of the ancestors and reachable policy classes of every node in a MemGraph. The index is maintained
+ * incrementally by the graph as assignments are created and deleted, so lookups never traverse the graph.
+ *
+ * The sets stored in the index are never modified once they are published, updates replace them. This means the sets
+ * returned by getAncestors and getPolicyClasses can be read without holding the graph's lock.
+ */
+public class ClosureIndex {
+
+    private final Map<String, Set<String>> ancestors;
+    private final Map<String, Set<String>> policyClasses;
+
+    ClosureIndex() {
+        this.ancestors = new ConcurrentHashMap<>();
+        this.policyClasses = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param name the name of the node.
+     * @return every node the given node is directly or indirectly assigned to, not including the node itself.
+     */
+    public Set<String> getAncestors(String name) {
+        return ancestors.getOrDefault(name, Collections.emptySet());
+    }
+
+    /**
+     * @param name the name of the node.
+     * @return the policy classes reachable from the given node. If the node is a policy class, this is the node itself.
+     */
+    public Set<String> getPolicyClasses(String name) {
+        return policyClasses.getOrDefault(name, Collections.emptySet());
+    }
+
+    void addNode(String name, boolean isPolicyClass) {
+        ancestors.put(name, Collections.emptySet());
+        policyClasses.put(name, isPolicyClass ? Collections.singleton(name) : Collections.emptySet());
+    }
+
+    void removeNode(String name) {
+        ancestors.remove(name);
+        policyClasses.remove(name);
+    }
+
+    /**
+     * Add the parent and the parent's ancestors and policy classes to the child and all of the child's descendants.
+     * Descendants that already contain the additions are not expanded, since their own descendants must contain them
+     * as well. The name of every node whose closure changed is added to updated.
+     */
+    void assign(DirectedGraph<String, Relationship> graph, String child, String parent, Set<String> updated) {
+        Set<String> addAncestors = new HashSet<>(getAncestors(parent));
+        addAncestors.add(parent);
+        Set<String> addPolicyClasses = getPolicyClasses(parent);
+
+        Set<String> seen = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(child);
+        seen.add(child);
+        while (!queue.isEmpty()) {
+            String node = queue.poll();
+
+            Set<String> nodeAncestors = getAncestors(node);
+            Set<String> nodePolicyClasses = getPolicyClasses(node);
+            if (nodeAncestors.containsAll(addAncestors) && nodePolicyClasses.containsAll(addPolicyClasses)) {
+                continue;
+            }
+
+            Set<String> updatedAncestors = new HashSet<>(nodeAncestors);
+            updatedAncestors.addAll(addAncestors);
+            Set<String> updatedPolicyClasses = new HashSet<>(nodePolicyClasses);
+            updatedPolicyClasses.addAll(addPolicyClasses);
+            ancestors.put(node, Collections.unmodifiableSet(updatedAncestors));
+            policyClasses.put(node, Collections.unmodifiableSet(updatedPolicyClasses));
+            updated.add(node);
+
+            for (String c : getChildren(graph, node)) {
+                if (seen.add(c)) {
+                    queue.add(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recompute the closure of the child and all of its descendants after an assignment is deleted. Nodes are processed
+     * in topological order so each node is computed after the parents it shares with the affected set. The name of every
+     * recomputed node is added to updated.
+     */
+    void deassign(DirectedGraph<String, Relationship> graph, String child, Set<String> updated) {
+        Set<String> affected = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(child);
+        affected.add(child);
+        while (!queue.isEmpty()) {
+            for (String c : getChildren(graph, queue.poll())) {
+                if (affected.add(c)) {
+                    queue.add(c);
+                }
+            }
+        }
+
+        recompute(graph, affected);
+        updated.addAll(affected);
+    }
+
+    /**
+     * Rebuild the index for every node in the graph.
+     */
+    void rebuild(DirectedGraph<String, Relationship> graph, Set<String> pcs) {
+        ancestors.clear();
+        policyClasses.clear();
+        for (String node : graph.vertexSet()) {
+            addNode(node, pcs.contains(node));
+        }
+
+        recompute(graph, graph.vertexSet());
+    }
+
+    private void recompute(DirectedGraph<String, Relationship> graph, Set<String> nodes) {
+        // count the parents of each node that are also being recomputed
+        Map<String, Integer> inDegree = new HashMap<>();
+        Deque<String> queue = new ArrayDeque<>();
+        for (String node : nodes) {
+            int count = 0;
+            for (String parent : getParents(graph, node)) {
+                if (nodes.contains(parent)) {
+                    count++;
+                }
+            }
+
+            inDegree.put(node, count);
+            if (count == 0) {
+                queue.add(node);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            String node = queue.poll();
+            inDegree.remove(node);
+
+            Set<String> nodeAncestors = new HashSet<>();
+            Set<String> nodePolicyClasses = new HashSet<>();
+            if (getPolicyClasses(node).contains(node)) {
+                nodePolicyClasses.add(node);
+            }
+
+            for (String parent : getParents(graph, node)) {
+                nodeAncestors.add(parent);
+                nodeAncestors.addAll(getAncestors(parent));
+                nodePolicyClasses.addAll(getPolicyClasses(parent));
+            }
+
+            ancestors.put(node, Collections.unmodifiableSet(nodeAncestors));
+            policyClasses.put(node, Collections.unmodifiableSet(nodePolicyClasses));
+
+            for (String c : getChildren(graph, node)) {
+                Integer count = inDegree.get(c);
+                if (count == null) {
+                    continue;
+                }
+
+                if (count == 1) {
+                    queue.add(c);
+                }
+                inDegree.put(c, count - 1);
+            }
+        }
+    }
+
+    private static Set<String> getParents(DirectedGraph<String, Relationship> graph, String name) {
+        Set<String> parents = new HashSet<>();
+        for (Relationship rel : graph.outgoingEdgesOf(name)) {
+            if (rel instanceof Association) {
+                continue;
+            }
+            parents.add(rel.getTarget());
+        }
+        return parents;
+    }
+
+    private static Set<String> getChildren(DirectedGraph<String, Relationship> graph, String name) {
+        Set<String> children = new HashSet<>();
+        for (Relationship rel : graph.incomingEdgesOf(name)) {
+            if (rel instanceof Association) {
+                continue;
+            }
+            children.add(rel.getSource());
+        }
+        return children;
+    }
+}
@@ -0,0 +1,726 @@
+package gov.nist.csd.pm.pip.memory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.GraphListener;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
+import gov.nist.csd.pm.pip.graph.model.relationships.Assignment;
+import gov.nist.csd.pm.pip.graph.model.relationships.Association;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.PC;
+
+/**
+ * CompactGraph is an in-memory implementation of the graph interface designed for very large graphs. Node names are
+ * interned to int ids, assignments and associations are stored as int adjacency lists in compressed sparse row form,
+ * and the operations of associations are stored as bitsets over a dictionary of every operation used in the graph.
+ *
+ * Node ids are looked up in an open addressing table, ids of deleted nodes are kept on an int stack for reuse, and the
+ * operations of each association are looked up by a long key of its source and target ids, so none of them are boxed.
+ *
+ * In addition to the Graph interface, the parents and children of a node can be iterated by id without allocating,
+ * using getId, getParentCount, getParent, getChildCount, and getChild. Like MemGraph, reads hold the read lock of
+ * getLock and mutations hold its write lock.
+ */
+public class CompactGraph implements Graph {
+
+    private static final String NODE_NOT_FOUND_MSG = "node %s does not exist in the graph";
+    private static final NodeType[] TYPES = NodeType.values();
+
+    private final StringIntMap ids;
+    private String[] names;
+    private byte[] types;
+    private Map<String, String>[] properties;
+    private int numIds;
+    private int[] freeIds;
+    private int numFreeIds;
+    private int[] pcs;
+    private int numPcs;
+
+    private final IntAdjacency parents;
+    private final IntAdjacency children;
+    private final IntAdjacency assocTargets;
+    private final IntAdjacency assocSources;
+    private final LongObjectMap<long[]> assocOps;
+
+    private final StringIntMap opIds;
+    private final List<String> ops;
+
+    private final List<GraphListener> listeners;
+    private final ReadWriteLock lock;
+
+    /**
+     * Default constructor to create an empty graph in memory.
+     */
+    @SuppressWarnings("unchecked")
+    public CompactGraph() {
+        ids = new StringIntMap();
+        names = new String[16];
+        types = new byte[16];
+        properties = new Map[16];
+        freeIds = new int[16];
+        pcs = new int[4];
+
+        parents = new IntAdjacency();
+        children = new IntAdjacency();
+        assocTargets = new IntAdjacency();
+        assocSources = new IntAdjacency();
+        assocOps = new LongObjectMap<>();
+
+        opIds = new StringIntMap();
+        ops = new ArrayList<>();
+
+        listeners = new ArrayList<>();
+        lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Reads of the graph hold the read lock of this lock, so they do not block each other, and mutations hold the
+     * write lock. Callers that need several mutations to be applied atomically can hold the write lock around them.
+     *
+     * @return the lock that guards this graph.
+     */
+    public ReadWriteLock getLock() {
+        return lock;
+    }
+
+    /**
+     * Register a listener to be notified after assignments, associations, or nodes are changed in this graph.
+     *
+     * @param listener the listener to add.
+     */
+    public void addListener(GraphListener listener) {
+        lock.writeLock().lock();
+        try {
+            listeners.add(listener);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeListener(GraphListener listener) {
+        lock.writeLock().lock();
+        try {
+            listeners.remove(listener);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param name the name of the node.
+     * @return the id of the node with the given name, or -1 if it does not exist.
+     */
+    public int getId(String name) {
+        lock.readLock().lock();
+        try {
+            return ids.get(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param id the id of the node.
+     * @return the name of the node with the given id.
+     */
+    public String getName(int id) {
+        lock.readLock().lock();
+        try {
+            return names[id];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getParentCount(int id) {
+        lock.readLock().lock();
+        try {
+            return parents.size(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getParent(int id, int index) {
+        lock.readLock().lock();
+        try {
+            return parents.get(id, index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getChildCount(int id) {
+        lock.readLock().lock();
+        try {
+            return children.size(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getChild(int id, int index) {
+        lock.readLock().lock();
+        try {
+            return children.get(id, index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Node createPolicyClass(String name, Map<String, String> properties) throws PMException {
+        lock.writeLock().lock();
+        try {
+            if (name == null) {
+                throw new PMException("no name was provided when creating a node in the in-memory graph");
+            } else if (exists(name)) {
+                throw new PMException("the name " + name + " already exists in the graph");
+            }
+
+            int id = addNode(name, PC, properties);
+            if (numPcs == pcs.length) {
+                pcs = Arrays.copyOf(pcs, numPcs * 2);
+            }
+            pcs[numPcs++] = id;
+
+            return new Node(name, PC, properties);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Node createNode(String name, NodeType type, Map<String, String> properties, String initialParent, String... additionalParents) throws PMException {
+        lock.writeLock().lock();
+        try {
+            if (type == PC) {
+                throw new PMException("use createPolicyClass to create a policy class node");
+            } else if (name == null) {
+                throw new PMException("no name was provided when creating a node in the in-memory graph");
+            } else if (exists(name)) {
+                throw new PMException("the name " + name + " already exists in the graph");
+            } else if (type == null) {
+                throw new PMException("a null type was provided to the in memory graph when creating a node");
+            } else if (initialParent == null) {
+                throw new PMException("must specify an initial parent when creating a non policy class node");
+            }
+
+            addNode(name, type, properties);
+
+            // assign the new node the to given parent nodes
+            assign(name, initialParent);
+            for (String parent : additionalParents) {
+                assign(name, parent);
+            }
+
+            return new Node(name, type, properties);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int addNode(String name, NodeType type, Map<String, String> props) {
+        int id;
+        if (numFreeIds > 0) {
+            id = freeIds[--numFreeIds];
+        } else {
+            id = numIds++;
+            if (id == names.length) {
+                int length = names.length * 2;
+                names = Arrays.copyOf(names, length);
+                types = Arrays.copyOf(types, length);
+                properties = Arrays.copyOf(properties, length);
+            }
+        }
+
+        ids.put(name, id);
+        names[id] = name;
+        types[id] = (byte) type.ordinal();
+        properties[id] = props == null || props.isEmpty() ? null : new HashMap<>(props);
+
+        return id;
+    }
+
+    private int getExistingId(String name) throws PMException {
+        int id = ids.get(name);
+        if (id == -1) {
+            throw new PMException(String.format(NODE_NOT_FOUND_MSG, name));
+        }
+        return id;
+    }
+
+    private void removePolicyClass(int id) {
+        for (int i = 0; i < numPcs; i++) {
+            if (pcs[i] == id) {
+                pcs[i] = pcs[--numPcs];
+                return;
+            }
+        }
+    }
+
+    private Node toNode(int id) {
+        Map<String, String> props = properties[id] == null ? new HashMap<>() : new HashMap<>(properties[id]);
+        return new Node(names[id], TYPES[types[id]], props);
+    }
+
+    @Override
+    public void updateNode(String name, Map<String, String> properties) throws PMException {
+        lock.writeLock().lock();
+        try {
+            int id = ids.get(name);
+            if (id == -1) {
+                throw new PMException(String.format("node with the name %s could not be found to update", name));
+            }
+
+            if (properties != null) {
+                this.properties[id] = properties.isEmpty() ? null : new HashMap<>(properties);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteNode(String name) throws PMException {
+        lock.writeLock().lock();
+        try {
+            int id = ids.get(name);
+            if (id == -1) {
+                return;
+            }
+
+            if (children.size(id) != 0 || assocSources.size(id) != 0) {
+                throw new PMException("cannot delete " + name + ", nodes are still assigned to it");
+            }
+
+            List<String> removedParents = new ArrayList<>();
+            for (int i = 0; i < parents.size(id); i++) {
+                children.remove(parents.get(id, i), id);
+                removedParents.add(names[parents.get(id, i)]);
+            }
+            List<String> removedTargets = new ArrayList<>();
+            for (int i = 0; i < assocTargets.size(id); i++) {
+                int target = assocTargets.get(id, i);
+                assocSources.remove(target, id);
+                assocOps.remove(edgeKey(id, target));
+                removedTargets.add(names[target]);
+            }
+            parents.clear(id);
+            assocTargets.clear(id);
+
+            ids.remove(name);
+            removePolicyClass(id);
+            names[id] = null;
+            properties[id] = null;
+            if (numFreeIds == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, numFreeIds * 2);
+            }
+            freeIds[numFreeIds++] = id;
+
+            // listeners are told about each relation removed with the node, as if it had been deleted on its own
+            for (GraphListener listener : listeners) {
+                for (String parent : removedParents) {
+                    listener.assignmentChanged(name, parent);
+                }
+                for (String target : removedTargets) {
+                    listener.associationChanged(name, target);
+                }
+                listener.nodeDeleted(name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean exists(String name) {
+        lock.readLock().lock();
+        try {
+            return ids.containsKey(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> getPolicyClasses() {
+        lock.readLock().lock();
+        try {
+            Set<String> pcNames = new HashSet<>();
+            for (int i = 0; i < numPcs; i++) {
+                pcNames.add(names[pcs[i]]);
+            }
+            return pcNames;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Node> getNodes() {
+        lock.readLock().lock();
+        try {
+            Set<Node> nodes = new HashSet<>();
+            for (int id = 0; id < numIds; id++) {
+                if (names[id] != null) {
+                    nodes.add(toNode(id));
+                }
+            }
+            return nodes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Node getNode(String name) throws PMException {
+        lock.readLock().lock();
+        try {
+            int id = ids.get(name);
+            if (id == -1) {
+                throw new PMException(String.format("a node with the name %s does not exist", name));
+            }
+
+            return toNode(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Node getNode(NodeType type, Map<String, String> properties) throws PMException {
+        lock.readLock().lock();
+        try {
+            Set<Node> search = search(type, properties);
+            if (search.isEmpty()) {
+                throw new PMException(String.format("a node matching the criteria (%s, %s) does not exist", type, properties));
+            }
+
+            return search.iterator().next();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search for nodes that match the given parameters. A node must match all parameters provided including every
+     * property, to be included in the returned set.
+     */
+    @Override
+    public Set<Node> search(NodeType type, Map<String, String> properties) {
+        lock.readLock().lock();
+        try {
+            if (properties == null) {
+                properties = new HashMap<>();
+            }
+
+            Set<Node> results = new HashSet<>();
+            for (int id = 0; id < numIds; id++) {
+                if (names[id] == null || (type != null && TYPES[types[id]] != type)) {
+                    continue;
+                }
+
+                Map<String, String> nodeProps = this.properties[id] == null ? Collections.emptyMap() : this.properties[id];
+                boolean add = true;
+                for (String key : properties.keySet()) {
+                    String checkValue = properties.get(key);
+                    String foundValue = nodeProps.get(key);
+                    // if the property provided in the search parameters is null or *, continue to the next property
+                    if (!(checkValue == null || checkValue.equals("*")) &&
+                            (foundValue == null || !foundValue.equals(checkValue))) {
+                        add = false;
+                        break;
+                    }
+                }
+
+                if (add) {
+                    results.add(toNode(id));
+                }
+            }
+
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> getChildren(String name) throws PMException {
+        lock.readLock().lock();
+        try {
+            int id = getExistingId(name);
+
+            Set<String> set = new HashSet<>();
+            for (int i = 0; i < children.size(id); i++) {
+                set.add(names[children.get(id, i)]);
+            }
+            return set;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> getParents(String name) throws PMException {
+        lock.readLock().lock();
+        try {
+            int id = getExistingId(name);
+
+            Set<String> set = new HashSet<>();
+            for (int i = 0; i < parents.size(id); i++) {
+                set.add(names[parents.get(id, i)]);
+            }
+            return set;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void assign(String child, String parent) throws PMException {
+        lock.writeLock().lock();
+        try {
+            int childID = getExistingId(child);
+            int parentID = getExistingId(parent);
+
+            if (parents.contains(childID, parentID)) {
+                throw new PMException(child + " is already assigned to" + parent);
+            }
+
+            Assignment.checkAssignment(TYPES[types[childID]], TYPES[types[parentID]]);
+
+            parents.add(childID, parentID);
+            children.add(parentID, childID);
+
+            for (GraphListener listener : listeners) {
+                listener.assignmentChanged(child, parent);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deassign(String child, String parent) {
+        lock.writeLock().lock();
+        try {
+            int childID = ids.get(child);
+            int parentID = ids.get(parent);
+            if (childID == -1 || parentID == -1) {
+                return;
+            }
+
+            parents.remove(childID, parentID);
+            children.remove(parentID, childID);
+
+            for (GraphListener listener : listeners) {
+                listener.assignmentChanged(child, parent);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isAssigned(String child, String parent) {
+        lock.readLock().lock();
+        try {
+            int childID = ids.get(child);
+            int parentID = ids.get(parent);
+            return childID != -1 && parentID != -1 && parents.contains(childID, parentID);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void associate(String ua, String target, OperationSet operations) throws PMException {
+        lock.writeLock().lock();
+        try {
+            int uaID = getExistingId(ua);
+            int targetID = getExistingId(target);
+
+            Association.checkAssociation(TYPES[types[uaID]], TYPES[types[targetID]]);
+
+            if (!assocTargets.contains(uaID, targetID)) {
+                assocTargets.add(uaID, targetID);
+                assocSources.add(targetID, uaID);
+            }
+            assocOps.put(edgeKey(uaID, targetID), toBits(operations));
+
+            for (GraphListener listener : listeners) {
+                listener.associationChanged(ua, target);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void dissociate(String ua, String target) {
+        lock.writeLock().lock();
+        try {
+            int uaID = ids.get(ua);
+            int targetID = ids.get(target);
+            if (uaID == -1 || targetID == -1) {
+                return;
+            }
+
+            assocTargets.remove(uaID, targetID);
+            assocSources.remove(targetID, uaID);
+            assocOps.remove(edgeKey(uaID, targetID));
+
+            for (GraphListener listener : listeners) {
+                listener.associationChanged(ua, target);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, OperationSet> getSourceAssociations(String source) throws PMException {
+        lock.readLock().lock();
+        try {
+            int id = getExistingId(source);
+
+            Map<String, OperationSet> assocs = new HashMap<>();
+            for (int i = 0; i < assocTargets.size(id); i++) {
+                int target = assocTargets.get(id, i);
+                assocs.put(names[target], toOperationSet(assocOps.get(edgeKey(id, target))));
+            }
+            return assocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, OperationSet> getTargetAssociations(String target) throws PMException {
+        lock.readLock().lock();
+        try {
+            int id = getExistingId(target);
+
+            Map<String, OperationSet> assocs = new HashMap<>();
+            for (int i = 0; i < assocSources.size(id); i++) {
+                int source = assocSources.get(id, i);
+                assocs.put(names[source], toOperationSet(assocOps.get(edgeKey(source, id))));
+            }
+            return assocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long edgeKey(int source, int target) {
+        return ((long) source << 32) | (target & 0xffffffffL);
+    }
+
+    private long[] toBits(Set<String> operations) {
+        long[] bits = new long[(ops.size() + operations.size() + 63) / 64];
+        for (String op : operations) {
+            int opID = opIds.get(op);
+            if (opID == -1) {
+                opID = ops.size();
+                ops.add(op);
+                opIds.put(op, opID);
+            }
+
+            bits[opID >>> 6] |= 1L << opID;
+        }
+
+        // trim the bitset to the last word with a bit set
+        int length = bits.length;
+        while (length > 0 && bits[length - 1] == 0) {
+            length--;
+        }
+        return length == bits.length ? bits : Arrays.copyOf(bits, length);
+    }
+
+    private OperationSet toOperationSet(long[] bits) {
+        OperationSet operations = new OperationSet();
+        for (int word = 0; word < bits.length; word++) {
+            long w = bits[word];
+            while (w != 0) {
+                int bit = Long.numberOfTrailingZeros(w);
+                operations.add(ops.get(word * 64 + bit));
+                w &= w - 1;
+            }
+        }
+        return operations;
+    }
+
+    @Override
+    public String toJson() {
+        lock.readLock().lock();
+        try {
+            Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+            Set<Node> nodes = getNodes();
+            HashSet<String[]> jsonAssignments = new HashSet<>();
+            HashSet<MemGraph.JsonAssociation> jsonAssociations = new HashSet<>();
+            for (int id = 0; id < numIds; id++) {
+                if (names[id] == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < parents.size(id); i++) {
+                    jsonAssignments.add(new String[]{names[id], names[parents.get(id, i)]});
+                }
+
+                for (int i = 0; i < assocTargets.size(id); i++) {
+                    int target = assocTargets.get(id, i);
+                    jsonAssociations.add(new MemGraph.JsonAssociation(names[id], names[target],
+                            toOperationSet(assocOps.get(edgeKey(id, target)))));
+                }
+            }
+
+            return gson.toJson(new MemGraph.JsonGraph(nodes, jsonAssignments, jsonAssociations));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void fromJson(String json) throws PMException {
+        lock.writeLock().lock();
+        try {
+            MemGraph.JsonGraph jsonGraph = new Gson().fromJson(json, MemGraph.JsonGraph.class);
+            for (Node node : jsonGraph.getNodes()) {
+                if (node.getType().equals(PC)) {
+                    createPolicyClass(node.getName(), node.getProperties());
+                } else if (node.getName() == null || node.getType() == null) {
+                    throw new PMException("invalid node in json: " + node.getName());
+                } else if (exists(node.getName())) {
+                    throw new PMException("the name " + node.getName() + " already exists in the graph");
+                } else {
+                    addNode(node.getName(), node.getType(), node.getProperties());
+                }
+            }
+
+            for (String[] assignment : jsonGraph.getAssignments()) {
+                if (assignment.length != 2) {
+                    throw new PMException("invalid assignment (format=[child, parent]): " + Arrays.toString(assignment));
+                }
+
+                assign(assignment[0], assignment[1]);
+            }
+
+            for (MemGraph.JsonAssociation association : jsonGraph.getAssociations()) {
+                associate(association.getSource(), association.getTarget(), new OperationSet(association.getOperations()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
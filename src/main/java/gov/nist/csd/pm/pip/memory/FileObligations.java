@@ -0,0 +1,174 @@
+package gov.nist.csd.pm.pip.memory;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.pip.obligations.Obligations;
+import gov.nist.csd.pm.pip.obligations.model.Obligation;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Obligations stored in memory and persisted to a file. The file holds the parsed obligations, so they do not have to be
+ * parsed from their source again when the store is opened. The file is memory mapped and read once when the store is
+ * created, and is rewritten after every change.
+ *
+ * The file starts with a header of the magic number 0x504D4F42 ("PMOB"), the format version, and the number of
+ * obligations. Each obligation follows as its length in bytes and the obligation in Java serialized form. The obligation
+ * model classes declare a fixed serialVersionUID, so the format version must be incremented whenever their serialized
+ * fields change incompatibly. Only the obligation model classes and the java.util collections they hold are read back
+ * from the file.
+ */
+public class FileObligations implements Obligations {
+
+    private static final int MAGIC = 0x504D4F42;
+    private static final int VERSION = 1;
+
+    // collections serialize their elements as Object arrays
+    private static final ObjectInputFilter FILTER =
+            ObjectInputFilter.Config.createFilter("gov.nist.csd.pm.pip.obligations.model.**;java.util.*;java.lang.Object;!*");
+
+    private final Path path;
+    private final MemObligations obligations;
+
+    /**
+     * Open the obligations stored in the given file. If the file does not exist, the store starts empty and the file is
+     * created the first time an obligation is added.
+     *
+     * @param path the file the obligations are stored in.
+     * @throws PMException if the file exists but cannot be read.
+     */
+    public FileObligations(Path path) throws PMException {
+        this.path = path;
+        this.obligations = new MemObligations();
+        if (Files.exists(path)) {
+            load();
+        }
+    }
+
+    private void load() throws PMException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+                throw new PMException(path + " is not an obligations file");
+            }
+
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new PMException("unsupported obligations file version " + version + " in " + path);
+            }
+
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                ByteBuffer record = buffer.slice();
+                record.limit(length);
+                buffer.position(buffer.position() + length);
+
+                try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(record))) {
+                    in.setObjectInputFilter(FILTER);
+                    obligations.put((Obligation) in.readObject());
+                }
+            }
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            throw new PMException("error reading obligations from " + path + ": " + e.getMessage());
+        }
+    }
+
+    private void save() throws PMException {
+        List<Obligation> obligations = this.obligations.getAll();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(obligations.size());
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            for (Obligation obligation : obligations) {
+                bytes.reset();
+                try (ObjectOutputStream record = new ObjectOutputStream(bytes)) {
+                    record.writeObject(obligation);
+                }
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+            }
+        } catch (IOException e) {
+            throw new PMException("error writing obligations to " + path + ": " + e.getMessage());
+        }
+
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new PMException("error writing obligations to " + path + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void add(Obligation obligation, boolean enable) throws PMException {
+        obligations.add(obligation, enable);
+        save();
+    }
+
+    @Override
+    public Obligation get(String label) {
+        return obligations.get(label);
+    }
+
+    @Override
+    public List<Obligation> getAll() {
+        return obligations.getAll();
+    }
+
+    @Override
+    public void update(String label, Obligation obligation) throws PMException {
+        obligations.update(label, obligation);
+        save();
+    }
+
+    @Override
+    public void delete(String label) throws PMException {
+        obligations.delete(label);
+        save();
+    }
+
+    @Override
+    public void setEnable(String label, boolean enabled) throws PMException {
+        obligations.setEnable(label, enabled);
+        save();
+    }
+
+    @Override
+    public List<Obligation> getEnabled() {
+        return obligations.getEnabled();
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package gov.nist.csd.pm.pip.memory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
+
+import java.util.*;
+
+/**
+ * An immutable, versioned view of a MemGraph. Reads of a snapshot never take the graph's lock and always see the graph
+ * as it was when the snapshot was taken, regardless of any changes made to the graph since.
+ *
+ * The nodes of a snapshot are stored in a fixed number of hash buckets. When a new snapshot is taken only the records of
+ * the nodes that changed since the previous snapshot are rebuilt, and only the buckets containing those nodes are
+ * copied. Every other bucket is shared with the previous snapshot.
+ */
+public class GraphSnapshot implements Graph {
+
+    static final int BUCKETS = 1024;
+
+    private static final String NODE_NOT_FOUND_MSG = "node %s does not exist in the graph";
+
+    private final long                    version;
+    private final Map<String, NodeRecord>[] buckets;
+    private final Set<String>             pcs;
+    private final ClosureIndex            closureIndex;
+
+    GraphSnapshot(long version, Map<String, NodeRecord>[] buckets, Set<String> pcs, boolean indexed) {
+        this.version = version;
+        this.buckets = buckets;
+        this.pcs = pcs;
+        this.closureIndex = indexed ? new SnapshotClosureIndex() : null;
+    }
+
+    /**
+     * @return the version of the graph this snapshot was taken at. Versions increase every time the graph is modified.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return a view of the closure index as it was when the snapshot was taken, or null if the graph did not have a
+     * closure index enabled.
+     */
+    public ClosureIndex getClosureIndex() {
+        return closureIndex;
+    }
+
+    static int bucket(String name) {
+        int h = name.hashCode();
+        return (h ^ (h >>> 16)) & (BUCKETS - 1);
+    }
+
+    Map<String, NodeRecord>[] getBuckets() {
+        return buckets;
+    }
+
+    private NodeRecord getRecord(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        return buckets[bucket(name)].get(name);
+    }
+
+    private NodeRecord getExistingRecord(String name) throws PMException {
+        NodeRecord record = getRecord(name);
+        if (record == null) {
+            throw new PMException(String.format(NODE_NOT_FOUND_MSG, name));
+        }
+
+        return record;
+    }
+
+    private static PMException immutable() {
+        return new PMException("a graph snapshot cannot be modified");
+    }
+
+    @Override
+    public Node createPolicyClass(String name, Map<String, String> properties) throws PMException {
+        throw immutable();
+    }
+
+    @Override
+    public Node createNode(String name, NodeType type, Map<String, String> properties, String initialParent,
+                           String... additionalParents) throws PMException {
+        throw immutable();
+    }
+
+    @Override
+    public void updateNode(String name, Map<String, String> properties) throws PMException {
+        throw immutable();
+    }
+
+    @Override
+    public void deleteNode(String name) throws PMException {
+        throw immutable();
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return getRecord(name) != null;
+    }
+
+    @Override
+    public Set<String> getPolicyClasses() {
+        return new HashSet<>(pcs);
+    }
+
+    @Override
+    public Set<Node> getNodes() {
+        Set<Node> nodes = new HashSet<>();
+        for (Map<String, NodeRecord> bucket : buckets) {
+            for (NodeRecord record : bucket.values()) {
+                nodes.add(record.toNode());
+            }
+        }
+        return nodes;
+    }
+
+    @Override
+    public Node getNode(String name) throws PMException {
+        NodeRecord record = getRecord(name);
+        if (record == null) {
+            throw new PMException(String.format("a node with the name %s does not exist", name));
+        }
+
+        return record.toNode();
+    }
+
+    @Override
+    public Node getNode(NodeType type, Map<String, String> properties) throws PMException {
+        Set<Node> search = search(type, properties);
+        if (search.isEmpty()) {
+            throw new PMException(String.format("a node matching the criteria (%s, %s) does not exist", type, properties));
+        }
+
+        return search.iterator().next();
+    }
+
+    @Override
+    public Set<Node> search(NodeType type, Map<String, String> properties) {
+        if (properties == null) {
+            properties = new HashMap<>();
+        }
+
+        Set<Node> results = new HashSet<>();
+        for (Map<String, NodeRecord> bucket : buckets) {
+            for (NodeRecord record : bucket.values()) {
+                if (type != null && record.type != type) {
+                    continue;
+                }
+
+                boolean add = true;
+                for (String key : properties.keySet()) {
+                    String checkValue = properties.get(key);
+                    String foundValue = record.properties.get(key);
+                    // if the property provided in the search parameters is null or *, continue to the next property
+                    if (!(checkValue == null || checkValue.equals("*")) &&
+                            (foundValue == null || !foundValue.equals(checkValue))) {
+                        add = false;
+                        break;
+                    }
+                }
+
+                if (add) {
+                    results.add(record.toNode());
+                }
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public Set<String> getChildren(String name) throws PMException {
+        return new HashSet<>(getExistingRecord(name).children);
+    }
+
+    @Override
+    public Set<String> getParents(String name) throws PMException {
+        return new HashSet<>(getExistingRecord(name).parents);
+    }
+
+    @Override
+    public void assign(String child, String parent) throws PMException {
+        throw immutable();
+    }
+
+    @Override
+    public void deassign(String child, String parent) throws PMException {
+        throw immutable();
+    }
+
+    @Override
+    public boolean isAssigned(String child, String parent) {
+        NodeRecord record = getRecord(child);
+        return record != null && record.parents.contains(parent);
+    }
+
+    @Override
+    public void associate(String ua, String target, OperationSet operations) throws PMException {
+        throw immutable();
+    }
+
+    @Override
+    public void dissociate(String ua, String target) throws PMException {
+        throw immutable();
+    }
+
+    @Override
+    public Map<String, OperationSet> getSourceAssociations(String source) throws PMException {
+        return copy(getExistingRecord(source).sourceAssociations);
+    }
+
+    @Override
+    public Map<String, OperationSet> getTargetAssociations(String target) throws PMException {
+        return copy(getExistingRecord(target).targetAssociations);
+    }
+
+    private static Map<String, OperationSet> copy(Map<String, OperationSet> assocs) {
+        Map<String, OperationSet> copy = new HashMap<>();
+        for (Map.Entry<String, OperationSet> e : assocs.entrySet()) {
+            copy.put(e.getKey(), new OperationSet(e.getValue()));
+        }
+        return copy;
+    }
+
+    @Override
+    public String toJson() {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+        Set<Node> nodes = new HashSet<>();
+        HashSet<String[]> jsonAssignments = new HashSet<>();
+        HashSet<MemGraph.JsonAssociation> jsonAssociations = new HashSet<>();
+        for (Map<String, NodeRecord> bucket : buckets) {
+            for (NodeRecord record : bucket.values()) {
+                nodes.add(record.toNode());
+
+                for (String parent : record.parents) {
+                    jsonAssignments.add(new String[]{record.name, parent});
+                }
+
+                for (Map.Entry<String, OperationSet> e : record.sourceAssociations.entrySet()) {
+                    jsonAssociations.add(new MemGraph.JsonAssociation(record.name, e.getKey(), new OperationSet(e.getValue())));
+                }
+            }
+        }
+
+        return gson.toJson(new MemGraph.JsonGraph(nodes, jsonAssignments, jsonAssociations));
+    }
+
+    @Override
+    public void fromJson(String s) throws PMException {
+        throw immutable();
+    }
+
+    /**
+     * Everything a snapshot knows about a single node. Records are immutable and are shared between snapshots until the
+     * node changes.
+     */
+    static class NodeRecord {
+        private final String                    name;
+        private final NodeType                  type;
+        private final Map<String, String>       properties;
+        private final Set<String>               parents;
+        private final Set<String>               children;
+        private final Map<String, OperationSet> sourceAssociations;
+        private final Map<String, OperationSet> targetAssociations;
+        private final Set<String>               ancestors;
+        private final Set<String>               policyClasses;
+
+        NodeRecord(Node node, Set<String> parents, Set<String> children, Map<String, OperationSet> sourceAssociations,
+                   Map<String, OperationSet> targetAssociations, Set<String> ancestors, Set<String> policyClasses) {
+            this.name = node.getName();
+            this.type = node.getType();
+            this.properties = node.getProperties() == null ?
+                    Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(node.getProperties()));
+            this.parents = Collections.unmodifiableSet(parents);
+            this.children = Collections.unmodifiableSet(children);
+            this.sourceAssociations = Collections.unmodifiableMap(sourceAssociations);
+            this.targetAssociations = Collections.unmodifiableMap(targetAssociations);
+            this.ancestors = ancestors;
+            this.policyClasses = policyClasses;
+        }
+
+        Node toNode() {
+            return new Node(name, type, new HashMap<>(properties));
+        }
+    }
+
+    /**
+     * Reads the ancestors and policy classes captured in the node records rather than the live index of the graph.
+     */
+    private class SnapshotClosureIndex extends ClosureIndex {
+        @Override
+        public Set<String> getAncestors(String name) {
+            NodeRecord record = getRecord(name);
+            return record == null || record.ancestors == null ? Collections.emptySet() : record.ancestors;
+        }
+
+        @Override
+        public Set<String> getPolicyClasses(String name) {
+            NodeRecord record = getRecord(name);
+            return record == null || record.policyClasses == null ? Collections.emptySet() : record.policyClasses;
+        }
+    }
+}
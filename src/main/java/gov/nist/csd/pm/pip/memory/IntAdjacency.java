@@ -0,0 +1,157 @@
+package gov.nist.csd.pm.pip.memory;
+
+import java.util.Arrays;
+
+/**
+ * Adjacency lists of int node ids stored in compressed sparse row form. Every node owns a segment of a single shared
+ * edge array, described by an offset, a size, and a capacity. When a segment is full it is moved to the end of the
+ * edge array with twice the capacity, leaving a gap behind. Once the gaps make up more than half of the edge array, the
+ * array is compacted so each segment is exactly as large as the node's list.
+ *
+ * This class is not thread safe.
+ */
+class IntAdjacency {
+
+    private static final int MIN_CAPACITY = 2;
+
+    private int[] offsets;
+    private int[] sizes;
+    private int[] capacities;
+    private int[] edges;
+    private int   end;
+    private int   garbage;
+
+    IntAdjacency() {
+        this.offsets = new int[16];
+        this.sizes = new int[16];
+        this.capacities = new int[16];
+        this.edges = new int[64];
+    }
+
+    int size(int id) {
+        return id < sizes.length ? sizes[id] : 0;
+    }
+
+    int get(int id, int index) {
+        return edges[offsets[id] + index];
+    }
+
+    boolean contains(int id, int value) {
+        return indexOf(id, value) != -1;
+    }
+
+    void add(int id, int value) {
+        ensureNode(id);
+
+        if (sizes[id] == capacities[id]) {
+            grow(id);
+        }
+
+        edges[offsets[id] + sizes[id]] = value;
+        sizes[id]++;
+    }
+
+    boolean remove(int id, int value) {
+        int index = indexOf(id, value);
+        if (index == -1) {
+            return false;
+        }
+
+        // order is not preserved, move the last element into the removed slot
+        int last = offsets[id] + sizes[id] - 1;
+        edges[offsets[id] + index] = edges[last];
+        sizes[id]--;
+        return true;
+    }
+
+    void clear(int id) {
+        if (id >= sizes.length) {
+            return;
+        }
+
+        garbage += capacities[id];
+        sizes[id] = 0;
+        capacities[id] = 0;
+        offsets[id] = 0;
+    }
+
+    private int indexOf(int id, int value) {
+        int size = size(id);
+        int offset = id < offsets.length ? offsets[id] : 0;
+        for (int i = 0; i < size; i++) {
+            if (edges[offset + i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void ensureNode(int id) {
+        if (id < sizes.length) {
+            return;
+        }
+
+        int length = Math.max(sizes.length * 2, id + 1);
+        offsets = Arrays.copyOf(offsets, length);
+        sizes = Arrays.copyOf(sizes, length);
+        capacities = Arrays.copyOf(capacities, length);
+    }
+
+    private void grow(int id) {
+        int capacity = Math.max(MIN_CAPACITY, capacities[id] * 2);
+
+        // the last segment in the edge array can grow in place
+        if (capacities[id] > 0 && offsets[id] + capacities[id] == end) {
+            ensureEdges(offsets[id] + capacity);
+            end = offsets[id] + capacity;
+            capacities[id] = capacity;
+            return;
+        }
+
+        if (garbage > 0 && garbage >= end / 2) {
+            compact();
+            if (offsets[id] + capacities[id] == end && capacities[id] > 0) {
+                ensureEdges(offsets[id] + capacity);
+                end = offsets[id] + capacity;
+                capacities[id] = capacity;
+                return;
+            }
+        }
+
+        ensureEdges(end + capacity);
+        System.arraycopy(edges, offsets[id], edges, end, sizes[id]);
+        garbage += capacities[id];
+        offsets[id] = end;
+        capacities[id] = capacity;
+        end += capacity;
+    }
+
+    private void ensureEdges(int length) {
+        if (length > edges.length) {
+            edges = Arrays.copyOf(edges, Math.max(edges.length * 2, length));
+        }
+    }
+
+    /**
+     * Rewrite the edge array so the segments are contiguous and have no spare capacity.
+     */
+    private void compact() {
+        int total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+
+        int[] compacted = new int[Math.max(total, 64)];
+        int offset = 0;
+        for (int id = 0; id < sizes.length; id++) {
+            System.arraycopy(edges, offsets[id], compacted, offset, sizes[id]);
+            offsets[id] = offset;
+            capacities[id] = sizes[id];
+            offset += sizes[id];
+        }
+
+        edges = compacted;
+        end = offset;
+        garbage = 0;
+    }
+}
@@ -0,0 +1,118 @@
+package gov.nist.csd.pm.pip.memory;
+
+/**
+ * A map from longs to non-null values stored with open addressing and linear probing, so an entry costs one slot in a
+ * key array and one in a value array instead of a map entry and a boxed Long. A slot is empty when its value is null.
+ * When an entry is removed, the entries probed after it are shifted back, so no deleted markers are left behind for
+ * lookups to skip.
+ *
+ * This class is not thread safe.
+ */
+class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[]   keys;
+    private Object[] values;
+    private int      size;
+
+    LongObjectMap() {
+        this.keys = new long[MIN_CAPACITY];
+        this.values = new Object[MIN_CAPACITY];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the value of the key, or null if the key is not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int index = indexOf(key);
+        return index == -1 ? null : (V) values[index];
+    }
+
+    void put(long key, V value) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * @return the value the key was mapped to, or null if the key was not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int i = indexOf(key);
+        if (i == -1) {
+            return null;
+        }
+
+        V value = (V) values[i];
+        int mask = keys.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (values[j] == null) {
+                break;
+            }
+
+            // an entry can fill the hole unless its home slot lies cyclically after the hole, up to where it is now
+            int home = slot(keys[j], mask);
+            boolean between = i <= j ? i < home && home <= j : i < home || home <= j;
+            if (!between) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+
+        values[i] = null;
+        size--;
+        return value;
+    }
+
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
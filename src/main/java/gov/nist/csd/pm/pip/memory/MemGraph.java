@@ -8,6 +8,7 @@ import gov.nist.csd.pm.operations.OperationSet;
 
 import gov.nist.csd.pm.pap.GraphAdmin;
 import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.GraphListener;
 import gov.nist.csd.pm.pip.graph.model.nodes.Node;
 import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
 import gov.nist.csd.pm.pip.graph.model.relationships.Assignment;
@@ -33,9 +34,22 @@ public class MemGraph implements Graph {
 
     private static final String NODE_NOT_FOUND_MSG = "node %s does not exist in the graph";
 
+    /**
+     * The most changed nodes to record for the next snapshot. Past this the next snapshot is built from scratch.
+     */
+    private static final int MAX_CHANGED = 1 << 14;
+
     protected DirectedGraph<String, Relationship> graph;
     protected HashSet<String>                     pcs;
     protected HashMap<String, Node>               nodes;
+    protected List<GraphListener>                 listeners;
+    protected volatile ClosureIndex               closureIndex;
+    protected final ReadWriteLock                 lock;
+
+    private volatile long          version;
+    private Set<String>            changed;
+    private volatile GraphSnapshot lastSnapshot;
+    private final Lock             snapshotLock;
 
     /**
      * Default constructor to create an empty graph in memory.
@@ -44,25 +58,252 @@ public class MemGraph implements Graph {
         graph = new DirectedMultigraph<>(Relationship.class);
         nodes = new HashMap<>();
         pcs = new HashSet<>();
+        listeners = new ArrayList<>();
+        lock = new ReentrantReadWriteLock();
+        changed = new HashSet<>();
+        snapshotLock = new ReentrantLock();
     }
 
+    /**
+     * Reads of the graph hold the read lock of this lock, so they do not block each other, and mutations hold the
+     * write lock. Callers that need several mutations to be applied atomically can hold the write lock around them.
+     *
+     * @return the lock that guards this graph.
+     */
+    public ReadWriteLock getLock() {
+        return lock;
+    }
+
+    /**
+     * Register a listener to be notified after assignments, associations, or nodes are changed in this graph.
+     *
+     * @param listener the listener to add.
+     */
+    public void addListener(GraphListener listener) {
+        lock.writeLock().lock();
+        try {
+            listeners.add(listener);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeListener(GraphListener listener) {
+        lock.writeLock().lock();
+        try {
+            listeners.remove(listener);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Build an index of the ancestors and reachable policy classes of every node in the graph. Once enabled, the index
+     * is kept up to date as nodes and assignments are created and deleted.
+     */
+    public void enableClosureIndex() {
+        lock.writeLock().lock();
+        try {
+            if (closureIndex != null) {
+                return;
+            }
+
+            ClosureIndex index = new ClosureIndex();
+            index.rebuild(graph, pcs);
+            closureIndex = index;
+
+            // every node record needs its closure, so the next snapshot is built from scratch
+            lastSnapshot = null;
+            changed = new HashSet<>();
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the closure index of this graph, or null if it has not been enabled.
+     */
+    public ClosureIndex getClosureIndex() {
+        return closureIndex;
+    }
+
+    /**
+     * @return the current version of the graph. The version is incremented every time the graph is modified.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get an immutable snapshot of the graph at its current version. If the graph has not changed since the last
+     * snapshot was taken, the same snapshot is returned. Otherwise, the new snapshot shares everything but the nodes that
+     * changed with the previous one.
+     *
+     * @return a snapshot of the current state of the graph.
+     */
     @Override
-    public synchronized Node createPolicyClass(String name, Map<String, String> properties) throws PMException {
-        if (name == null) {
-            throw new PMException("no name was provided when creating a node in the in-memory graph");
-        } else if (exists(name)) {
-            throw new PMException("the name " + name + " already exists in the graph");
+    public GraphSnapshot snapshot() {
+        GraphSnapshot snapshot = lastSnapshot;
+        if (snapshot != null && snapshot.getVersion() == version) {
+            return snapshot;
+        }
+
+        lock.readLock().lock();
+        try {
+            // readers hold the read lock together, so only one of them rebuilds the snapshot
+            snapshotLock.lock();
+            try {
+                snapshot = lastSnapshot;
+                if (snapshot != null && snapshot.getVersion() == version) {
+                    return snapshot;
+                }
+
+                snapshot = buildSnapshot(snapshot);
+                changed = new HashSet<>();
+                lastSnapshot = snapshot;
+                return snapshot;
+            } finally {
+                snapshotLock.unlock();
+            }
+        } finally {
+            lock.readLock().unlock();
         }
+    }
 
-        // add the pc's name to the pc set and to the graph
-        pcs.add(name);
-        graph.addVertex(name);
+    @SuppressWarnings("unchecked")
+    private GraphSnapshot buildSnapshot(GraphSnapshot previous) {
+        Map<String, GraphSnapshot.NodeRecord>[] buckets;
+        if (previous == null) {
+            Map<String, GraphSnapshot.NodeRecord>[] building = new Map[GraphSnapshot.BUCKETS];
+            for (String name : graph.vertexSet()) {
+                int b = GraphSnapshot.bucket(name);
+                if (building[b] == null) {
+                    building[b] = new HashMap<>();
+                }
+                building[b].put(name, buildRecord(name));
+            }
 
-        // create the node
-        Node node = new Node(name, PC, properties);
-        nodes.put(name, node);
+            buckets = new Map[GraphSnapshot.BUCKETS];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = building[i] == null ? Collections.emptyMap() : Collections.unmodifiableMap(building[i]);
+            }
+        } else {
+            buckets = previous.getBuckets().clone();
+
+            Map<Integer, Map<String, GraphSnapshot.NodeRecord>> copies = new HashMap<>();
+            for (String name : changed) {
+                Map<String, GraphSnapshot.NodeRecord> bucket = copies.computeIfAbsent(GraphSnapshot.bucket(name),
+                        b -> new HashMap<>(buckets[b]));
+                if (graph.containsVertex(name)) {
+                    bucket.put(name, buildRecord(name));
+                } else {
+                    bucket.remove(name);
+                }
+            }
+
+            for (Map.Entry<Integer, Map<String, GraphSnapshot.NodeRecord>> e : copies.entrySet()) {
+                buckets[e.getKey()] = Collections.unmodifiableMap(e.getValue());
+            }
+        }
 
-        return node;
+        return new GraphSnapshot(version, buckets, Collections.unmodifiableSet(new HashSet<>(pcs)), closureIndex != null);
+    }
+
+    private GraphSnapshot.NodeRecord buildRecord(String name) {
+        Set<String> parents = new HashSet<>();
+        Map<String, OperationSet> sourceAssocs = new HashMap<>();
+        for (Relationship rel : graph.outgoingEdgesOf(name)) {
+            if (rel instanceof Association) {
+                sourceAssocs.put(rel.getTarget(), new OperationSet(((Association) rel).getOperations()));
+            } else {
+                parents.add(rel.getTarget());
+            }
+        }
+
+        Set<String> children = new HashSet<>();
+        Map<String, OperationSet> targetAssocs = new HashMap<>();
+        for (Relationship rel : graph.incomingEdgesOf(name)) {
+            if (rel instanceof Association) {
+                targetAssocs.put(rel.getSource(), new OperationSet(((Association) rel).getOperations()));
+            } else {
+                children.add(rel.getSource());
+            }
+        }
+
+        ClosureIndex index = closureIndex;
+        return new GraphSnapshot.NodeRecord(nodes.get(name), parents, children, sourceAssocs, targetAssocs,
+                index == null ? null : index.getAncestors(name),
+                index == null ? null : index.getPolicyClasses(name));
+    }
+
+    /**
+     * Record that the given nodes changed and increment the version of the graph. Must be called while holding the
+     * write lock.
+     */
+    private void changed(String... names) {
+        Collections.addAll(getChanged(), names);
+        trimChanged();
+        version++;
+    }
+
+    /**
+     * @return the set to record changed nodes in. Until a snapshot is taken there is nothing to update incrementally, so
+     * the changes are recorded in a set that is discarded.
+     */
+    private Set<String> getChanged() {
+        return lastSnapshot != null ? changed : new HashSet<>();
+    }
+
+    /**
+     * If more nodes changed than are worth updating one at a time, drop the last snapshot so the next one is built from
+     * scratch and nothing more is recorded until it is taken.
+     */
+    private void trimChanged() {
+        if (changed.size() > MAX_CHANGED) {
+            lastSnapshot = null;
+            changed = new HashSet<>();
+        }
+    }
+
+    /**
+     * @return the number of changed nodes recorded for the next snapshot.
+     */
+    int getChangedCount() {
+        lock.readLock().lock();
+        try {
+            return changed.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Node createPolicyClass(String name, Map<String, String> properties) throws PMException {
+        lock.writeLock().lock();
+        try {
+            if (name == null) {
+                throw new PMException("no name was provided when creating a node in the in-memory graph");
+            } else if (exists(name)) {
+                throw new PMException("the name " + name + " already exists in the graph");
+            }
+
+            // add the pc's name to the pc set and to the graph
+            pcs.add(name);
+            graph.addVertex(name);
+            if (closureIndex != null) {
+                closureIndex.addNode(name, true);
+            }
+            changed(name);
+
+            // create the node
+            Node node = new Node(name, PC, properties);
+            nodes.put(name, node);
+
+            return node;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -76,34 +317,43 @@ public class MemGraph implements Graph {
      */
 
     @Override
-    public synchronized Node createNode(String name, NodeType type, Map<String, String> properties, String initialParent, String... additionalParents) throws PMException {//check for null values
-        if (type == PC) {
-            throw new PMException("use createPolicyClass to create a policy class node");
-        } else if (name == null) {
-            throw new PMException("no name was provided when creating a node in the in-memory graph");
-        } else if (exists(name)) {
-            throw new PMException("the name " + name + " already exists in the graph");
-        } else if (type == null) {
-            throw new PMException("a null type was provided to the in memory graph when creating a node");
-        } else if (initialParent == null) {
-            throw new PMException("must specify an initial parent when creating a non policy class node");
-        }
+    public Node createNode(String name, NodeType type, Map<String, String> properties, String initialParent, String... additionalParents) throws PMException {
+        lock.writeLock().lock();
+        try {
+            if (type == PC) {
+                throw new PMException("use createPolicyClass to create a policy class node");
+            } else if (name == null) {
+                throw new PMException("no name was provided when creating a node in the in-memory graph");
+            } else if (exists(name)) {
+                throw new PMException("the name " + name + " already exists in the graph");
+            } else if (type == null) {
+                throw new PMException("a null type was provided to the in memory graph when creating a node");
+            } else if (initialParent == null) {
+                throw new PMException("must specify an initial parent when creating a non policy class node");
+            }
 
-        // add the vertex to the graph
-        graph.addVertex(name);
+            // add the vertex to the graph
+            graph.addVertex(name);
+            if (closureIndex != null) {
+                closureIndex.addNode(name, false);
+            }
 
-        //store the node in the map
-        Node node = new Node(name, type, properties);
-        nodes.put(name, node);
+            //store the node in the map
+            Node node = new Node(name, type, properties);
+            nodes.put(name, node);
+            changed(name);
 
-        // assign the new node the to given parent nodes
-        assign(name, initialParent);
-        for (String parent : additionalParents) {
-            assign(name, parent);
-        }
+            // assign the new node the to given parent nodes
+            assign(name, initialParent);
+            for (String parent : additionalParents) {
+                assign(name, parent);
+            }
 
-        //return the Node
-        return node;
+            //return the Node
+            return node;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -131,10 +381,14 @@ public class MemGraph implements Graph {
 
         // add the vertex to the graph
         graph.addVertex(name);
+        if (closureIndex != null) {
+            closureIndex.addNode(name, false);
+        }
 
         //store the node in the map
         Node node = new Node(name, type, properties);
         nodes.put(name, node);
+        changed(name);
     }
 
     /**
@@ -148,18 +402,25 @@ public class MemGraph implements Graph {
      * @throws PMException if the given node name does not exist in the graph.
      */
     @Override
-    public synchronized void updateNode(String name, Map<String, String> properties) throws PMException {Node existingNode = nodes.get(name);
-        if (existingNode == null) {
-            throw new PMException(String.format("node with the name %s could not be found to update", name));
-        }
+    public void updateNode(String name, Map<String, String> properties) throws PMException {
+        lock.writeLock().lock();
+        try {
+            Node existingNode = nodes.get(name);
+            if (existingNode == null) {
+                throw new PMException(String.format("node with the name %s could not be found to update", name));
+            }
 
-        // update the properties
-        if (properties != null) {
-            existingNode.setProperties(properties);
-        }
+            // update the properties
+            if (properties != null) {
+                existingNode.setProperties(properties);
+            }
 
-        // update the node information
-        nodes.put(existingNode.getName(), existingNode);
+            // update the node information
+            nodes.put(existingNode.getName(), existingNode);
+            changed(name);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -169,32 +430,74 @@ public class MemGraph implements Graph {
      * @param name the name of the node to delete.
      */
     @Override
-    public synchronized void deleteNode(String name) throws PMException {
-        if (graph.incomingEdgesOf(name).size() != 0) {
-            throw new PMException("cannot delete " + name + ", nodes are still assigned to it");
-        }
+    public void deleteNode(String name) throws PMException {
+        lock.writeLock().lock();
+        try {
+            if (graph.incomingEdgesOf(name).size() != 0) {
+                throw new PMException("cannot delete " + name + ", nodes are still assigned to it");
+            }
 
-        //remove the vertex from the graph
-        graph.removeVertex(name);
-        //remove the node from the policies if it is a policy class
-        pcs.remove(name);
-        //remove the node from the map
-        nodes.remove(name);
+            // the parents and association targets of the node lose an edge
+            List<Relationship> removed = new ArrayList<>(graph.outgoingEdgesOf(name));
+            for (Relationship rel : removed) {
+                getChanged().add(rel.getTarget());
+            }
+            changed(name);
+
+            //remove the vertex from the graph
+            graph.removeVertex(name);
+            //remove the node from the policies if it is a policy class
+            pcs.remove(name);
+            //remove the node from the map
+            nodes.remove(name);
+            if (closureIndex != null) {
+                closureIndex.removeNode(name);
+            }
+
+            // listeners are told about each relation removed with the node, as if it had been deleted on its own
+            for (GraphListener listener : listeners) {
+                for (Relationship rel : removed) {
+                    if (rel instanceof Association) {
+                        listener.associationChanged(name, rel.getTarget());
+                    } else {
+                        listener.assignmentChanged(name, rel.getTarget());
+                    }
+                }
+                listener.nodeDeleted(name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
-    public synchronized boolean exists(String name) {
-        return graph.containsVertex(name);
+    public boolean exists(String name) {
+        lock.readLock().lock();
+        try {
+            return graph.containsVertex(name);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
-    public synchronized Set<String> getPolicyClasses() {
-        return new HashSet<>(pcs);
+    public Set<String> getPolicyClasses() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(pcs);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
-    public synchronized Set<Node> getNodes() {
-        return this.nodes.values().stream().map(Node::new).collect(Collectors.toSet());
+    public Set<Node> getNodes() {
+        lock.readLock().lock();
+        try {
+            return this.nodes.values().stream().map(Node::new).collect(Collectors.toSet());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -205,23 +508,33 @@ public class MemGraph implements Graph {
      * @throws PMException if the provided name does not exist in the graph.
      */
     @Override
-    public synchronized Node getNode(String name) throws PMException {
-        Node node = nodes.get(name);
-        if (node == null) {
-            throw new PMException(String.format("a node with the name %s does not exist", name));
-        }
+    public Node getNode(String name) throws PMException {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(name);
+            if (node == null) {
+                throw new PMException(String.format("a node with the name %s does not exist", name));
+            }
 
-        return new Node(node);
+            return new Node(node);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
-    public synchronized Node getNode(NodeType type, Map<String, String> properties) throws PMException {
-        Set<Node> search = search(type, properties);
-        if (search.isEmpty()) {
-            throw new PMException(String.format("a node matching the criteria (%s, %s) does not exist", type, properties));
-        }
+    public Node getNode(NodeType type, Map<String, String> properties) throws PMException {
+        lock.readLock().lock();
+        try {
+            Set<Node> search = search(type, properties);
+            if (search.isEmpty()) {
+                throw new PMException(String.format("a node matching the criteria (%s, %s) does not exist", type, properties));
+            }
 
-        return new Node(search.iterator().next());
+            return new Node(search.iterator().next());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -233,37 +546,42 @@ public class MemGraph implements Graph {
      * @return the set of nodes that match the given parameters.
      */
     @Override
-    public synchronized Set<Node> search(NodeType type, Map<String, String> properties) {
-        if (properties == null) {
-            properties = new HashMap<>();
-        }
-
-        HashSet<Node> results = new HashSet<>();
-        // iterate over the nodes to find ones that match the search parameters
-        for (Node node : getNodes()) {
-            // if the type parameter is not null and the current node type does not equal the type parameter, do not add
-            if (type != null && !node.getType().equals(type)) {
-                continue;
-            }
-
-            boolean add = true;
-            for (String key : properties.keySet()) {
-                String checkValue = properties.get(key);
-                String foundValue = node.getProperties().get(key);
-                // if the property provided in the search parameters is null or *, continue to the next property
-                if (!(checkValue == null || checkValue.equals("*")) &&
-                        (foundValue == null || !foundValue.equals(checkValue))) {
-                    add = false;
-                    break;
-                }
+    public Set<Node> search(NodeType type, Map<String, String> properties) {
+        lock.readLock().lock();
+        try {
+            if (properties == null) {
+                properties = new HashMap<>();
             }
 
-            if (add) {
-                results.add(new Node(node));
+            HashSet<Node> results = new HashSet<>();
+            // iterate over the nodes to find ones that match the search parameters
+            for (Node node : getNodes()) {
+                // if the type parameter is not null and the current node type does not equal the type parameter, do not add
+                if (type != null && !node.getType().equals(type)) {
+                    continue;
+                }
+
+                boolean add = true;
+                for (String key : properties.keySet()) {
+                    String checkValue = properties.get(key);
+                    String foundValue = node.getProperties().get(key);
+                    // if the property provided in the search parameters is null or *, continue to the next property
+                    if (!(checkValue == null || checkValue.equals("*")) &&
+                            (foundValue == null || !foundValue.equals(checkValue))) {
+                        add = false;
+                        break;
+                    }
+                }
+
+                if (add) {
+                    results.add(new Node(node));
+                }
             }
-        }
 
-        return results;
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -274,20 +592,25 @@ public class MemGraph implements Graph {
      * @throws PMException if the provided name does not exist in the graph.
      */
     @Override
-    public synchronized Set<String> getChildren(String name) throws PMException {
-        if (!exists(name)) {
-            throw new PMException(String.format(NODE_NOT_FOUND_MSG, name));
-        }
+    public Set<String> getChildren(String name) throws PMException {
+        lock.readLock().lock();
+        try {
+            if (!exists(name)) {
+                throw new PMException(String.format(NODE_NOT_FOUND_MSG, name));
+            }
 
-        HashSet<String> children = new HashSet<>();
-        Set<Relationship> rels = graph.incomingEdgesOf(name);
-        for (Relationship rel : rels) {
-            if (rel instanceof Association) {
-                continue;
+            HashSet<String> children = new HashSet<>();
+            Set<Relationship> rels = graph.incomingEdgesOf(name);
+            for (Relationship rel : rels) {
+                if (rel instanceof Association) {
+                    continue;
+                }
+                children.add(rel.getSource());
             }
-            children.add(rel.getSource());
+            return children;
+        } finally {
+            lock.readLock().unlock();
         }
-        return children;
     }
 
     /**
@@ -298,20 +621,25 @@ public class MemGraph implements Graph {
      * @throws PMException if the provided name does not exist in the graph.
      */
     @Override
-    public synchronized Set<String> getParents(String name) throws PMException {
-        if (!exists(name)) {
-            throw new PMException(String.format(NODE_NOT_FOUND_MSG, name));
-        }
+    public Set<String> getParents(String name) throws PMException {
+        lock.readLock().lock();
+        try {
+            if (!exists(name)) {
+                throw new PMException(String.format(NODE_NOT_FOUND_MSG, name));
+            }
 
-        HashSet<String> parents = new HashSet<>();
-        Set<Relationship> rels = graph.outgoingEdgesOf(name);
-        for (Relationship rel : rels) {
-            if (rel instanceof Association) {
-                continue;
+            HashSet<String> parents = new HashSet<>();
+            Set<Relationship> rels = graph.outgoingEdgesOf(name);
+            for (Relationship rel : rels) {
+                if (rel instanceof Association) {
+                    continue;
+                }
+                parents.add(rel.getTarget());
             }
-            parents.add(rel.getTarget());
+            return parents;
+        } finally {
+            lock.readLock().unlock();
         }
-        return parents;
     }
 
     /**
@@ -324,23 +652,37 @@ public class MemGraph implements Graph {
      * @throws PMException if the two types do not make a valid assignment.
      */
     @Override
-    public synchronized void assign(String child, String parent) throws PMException {
-        if (!exists(child)) {
-            throw new PMException(String.format(NODE_NOT_FOUND_MSG, child));
-        } else if (!exists(parent)) {
-            throw new PMException(String.format(NODE_NOT_FOUND_MSG, parent));
-        }
+    public void assign(String child, String parent) throws PMException {
+        lock.writeLock().lock();
+        try {
+            if (!exists(child)) {
+                throw new PMException(String.format(NODE_NOT_FOUND_MSG, child));
+            } else if (!exists(parent)) {
+                throw new PMException(String.format(NODE_NOT_FOUND_MSG, parent));
+            }
 
-        if (graph.containsEdge(child, parent)) {
-            throw new PMException(child + " is already assigned to" + parent);
-        }
+            if (graph.containsEdge(child, parent)) {
+                throw new PMException(child + " is already assigned to" + parent);
+            }
 
-        Node childNode = getNode(child);
-        Node parentNode = getNode(parent);
+            Node childNode = getNode(child);
+            Node parentNode = getNode(parent);
 
-        Assignment.checkAssignment(childNode.getType(), parentNode.getType());
+            Assignment.checkAssignment(childNode.getType(), parentNode.getType());
 
-        graph.addEdge(child, parent, new Assignment(child, parent));
+            graph.addEdge(child, parent, new Assignment(child, parent));
+            changed(child, parent);
+            if (closureIndex != null) {
+                closureIndex.assign(graph, child, parent, getChanged());
+                trimChanged();
+            }
+
+            for (GraphListener listener : listeners) {
+                listener.assignmentChanged(child, parent);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -350,13 +692,33 @@ public class MemGraph implements Graph {
      * @throws PMException if the parent node context is null.
      */
     @Override
-    public synchronized void deassign(String child, String parent) {
-        graph.removeEdge(new Assignment(child, parent));
+    public void deassign(String child, String parent) {
+        lock.writeLock().lock();
+        try {
+            if (graph.removeEdge(new Assignment(child, parent))) {
+                changed(child, parent);
+                if (closureIndex != null) {
+                    closureIndex.deassign(graph, child, getChanged());
+                    trimChanged();
+                }
+            }
+
+            for (GraphListener listener : listeners) {
+                listener.assignmentChanged(child, parent);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
-    public synchronized boolean isAssigned(String child, String parent) throws PMException {
-        return graph.containsEdge(new Assignment(child, parent));
+    public boolean isAssigned(String child, String parent) throws PMException {
+        lock.readLock().lock();
+        try {
+            return graph.containsEdge(new Assignment(child, parent));
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -367,28 +729,38 @@ public class MemGraph implements Graph {
      * @throws PMException              if the target node does not exist in the graph.
      */
     @Override
-    public synchronized void associate(String ua, String target, OperationSet operations) throws PMException {
-        if (!exists(ua)) {
-            throw new PMException(String.format(NODE_NOT_FOUND_MSG, ua));
-        } else if (!exists(target)) {
-            throw new PMException(String.format(NODE_NOT_FOUND_MSG, target));
-        }
-
-        Node uaNode = getNode(ua);
-        Node targetNode = getNode(target);
+    public void associate(String ua, String target, OperationSet operations) throws PMException {
+        lock.writeLock().lock();
+        try {
+            if (!exists(ua)) {
+                throw new PMException(String.format(NODE_NOT_FOUND_MSG, ua));
+            } else if (!exists(target)) {
+                throw new PMException(String.format(NODE_NOT_FOUND_MSG, target));
+            }
 
-        // check that the association is valid
-        Association.checkAssociation(uaNode.getType(), targetNode.getType());
+            Node uaNode = getNode(ua);
+            Node targetNode = getNode(target);
+
+            // check that the association is valid
+            Association.checkAssociation(uaNode.getType(), targetNode.getType());
+
+            // if no edge exists create an association
+            // if an assignment exists create a new edge for the association
+            // if an association exists update it
+            Relationship edge = graph.getEdge(ua, target);
+            if (edge == null || edge instanceof Assignment) {
+                graph.addEdge(ua, target, new Association(ua, target, operations));
+            } else if (edge instanceof Association) {
+                Association assoc = (Association) graph.getEdge(ua, target);
+                assoc.setOperations(operations);
+            }
+            changed(ua, target);
 
-        // if no edge exists create an association
-        // if an assignment exists create a new edge for the association
-        // if an association exists update it
-        Relationship edge = graph.getEdge(ua, target);
-        if (edge == null || edge instanceof Assignment) {
-            graph.addEdge(ua, target, new Association(ua, target, operations));
-        } else if (edge instanceof Association) {
-            Association assoc = (Association) graph.getEdge(ua, target);
-            assoc.setOperations(operations);
+            for (GraphListener listener : listeners) {
+                listener.associationChanged(ua, target);
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -396,8 +768,19 @@ public class MemGraph implements Graph {
      * Dissociate the user attribute node from the target node.  If an association does not exist, nothing happens.
      */
     @Override
-    public synchronized void dissociate(String ua, String target) {
-        graph.removeEdge(new Association(ua, target));
+    public void dissociate(String ua, String target) {
+        lock.writeLock().lock();
+        try {
+            if (graph.removeEdge(new Association(ua, target))) {
+                changed(ua, target);
+            }
+
+            for (GraphListener listener : listeners) {
+                listener.associationChanged(ua, target);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -408,20 +791,25 @@ public class MemGraph implements Graph {
      * @throws PMException if the given name does not exist in the graph.
      */
     @Override
-    public synchronized Map<String, OperationSet> getSourceAssociations(String source) throws PMException {
-        if (!exists(source)) {
-            throw new PMException(String.format(NODE_NOT_FOUND_MSG, source));
-        }
+    public Map<String, OperationSet> getSourceAssociations(String source) throws PMException {
+        lock.readLock().lock();
+        try {
+            if (!exists(source)) {
+                throw new PMException(String.format(NODE_NOT_FOUND_MSG, source));
+            }
 
-        Map<String, OperationSet> assocs = new HashMap<>();
-        Set<Relationship> rels = graph.outgoingEdgesOf(source);
-        for (Relationship rel : rels) {
-            if (rel instanceof Association) {
-                Association assoc = (Association) rel;
-                assocs.put(assoc.getTarget(), new OperationSet(assoc.getOperations()));
+            Map<String, OperationSet> assocs = new HashMap<>();
+            Set<Relationship> rels = graph.outgoingEdgesOf(source);
+            for (Relationship rel : rels) {
+                if (rel instanceof Association) {
+                    Association assoc = (Association) rel;
+                    assocs.put(assoc.getTarget(), new OperationSet(assoc.getOperations()));
+                }
             }
+            return assocs;
+        } finally {
+            lock.readLock().unlock();
         }
-        return assocs;
     }
 
     /**
@@ -432,113 +820,133 @@ public class MemGraph implements Graph {
      * @throws PMException if the given name does not exist in the graph.
      */
     @Override
-    public synchronized Map<String, OperationSet> getTargetAssociations(String target) throws PMException {
-        if (!exists(target)) {
-            throw new PMException(String.format(NODE_NOT_FOUND_MSG, target));
-        }
+    public Map<String, OperationSet> getTargetAssociations(String target) throws PMException {
+        lock.readLock().lock();
+        try {
+            if (!exists(target)) {
+                throw new PMException(String.format(NODE_NOT_FOUND_MSG, target));
+            }
 
-        Map<String, OperationSet> assocs = new HashMap<>();
-        Set<Relationship> rels = graph.incomingEdgesOf(target);
-        for (Relationship rel : rels) {
-            if (rel instanceof Association) {
-                Association assoc = (Association) rel;
-                assocs.put(assoc.getSource(), new OperationSet(assoc.getOperations()));
+            Map<String, OperationSet> assocs = new HashMap<>();
+            Set<Relationship> rels = graph.incomingEdgesOf(target);
+            for (Relationship rel : rels) {
+                if (rel instanceof Association) {
+                    Association assoc = (Association) rel;
+                    assocs.put(assoc.getSource(), new OperationSet(assoc.getOperations()));
+                }
             }
+            return assocs;
+        } finally {
+            lock.readLock().unlock();
         }
-        return assocs;
     }
 
     @Override
-    public synchronized String toJson() throws PMException {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    public String toJson() throws PMException {
+        lock.readLock().lock();
+        try {
+            Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+            Set<Node> nodes = this.getNodes();
+            HashSet<String[]> jsonAssignments = new HashSet<>();
+            HashSet<JsonAssociation> jsonAssociations = new HashSet<>();
+            for (Node node : nodes) {
+                Set<String> parents = this.getParents(node.getName());
+
+                for (String parent : parents) {
+                    jsonAssignments.add(new String[]{node.getName(), parent});
+                }
 
-        Set<Node> nodes = this.getNodes();
-        HashSet<String[]> jsonAssignments = new HashSet<>();
-        HashSet<JsonAssociation> jsonAssociations = new HashSet<>();
-        for (Node node : nodes) {
-            Set<String> parents = this.getParents(node.getName());
+                Map<String, OperationSet> associations = this.getSourceAssociations(node.getName());
+                for (String target : associations.keySet()) {
+                    OperationSet ops = associations.get(target);
+                    Node targetNode = this.getNode(target);
 
-            for (String parent : parents) {
-                jsonAssignments.add(new String[]{node.getName(), parent});
+                    jsonAssociations.add(new JsonAssociation(node.getName(), targetNode.getName(), ops));
+                }
             }
 
-            Map<String, OperationSet> associations = this.getSourceAssociations(node.getName());
-            for (String target : associations.keySet()) {
-                OperationSet ops = associations.get(target);
-                Node targetNode = this.getNode(target);
-
-                jsonAssociations.add(new JsonAssociation(node.getName(), targetNode.getName(), ops));
-            }
+            return gson.toJson(new JsonGraph(nodes, jsonAssignments, jsonAssociations));
+        } finally {
+            lock.readLock().unlock();
         }
-
-        return gson.toJson(new JsonGraph(nodes, jsonAssignments, jsonAssociations));
     }
 
     @Override
-    public synchronized void fromJson(String json) throws PMException {
-        JsonGraph jsonGraph = new Gson().fromJson(json, JsonGraph.class);
-        Collection<Node> nodes = jsonGraph.getNodes();
-        for (Node node : nodes) {
-            if (node.getType().equals(PC)) {
-                this.createPolicyClass(node.getName(), node.getProperties());
-            } else {
-                this.createNode(node.getName(), node.getType(), node.getProperties());
+    public void fromJson(String json) throws PMException {
+        lock.writeLock().lock();
+        try {
+            JsonGraph jsonGraph = new Gson().fromJson(json, JsonGraph.class);
+            Collection<Node> nodes = jsonGraph.getNodes();
+            for (Node node : nodes) {
+                if (node.getType().equals(PC)) {
+                    this.createPolicyClass(node.getName(), node.getProperties());
+                } else {
+                    this.createNode(node.getName(), node.getType(), node.getProperties());
+                }
             }
-        }
 
-        List<String[]> assignments = new ArrayList<>(jsonGraph.getAssignments());
-        for (String[] assignment : assignments) {
-            if (assignment.length != 2) {
-                throw new PMException("invalid assignment (format=[child, parent]): " + Arrays.toString(assignment));
-            }
+            List<String[]> assignments = new ArrayList<>(jsonGraph.getAssignments());
+            for (String[] assignment : assignments) {
+                if (assignment.length != 2) {
+                    throw new PMException("invalid assignment (format=[child, parent]): " + Arrays.toString(assignment));
+                }
 
-            String source = assignment[0];
-            String target = assignment[1];
+                String source = assignment[0];
+                String target = assignment[1];
 
-            this.assign(source, target);
-        }
+                this.assign(source, target);
+            }
 
-        Set<JsonAssociation> associations = jsonGraph.getAssociations();
-        for (JsonAssociation association : associations) {
-            String ua = association.getSource();
-            String target = association.getTarget();
-            this.associate(ua, target, new OperationSet(association.getOperations()));
+            Set<JsonAssociation> associations = jsonGraph.getAssociations();
+            for (JsonAssociation association : associations) {
+                String ua = association.getSource();
+                String target = association.getTarget();
+                this.associate(ua, target, new OperationSet(association.getOperations()));
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     public void fromJson_with_config (String json) throws PMException {
-        JsonGraph jsonGraph = new Gson().fromJson(json, JsonGraph.class);
-
-        Collection<Node> nodes = jsonGraph.getNodes();
-        for (Node node : nodes) {
-            if (node.getType().equals(PC)) {
-                this.createPolicyClass(node.getName(), node.getProperties());
-            } else {
-                this.createNode(node.getName(), node.getType(), node.getProperties());
+        lock.writeLock().lock();
+        try {
+            JsonGraph jsonGraph = new Gson().fromJson(json, JsonGraph.class);
+
+            Collection<Node> nodes = jsonGraph.getNodes();
+            for (Node node : nodes) {
+                if (node.getType().equals(PC)) {
+                    this.createPolicyClass(node.getName(), node.getProperties());
+                } else {
+                    this.createNode(node.getName(), node.getType(), node.getProperties());
+                }
             }
-        }
 
-        List<String[]> assignments = new ArrayList<>(jsonGraph.getAssignments());
-        for (String[] assignment : assignments) {
-            if (assignment.length != 2) {
-                throw new PMException("invalid assignment (format=[child, parent]): " + Arrays.toString(assignment));
-            }
+            List<String[]> assignments = new ArrayList<>(jsonGraph.getAssignments());
+            for (String[] assignment : assignments) {
+                if (assignment.length != 2) {
+                    throw new PMException("invalid assignment (format=[child, parent]): " + Arrays.toString(assignment));
+                }
 
-            String source = assignment[0];
-            String target = assignment[1];
+                String source = assignment[0];
+                String target = assignment[1];
 
-            this.assign(source, target);
-        }
+                this.assign(source, target);
+            }
 
-        Set<JsonAssociation> associations = jsonGraph.getAssociations();
-        for (JsonAssociation association : associations) {
-            String ua = association.getSource();
-            String target = association.getTarget();
-            this.associate(ua, target, new OperationSet(association.getOperations()));
+            Set<JsonAssociation> associations = jsonGraph.getAssociations();
+            for (JsonAssociation association : associations) {
+                String ua = association.getSource();
+                String target = association.getTarget();
+                this.associate(ua, target, new OperationSet(association.getOperations()));
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
-    private static class JsonGraph {
+    static class JsonGraph {
         Collection<Node> nodes;
         Set<String[]>  assignments;
         Set<JsonAssociation> associations;
@@ -562,7 +970,7 @@ public class MemGraph implements Graph {
         }
     }
 
-    private static class JsonAssociation {
+    static class JsonAssociation {
         String source;
         String target;
         Set<String> operations;
@@ -4,67 +4,124 @@ import gov.nist.csd.pm.pip.obligations.Obligations;
 import gov.nist.csd.pm.pip.obligations.model.Obligation;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * Obligations stored in memory. Each obligation is stored as an unmodifiable copy that is returned to every caller, and
+ * the list returned by getAll is shared until the obligations change, so reading the obligations does not copy them.
+ * The list is built under the same lock the changes are made under, so a list built before a change is never shared
+ * after it.
+ */
 public class MemObligations implements Obligations {
 
     private Map<String, Obligation> obligations;
+    private volatile List<Obligation> all;
+    private final ReadWriteLock lock;
 
     public MemObligations() {
         this.obligations = new HashMap<>();
+        this.lock = new ReentrantReadWriteLock();
     }
 
     @Override
     public void add(Obligation obligation, boolean enable) {
-        obligation.setEnabled(true);
-        obligations.put(obligation.getLabel(), new Obligation(obligation));
+        Obligation copy = new Obligation(obligation);
+        copy.setEnabled(true);
+        put(copy);
+    }
+
+    /**
+     * Store a copy of the obligation as it is, replacing any obligation with the same label.
+     */
+    protected void put(Obligation obligation) {
+        Obligation copy = obligation.unmodifiableCopy();
+        lock.writeLock().lock();
+        try {
+            obligations.put(copy.getLabel(), copy);
+            all = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public Obligation get(String label) {
-        Obligation obligation = obligations.get(label);
-        return obligation != null ? new Obligation(obligation) : null;
+        lock.readLock().lock();
+        try {
+            return obligations.get(label);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<Obligation> getAll() {
-        ArrayList<Obligation> all = new ArrayList<>();
-        for (String label : obligations.keySet()) {
-            all.add(get(label));
+        lock.readLock().lock();
+        try {
+            // readers that race to build the list build equal lists, and no writer can run until they are done
+            List<Obligation> all = this.all;
+            if (all == null) {
+                all = Collections.unmodifiableList(new ArrayList<>(obligations.values()));
+                this.all = all;
+            }
+            return all;
+        } finally {
+            lock.readLock().unlock();
         }
-        return all;
     }
 
     @Override
     public void update(String label, Obligation obligation) {
-        String updatedLabel = obligation.getLabel();
-        if (updatedLabel != null && !updatedLabel.equals(label)) {
-            obligations.remove(label);
-        } else if (updatedLabel == null) {
+        Obligation copy = new Obligation(obligation);
+        String updatedLabel = copy.getLabel();
+        if (updatedLabel == null) {
             // update the obligations label with the provided label if it's not set
-            obligation.setLabel(label);
+            copy.setLabel(label);
         }
 
-        obligations.put(obligation.getLabel(), new Obligation(obligation));
+        lock.writeLock().lock();
+        try {
+            if (updatedLabel != null && !updatedLabel.equals(label)) {
+                obligations.remove(label);
+            }
+
+            put(copy);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public void delete(String label) {
-        obligations.remove(label);
+        lock.writeLock().lock();
+        try {
+            obligations.remove(label);
+            all = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public void setEnable(String label, boolean enabled) {
-        Obligation obligation = obligations.get(label);
-        obligation.setEnabled(enabled);
-        update(label, obligation);
+        lock.writeLock().lock();
+        try {
+            Obligation obligation = new Obligation(obligations.get(label));
+            obligation.setEnabled(enabled);
+            update(label, obligation);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public List<Obligation> getEnabled() {
-        List<Obligation> obligations = getAll();
+        List<Obligation> obligations = new ArrayList<>(getAll());
         obligations.removeIf((obl) -> !obl.isEnabled());
         return obligations;
     }
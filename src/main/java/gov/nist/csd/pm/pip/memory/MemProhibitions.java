@@ -2,6 +2,7 @@ package gov.nist.csd.pm.pip.memory;
 
 import gov.nist.csd.pm.exceptions.PMException;
 import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
+import gov.nist.csd.pm.pip.prohibitions.ProhibitionsListener;
 import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
 
 import java.util.*;
@@ -12,9 +13,24 @@ import java.util.*;
 public class MemProhibitions implements Prohibitions {
 
     private Map<String, List<Prohibition>> prohibitions;
+    private List<ProhibitionsListener> listeners;
 
     public MemProhibitions() {
         this.prohibitions = new HashMap<>();
+        this.listeners = new ArrayList<>();
+    }
+
+    /**
+     * Register a listener to be notified after a prohibition is added, updated, or deleted.
+     *
+     * @param listener the listener to add.
+     */
+    public void addListener(ProhibitionsListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ProhibitionsListener listener) {
+        listeners.remove(listener);
     }
 
 
@@ -44,6 +60,10 @@ public class MemProhibitions implements Prohibitions {
         List<Prohibition> exPros = this.prohibitions.getOrDefault(subject, new ArrayList<>());
         exPros.add(prohibition);
         this.prohibitions.put(subject, exPros);
+
+        for (ProhibitionsListener listener : listeners) {
+            listener.prohibitionsChanged(subject);
+        }
     }
 
     /**
@@ -129,6 +149,10 @@ public class MemProhibitions implements Prohibitions {
                 if(p.getName().equals(prohibitionName)) {
                     iterator.remove();
                     prohibitions.put(subject, ps);
+
+                    for (ProhibitionsListener listener : listeners) {
+                        listener.prohibitionsChanged(subject);
+                    }
                 }
             }
         }
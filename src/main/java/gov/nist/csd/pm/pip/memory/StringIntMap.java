@@ -0,0 +1,119 @@
+package gov.nist.csd.pm.pip.memory;
+
+/**
+ * A map from strings to non-negative ints stored with open addressing and linear probing, so an entry costs one slot in
+ * a key array and one in a value array instead of a map entry and a boxed Integer. When an entry is removed, the
+ * entries probed after it are shifted back, so no deleted markers are left behind for lookups to skip.
+ *
+ * This class is not thread safe.
+ */
+class StringIntMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private String[] keys;
+    private int[]    values;
+    private int      size;
+
+    StringIntMap() {
+        this.keys = new String[MIN_CAPACITY];
+        this.values = new int[MIN_CAPACITY];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the value of the key, or -1 if the key is not in the map.
+     */
+    int get(String key) {
+        int index = indexOf(key);
+        return index == -1 ? -1 : values[index];
+    }
+
+    boolean containsKey(String key) {
+        return indexOf(key) != -1;
+    }
+
+    void put(String key, int value) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * @return the value the key was mapped to, or -1 if the key was not in the map.
+     */
+    int remove(String key) {
+        int i = indexOf(key);
+        if (i == -1) {
+            return -1;
+        }
+
+        int value = values[i];
+        int mask = keys.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == null) {
+                break;
+            }
+
+            // an entry can fill the hole unless its home slot lies cyclically after the hole, up to where it is now
+            int home = slot(keys[j], mask);
+            boolean between = i <= j ? i < home && home <= j : i < home || home <= j;
+            if (!between) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+
+        keys[i] = null;
+        size--;
+        return value;
+    }
+
+    private int indexOf(String key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new String[capacity];
+        values = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int slot(String key, int mask) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -2,11 +2,15 @@ package gov.nist.csd.pm.pip.memory.tx;
 
 import gov.nist.csd.pm.exceptions.PMException;
 import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.memory.MemGraph;
 import gov.nist.csd.pm.pip.obligations.Obligations;
 import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
 import gov.nist.csd.pm.common.tx.Tx;
+import gov.nist.csd.pm.common.tx.TxLocks;
 import gov.nist.csd.pm.common.tx.TxRunner;
 
+import java.util.concurrent.locks.Lock;
+
 public class MemTx extends Tx {
 
     private TxGraph txGraph;
@@ -32,18 +36,29 @@ public class MemTx extends Tx {
     }
 
     public void commit() throws PMException {
-        synchronized (graph) {
-            synchronized (prohibitions) {
-                synchronized (obligations) {
-                    // commit the graph
-                    txGraph.commit();
-
-                    // commit the prohibitions
-                    txProhibitions.commit();
-
-                    // commit the obligations
-                    txObligations.commit();
-                }
+        // a MemGraph guards itself with a read-write lock instead of its monitor, hold the write lock so readers
+        // do not see a partially committed transaction. The graph is usually the PAP's admin or a PDP service in front
+        // of the MemGraph.
+        Object store = TxLocks.unwrap(graph);
+        Lock graphLock = store instanceof MemGraph ? ((MemGraph) store).getLock().writeLock() : null;
+        if (graphLock != null) {
+            graphLock.lock();
+        }
+
+        try {
+            TxLocks.commit(this, () -> {
+                // commit the graph
+                txGraph.commit();
+
+                // commit the prohibitions
+                txProhibitions.commit();
+
+                // commit the obligations
+                txObligations.commit();
+            });
+        } finally {
+            if (graphLock != null) {
+                graphLock.unlock();
             }
         }
     }
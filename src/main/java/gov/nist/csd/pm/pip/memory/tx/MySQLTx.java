@@ -1,12 +1,24 @@
 package gov.nist.csd.pm.pip.memory.tx;
 
 import gov.nist.csd.pm.common.tx.Tx;
+import gov.nist.csd.pm.common.tx.TxLocks;
 import gov.nist.csd.pm.common.tx.TxRunner;
 import gov.nist.csd.pm.exceptions.PMException;
 import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.mysql.MySQLGraph;
+import gov.nist.csd.pm.pip.mysql.MySQLProhibitions;
+import gov.nist.csd.pm.pip.mysql.MySQLTransaction;
 import gov.nist.csd.pm.pip.obligations.Obligations;
 import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
 
+/**
+ * A transaction over a MySQL graph and prohibitions. The transaction borrows one connection from the pool and the graph
+ * and prohibition commands are committed on that connection inside a single database transaction, so either all of them
+ * are written or, if any of them fails, none of them are. Obligations are not stored in the database and are committed
+ * after the database transaction commits.
+ *
+ * If the graph is not a MySQLGraph the commands are committed directly to the graph, prohibitions, and obligations.
+ */
 public class MySQLTx extends Tx {
 
     private TxGraph txGraph;
@@ -22,33 +34,58 @@ public class MySQLTx extends Tx {
 
     @Override
     public void runTx(TxRunner txRunner) throws PMException {
-        try {
-            txRunner.run(txGraph, txProhibitions, txObligations);
-            commit();
-        } catch (PMException e) {
-            rollback();
-            throw e;
+        if (!(graph instanceof MySQLGraph)) {
+            try {
+                txRunner.run(txGraph, txProhibitions, txObligations);
+                commit();
+            } catch (PMException e) {
+                rollback();
+                throw e;
+            }
+            return;
         }
-    }
 
-    @Override
-    public void commit() throws PMException {
-        synchronized (graph) {
-            synchronized (prohibitions) {
-                synchronized (obligations) {
-                    // commit the graph
-                    txGraph.commit();
+        try (MySQLTransaction transaction = ((MySQLGraph) graph).beginTransaction()) {
+            // the commands replay against a graph and prohibitions bound to the transaction's connection
+            txGraph = new TxGraph(transaction.getGraph());
+            txProhibitions = new TxProhibitions(prohibitions instanceof MySQLProhibitions
+                    ? transaction.getProhibitions((MySQLProhibitions) prohibitions)
+                    : prohibitions);
+            txObligations = new TxObligations(obligations);
+
+            try {
+                txRunner.run(txGraph, txProhibitions, txObligations);
 
-                    // commit the prohibitions
+                TxLocks.commit(this, () -> {
+                    txGraph.commit();
                     txProhibitions.commit();
+                    transaction.commit();
 
-                    // commit the obligations
                     txObligations.commit();
-                }
+                });
+            } catch (PMException e) {
+                transaction.rollback();
+                throw e;
+            } finally {
+                rollback();
             }
         }
     }
 
+    @Override
+    public void commit() throws PMException {
+        TxLocks.commit(this, () -> {
+            // commit the graph
+            txGraph.commit();
+
+            // commit the prohibitions
+            txProhibitions.commit();
+
+            // commit the obligations
+            txObligations.commit();
+        });
+    }
+
     @Override
     public void rollback() throws PMException {
         // rollback graph
@@ -0,0 +1,427 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import gov.nist.csd.pm.exceptions.PIPException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of JDBC connections. A connection taken from the pool is a proxy of a physical connection, and closing it
+ * returns the physical connection to the pool instead of closing it. Prepared statements are cached per physical
+ * connection so preparing the same SQL again on a later lease reuses the statement, and closing a cached statement only
+ * clears its parameters.
+ *
+ * Idle connections are evicted whenever a connection is taken from or returned to the pool. A connection that has not
+ * been used for the validation interval is validated before it is handed out. When a connection is returned, any
+ * uncommitted transaction is rolled back and any statement that is not cached is closed.
+ */
+class ConnectionPool {
+
+    private static final String DB_DRIVER = "com.mysql.cj.jdbc.Driver";
+    private static volatile boolean driverLoaded;
+
+    private final String url;
+    private final String user;
+    private final String pass;
+    private final long connectionTimeout;
+    private final long idleTimeout;
+    private final long validationInterval;
+    private final int validationTimeout;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    // the most recently returned connection is at the tail so the head is always the longest idle
+    private final Deque<PooledConnection> idle;
+    private boolean closed;
+
+    ConnectionPool(String url, String user, String pass, MySQLPoolOptions options) {
+        this.url = url;
+        this.user = user;
+        this.pass = pass;
+        this.connectionTimeout = options.getConnectionTimeout();
+        this.idleTimeout = options.getIdleTimeout();
+        this.validationInterval = options.getValidationInterval();
+        this.validationTimeout = options.getValidationTimeout();
+        this.statementCacheSize = options.getStatementCacheSize();
+        this.permits = new Semaphore(options.getMaxPoolSize(), true);
+        this.idle = new ArrayDeque<>();
+    }
+
+    /**
+     * Take a connection from the pool, opening a new one if none are idle. If the pool is at its maximum size, wait for a
+     * connection to be returned.
+     *
+     * @return a connection that is returned to the pool when it is closed.
+     * @throws PIPException if no connection becomes available within the connection timeout or a connection cannot be
+     * opened.
+     */
+    Connection borrow() throws PIPException {
+        if (isClosed()) {
+            throw new PIPException("the connection pool has been closed");
+        }
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(connectionTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PIPException("interrupted while waiting for a database connection");
+        }
+        if (!acquired) {
+            throw new PIPException(String.format("no database connection became available within %d ms", connectionTimeout));
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(open());
+            }
+
+            return pooled.lease();
+        } catch (PIPException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Close every idle connection. Connections that are in use are closed when they are returned.
+     */
+    void close() {
+        List<PooledConnection> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+
+        for (PooledConnection pooled : toClose) {
+            pooled.closePhysical();
+        }
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection pooled;
+            List<PooledConnection> expired;
+            synchronized (this) {
+                expired = evictExpired();
+                pooled = idle.pollLast();
+            }
+
+            for (PooledConnection e : expired) {
+                e.closePhysical();
+            }
+
+            if (pooled == null) {
+                return null;
+            } else if (System.currentTimeMillis() - pooled.lastUsed < validationInterval || pooled.isValid()) {
+                return pooled;
+            }
+
+            pooled.closePhysical();
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            boolean returned = false;
+            List<PooledConnection> expired = Collections.emptyList();
+            if (pooled.reset()) {
+                synchronized (this) {
+                    if (!closed) {
+                        pooled.lastUsed = System.currentTimeMillis();
+                        idle.addLast(pooled);
+                        expired = evictExpired();
+                        returned = true;
+                    }
+                }
+            }
+
+            if (!returned) {
+                pooled.closePhysical();
+            }
+            for (PooledConnection e : expired) {
+                e.closePhysical();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Remove the connections that have been idle for longer than the idle timeout. Must be called while holding the lock
+     * on this pool.
+     */
+    private List<PooledConnection> evictExpired() {
+        List<PooledConnection> expired = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        while (!idle.isEmpty() && now - idle.peekFirst().lastUsed >= idleTimeout) {
+            expired.add(idle.pollFirst());
+        }
+        return expired;
+    }
+
+    private Connection open() throws PIPException {
+        try {
+            if (!driverLoaded) {
+                Class.forName(DB_DRIVER);
+                driverLoaded = true;
+            }
+            return DriverManager.getConnection(url, user, pass);
+        } catch (SQLException | ClassNotFoundException ex) {
+            throw new PIPException(ex.getMessage());
+        }
+    }
+
+    private class PooledConnection {
+        private final Connection physical;
+        private final Map<StatementKey, PreparedStatement> statementCache;
+        private final Set<PreparedStatement> inUse;
+        private final List<Statement> uncached;
+        private long lastUsed;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = new LinkedHashMap<StatementKey, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<StatementKey, PreparedStatement> eldest) {
+                    if (size() <= statementCacheSize) {
+                        return false;
+                    }
+
+                    // a statement still in use is closed when the connection is returned
+                    if (inUse.contains(eldest.getValue())) {
+                        uncached.add(eldest.getValue());
+                    } else {
+                        closeQuietly(eldest.getValue());
+                    }
+                    return true;
+                }
+            };
+            this.inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+            this.uncached = new ArrayList<>();
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        Connection lease() {
+            Lease lease = new Lease(this);
+            lease.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, lease);
+            return lease.proxy;
+        }
+
+        PreparedStatement prepare(Lease lease, String sql, int autoGeneratedKeys) throws SQLException {
+            StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+            PreparedStatement stmt = statementCache.get(key);
+            if (stmt == null || inUse.contains(stmt)) {
+                PreparedStatement prepared = physical.prepareStatement(sql, autoGeneratedKeys);
+                if (stmt == null && statementCacheSize > 0) {
+                    statementCache.put(key, prepared);
+                } else {
+                    // the cached statement is already open in this lease, so this one is only used once
+                    uncached.add(prepared);
+                }
+                stmt = prepared;
+            }
+
+            inUse.add(stmt);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new CachedStatement(lease, stmt));
+        }
+
+        /**
+         * Return the connection to a clean state so it can be leased again.
+         *
+         * @return true if the connection can be reused.
+         */
+        boolean reset() {
+            for (Statement stmt : uncached) {
+                closeQuietly(stmt);
+            }
+            uncached.clear();
+            inUse.clear();
+
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        boolean isValid() {
+            try {
+                return physical.isValid(validationTimeout);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            for (PreparedStatement stmt : statementCache.values()) {
+                closeQuietly(stmt);
+            }
+            statementCache.clear();
+            closeQuietly(physical);
+        }
+    }
+
+    /**
+     * The connection handed out for a single lease of a pooled connection.
+     */
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private Connection proxy;
+        private volatile boolean closed;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "pooled " + pooled.physical;
+            }
+
+            if (closed) {
+                throw new SQLException("the connection has been returned to the pool");
+            }
+
+            if (method.getName().equals("prepareStatement")) {
+                Class<?>[] params = method.getParameterTypes();
+                if (params.length == 1) {
+                    return pooled.prepare(this, (String) args[0], Statement.NO_GENERATED_KEYS);
+                } else if (params.length == 2 && params[1] == int.class) {
+                    return pooled.prepare(this, (String) args[0], (Integer) args[1]);
+                }
+            }
+
+            Object result = invokeOn(pooled.physical, method, args);
+            if (result instanceof Statement) {
+                pooled.uncached.add((Statement) result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A cached prepared statement handed out during a lease. Closing it makes it available to be prepared again.
+     */
+    private static class CachedStatement implements InvocationHandler {
+        private final Lease lease;
+        private final PreparedStatement stmt;
+        private boolean closed;
+
+        CachedStatement(Lease lease, PreparedStatement stmt) {
+            this.lease = lease;
+            this.stmt = stmt;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    // once the lease is over the statement may already belong to another lease
+                    if (!closed && !lease.closed) {
+                        lease.pooled.inUse.remove(stmt);
+                        stmt.clearParameters();
+                    }
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed || lease.closed;
+                case "getConnection":
+                    return lease.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return stmt.toString();
+            }
+
+            if (closed || lease.closed) {
+                throw new SQLException("the statement has been closed");
+            }
+
+            return invokeOn(stmt, method, args);
+        }
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // the resource is being discarded
+        }
+    }
+
+    private static class StatementKey {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        StatementKey(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StatementKey)) {
+                return false;
+            }
+
+            StatementKey key = (StatementKey) o;
+            return sql.equals(key.sql) && autoGeneratedKeys == key.autoGeneratedKeys;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, autoGeneratedKeys);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import gov.nist.csd.pm.operations.OperationSet;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses the operation_set and deny_operations columns. A policy has far fewer distinct operation sets than associations
+ * and prohibitions, so each distinct column value is parsed once and the parsed operations are shared between reads.
+ * Every read returns a new OperationSet so callers can modify it. If the number of distinct values exceeds the limit, the
+ * interned values are dropped and parsed again as they are read.
+ */
+final class InternedOperationSets {
+
+    private static final ObjectReader reader = new ObjectMapper().readerFor(OperationSet.class);
+    private static final int MAX_SIZE = 4096;
+    private static final Map<String, Set<String>> interned = new ConcurrentHashMap<>();
+
+    private InternedOperationSets() {}
+
+    static OperationSet read(String json) throws JsonProcessingException {
+        Set<String> ops = interned.get(json);
+        if (ops == null) {
+            OperationSet parsed = reader.readValue(json);
+            ops = Set.copyOf(parsed);
+            if (interned.size() >= MAX_SIZE) {
+                interned.clear();
+            }
+            interned.put(json, ops);
+        }
+
+        return new OperationSet(ops);
+    }
+}
@@ -7,14 +7,36 @@ import gov.nist.csd.pm.pip.graph.model.nodes.Node;
 import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
 import gov.nist.csd.pm.pip.memory.MemGraph;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class MemDBGraph implements Graph {
+/**
+ * A graph that serves reads from memory and writes to both memory and MySQL.
+ *
+ * A mirrored MemDBGraph also records every write in a PolicyChangeLog, in the same database transaction as the write.
+ * The in memory graph is only changed by replaying the log, so every instance applies the changes in the same order.
+ * Before a read, if the last sync with the log is older than the maximum staleness, the changes made since then by any
+ * instance are read from the log and applied to the in memory graph. A new instance starts from a snapshot of the
+ * database and replays the log from the sequence number read before the snapshot was taken. If changes the instance has
+ * not applied were deleted from the log, it reloads the snapshot.
+ */
+public class MemDBGraph implements Graph, AutoCloseable {
 
-    private Graph graph;
+    private static final int CHANGE_BATCH_SIZE = 1000;
+
+    private volatile Graph graph;
     private Graph copy_mem_graph;
 
+    private PolicyChangeLog changeLog;
+    private final String mirrorId = UUID.randomUUID().toString();
+    private long maxStaleness;
+    private volatile long lastSeq;
+    private volatile long lastSync;
+    private final ReentrantLock syncLock = new ReentrantLock();
+
     public MemDBGraph(Graph graph) throws PMException {
         if (!(graph instanceof MemGraph)) {
             //copy the whole not MemGraph graph
@@ -27,6 +49,166 @@ public class MemDBGraph implements Graph {
             this.graph = graph;
         }
     }
+
+    /**
+     * Create a mirror of the given MySQL graph that applies the changes in the change log.
+     *
+     * @param graph the MySQL graph to mirror.
+     * @param changeLog the log to record and read changes from.
+     * @param maxStaleness the maximum time in milliseconds a read can go without syncing with the change log.
+     * @throws PMException if there is an error loading the graph or the change log.
+     */
+    public MemDBGraph(MySQLGraph graph, PolicyChangeLog changeLog, long maxStaleness) throws PMException {
+        if (changeLog == null) {
+            throw new IllegalArgumentException("the change log cannot be null");
+        } else if (maxStaleness < 0) {
+            throw new IllegalArgumentException("the maximum staleness cannot be negative");
+        }
+
+        this.copy_mem_graph = graph;
+        this.changeLog = changeLog;
+        this.maxStaleness = maxStaleness;
+        reload();
+    }
+
+    /**
+     * @return the sequence number of the last change applied from the change log.
+     */
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Stop recording the position of this mirror in the change log, so the changes it has not applied can be deleted.
+     *
+     * @throws PMException if there is an error writing to the change log.
+     */
+    @Override
+    public void close() throws PMException {
+        if (changeLog != null) {
+            changeLog.removePosition(mirrorId);
+        }
+    }
+
+    /**
+     * Reload the in memory graph from a snapshot of the database and replay the changes made after it.
+     *
+     * @throws PMException if there is an error loading the graph or the change log.
+     */
+    public void reload() throws PMException {
+        syncLock.lock();
+        try {
+            // changes after this point are replayed, and replaying a change that is already in the snapshot does nothing
+            long seq = changeLog.getLatestSeq();
+            changeLog.setPosition(mirrorId, seq);
+            MemGraph memGraph = new MemGraph();
+            memGraph.fromJson_with_config(((MySQLGraph) copy_mem_graph).toJson_with_config());
+            this.graph = memGraph;
+            this.lastSeq = seq;
+            replay(true);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Apply the changes in the change log that have not been applied yet.
+     *
+     * @throws PMException if there is an error reading the change log.
+     */
+    public void refresh() throws PMException {
+        syncLock.lock();
+        try {
+            replay(false);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Apply the changes after lastSeq. A change that cannot be applied means the in memory graph no longer matches the
+     * log, so the graph is reloaded. Directly after a reload, a change can only fail if the snapshot already includes a
+     * later change that supersedes it, so it is skipped. Sequence numbers have no gaps, so a change missing from the log
+     * was deleted before it was applied, and the graph is reloaded as well. If no changes are left after lastSeq, the latest
+     * sequence number tells whether any were deleted.
+     */
+    private void replay(boolean afterSnapshot) throws PMException {
+        long syncStart = System.currentTimeMillis();
+        long applied = lastSeq;
+        List<PolicyChange> changes;
+        do {
+            changes = changeLog.readAfter(lastSeq, CHANGE_BATCH_SIZE);
+            if (changes.isEmpty() && lastSeq == applied && changeLog.getLatestSeq() > lastSeq) {
+                reload();
+                return;
+            }
+
+            for (PolicyChange change : changes) {
+                if (change.getSeq() != lastSeq + 1) {
+                    reload();
+                    return;
+                }
+
+                try {
+                    change.apply(graph);
+                } catch (PMException e) {
+                    if (!afterSnapshot) {
+                        reload();
+                        return;
+                    }
+                }
+                lastSeq = change.getSeq();
+            }
+        } while (changes.size() == CHANGE_BATCH_SIZE);
+
+        if (lastSeq != applied) {
+            changeLog.setPosition(mirrorId, lastSeq);
+        }
+        lastSync = syncStart;
+    }
+
+    /**
+     * Sync with the change log if the last sync is older than the maximum staleness. If another thread is already
+     * syncing, the read does not wait for it.
+     */
+    private void sync() throws PMException {
+        if (changeLog == null || System.currentTimeMillis() - lastSync < maxStaleness) {
+            return;
+        }
+
+        if (syncLock.tryLock()) {
+            try {
+                replay(false);
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Write to the database and record the change in the log in one transaction, then replay the log to apply the change
+     * to the in memory graph after the changes logged before it.
+     */
+    private <T> T mirror(PolicyChange change, MirroredWrite<T> write) throws PMException {
+        T result;
+        try (MySQLTransaction tx = ((MySQLGraph) copy_mem_graph).beginTransaction()) {
+            PolicyChangeLog txChangeLog = tx.getChangeLog();
+            // the sequence stays locked until the commit, so the writes of every instance reach the database in the order
+            // of their changes in the log
+            change.setSeq(txChangeLog.nextSeq());
+            result = write.apply(tx.getGraph());
+            txChangeLog.insert(change);
+            tx.commit();
+        }
+
+        refresh();
+        return result;
+    }
+
+    private interface MirroredWrite<T> {
+        T apply(MySQLGraph graph) throws PMException;
+    }
+
     /**
      * Create a policy class in the graph.
      *
@@ -38,6 +220,9 @@ public class MemDBGraph implements Graph {
     @Override
     public Node createPolicyClass(String name, Map<String, String> properties) throws PMException {
         if (copy_mem_graph != null) {
+            if (changeLog != null) {
+                return mirror(PolicyChange.createPolicyClass(name, properties), g -> g.createPolicyClass(name, properties));
+            }
             graph.createPolicyClass(name, properties);
             return copy_mem_graph.createPolicyClass(name, properties);
         }
@@ -59,6 +244,10 @@ public class MemDBGraph implements Graph {
     @Override
     public Node createNode(String name, NodeType type, Map<String, String> properties, String initialParent, String... additionalParents) throws PMException {
         if (copy_mem_graph != null) {
+            if (changeLog != null) {
+                return mirror(PolicyChange.createNode(name, type, properties, initialParent, additionalParents),
+                        g -> g.createNode(name, type, properties, initialParent, additionalParents));
+            }
             graph.createNode(name, type, properties, initialParent, additionalParents);
             return copy_mem_graph.createNode(name, type, properties, initialParent, additionalParents);
         }
@@ -75,6 +264,13 @@ public class MemDBGraph implements Graph {
     @Override
     public void updateNode(String name, Map<String, String> properties) throws PMException {
         if (copy_mem_graph != null) {
+            if (changeLog != null) {
+                mirror(PolicyChange.updateNode(name, properties), g -> {
+                    g.updateNode(name, properties);
+                    return null;
+                });
+                return;
+            }
             copy_mem_graph.updateNode(name, properties);
         }
         graph.updateNode(name, properties);
@@ -90,6 +286,13 @@ public class MemDBGraph implements Graph {
     @Override
     public void deleteNode(String name) throws PMException {
         if (copy_mem_graph != null) {
+            if (changeLog != null) {
+                mirror(PolicyChange.deleteNode(name), g -> {
+                    g.deleteNode(name);
+                    return null;
+                });
+                return;
+            }
             copy_mem_graph.deleteNode(name);
         }
         graph.deleteNode(name);
@@ -104,6 +307,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public boolean exists(String name) throws PMException {
+        sync();
         return graph.exists(name);
     }
 
@@ -116,6 +320,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public Set<String> getPolicyClasses() throws PMException {
+        sync();
         return graph.getPolicyClasses();
     }
 
@@ -127,6 +332,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public Set<Node> getNodes() throws PMException {
+        sync();
         return graph.getNodes();
     }
 
@@ -139,6 +345,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public Node getNode(String name) throws PMException {
+        sync();
         return graph.getNode(name);
     }
 
@@ -156,6 +363,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public Node getNode(NodeType type, Map<String, String> properties) throws PMException {
+        sync();
         return graph.getNode(type, properties);
     }
 
@@ -172,6 +380,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public Set<Node> search(NodeType type, Map<String, String> properties) throws PMException {
+        sync();
         return graph.search(type, properties);
     }
 
@@ -184,6 +393,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public Set<String> getChildren(String name) throws PMException {
+        sync();
         return graph.getChildren(name);
     }
 
@@ -196,6 +406,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public Set<String> getParents(String name) throws PMException {
+        sync();
         return graph.getParents(name);
     }
 
@@ -211,6 +422,13 @@ public class MemDBGraph implements Graph {
     @Override
     public void assign(String child, String parent) throws PMException {
         if (copy_mem_graph != null) {
+            if (changeLog != null) {
+                mirror(PolicyChange.assign(child, parent), g -> {
+                    g.assign(child, parent);
+                    return null;
+                });
+                return;
+            }
             copy_mem_graph.assign(child, parent);
         }
         graph.assign(child, parent);
@@ -226,6 +444,13 @@ public class MemDBGraph implements Graph {
     @Override
     public void deassign(String child, String parent) throws PMException {
         if (copy_mem_graph != null) {
+            if (changeLog != null) {
+                mirror(PolicyChange.deassign(child, parent), g -> {
+                    g.deassign(child, parent);
+                    return null;
+                });
+                return;
+            }
             copy_mem_graph.deassign(child, parent);
         }
         graph.deassign(child, parent);
@@ -241,6 +466,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public boolean isAssigned(String child, String parent) throws PMException {
+        sync();
         return graph.isAssigned(child, parent);
     }
 
@@ -257,6 +483,13 @@ public class MemDBGraph implements Graph {
     @Override
     public void associate(String ua, String target, OperationSet operations) throws PMException {
         if (copy_mem_graph != null) {
+            if (changeLog != null) {
+                mirror(PolicyChange.associate(ua, target, operations), g -> {
+                    g.associate(ua, target, operations);
+                    return null;
+                });
+                return;
+            }
             copy_mem_graph.associate(ua, target, operations);
         }
         graph.associate(ua, target, operations);
@@ -272,6 +505,13 @@ public class MemDBGraph implements Graph {
     @Override
     public void dissociate(String ua, String target) throws PMException {
         if (copy_mem_graph != null) {
+            if (changeLog != null) {
+                mirror(PolicyChange.dissociate(ua, target), g -> {
+                    g.dissociate(ua, target);
+                    return null;
+                });
+                return;
+            }
             copy_mem_graph.dissociate(ua, target);
         }
         graph.dissociate(ua, target);
@@ -288,6 +528,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public Map<String, OperationSet> getSourceAssociations(String source) throws PMException {
+        sync();
         return graph.getSourceAssociations(source);
     }
 
@@ -302,6 +543,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public Map<String, OperationSet> getTargetAssociations(String target) throws PMException {
+        sync();
         return graph.getTargetAssociations(target);
     }
 
@@ -337,6 +579,7 @@ public class MemDBGraph implements Graph {
      */
     @Override
     public String toJson() throws PMException {
+        sync();
         return graph.toJson();
     }
 
@@ -349,4 +592,15 @@ public class MemDBGraph implements Graph {
     public void fromJson(String s) throws PMException {
         graph.fromJson(s);
     }
+
+    /**
+     * Reads are served by the in-memory copy of the graph, so the snapshot is taken of that copy.
+     *
+     * @return a snapshot of the in-memory graph.
+     */
+    @Override
+    public Graph snapshot() throws PMException {
+        sync();
+        return graph.snapshot();
+    }
 }
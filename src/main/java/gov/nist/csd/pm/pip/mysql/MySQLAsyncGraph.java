@@ -0,0 +1,60 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import gov.nist.csd.pm.pip.graph.AsyncGraphAdapter;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An AsyncGraph over a MySQLGraph that runs its queries on a bounded pool of threads. A MySQLGraph method borrows a
+ * connection for each statement it runs and returns it before borrowing another, so each thread holds at most one
+ * connection at a time, and more threads than the maximum size of the connection pool only wait for connections. When
+ * every thread is busy and the queue is full, the calling thread runs the query itself, which slows down callers that
+ * issue queries faster than the database can answer them.
+ */
+public class MySQLAsyncGraph extends AsyncGraphAdapter implements AutoCloseable {
+
+    private static final int QUEUE_SIZE_PER_THREAD = 64;
+
+    private final ExecutorService executor;
+
+    public MySQLAsyncGraph(MySQLGraph graph, int threads) {
+        this(graph, newExecutor(threads));
+    }
+
+    private MySQLAsyncGraph(MySQLGraph graph, ExecutorService executor) {
+        super(graph, executor);
+        this.executor = executor;
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("an async graph needs at least one thread");
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_SIZE_PER_THREAD),
+                r -> {
+                    Thread t = new Thread(r, "mysql-graph-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, executor) -> {
+                    // unlike CallerRunsPolicy, do not silently drop the query after close so its future still fails
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("the async graph is closed");
+                    }
+                    r.run();
+                });
+    }
+
+    /**
+     * Stop the threads of this graph once the queries already issued have run. The MySQLGraph and its connection are not
+     * closed.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
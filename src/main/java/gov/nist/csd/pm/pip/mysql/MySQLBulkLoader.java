@@ -0,0 +1,209 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import gov.nist.csd.pm.exceptions.PIPException;
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
+
+import java.sql.*;
+import java.util.*;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.UA;
+
+/**
+ * Copies a graph into the policy database in a single transaction. Nodes, assignments, and associations are inserted
+ * with JDBC batches, and the ids of the nodes are read with one query rather than one per node, so the number of round
+ * trips depends on the batch size rather than on the size of the graph. If any insert fails the transaction is rolled
+ * back and nothing is loaded.
+ *
+ * With MySQL Connector/J, add rewriteBatchedStatements=true to the connection url so each batch is sent as one multi-row
+ * insert.
+ */
+public class MySQLBulkLoader {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final Map<NodeType, Integer> NODE_TYPE_IDS = Map.of(
+            NodeType.OA, 1,
+            NodeType.UA, 2,
+            NodeType.U, 3,
+            NodeType.O, 4,
+            NodeType.PC, 5
+    );
+
+    private final MySQLConnection conn;
+    private int batchSize;
+
+    public MySQLBulkLoader(MySQLConnection connection) {
+        this.conn = connection;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize the number of rows to send to the database in each batch, must be greater than 0.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("the batch size must be greater than 0");
+        }
+
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Load every node, assignment, and association in the given graph into the database. None of the nodes in the graph
+     * can already exist in the database.
+     *
+     * @param graph the graph to load.
+     * @throws PMException if a node already exists or there is an error inserting into the database.
+     */
+    public void load(Graph graph) throws PMException {
+        Collection<Node> nodes = graph.getNodes();
+        List<String[]> assignments = new ArrayList<>();
+        List<Object[]> associations = new ArrayList<>();
+        for (Node node : nodes) {
+            for (String parent : graph.getParents(node.getName())) {
+                assignments.add(new String[]{node.getName(), parent});
+            }
+            if (node.getType() == UA) {
+                for (Map.Entry<String, OperationSet> e : graph.getSourceAssociations(node.getName()).entrySet()) {
+                    associations.add(new Object[]{node.getName(), e.getKey(), e.getValue()});
+                }
+            }
+        }
+
+        try (Connection con = this.conn.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                Map<String, Long> ids = getNodeIds(con);
+                for (Node node : nodes) {
+                    if (ids.containsKey(node.getName())) {
+                        throw new PIPException("graph", "You cannot create the node. Another node with the name '" + node.getName() + "' already exists");
+                    }
+                }
+
+                insertNodes(con, nodes);
+                ids = getNodeIds(con);
+                insertProperties(con, nodes, ids);
+                insertAssignments(con, assignments, ids);
+                insertAssociations(con, associations, ids);
+
+                con.commit();
+            } catch (SQLException | PMException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+
+    private Map<String, Long> getNodeIds(Connection con) throws SQLException {
+        Map<String, Long> ids = new HashMap<>();
+        try (
+                Statement stmt = con.createStatement();
+                ResultSet rs = stmt.executeQuery(MySQLHelper.SELECT_NODE_IDS)
+        ) {
+            while (rs.next()) {
+                ids.put(rs.getString("name"), rs.getLong("node_id"));
+            }
+        }
+        return ids;
+    }
+
+    private void insertNodes(Connection con, Collection<Node> nodes) throws SQLException, PIPException {
+        try (PreparedStatement ps = con.prepareStatement(MySQLHelper.INSERT_NODE)) {
+            int count = 0;
+            for (Node node : nodes) {
+                ps.setInt(1, NODE_TYPE_IDS.get(node.getType()));
+                ps.setString(2, node.getName());
+                Map<String, String> properties = node.getProperties();
+                try {
+                    ps.setString(3, properties == null ? null : MySQLGraph.toJSON(properties));
+                } catch (JsonProcessingException j) {
+                    throw new PIPException("graph", j.getMessage());
+                }
+                ps.addBatch();
+
+                if (++count % batchSize == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertProperties(Connection con, Collection<Node> nodes, Map<String, Long> ids) throws SQLException, PIPException {
+        try (PreparedStatement ps = con.prepareStatement(MySQLHelper.INSERT_NODE_PROPERTY)) {
+            int count = 0;
+            for (Node node : nodes) {
+                if (node.getProperties() == null) {
+                    continue;
+                }
+
+                for (Map.Entry<String, String> property : node.getProperties().entrySet()) {
+                    ps.setLong(1, getId(ids, node.getName()));
+                    ps.setString(2, property.getKey());
+                    ps.setString(3, property.getValue());
+                    ps.addBatch();
+
+                    if (++count % batchSize == 0) {
+                        ps.executeBatch();
+                    }
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertAssignments(Connection con, List<String[]> assignments, Map<String, Long> ids) throws SQLException, PIPException {
+        try (PreparedStatement ps = con.prepareStatement(MySQLHelper.INSERT_ASSIGNMENT)) {
+            int count = 0;
+            for (String[] assignment : assignments) {
+                ps.setLong(1, getId(ids, assignment[0]));
+                ps.setLong(2, getId(ids, assignment[1]));
+                ps.addBatch();
+
+                if (++count % batchSize == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertAssociations(Connection con, List<Object[]> associations, Map<String, Long> ids) throws SQLException, PIPException {
+        try (PreparedStatement ps = con.prepareStatement(MySQLHelper.INSERT_ASSOCIATION)) {
+            int count = 0;
+            for (Object[] association : associations) {
+                ps.setLong(1, getId(ids, (String) association[0]));
+                ps.setLong(2, getId(ids, (String) association[1]));
+                try {
+                    ps.setString(3, MySQLGraph.hashSetToJSON((OperationSet) association[2]));
+                } catch (JsonProcessingException j) {
+                    throw new PIPException("graph", j.getMessage());
+                }
+                ps.addBatch();
+
+                if (++count % batchSize == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private long getId(Map<String, Long> ids, String name) throws PIPException {
+        Long id = ids.get(name);
+        if (id == null) {
+            throw new PIPException("graph", "node " + name + " does not exist");
+        }
+        return id;
+    }
+}
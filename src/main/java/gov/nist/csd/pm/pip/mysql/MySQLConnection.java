@@ -1,48 +1,86 @@
 package gov.nist.csd.pm.pip.mysql;
 
-import gov.nist.csd.pm.epp.EPPOptions;
 import gov.nist.csd.pm.exceptions.PIPException;
-import gov.nist.csd.pm.exceptions.PMException;
-import gov.nist.csd.pm.operations.OperationSet;
-import gov.nist.csd.pm.pap.*;
-import gov.nist.csd.pm.pdp.PDP;
-import gov.nist.csd.pm.pdp.audit.PReviewAuditor;
-import gov.nist.csd.pm.pdp.decider.PReviewDecider;
-import gov.nist.csd.pm.pdp.services.UserContext;
-import gov.nist.csd.pm.pip.graph.Graph;
-import gov.nist.csd.pm.pip.memory.MemObligations;
-import gov.nist.csd.pm.pip.memory.MySQLPIP;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 
+/**
+ * Provides connections to the policy database from a bounded pool. Closing a connection returned by getConnection returns
+ * it to the pool, so callers should close connections as soon as they are done with them.
+ */
 public class MySQLConnection {
 
-    private static final String DB_DRIVER = "com.mysql.cj.jdbc.Driver";
-    private static final String DB_SCHEMA = "policydb_core";
+    private ConnectionPool pool;
+    private Connection bound;
 
-    private String url;
-    private String user;
-    private String pass;
+    public MySQLConnection(String url, String user, String pass) {
+        this(url, user, pass, new MySQLPoolOptions());
+    }
 
+    public MySQLConnection(String url, String user, String pass, MySQLPoolOptions options) {
+        this.pool = new ConnectionPool(url, user, pass, options);
+    }
 
-    public MySQLConnection(String url, String user, String pass) {
-        this.url = url;
-        this.user = user;
-        this.pass = pass;
+    /**
+     * A connection that always provides the given connection, which is part of a MySQLTransaction. Closing, committing,
+     * rolling back, or changing the auto commit mode of a provided connection does nothing, so only the transaction
+     * decides whether the work done through it is committed.
+     */
+    MySQLConnection(Connection bound) {
+        this.bound = bound;
     }
 
+    /**
+     * Get a connection from the pool, waiting for one to be returned if the pool is at its maximum size.
+     *
+     * @return a pooled connection.
+     * @throws PIPException if no connection is available within the pool's connection timeout or there is an error
+     * opening a new connection.
+     */
     public Connection getConnection() throws PIPException {
-        Connection con;
-        try {
-            Class.forName(DB_DRIVER);
-            con = DriverManager.getConnection(url, user, pass);
-            return con;
-        } catch (SQLException | ClassNotFoundException ex) {
-            throw new PIPException(ex.getMessage());
+        if (bound != null) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                            case "commit":
+                            case "setAutoCommit":
+                                return null;
+                            case "rollback":
+                                // the error is expected to reach the owner of the transaction, which rolls it all back
+                                if (args == null) {
+                                    return null;
+                                }
+                                break;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                        }
+
+                        try {
+                            return method.invoke(bound, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
         }
+
+        return pool.borrow();
+    }
+
+    /**
+     * Close the pool. Idle connections are closed immediately and connections in use are closed when they are returned.
+     */
+    public void close() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    int getIdleCount() {
+        return pool.getIdleCount();
     }
 }
@@ -0,0 +1,207 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import gov.nist.csd.pm.exceptions.PIPException;
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
+import gov.nist.csd.pm.pip.memory.MemGraph;
+import gov.nist.csd.pm.pip.memory.MemProhibitions;
+import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.PC;
+
+/**
+ * Loads the part of the policy needed to decide the permissions of a subject on a target with a single statement. The
+ * statement uses a recursive query to find the ancestors of the subject and the target on the server, and returns their
+ * nodes, assignments, and associations, along with the prohibitions on the subject's ancestors and the process. The
+ * result is loaded into an in memory graph and prohibitions that a decider can run against without any more round trips.
+ *
+ * The recursive query requires MySQL 8.0 or later.
+ */
+public class MySQLDecisionLoader {
+
+    private static final ObjectReader propertiesReader = new ObjectMapper().readerFor(HashMap.class);
+    private static final Map<Long, NodeType> NODE_TYPES = Map.of(
+            1L, NodeType.OA,
+            2L, NodeType.UA,
+            3L, NodeType.U,
+            4L, NodeType.O,
+            5L, NodeType.PC
+    );
+
+    private final MySQLConnection conn;
+
+    public MySQLDecisionLoader(MySQLConnection connection) {
+        this.conn = connection;
+    }
+
+    /**
+     * Load the policy needed to decide the permissions the subject has on the target.
+     *
+     * @param subject the name of the subject.
+     * @param process the process, can be null or empty.
+     * @param target the name of the target.
+     * @return the graph and prohibitions relevant to the decision.
+     * @throws PMException if the subject or target does not exist or there is an error querying the database.
+     */
+    public DecisionPolicy load(String subject, String process, String target) throws PMException {
+        Map<String, Node> nodes = new HashMap<>();
+        Map<String, Set<String>> parents = new HashMap<>();
+        Map<String, Map<String, OperationSet>> associations = new HashMap<>();
+        Map<String, Prohibition> prohibitions = new LinkedHashMap<>();
+
+        try (
+                Connection con = this.conn.getConnection();
+                PreparedStatement ps = con.prepareStatement(MySQLHelper.SELECT_DECISION_POLICY)
+        ) {
+            ps.setString(1, subject);
+            ps.setString(2, target);
+            ps.setString(3, process);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString("name");
+                    String other = rs.getString("other");
+                    String value = rs.getString("value");
+                    switch (rs.getString("kind")) {
+                        case "N":
+                            NodeType type = NODE_TYPES.get(rs.getLong("node_type_id"));
+                            nodes.put(name, new Node(name, type, value == null ? null : readProperties(value)));
+                            break;
+                        case "A":
+                            parents.computeIfAbsent(name, k -> new HashSet<>()).add(other);
+                            break;
+                        case "S":
+                            associations.computeIfAbsent(name, k -> new HashMap<>()).put(other, readOperations(value));
+                            break;
+                        case "D":
+                            Prohibition prohibition = prohibitions.get(name);
+                            if (prohibition == null) {
+                                prohibition = new Prohibition.Builder(name, other, readOperations(value))
+                                        .setIntersection(rs.getInt("flag") == 1)
+                                        .build();
+                                prohibitions.put(name, prohibition);
+                            }
+
+                            String container = rs.getString("container");
+                            if (container != null) {
+                                prohibition.addContainer(container, rs.getInt("complement") == 1);
+                            }
+                            break;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+
+        if (!nodes.containsKey(subject)) {
+            throw new PIPException("graph", String.format("node %s does not exist", subject));
+        } else if (!nodes.containsKey(target)) {
+            throw new PIPException("graph", String.format("node %s does not exist", target));
+        }
+
+        MemProhibitions memProhibitions = new MemProhibitions();
+        for (Prohibition prohibition : prohibitions.values()) {
+            memProhibitions.add(prohibition);
+        }
+
+        return new DecisionPolicy(buildGraph(nodes, parents, associations), memProhibitions);
+    }
+
+    /**
+     * Build the graph from the policy classes down so every node is created with a parent that already exists.
+     */
+    private MemGraph buildGraph(Map<String, Node> nodes, Map<String, Set<String>> parents,
+                                Map<String, Map<String, OperationSet>> associations) throws PMException {
+        Map<String, Set<String>> children = new HashMap<>();
+        for (Map.Entry<String, Set<String>> e : parents.entrySet()) {
+            for (String parent : e.getValue()) {
+                children.computeIfAbsent(parent, k -> new HashSet<>()).add(e.getKey());
+            }
+        }
+
+        MemGraph graph = new MemGraph();
+        Deque<String> queue = new ArrayDeque<>();
+        for (Node node : nodes.values()) {
+            if (node.getType() == PC) {
+                graph.createPolicyClass(node.getName(), node.getProperties());
+                queue.add(node.getName());
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            String parent = queue.poll();
+            for (String child : children.getOrDefault(parent, Collections.emptySet())) {
+                if (graph.exists(child)) {
+                    graph.assign(child, parent);
+                } else {
+                    Node node = nodes.get(child);
+                    graph.createNode(child, node.getType(), node.getProperties(), parent);
+                    queue.add(child);
+                }
+            }
+        }
+
+        for (Map.Entry<String, Map<String, OperationSet>> e : associations.entrySet()) {
+            // nodes that do not reach a policy class are not part of the graph and cannot affect the decision
+            if (!graph.exists(e.getKey())) {
+                continue;
+            }
+
+            for (Map.Entry<String, OperationSet> assoc : e.getValue().entrySet()) {
+                if (graph.exists(assoc.getKey())) {
+                    graph.associate(e.getKey(), assoc.getKey(), assoc.getValue());
+                }
+            }
+        }
+
+        return graph;
+    }
+
+    private Map<String, String> readProperties(String json) throws PIPException {
+        try {
+            return propertiesReader.readValue(json);
+        } catch (JsonProcessingException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+
+    private OperationSet readOperations(String json) throws PIPException {
+        try {
+            return InternedOperationSets.read(json);
+        } catch (JsonProcessingException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+
+    /**
+     * The graph and prohibitions loaded for a single decision.
+     */
+    public static class DecisionPolicy {
+        private final MemGraph graph;
+        private final MemProhibitions prohibitions;
+
+        DecisionPolicy(MemGraph graph, MemProhibitions prohibitions) {
+            this.graph = graph;
+            this.prohibitions = prohibitions;
+        }
+
+        public MemGraph getGraph() {
+            return graph;
+        }
+
+        public MemProhibitions getProhibitions() {
+            return prohibitions;
+        }
+    }
+}
@@ -13,10 +13,10 @@ import gov.nist.csd.pm.pip.graph.model.nodes.Node;
 import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
 import gov.nist.csd.pm.pip.graph.model.relationships.Assignment;
 import gov.nist.csd.pm.pip.graph.model.relationships.Association;
+import gov.nist.csd.pm.pip.memory.MemGraph;
 
 import java.sql.*;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.PC;
 
@@ -24,7 +24,6 @@ public class MySQLGraph implements Graph {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
     private static final ObjectReader reader = new ObjectMapper().readerFor(HashMap.class);
-    private static final ObjectReader reader2 = new ObjectMapper().readerFor(OperationSet.class);
     private static final String NODE_NOT_FOUND_MSG = "node %s does not exist";
     private static final HashMap<Long, String> nodeType = new HashMap<>();
 
@@ -40,9 +39,41 @@ public class MySQLGraph implements Graph {
     }
 
     private final MySQLConnection conn;
+    private final NodeIdCache idCache;
 
     public MySQLGraph(MySQLConnection connection) {
+        this(connection, 0);
+    }
+
+    /**
+     * Create a MySQLGraph that caches the ids of up to idCacheSize node names. The cache is kept up to date with the
+     * changes made through this graph, but changes made by other writers are not seen, so only enable the cache when
+     * this graph is the only writer.
+     *
+     * @param connection the connection to the database.
+     * @param idCacheSize the number of node names to cache the ids of, 0 disables the cache.
+     */
+    public MySQLGraph(MySQLConnection connection, int idCacheSize) {
+        if (idCacheSize < 0) {
+            throw new IllegalArgumentException("the id cache size cannot be negative");
+        }
+
         this.conn = connection;
+        this.idCache = new NodeIdCache(idCacheSize);
+    }
+
+    /**
+     * Start a database transaction on a single connection from this graph's pool.
+     *
+     * @return the transaction.
+     * @throws PIPException if a connection cannot be obtained.
+     */
+    public MySQLTransaction beginTransaction() throws PIPException {
+        return new MySQLTransaction(conn, this);
+    }
+
+    void clearCache() {
+        idCache.clear();
     }
 
     public static String toJSON(Map<String, String> map) throws JsonProcessingException {
@@ -54,37 +85,69 @@ public class MySQLGraph implements Graph {
     }
 
     public long getNodeIdFromName (String name) throws PIPException {
+        long id = findNodeId(name);
+        if (id == -1) {
+            throw new PIPException("graph", "There are no nodes with that name.");
+        }
+        return id;
+    }
+
+    public String getNodeNameFromId(long id) throws PIPException{
+        String name = idCache.getName(id);
+        if (name != null) {
+            return name;
+        }
 
-        Collection<Node> all_nodes = getNodes();
-        List<Node> nodes;
-        try {
-            nodes = all_nodes.stream()
-                    .filter(node_k -> node_k.getName().equalsIgnoreCase(name))
-                    .collect(Collectors.toList());
-            //nodes.forEach(System.out::println);
-            if (nodes.size() >= 1) {
-                return nodes.get(0).getId();
+        long generation = idCache.getGeneration();
+        try (
+                Connection con = this.conn.getConnection();
+                PreparedStatement ps = con.prepareStatement(MySQLHelper.SELECT_EXISTS_NAME_NODE_ID)
+        ) {
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new PIPException("graph","There are no nodes with that name.");
+                }
+                name = rs.getString("name");
             }
-        } catch (Exception p) {
-            throw new PIPException("graph", p.getMessage());
+        } catch (SQLException s) {
+            throw new PIPException("graph", s.getMessage());
         }
-        throw new PIPException("graph", "There are no nodes with that name.");
+
+        idCache.put(id, name, generation);
+        return name;
     }
 
-    public String getNodeNameFromId(long id) throws PIPException{
-        Collection<Node> all_nodes = getNodes();
-        List<Node> nodes;
-        try {
-            nodes = all_nodes.stream()
-                    .filter(node_k -> node_k.getId() == id)
-                    .collect(Collectors.toList());
-            if (nodes.size() >= 1) {
-                return nodes.get(0).getName();
+    /**
+     * Look up the id of a node using the unique index on node names.
+     *
+     * @return the id of the node, or -1 if it does not exist.
+     */
+    private long findNodeId(String name) throws PIPException {
+        Long cached = idCache.getId(name);
+        if (cached != null) {
+            return cached;
+        }
+
+        long id;
+        long generation = idCache.getGeneration();
+        try (
+                Connection con = this.conn.getConnection();
+                PreparedStatement ps = con.prepareStatement(MySQLHelper.SELECT_EXISTS_ID_NODE_ID)
+        ) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return -1;
+                }
+                id = rs.getLong("node_id");
             }
-        } catch (Exception p) {
-            throw new PIPException("graph", p.getMessage());
+        } catch (SQLException s) {
+            throw new PIPException("graph", s.getMessage());
         }
-        throw new PIPException("graph","There are no nodes with that name.");
+
+        idCache.put(id, name, generation);
+        return id;
     }
 
     @Override
@@ -99,8 +162,9 @@ public class MySQLGraph implements Graph {
         ResultSet rs_type = null;
         PreparedStatement pstmt = null;
         PreparedStatement ps = null;
-        try {
-            Connection con = this.conn.getConnection();
+        try (Connection con = this.conn.getConnection()) {
+            // the node and its property rows are committed together, the pool rolls back both if either insert fails
+            con.setAutoCommit(false);
             //====================  NodeType parser : Retrieve node_type_id ====================
             pstmt = con.prepareStatement(MySQLHelper.SELECT_NODE_TYPE_ID_FROM_NODE_TYPE);
             pstmt.setString(1, "PC");
@@ -127,8 +191,16 @@ public class MySQLGraph implements Graph {
 
             ps.executeUpdate();
 
-            Node node = new Node(name, PC, properties);
-            con.close();
+            long id = 0;
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    id = keys.getLong(1);
+                }
+            }
+            writeProperties(con, id, properties);
+            con.commit();
+
+            Node node = new Node(id, name, PC, properties);
             return node;
         } catch (SQLException s) {
             throw new PIPException("graph", s.getMessage());
@@ -174,11 +246,20 @@ public class MySQLGraph implements Graph {
             throw new IllegalArgumentException("must specify an initial parent ID when creating a non policy class node");
         }
 
+        // read the parents before taking a connection, so that no other connection is borrowed while it is held
+        List<Node> parents = new ArrayList<>();
+        parents.add(getParentNode(type, initialParent));
+        for (String parent : additionalParents) {
+            parents.add(getParentNode(type, parent));
+        }
+
         ResultSet rs_type = null;
         PreparedStatement pstmt = null;
         PreparedStatement ps = null;
-        try {
-            Connection con = this.conn.getConnection();
+        try (Connection con = this.conn.getConnection()) {
+            // the node, its property rows and its assignments are committed together, the pool rolls back all of them if
+            // any insert fails
+            con.setAutoCommit(false);
             //====================  NodeType parser : Retrieve node_type_id ====================
             pstmt = con.prepareStatement(MySQLHelper.SELECT_NODE_TYPE_ID_FROM_NODE_TYPE);
             pstmt.setString(1, type.toString());
@@ -210,13 +291,17 @@ public class MySQLGraph implements Graph {
             {
                 id = resultSet.getInt(1);
             }
+            writeProperties(con, id, properties);
             Node node = new Node(id, name, type, properties);
             //assign the new nodes to given parent nodes
-            assign(name, initialParent);
-            for (String parent : additionalParents) {
-                assign(name, parent);
+            try (PreparedStatement assign = con.prepareStatement(MySQLHelper.INSERT_ASSIGNMENT)) {
+                for (Node parent : parents) {
+                    assign.setLong(1, id);
+                    assign.setLong(2, parent.getId());
+                    assign.executeUpdate();
+                }
             }
-            con.close();
+            con.commit();
             return node;
         } catch (SQLException s) {
             throw new PIPException("graph", s.getMessage());
@@ -232,6 +317,19 @@ public class MySQLGraph implements Graph {
         }
     }
 
+    /**
+     * Get the node that a new node of the given type will be assigned to, checking that the assignment is valid.
+     */
+    private Node getParentNode(NodeType childType, String parent) throws PIPException {
+        Node parentNode = getNode(parent);
+        if (parentNode == null) {
+            throw new IllegalArgumentException(String.format(NODE_NOT_FOUND_MSG, parent));
+        }
+
+        Assignment.checkAssignment(childType, parentNode.getType());
+        return parentNode;
+    }
+
     /**
      * Method without initial parents
      * @param name
@@ -259,8 +357,9 @@ public class MySQLGraph implements Graph {
         ResultSet rs_type = null;
         PreparedStatement pstmt = null;
         PreparedStatement ps = null;
-        try {
-            Connection con = this.conn.getConnection();
+        try (Connection con = this.conn.getConnection()) {
+            // the node and its property rows are committed together, the pool rolls back both if either insert fails
+            con.setAutoCommit(false);
             //====================  NodeType parser : Retrieve node_type_id ====================
             pstmt = con.prepareStatement(MySQLHelper.SELECT_NODE_TYPE_ID_FROM_NODE_TYPE);
             pstmt.setString(1, type.toString());
@@ -286,7 +385,13 @@ public class MySQLGraph implements Graph {
                 }
             }
             ps.executeUpdate();
-            con.close();
+
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    writeProperties(con, keys.getLong(1), properties);
+                }
+            }
+            con.commit();
         } catch (SQLException s) {
             throw new PIPException("graph", s.getMessage());
         }
@@ -328,6 +433,8 @@ public class MySQLGraph implements Graph {
                 Connection con = this.conn.getConnection();
                 PreparedStatement ps = con.prepareStatement(MySQLHelper.UPDATE_NODE)
         ){
+            // the node and its property rows are committed together, the pool rolls back both if either update fails
+            con.setAutoCommit(false);
             ps.setString(1, name);
             try {
                 ps.setString(2, toJSON(properties));
@@ -336,9 +443,38 @@ public class MySQLGraph implements Graph {
             }
             ps.setLong(3, id);
             ps.executeUpdate();
+            writeProperties(con, id, properties);
+            con.commit();
 
         } catch (SQLException s) {
             throw new PIPException("graph", s.getMessage());
+        } finally {
+            idCache.remove(id);
+        }
+    }
+
+    /**
+     * Replace the rows of a node in the node_properties table, which is what search filters on. The node_property column
+     * still holds the properties that are returned when the node is read.
+     */
+    static void writeProperties(Connection con, long id, Map<String, String> properties) throws SQLException {
+        try (PreparedStatement delete = con.prepareStatement(MySQLHelper.DELETE_NODE_PROPERTIES)) {
+            delete.setLong(1, id);
+            delete.executeUpdate();
+        }
+
+        if (properties == null || properties.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement insert = con.prepareStatement(MySQLHelper.INSERT_NODE_PROPERTY)) {
+            for (Map.Entry<String, String> e : properties.entrySet()) {
+                insert.setLong(1, id);
+                insert.setString(2, e.getKey());
+                insert.setString(3, e.getValue());
+                insert.addBatch();
+            }
+            insert.executeBatch();
         }
     }
 
@@ -359,6 +495,8 @@ public class MySQLGraph implements Graph {
             ps.executeUpdate();
         } catch (SQLException e) {
             throw new PIPException("graph", e.getMessage());
+        } finally {
+            idCache.remove(name);
         }
     }
 
@@ -451,7 +589,6 @@ public class MySQLGraph implements Graph {
                 node = new Node(id, name, type, properties);
                 nodes.add(node);
             }
-            con.close();
             return nodes;
         } catch (SQLException s) {
             throw new PIPException("graph", s.getMessage());
@@ -471,6 +608,7 @@ public class MySQLGraph implements Graph {
     public Node getNode(String name) throws PIPException {
         HashMap<Long, String> nodeType = getNodeType();
         Node node = null;
+        long generation = idCache.getGeneration();
         try (
                 Connection con = this.conn.getConnection();
                 PreparedStatement ps = con.prepareStatement(MySQLHelper.SELECT_ALL_FROM_NAME)
@@ -499,6 +637,7 @@ public class MySQLGraph implements Graph {
                     }
                 }
                 node = new Node(id, name, type, properties);
+                idCache.put(id, name, generation);
             }
             return node;
         } catch (SQLException s) {
@@ -523,29 +662,53 @@ public class MySQLGraph implements Graph {
             properties = new HashMap<>();
         }
 
-        HashSet<Node> results = new HashSet<>();
-        // iterate over the nodes to find ones that match the search parameters
-        for (Node node : getNodes()) {
-            // if the type parameter is not null and the current node type does not equal the type parameter, do not add
-            if (type != null && !node.getType().equals(type)) {
+        // each property with a value joins the (property_key, property_value) index, so only the matching nodes are read
+        StringBuilder sql = new StringBuilder(MySQLHelper.SEARCH_NODES);
+        List<String> params = new ArrayList<>();
+        for (Map.Entry<String, String> e : properties.entrySet()) {
+            // if the property provided in the search parameters is null or *, it does not filter the nodes
+            if (e.getValue() == null || e.getValue().equals("*")) {
                 continue;
             }
 
-            boolean add = true;
-            for (String key : properties.keySet()) {
-                String checkValue = properties.get(key);
-                String foundValue = node.getProperties().get(key);
-                // if the property provided in the search parameters is null or *, continue to the next property
-                if (!(checkValue == null || checkValue.equals("*")) &&
-                        (foundValue == null || !foundValue.equals(checkValue))) {
-                    add = false;
-                    break;
-                }
+            sql.append(String.format(MySQLHelper.SEARCH_NODES_PROPERTY_JOIN, params.size()));
+            params.add(e.getKey());
+            params.add(e.getValue());
+        }
+        if (type != null) {
+            sql.append(MySQLHelper.SEARCH_NODES_TYPE);
+            params.add(type.toString());
+        }
+
+        HashMap<Long, String> nodeType = getNodeType();
+        HashSet<Node> results = new HashSet<>();
+        try (
+                Connection con = this.conn.getConnection();
+                PreparedStatement ps = con.prepareStatement(sql.toString())
+        ) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setString(i + 1, params.get(i));
             }
 
-            if (add) {
-                results.add(node);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Map<String, String> nodeProperties = null;
+                    String properties_string = rs.getString("node_property");
+                    if (properties_string != null) {
+                        try {
+                            nodeProperties = reader.readValue(properties_string);
+                        } catch (JsonProcessingException j) {
+                            throw new PIPException("graph", j.getMessage());
+                        }
+                    }
+
+                    String typeName = nodeType.get((long) rs.getInt("node_type_id"));
+                    results.add(new Node(rs.getInt("node_id"), rs.getString("name"),
+                            typeName == null ? null : NodeType.toNodeType(typeName), nodeProperties));
+                }
             }
+        } catch (SQLException s) {
+            throw new PIPException("graph", s.getMessage());
         }
 
         return results;
@@ -560,34 +723,12 @@ public class MySQLGraph implements Graph {
      */
     @Override
     public Set<String> getChildren(String name) throws PIPException {
-        if (!exists(name)) {
+        long nodeID = findNodeId(name);
+        if (nodeID == -1) {
             throw new PIPException("graph", "node with the name "+ name+ "could not be found to update");
         }
 
-        Set<Long> sources = new HashSet<>();
-        Set<String> sources_p = new HashSet<>();
-        long nodeID = getNodeIdFromName(name);
-
-        try (
-                Connection con = this.conn.getConnection();
-                Statement stmt = con.createStatement();
-                ResultSet rs = stmt.executeQuery(MySQLHelper.SELECT_START_NODE_ID + nodeID)
-
-        ){
-
-            while (rs.next()) {
-                long              start_node_id = rs.getInt("start_node_id");
-                sources.add(start_node_id);
-
-            }
-            for (long id : sources) {
-                sources_p.add(getNodeNameFromId(id));
-            }
-            return sources_p;
-        } catch (SQLException ex) {
-            throw new PIPException("graph", ex.getMessage());
-
-        }
+        return getAssignedNames(MySQLHelper.SELECT_CHILDREN_ID_NAME, nodeID);
     }
 
     /**
@@ -599,32 +740,37 @@ public class MySQLGraph implements Graph {
      */
     @Override
     public Set<String> getParents(String name) throws PIPException {
-        if (!exists(name)) {
+        long nodeID = findNodeId(name);
+        if (nodeID == -1) {
             throw new PIPException("graph", "node "+ name+ " does not exist");
         }
 
-        Set<String> targets_p = new HashSet<>();
-        Set<Long> targets = new HashSet<>();
-        long nodeID = getNodeIdFromName(name);
+        return getAssignedNames(MySQLHelper.SELECT_PARENTS_ID_NAME, nodeID);
+    }
 
+    /**
+     * Get the names of the nodes on the other end of the assignments of a node, joining the node table to get the names in
+     * the same query.
+     */
+    private Set<String> getAssignedNames(String sql, long nodeID) throws PIPException {
+        Set<String> names = new HashSet<>();
+        long generation = idCache.getGeneration();
         try (
                 Connection con = this.conn.getConnection();
-                Statement stmt = con.createStatement();
-                ResultSet rs = stmt.executeQuery(MySQLHelper.SELECT_END_NODE_ID + nodeID)
+                PreparedStatement ps = con.prepareStatement(sql)
         ) {
-
-            while (rs.next()) {
-                long              end_node_id = rs.getInt("end_node_id");
-                targets.add(end_node_id);
-            }
-            for (long id : targets) {
-                targets_p.add(getNodeNameFromId(id));
+            ps.setLong(1, nodeID);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long id = rs.getLong("node_id");
+                    String name = rs.getString("name");
+                    names.add(name);
+                    idCache.put(id, name, generation);
+                }
             }
-            return targets_p;
-
+            return names;
         } catch (SQLException ex) {
             throw new PIPException("graph", ex.getMessage());
-
         }
     }
 
@@ -885,24 +1031,28 @@ public class MySQLGraph implements Graph {
         Map<String, OperationSet> sourcesAssoc = new HashMap<>();
         OperationSet operations_set = new OperationSet();
 
+        // the names of the targets are joined in the same query, so no other connection is borrowed while reading them
+        long generation = idCache.getGeneration();
         try (
                 Connection con = this.conn.getConnection();
-                Statement stmt = con.createStatement();
-                ResultSet rs = stmt.executeQuery(MySQLHelper.SELECT_END_NODE_ID_OPERATION + ua.getId())
+                PreparedStatement ps = con.prepareStatement(MySQLHelper.SELECT_ASSOCIATION_TARGETS)
         ) {
-
+            ps.setLong(1, ua.getId());
+            ResultSet rs = ps.executeQuery();
             while (rs.next()) {
-                long              end_node_id = rs.getInt("end_node_id");
+                long              end_node_id = rs.getLong("node_id");
+                String            end_node_name = rs.getString("name");
                 String            operations = rs.getString("operation_set");
 
                 if (operations != null) {
                     try {
-                        operations_set = reader2.readValue(operations);
+                        operations_set = InternedOperationSets.read(operations);
                     } catch (JsonProcessingException j) {
                         throw new PIPException("graph", j.getMessage());
                     }
                 }
-                sourcesAssoc.put(getNodeNameFromId(end_node_id), operations_set);
+                sourcesAssoc.put(end_node_name, operations_set);
+                idCache.put(end_node_id, end_node_name, generation);
 
             }
             return sourcesAssoc;
@@ -936,23 +1086,28 @@ public class MySQLGraph implements Graph {
         Map<String, OperationSet> targetsAssoc = new HashMap<>();
         OperationSet operations_set = new OperationSet();
 
+        // the names of the sources are joined in the same query, so no other connection is borrowed while reading them
+        long generation = idCache.getGeneration();
         try (
                 Connection con = this.conn.getConnection();
-                Statement stmt = con.createStatement();
-                ResultSet rs = stmt.executeQuery(MySQLHelper.SELECT_START_NODE_ID_OPERATION + ua.getId())
+                PreparedStatement ps = con.prepareStatement(MySQLHelper.SELECT_ASSOCIATION_SOURCES)
         ) {
+            ps.setLong(1, ua.getId());
+            ResultSet rs = ps.executeQuery();
             while (rs.next()) {
-                long              start_node_id =rs.getInt("start_node_id");
+                long              start_node_id = rs.getLong("node_id");
+                String            start_node_name = rs.getString("name");
                 String            operations = rs.getString("operation_set");
 
                 if (operations != null) {
                     try {
-                        operations_set = reader2.readValue(operations);
+                        operations_set = InternedOperationSets.read(operations);
                     } catch (JsonProcessingException j) {
                         throw new PIPException("graph", j.getMessage());
                     }
                 }
-                targetsAssoc.put(getNodeNameFromId(start_node_id), operations_set);
+                targetsAssoc.put(start_node_name, operations_set);
+                idCache.put(start_node_id, start_node_name, generation);
 
             }
             return targetsAssoc;
@@ -993,85 +1148,55 @@ public class MySQLGraph implements Graph {
      */
     @Override
     public String toJson() throws PMException {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-
-        Set<Node> nodes = getNodes();
-        HashSet<String[]> jsonAssignments = new HashSet<>();
-        HashSet<JsonAssociation> jsonAssociations = new HashSet<>();
-
-        for (Node node : nodes) {
-            Set<String> parents = this.getParents(node.getName());
-            for (String parent : parents) {
-                jsonAssignments.add(new String[]{node.getName(), parent});
-            }
-            if (node.getType() == NodeType.UA) {
-                Map<String, OperationSet> associations = this.getSourceAssociations(node.getName());
-                for (String target : associations.keySet()) {
-                    OperationSet ops = associations.get(target);
-                    Node targetNode = this.getNode(target);
-                    jsonAssociations.add(new JsonAssociation(node.getName(), targetNode.getName(), ops));
-                }
-            }
-        }
-        return gson.toJson(new JsonGraph(nodes, jsonAssignments, jsonAssociations));
+        return readJsonGraph();
     }
 
     /**
-     * Load a json string representation of a graph into the current graph.
+     * Load a json string representation of a graph into the current graph. The graph is validated in memory and then
+     * written to the database in batches by a MySQLBulkLoader.
      *
      * @param json the string representation of the graph
      */
     @Override
     public void fromJson(String json) throws PMException {
-        JsonGraph jsonGraph = new Gson().fromJson(json, JsonGraph.class);
-        Set<Node> nodes = getNodes();
-        for (Node node : nodes) {
-            if (node.getType().equals(PC)) {
-                //GraphAdmin graphAdmin = new GraphAdmin(this);
-                this.createPolicyClass(node.getName(), node.getProperties());
-            } else {
-                this.createNode(node.getName(), node.getType(), node.getProperties());
-            }
-        }
-        List<String[]> assignments = new ArrayList<>(jsonGraph.getAssignments());
-        for (String[] assignment : assignments) {
-            if (assignment.length != 2) {
-                throw new PMException("invalid assignment (format=[child, parent]): " + Arrays.toString(assignment));
-            }
-            String source = assignment[0];
-            String target = assignment[1];
-            this.assign(source, target);
-        }
-
-        Set<JsonAssociation> associations = jsonGraph.getAssociations();
-        for (JsonAssociation association : associations) {
-            String ua = association.getSource();
-            String target = association.getTarget();
-            this.associate(ua, target, new OperationSet(association.getOperations()));
-        }
+        MemGraph graph = new MemGraph();
+        graph.fromJson(json);
+        new MySQLBulkLoader(conn).load(graph);
     }
 
     public String toJson_with_config() throws PMException {
+        return readJsonGraph();
+    }
+
+    /**
+     * Read the nodes, assignments, and associations with one query each rather than a query per node.
+     */
+    private String readJsonGraph() throws PMException {
         Gson gson = new GsonBuilder().setPrettyPrinting().create();
 
-        Collection<Node> nodes = this.getNodes();
+        Set<Node> nodes = getNodes();
         HashSet<String[]> jsonAssignments = new HashSet<>();
         HashSet<JsonAssociation> jsonAssociations = new HashSet<>();
 
-        for (Node node : nodes) {
-            Set<String> parents = this.getParents(node.getName());
-            for (String parent : parents) {
-                jsonAssignments.add(new String[]{node.getName(), parent});
+        try (
+                Connection con = this.conn.getConnection();
+                Statement stmt = con.createStatement()
+        ) {
+            try (ResultSet rs = stmt.executeQuery(MySQLHelper.SELECT_ALL_ASSIGNMENT_NAMES)) {
+                while (rs.next()) {
+                    jsonAssignments.add(new String[]{rs.getString("child"), rs.getString("parent")});
+                }
             }
-            if (node.getType() == NodeType.UA) {
-                Map<String, OperationSet> associations = this.getSourceAssociations(node.getName());
-                for (String target : associations.keySet()) {
-                    OperationSet ops = associations.get(target);
-                    Node targetNode = this.getNode(target);
-                    jsonAssociations.add(new JsonAssociation(node.getName(), targetNode.getName(), ops));
+            try (ResultSet rs = stmt.executeQuery(MySQLHelper.SELECT_ALL_ASSOCIATION_NAMES)) {
+                while (rs.next()) {
+                    OperationSet ops = InternedOperationSets.read(rs.getString("operation_set"));
+                    jsonAssociations.add(new JsonAssociation(rs.getString("source"), rs.getString("target"), ops));
                 }
             }
+        } catch (SQLException | JsonProcessingException e) {
+            throw new PIPException("graph", e.getMessage());
         }
+
         return gson.toJson(new JsonGraph(nodes, jsonAssignments, jsonAssociations));
     }
 
@@ -1090,6 +1215,8 @@ public class MySQLGraph implements Graph {
             ps4.executeUpdate();
         } catch (SQLException e) {
             throw new PIPException("graph", e.getMessage());
+        } finally {
+            idCache.clear();
         }
     }
 
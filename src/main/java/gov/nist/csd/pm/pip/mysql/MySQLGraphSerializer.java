@@ -0,0 +1,41 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.GraphSerializer;
+import gov.nist.csd.pm.pip.memory.MemGraph;
+import gov.nist.csd.pm.pip.memory.MemGraphSerializer;
+
+/**
+ * Serializes a MySQLGraph using the same format as the MemGraphSerializer. Deserialized graphs are parsed and validated in
+ * memory and then written to the database in one transaction by a MySQLBulkLoader.
+ */
+public class MySQLGraphSerializer implements GraphSerializer {
+
+    private MySQLGraph graph;
+    private MySQLBulkLoader loader;
+
+    public MySQLGraphSerializer(MySQLGraph graph, MySQLConnection connection) {
+        this.graph = graph;
+        this.loader = new MySQLBulkLoader(connection);
+    }
+
+    public MySQLBulkLoader getLoader() {
+        return loader;
+    }
+
+    @Override
+    public String serialize() throws PMException {
+        MemGraph memGraph = new MemGraph();
+        memGraph.fromJson(graph.toJson());
+        return new MemGraphSerializer(memGraph).serialize();
+    }
+
+    @Override
+    public Graph deserialize(String s) throws PMException {
+        MemGraph memGraph = new MemGraph();
+        new MemGraphSerializer(memGraph).deserialize(s);
+        loader.load(memGraph);
+        return graph;
+    }
+}
@@ -15,6 +15,11 @@ public class MySQLHelper {
     public static final String SELECT_NODE_ID_NAME_FROM_NODE = "select count(*) AS total from policydb_core.node where name = ?";
     public static final String SELECT_ALL_FROM_NODE = "SELECT node_id, name, node_type_id, node_property from policydb_core.node";
     public static final String SELECT_ALL_FROM_NAME = "SELECT node_id, name, node_type_id, node_property from policydb_core.node where name = ?";
+    public static final String INSERT_NODE_PROPERTY = "INSERT INTO policydb_core.node_properties(node_id, property_key, property_value) VALUES(?,?,?)";
+    public static final String DELETE_NODE_PROPERTIES = "DELETE from policydb_core.node_properties where node_id = ?";
+    public static final String SEARCH_NODES = "SELECT n.node_id, n.name, n.node_type_id, n.node_property from policydb_core.node n";
+    public static final String SEARCH_NODES_PROPERTY_JOIN = " JOIN policydb_core.node_properties p%1$d ON p%1$d.node_id = n.node_id AND p%1$d.property_key = ? AND p%1$d.property_value = ?";
+    public static final String SEARCH_NODES_TYPE = " where n.node_type_id = (SELECT node_type_id from policydb_core.node_type where name = ?)";
     public static final String DELETE_DENYS = "DELETE from policydb_core.deny";
     public static final String DELETE_ASSOCIATIONS = "DELETE from policydb_core.association";
     public static final String DELETE_ASSIGNMENTS = " DELETE from policydb_core.assignment ";
@@ -25,6 +30,11 @@ public class MySQLHelper {
     public static final String SELECT_ASSIGNMENT_ID = "Select assignment_id from policydb_core.assignment where start_node_id=? AND end_node_id = ?";
     public static final String INSERT_ASSIGNMENT = "INSERT into policydb_core.assignment( start_node_id, end_node_id) VALUES (?, ?)";
     public static final String DELETE_ASSIGNMENT = "DELETE from policydb_core.assignment where start_node_id=? AND end_node_id = ?";
+    public static final String SELECT_CHILDREN_ID_NAME = "SELECT n.node_id, n.name from policydb_core.assignment a JOIN policydb_core.node n ON n.node_id = a.start_node_id where a.end_node_id=?";
+    public static final String SELECT_PARENTS_ID_NAME = "SELECT n.node_id, n.name from policydb_core.assignment a JOIN policydb_core.node n ON n.node_id = a.end_node_id where a.start_node_id=?";
+    public static final String SELECT_NODE_IDS = "SELECT node_id, name from policydb_core.node";
+    public static final String SELECT_ALL_ASSIGNMENT_NAMES = "SELECT c.name AS child, p.name AS parent from policydb_core.assignment a JOIN policydb_core.node c ON c.node_id = a.start_node_id JOIN policydb_core.node p ON p.node_id = a.end_node_id";
+    public static final String SELECT_ALL_ASSOCIATION_NAMES = "SELECT s.name AS source, t.name AS target, a.operation_set from policydb_core.association a JOIN policydb_core.node s ON s.node_id = a.start_node_id JOIN policydb_core.node t ON t.node_id = a.end_node_id";
 
     public static final String SELECT_ASSOCIATION_ID = "Select association_id from policydb_core.association where start_node_id=? AND end_node_id = ?";
     public static final String INSERT_ASSOCIATION = "INSERT into policydb_core.association( start_node_id, end_node_id, operation_set) VALUES (?, ?, ?)";
@@ -32,6 +42,8 @@ public class MySQLHelper {
     public static final String DELETE_ASSOCIATION = "DELETE from policydb_core.association where start_node_id=? AND end_node_id = ?";
     public static final String SELECT_END_NODE_ID_OPERATION = "SELECT end_node_id, operation_set from policydb_core.association where start_node_id=";
     public static final String SELECT_START_NODE_ID_OPERATION = "SELECT start_node_id, operation_set from policydb_core.association where end_node_id=";
+    public static final String SELECT_ASSOCIATION_TARGETS = "SELECT n.node_id, n.name, a.operation_set from policydb_core.association a JOIN policydb_core.node n ON n.node_id = a.end_node_id where a.start_node_id=?";
+    public static final String SELECT_ASSOCIATION_SOURCES = "SELECT n.node_id, n.name, a.operation_set from policydb_core.association a JOIN policydb_core.node n ON n.node_id = a.start_node_id where a.end_node_id=?";
 
     public static final String INSERT_PROHIBITION = "INSERT INTO policydb_core.deny(deny_name, deny_type_id, subject_name, user_attribute_id, process_id, is_intersection, deny_operations) VALUES(?,?,?,?,?,?,?)";
     public static final String INSERT_CONTAINERS = "INSERT INTO policydb_core.deny_obj_attribute(deny_id, object_attribute_id, object_complement) VALUES(?,?,?)";
@@ -41,9 +53,59 @@ public class MySQLHelper {
     public static final String SELECT_ALL_PROHIBITION = "SELECT deny_id, deny_name, subject_name, is_intersection, deny_operations from policydb_core.deny";
     public static final String SELECT_EXISTS_ID_NODE_ID = "SELECT node_id from policydb_core.node where name =?";
     public static final String SELECT_EXISTS_NAME_NODE_ID = "SELECT name from policydb_core.node where node_id=?";
+    public static final String SELECT_PROHIBITIONS_WITH_CONTAINERS = "SELECT d.deny_id, d.deny_name, d.subject_name, d.is_intersection, d.deny_operations, n.name AS container, c.object_complement " +
+            "from policydb_core.deny d LEFT JOIN policydb_core.deny_obj_attribute c ON c.deny_id = d.deny_id LEFT JOIN policydb_core.node n ON n.node_id = c.object_attribute_id";
+    public static final String SELECT_ALL_PROHIBITIONS_WITH_CONTAINERS = SELECT_PROHIBITIONS_WITH_CONTAINERS + " ORDER BY d.deny_id";
+    public static final String SELECT_PROHIBITIONS_WITH_CONTAINERS_FOR_SUBJECT = SELECT_PROHIBITIONS_WITH_CONTAINERS + " where d.subject_name = ? ORDER BY d.deny_id";
+    public static final String SELECT_PROHIBITION_WITH_CONTAINERS_FROM_NAME = SELECT_PROHIBITIONS_WITH_CONTAINERS + " where d.deny_name = ?";
     public static final String SELECT_CONTAINER_DENY_ID = "SELECT object_attribute_id, object_complement from policydb_core.deny_obj_attribute where deny_id=? ";
     public static final String SELECT_CONTAINER_DENY_ID_SIMPLE = "SELECT object_attribute_id, object_complement from policydb_core.deny_obj_attribute where deny_id=";
     public static final String SELECT_ALL_CONTAINERS = "SELECT deny_id, object_attribute_id, object_complement from policydb_core.policydb_core.deny_obj_attribute";
     public static final String UPDATE_PROHIBITION = "UPDATE policydb_core.deny SET deny_name=?, subject_name=?, user_attribute_id=?, process_id=?, is_intersection =?, deny_operations=?, deny_type_id = ? WHERE deny_name=?";
 
+    public static final String UPDATE_CHANGE_SEQ = "UPDATE policydb_core.policy_changelog_seq SET seq = seq + 1 where id = 1";
+    public static final String SELECT_CHANGE_SEQ = "SELECT seq from policydb_core.policy_changelog_seq where id = 1";
+    public static final String INSERT_CHANGE = "INSERT INTO policydb_core.policy_changelog(seq, operation, payload) VALUES(?,?,?)";
+    public static final String SELECT_CHANGES_AFTER = "SELECT seq, operation, payload from policydb_core.policy_changelog where seq > ? ORDER BY seq LIMIT ?";
+    public static final String DELETE_CHANGES_THROUGH = "DELETE from policydb_core.policy_changelog where seq <= ?";
+    public static final String UPDATE_MIRROR_SEQ = "UPDATE policydb_core.policy_changelog_mirror SET seq = ? where mirror_id = ?";
+    public static final String INSERT_MIRROR_SEQ = "INSERT INTO policydb_core.policy_changelog_mirror(seq, mirror_id) VALUES(?,?)";
+    public static final String SELECT_MIN_MIRROR_SEQ = "SELECT MIN(seq) AS seq from policydb_core.policy_changelog_mirror";
+    public static final String DELETE_MIRROR = "DELETE from policydb_core.policy_changelog_mirror where mirror_id = ?";
+
+    /**
+     * Select everything needed to decide the permissions of a subject on a target in one statement. A recursive query over
+     * the assignment table finds the ancestors of the subject (side S) and of the target (side T). Each row has a kind: N
+     * for a node in either ancestry, A for an assignment from a node in either ancestry, S for an association from a
+     * subject ancestor to a target ancestor, and D for a prohibition on a subject ancestor or the process, with one row per
+     * container. Parameters: subject name, target name, process.
+     */
+    public static final String SELECT_DECISION_POLICY =
+            "WITH RECURSIVE ancestors (node_id, side) AS (" +
+            "    SELECT node_id, 'S' from policydb_core.node where name = ?" +
+            "    UNION ALL" +
+            "    SELECT node_id, 'T' from policydb_core.node where name = ?" +
+            "    UNION" +
+            "    SELECT a.end_node_id, an.side from policydb_core.assignment a JOIN ancestors an ON a.start_node_id = an.node_id" +
+            ") " +
+            "SELECT 'N' AS kind, n.name AS name, CAST(NULL AS VARCHAR(60)) AS other, n.node_type_id AS node_type_id, " +
+            "       n.node_property AS value, CAST(NULL AS INT) AS flag, CAST(NULL AS VARCHAR(60)) AS container, CAST(NULL AS INT) AS complement " +
+            "from ancestors an JOIN policydb_core.node n ON n.node_id = an.node_id " +
+            "UNION ALL " +
+            "SELECT 'A', c.name, p.name, NULL, NULL, NULL, NULL, NULL " +
+            "from ancestors an JOIN policydb_core.assignment a ON a.start_node_id = an.node_id " +
+            "JOIN policydb_core.node c ON c.node_id = a.start_node_id JOIN policydb_core.node p ON p.node_id = a.end_node_id " +
+            "UNION ALL " +
+            "SELECT 'S', s.name, t.name, NULL, x.operation_set, NULL, NULL, NULL " +
+            "from policydb_core.association x " +
+            "JOIN ancestors sa ON x.start_node_id = sa.node_id AND sa.side = 'S' " +
+            "JOIN ancestors ta ON x.end_node_id = ta.node_id AND ta.side = 'T' " +
+            "JOIN policydb_core.node s ON s.node_id = x.start_node_id JOIN policydb_core.node t ON t.node_id = x.end_node_id " +
+            "UNION ALL " +
+            "SELECT 'D', d.deny_name, d.subject_name, NULL, d.deny_operations, d.is_intersection, cn.name, c.object_complement " +
+            "from policydb_core.deny d LEFT JOIN policydb_core.deny_obj_attribute c ON c.deny_id = d.deny_id " +
+            "LEFT JOIN policydb_core.node cn ON cn.node_id = c.object_attribute_id " +
+            "where d.subject_name = ? OR d.subject_name IN (" +
+            "    SELECT n.name from ancestors an JOIN policydb_core.node n ON n.node_id = an.node_id where an.side = 'S')";
+
 }
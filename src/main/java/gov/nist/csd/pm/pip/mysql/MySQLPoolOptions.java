@@ -0,0 +1,119 @@
+package gov.nist.csd.pm.pip.mysql;
+
+/**
+ * The settings of the connection pool behind a MySQLConnection.
+ */
+public class MySQLPoolOptions {
+
+    private int maxPoolSize;
+    private long connectionTimeout;
+    private long idleTimeout;
+    private long validationInterval;
+    private int validationTimeout;
+    private int statementCacheSize;
+
+    /**
+     * Create the default options: at most 10 connections, a 30 second wait for a free connection, idle connections
+     * closed after 10 minutes, connections validated if they have not been used for 5 seconds, and up to 64 prepared
+     * statements cached per connection.
+     */
+    public MySQLPoolOptions() {
+        this.maxPoolSize = 10;
+        this.connectionTimeout = 30000;
+        this.idleTimeout = 600000;
+        this.validationInterval = 5000;
+        this.validationTimeout = 5;
+        this.statementCacheSize = 64;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * @param maxPoolSize the maximum number of connections open at the same time, must be greater than 0.
+     */
+    public void setMaxPoolSize(int maxPoolSize) {
+        if (maxPoolSize <= 0) {
+            throw new IllegalArgumentException("the maximum pool size must be greater than 0");
+        }
+
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public long getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    /**
+     * @param connectionTimeout the number of milliseconds to wait for a free connection before failing.
+     */
+    public void setConnectionTimeout(long connectionTimeout) {
+        if (connectionTimeout < 0) {
+            throw new IllegalArgumentException("the connection timeout cannot be negative");
+        }
+
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @param idleTimeout the number of milliseconds a connection can sit unused in the pool before it is closed.
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        if (idleTimeout < 0) {
+            throw new IllegalArgumentException("the idle timeout cannot be negative");
+        }
+
+        this.idleTimeout = idleTimeout;
+    }
+
+    public long getValidationInterval() {
+        return validationInterval;
+    }
+
+    /**
+     * @param validationInterval the number of milliseconds a connection can be unused before it is validated again when
+     *                           it is taken from the pool.
+     */
+    public void setValidationInterval(long validationInterval) {
+        if (validationInterval < 0) {
+            throw new IllegalArgumentException("the validation interval cannot be negative");
+        }
+
+        this.validationInterval = validationInterval;
+    }
+
+    public int getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    /**
+     * @param validationTimeout the number of seconds to wait for the database when validating a connection.
+     */
+    public void setValidationTimeout(int validationTimeout) {
+        if (validationTimeout < 0) {
+            throw new IllegalArgumentException("the validation timeout cannot be negative");
+        }
+
+        this.validationTimeout = validationTimeout;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * @param statementCacheSize the number of prepared statements to keep open per connection, 0 disables the cache.
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("the statement cache size cannot be negative");
+        }
+
+        this.statementCacheSize = statementCacheSize;
+    }
+}
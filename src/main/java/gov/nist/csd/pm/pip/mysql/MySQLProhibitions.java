@@ -2,7 +2,6 @@ package gov.nist.csd.pm.pip.mysql;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
 import gov.nist.csd.pm.exceptions.PIPException;
 import gov.nist.csd.pm.exceptions.PMException;
 import gov.nist.csd.pm.operations.OperationSet;
@@ -11,21 +10,38 @@ import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
 import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.*;
 
 public class MySQLProhibitions implements Prohibitions {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
-    private static final ObjectReader reader2 = new ObjectMapper().readerFor(OperationSet.class);
     private final MySQLConnection conn;
+    private final ProhibitionCache cache;
 
 
     public MySQLProhibitions(MySQLConnection connection) throws PIPException {
+        this(connection, 0);
+    }
+
+    /**
+     * Create a MySQLProhibitions that caches the prohibitions for up to cacheSize subjects. Writes made through this
+     * object are written through to the cache, but writes made by other processes are not seen until the subject is
+     * dropped from the cache, so only enable the cache when this object is the only writer.
+     *
+     * @param connection the connection to the database.
+     * @param cacheSize the number of subjects to cache the prohibitions of, 0 disables the cache.
+     */
+    public MySQLProhibitions(MySQLConnection connection, int cacheSize) throws PIPException {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("the cache size cannot be negative");
+        }
+
         this.conn = connection;
+        this.cache = new ProhibitionCache(cacheSize);
+    }
+
+    void clearCache() {
+        cache.clear();
     }
 
     public static String hashSetToJSON(Set<String> set) throws JsonProcessingException {
@@ -136,13 +152,13 @@ public class MySQLProhibitions implements Prohibitions {
     public int getTypeByNodeId (int node_id) throws PIPException {
         MySQLGraph graph = new MySQLGraph(conn);
 
-        if (graph.exists(graph.getNodeNameFromId(node_id))) {
+        Node node = graph.getNode(graph.getNodeNameFromId(node_id));
+        if (node != null) {
 
             try (
                     Connection con = this.conn.getConnection();
                     PreparedStatement ps = con.prepareStatement(MySQLHelper.SELECT_NODE_TYPE_FROM_NODE_TYPE)) {
 
-                Node node = graph.getNode(graph.getNodeNameFromId(node_id));
                 String node_type_id_name = node.getType().toString();
                 ps.setString(1, node_type_id_name);
                 ResultSet rs = ps.executeQuery();
@@ -192,13 +208,18 @@ public class MySQLProhibitions implements Prohibitions {
             throw new PIPException("prohibitions", "You cannot create the prohibition. Another prohibition with the name '" + prohibition.getName() + "' already exists");
         }
 
+        // read the nodes the prohibition refers to before taking a connection, so that no other connection is borrowed
+        // while it is held
+        int subjectId = getNodeIdFromSubjectName(prohibition.getSubject());
+        int subjectType = subjectId != 0 ? getTypeByNodeId(subjectId) : 3;
+        Map<Integer, Boolean> containers = getContainerIds(prohibition);
+
         PreparedStatement ps = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
+        boolean added = false;
 
-        try {
-            Connection con = this.conn.getConnection();
-
+        try (Connection con = this.conn.getConnection()) {
             ps = con.prepareStatement(MySQLHelper.INSERT_PROHIBITION, Statement.RETURN_GENERATED_KEYS);
             pstmt = con.prepareStatement(MySQLHelper.INSERT_CONTAINERS);
 
@@ -207,11 +228,11 @@ public class MySQLProhibitions implements Prohibitions {
             ps.setInt(2, 1); //type_id
             ps.setString(3, prohibition.getSubject());
 
-            if ( nodeExists(prohibition.getSubject())) {
-                ps.setInt(4, getNodeIdFromSubjectName(prohibition.getSubject())); //user_attribute_id
+            if (subjectId != 0) {
+                ps.setInt(4, subjectId); //user_attribute_id
                 ps.setString(5, null); //process_id null if node exists
                 // deny_type_id = node_type_id if node_id exists
-                ps.setInt(2, getTypeByNodeId(getNodeIdFromSubjectName(prohibition.getSubject())));
+                ps.setInt(2, subjectType);
             } else {
                 ps.setString(5, prohibition.getSubject()); //process_id
                 ps.setString(4, null);
@@ -237,23 +258,21 @@ public class MySQLProhibitions implements Prohibitions {
                 deny_id = rs_id.getInt(1);
             }
             //====================  INSERT NEW CONTAINERS ====================
-            for (Map.Entry<String,Boolean> container : prohibition.getContainers().entrySet()) {
+            for (Map.Entry<Integer,Boolean> container : containers.entrySet()) {
                 pstmt.setInt(1, deny_id);
-                MySQLGraph graph = new MySQLGraph(this.conn);
-                //if (graph.exists(graph.getNodeNameFromId(Integer.parseInt(container.getKey())))) {
-                if (graph.exists(container.getKey())) {
-
-                    pstmt.setInt(2, getNodeIdFromSubjectName(container.getKey()));
-                    pstmt.setInt(3, container.getValue() ? 1 : 0);
-                    pstmt.executeUpdate();
-                } else {
-                    throw new PIPException("prohibitions", "The object attribute "+container.getKey()+" does not exist in the graph");
-                }
+                pstmt.setInt(2, container.getKey());
+                pstmt.setInt(3, container.getValue() ? 1 : 0);
+                pstmt.executeUpdate();
             }
-            con.close();
+
+            cache.added(prohibition);
+            added = true;
         } catch (SQLException s) {
             throw new PIPException("prohibitions", s.getMessage());
         } finally {
+            if (!added) {
+                cache.removed(prohibition.getName());
+            }
             try {
                 if(rs != null) {rs.close();}
                 if(ps != null) {ps.close();}
@@ -263,6 +282,23 @@ public class MySQLProhibitions implements Prohibitions {
         }
     }
 
+    /**
+     * Get the ids of the containers of a prohibition, and whether each is a complement.
+     *
+     * @throws PIPException if a container does not exist in the graph.
+     */
+    private Map<Integer, Boolean> getContainerIds(Prohibition prohibition) throws PIPException {
+        Map<Integer, Boolean> containers = new LinkedHashMap<>();
+        for (Map.Entry<String,Boolean> container : prohibition.getContainers().entrySet()) {
+            int id = getNodeIdFromSubjectName(container.getKey());
+            if (id == 0) {
+                throw new PIPException("prohibitions", "The object attribute "+container.getKey()+" does not exist in the graph");
+            }
+            containers.put(id, container.getValue());
+        }
+        return containers;
+    }
+
     /**
      * Get a list of all prohibitions
      *
@@ -271,49 +307,54 @@ public class MySQLProhibitions implements Prohibitions {
      */
     @Override
     public List<Prohibition> getAll() throws PIPException {
+        return queryProhibitions(MySQLHelper.SELECT_ALL_PROHIBITIONS_WITH_CONTAINERS, null);
+    }
+
+    /**
+     * Run a query that returns one row per prohibition and container, and group the rows into prohibitions.
+     */
+    private List<Prohibition> queryProhibitions(String sql, String param) throws PIPException {
+        Map<Integer, Prohibition> prohibitions = new LinkedHashMap<>();
         try (
                 Connection con = this.conn.getConnection();
-                Statement stmt = con.createStatement();
-                ResultSet rs = stmt.executeQuery(MySQLHelper.SELECT_ALL_PROHIBITION)
+                PreparedStatement ps = con.prepareStatement(sql)
         ) {
-            OperationSet operations_set = new OperationSet();
-            List<Prohibition> prohibitions = new ArrayList<>();
-            List<Deny_obj_attr> containers = getAllContainers();
+            if (param != null) {
+                ps.setString(1, param);
+            }
 
-            while (rs.next()) {
-                int id                  = rs.getInt("deny_id");
-                String prohibition_name = rs.getString("deny_name");
-                String subject_name     = rs.getString("subject_name");
-                boolean is_intersection = rs.getBoolean("is_intersection");
-                String deny_operations  = rs.getString("deny_operations");
-
-                if (deny_operations != null) {
-                    try {
-                        operations_set = reader2.readValue(deny_operations);
-                    } catch (JsonProcessingException j) {
-                        throw new PIPException("prohibitions", j.getMessage());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt("deny_id");
+                    Prohibition p = prohibitions.get(id);
+                    if (p == null) {
+                        OperationSet operations_set = new OperationSet();
+                        String deny_operations = rs.getString("deny_operations");
+                        if (deny_operations != null) {
+                            try {
+                                operations_set = InternedOperationSets.read(deny_operations);
+                            } catch (JsonProcessingException j) {
+                                throw new PIPException("prohibitions", j.getMessage());
+                            }
+                        }
+
+                        p = new Prohibition.Builder(rs.getString("deny_name"), rs.getString("subject_name"), operations_set)
+                                .setIntersection(rs.getBoolean("is_intersection"))
+                                .build();
+                        prohibitions.put(id, p);
                     }
-                }
-
-                Prohibition p = new Prohibition.Builder(prohibition_name, subject_name, operations_set)
-                        .setIntersection(is_intersection)
-                        .build();
 
-                //containers from getAllContainers()
-                List<Deny_obj_attr> containers_curr = containers.stream()
-                        .filter(container -> container.deny_id == id)
-                        .collect(Collectors.toList());
-
-                for (Deny_obj_attr deny_obj_attr : containers_curr) {
-                    p.addContainer(getNodeNameFromNodeID(deny_obj_attr.obj_att_id), deny_obj_attr.obj_compl == 1);
+                    String container = rs.getString("container");
+                    if (container != null) {
+                        p.addContainer(container, rs.getInt("object_complement") == 1);
+                    }
                 }
-                prohibitions.add(p);
             }
-
-            return prohibitions;
         } catch (SQLException s) {
             throw new PIPException("prohibitions", s.getMessage());
         }
+
+        return new ArrayList<>(prohibitions.values());
     }
 
     public List<Deny_obj_attr> getAllContainers() throws PIPException {
@@ -331,7 +372,6 @@ public class MySQLProhibitions implements Prohibitions {
                 Deny_obj_attr container = new Deny_obj_attr(deny_id, obj_att_id, object_complement);
                 containers.add(container);
             }
-            con.close();
             return containers;
 
         } catch (SQLException sqlException) {
@@ -348,13 +388,20 @@ public class MySQLProhibitions implements Prohibitions {
      */
     @Override
     public Prohibition get(String prohibitionName) throws PIPException {
-        List<Prohibition> ps = getAll();
-            for(Prohibition p : ps) {
-                if(p.getName().equalsIgnoreCase(prohibitionName)) {
-                    return p;
-                }
-            }
-        throw new PIPException("prohibitions", "a prohibition does not exist with the name " + prohibitionName);
+        Prohibition cached = cache.get(prohibitionName);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = cache.getGeneration();
+        List<Prohibition> ps = queryProhibitions(MySQLHelper.SELECT_PROHIBITION_WITH_CONTAINERS_FROM_NAME, prohibitionName);
+        if (ps.isEmpty()) {
+            throw new PIPException("prohibitions", "a prohibition does not exist with the name " + prohibitionName);
+        }
+
+        Prohibition p = ps.get(0);
+        cache.put(p, generation);
+        return p;
     }
 
     /**
@@ -366,13 +413,14 @@ public class MySQLProhibitions implements Prohibitions {
      */
     @Override
     public List<Prohibition> getProhibitionsFor(String subject) throws PIPException {
-        List<Prohibition> ps = getAll();
-        List<Prohibition> prohibitionList = new ArrayList<>();
-        for(Prohibition p : ps) {
-            if(p.getSubject().equalsIgnoreCase(subject)) {
-                prohibitionList.add(p);
-            }
+        List<Prohibition> cached = cache.getProhibitionsFor(subject);
+        if (cached != null) {
+            return cached;
         }
+
+        long generation = cache.getGeneration();
+        List<Prohibition> prohibitionList = queryProhibitions(MySQLHelper.SELECT_PROHIBITIONS_WITH_CONTAINERS_FOR_SUBJECT, subject);
+        cache.putProhibitionsFor(subject, prohibitionList, generation);
         return prohibitionList;
     }
 
@@ -393,6 +441,13 @@ public class MySQLProhibitions implements Prohibitions {
             throw new PIPException("prohibitions", "Another prohibition with the same name (" + prohibition.getName() + ") already exists.");
         }
 
+        // read the nodes and the prohibition before taking a connection, so that no other connection is borrowed while
+        // it is held
+        int subjectId = getNodeIdFromSubjectName(prohibition.getSubject());
+        int subjectType = subjectId != 0 ? getTypeByNodeId(subjectId) : 3;
+        Map<Integer, Boolean> containers = getContainerIds(prohibition);
+        int denyId = getProhibitionIdByProhibitionName(prohibitionName);
+
         try (
                 Connection con = this.conn.getConnection();
                 PreparedStatement ps = con.prepareStatement(MySQLHelper.UPDATE_PROHIBITION);
@@ -404,10 +459,10 @@ public class MySQLProhibitions implements Prohibitions {
             ps.setString(1, prohibition.getName());
             ps.setString(2, prohibition.getSubject());
 
-            if (nodeExists(prohibition.getSubject())) {
-                ps.setInt(3, getNodeIdFromSubjectName(prohibition.getSubject())); //user_attribute_id
+            if (subjectId != 0) {
+                ps.setInt(3, subjectId); //user_attribute_id
                 ps.setString(4, null); //process_id null if node exists
-                ps.setInt(7, getTypeByNodeId(getNodeIdFromSubjectName(prohibition.getSubject())));
+                ps.setInt(7, subjectType);
 
             } else {
                 ps.setString(3, null);
@@ -430,25 +485,21 @@ public class MySQLProhibitions implements Prohibitions {
             ps.executeUpdate();
 
             //delete container before adding new ones
-            preparedStatement.setInt(1, getProhibitionIdByProhibitionName(prohibition.getName()));
+            preparedStatement.setInt(1, denyId);
             preparedStatement.executeUpdate();
 
             //adding new container
-            for (Map.Entry<String,Boolean> entry : prohibition.getContainers().entrySet()) {
-                psCont.setInt(1, getProhibitionIdByProhibitionName(prohibition.getName()));
-                MySQLGraph graph = new MySQLGraph(this.conn);
-                //if (graph.exists(graph.getNodeNameFromId(Integer.parseInt(container.getKey())))) {
-                if (graph.exists(entry.getKey())) {
-                    psCont.setInt(2, getNodeIdFromSubjectName(entry.getKey()));
-                    psCont.setInt(3, entry.getValue() ? 1 : 0);
-                }
-                else {
-                    throw new PIPException("prohibitions", "The object attribute "+entry.getKey()+" does not exist in the graph");
-                }
+            for (Map.Entry<Integer,Boolean> entry : containers.entrySet()) {
+                psCont.setInt(1, denyId);
+                psCont.setInt(2, entry.getKey());
+                psCont.setInt(3, entry.getValue() ? 1 : 0);
                 psCont.executeUpdate();
             }
         } catch (SQLException s) {
             throw new PIPException("prohibitions", s.getMessage());
+        } finally {
+            // the old subject is not known here, so drop every cached subject
+            cache.clear();
         }
     }
     /**
@@ -459,6 +510,12 @@ public class MySQLProhibitions implements Prohibitions {
      */
     @Override
     public void delete(String prohibitionName) throws PIPException {
+        if (!exists(prohibitionName)) {
+            cache.removed(prohibitionName);
+            throw new PIPException("prohibitions", "a prohibition does not exist with the name "+ prohibitionName);
+        }
+        int denyId = getProhibitionIdByProhibitionName(prohibitionName);
+
         try (
                 Connection con = this.conn.getConnection();
                 PreparedStatement pstmt = con.prepareStatement(MySQLHelper.DELETE_PROHIBITION);
@@ -466,15 +523,13 @@ public class MySQLProhibitions implements Prohibitions {
         ){
 
             pstmt.setString(1, prohibitionName);
-            if (exists(prohibitionName)) {
-                ps.setInt(1, getProhibitionIdByProhibitionName(prohibitionName));
-                ps.executeUpdate();
-            } else {
-                throw new PIPException("prohibitions", "a prohibition does not exist with the name "+ prohibitionName);
-            }
+            ps.setInt(1, denyId);
+            ps.executeUpdate();
             pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new PIPException("prohibitions", e.getMessage());
+        } finally {
+            cache.removed(prohibitionName);
         }
     }
 
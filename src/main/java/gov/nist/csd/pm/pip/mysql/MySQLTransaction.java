@@ -0,0 +1,98 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import gov.nist.csd.pm.exceptions.PIPException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A database transaction on a single pooled connection. The graph, prohibitions and change log returned by a transaction
+ * run every statement on that connection, so nothing they write is visible to other connections until the transaction is
+ * committed, and all of it is discarded if the transaction is rolled back. Closing a transaction that has not been
+ * committed rolls it back and returns the connection to the pool.
+ *
+ * The graph and prohibitions of a transaction do not cache ids or prohibitions. When the transaction commits, the caches
+ * of the graph and prohibitions it was started from are cleared.
+ */
+public class MySQLTransaction implements AutoCloseable {
+
+    private final Connection connection;
+    private final MySQLConnection txConnection;
+    private final MySQLGraph graph;
+    private MySQLProhibitions prohibitions;
+    private boolean done;
+
+    MySQLTransaction(MySQLConnection connection, MySQLGraph graph) throws PIPException {
+        this.connection = connection.getConnection();
+        try {
+            this.connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            close();
+            throw new PIPException("graph", e.getMessage());
+        }
+
+        this.txConnection = new MySQLConnection(this.connection);
+        this.graph = graph;
+    }
+
+    /**
+     * @return a graph that reads and writes within this transaction.
+     */
+    public MySQLGraph getGraph() {
+        return new MySQLGraph(txConnection, 0);
+    }
+
+    /**
+     * Get prohibitions that read and write within this transaction. The cache of the given prohibitions is cleared when
+     * the transaction commits.
+     *
+     * @param prohibitions the prohibitions stored in the same database as the graph.
+     * @return prohibitions that read and write within this transaction.
+     */
+    public MySQLProhibitions getProhibitions(MySQLProhibitions prohibitions) throws PIPException {
+        this.prohibitions = prohibitions;
+        return new MySQLProhibitions(txConnection);
+    }
+
+    /**
+     * @return a change log that reads and writes within this transaction.
+     */
+    public PolicyChangeLog getChangeLog() {
+        return new PolicyChangeLog(txConnection);
+    }
+
+    public void commit() throws PIPException {
+        try {
+            connection.commit();
+            done = true;
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        } finally {
+            graph.clearCache();
+            if (prohibitions != null) {
+                prohibitions.clearCache();
+            }
+        }
+    }
+
+    public void rollback() throws PIPException {
+        try {
+            connection.rollback();
+            done = true;
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws PIPException {
+        try {
+            if (!done) {
+                connection.rollback();
+            }
+            connection.close();
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, bidirectional cache of node names and ids. The least recently used mapping is dropped when the cache is full.
+ *
+ * Every removal increments a generation. A mapping read from the database is only added if the generation has not
+ * changed since the read started, so a lookup that races with a delete or rename cannot cache the old mapping.
+ */
+class NodeIdCache {
+
+    private final int capacity;
+    private final LinkedHashMap<String, Long> ids;
+    private final Map<Long, String> names;
+    private long generation;
+
+    NodeIdCache(int capacity) {
+        this.capacity = capacity;
+        this.ids = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() <= NodeIdCache.this.capacity) {
+                    return false;
+                }
+
+                names.remove(eldest.getValue());
+                return true;
+            }
+        };
+        this.names = new HashMap<>();
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the id of the node with the given name, or null if it is not cached.
+     */
+    synchronized Long getId(String name) {
+        return ids.get(name);
+    }
+
+    /**
+     * @return the name of the node with the given id, or null if it is not cached.
+     */
+    synchronized String getName(long id) {
+        String name = names.get(id);
+        if (name != null) {
+            // mark the mapping as recently used
+            ids.get(name);
+        }
+        return name;
+    }
+
+    /**
+     * Cache the mapping if no mappings have been removed since the given generation.
+     */
+    synchronized void put(long id, String name, long generation) {
+        if (capacity == 0 || generation != this.generation) {
+            return;
+        }
+
+        Long oldId = ids.put(name, id);
+        if (oldId != null && oldId != id) {
+            names.remove(oldId);
+        }
+        String oldName = names.put(id, name);
+        if (oldName != null && !oldName.equals(name)) {
+            ids.remove(oldName);
+        }
+    }
+
+    synchronized void remove(String name) {
+        generation++;
+        Long id = ids.remove(name);
+        if (id != null) {
+            names.remove(id);
+        }
+    }
+
+    synchronized void remove(long id) {
+        generation++;
+        String name = names.remove(id);
+        if (name != null) {
+            ids.remove(name);
+        }
+    }
+
+    synchronized void clear() {
+        generation++;
+        ids.clear();
+        names.clear();
+    }
+}
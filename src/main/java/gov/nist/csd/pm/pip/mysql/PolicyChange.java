@@ -0,0 +1,163 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A single write to the graph, as recorded in the policy change log. Applying a change is idempotent: a change that is
+ * already reflected in the graph, such as creating a node that exists or deassigning nodes that are not assigned, is
+ * skipped. This allows a mirror to replay changes on top of a snapshot that may already include some of them.
+ */
+public class PolicyChange {
+
+    public enum Operation {
+        CREATE_PC,
+        CREATE_NODE,
+        UPDATE_NODE,
+        DELETE_NODE,
+        ASSIGN,
+        DEASSIGN,
+        ASSOCIATE,
+        DISSOCIATE
+    }
+
+    private transient long seq;
+    private Operation operation;
+    private String name;
+    private NodeType type;
+    private Map<String, String> properties;
+    private String[] parents;
+    private String target;
+    private Set<String> operations;
+
+    private PolicyChange(Operation operation, String name) {
+        this.operation = operation;
+        this.name = name;
+    }
+
+    public static PolicyChange createPolicyClass(String name, Map<String, String> properties) {
+        PolicyChange change = new PolicyChange(Operation.CREATE_PC, name);
+        change.properties = properties;
+        return change;
+    }
+
+    public static PolicyChange createNode(String name, NodeType type, Map<String, String> properties,
+                                          String initialParent, String... additionalParents) {
+        PolicyChange change = new PolicyChange(Operation.CREATE_NODE, name);
+        change.type = type;
+        change.properties = properties;
+        change.parents = new String[additionalParents.length + 1];
+        change.parents[0] = initialParent;
+        System.arraycopy(additionalParents, 0, change.parents, 1, additionalParents.length);
+        return change;
+    }
+
+    public static PolicyChange updateNode(String name, Map<String, String> properties) {
+        PolicyChange change = new PolicyChange(Operation.UPDATE_NODE, name);
+        change.properties = properties;
+        return change;
+    }
+
+    public static PolicyChange deleteNode(String name) {
+        return new PolicyChange(Operation.DELETE_NODE, name);
+    }
+
+    public static PolicyChange assign(String child, String parent) {
+        PolicyChange change = new PolicyChange(Operation.ASSIGN, child);
+        change.target = parent;
+        return change;
+    }
+
+    public static PolicyChange deassign(String child, String parent) {
+        PolicyChange change = new PolicyChange(Operation.DEASSIGN, child);
+        change.target = parent;
+        return change;
+    }
+
+    public static PolicyChange associate(String ua, String target, OperationSet operations) {
+        PolicyChange change = new PolicyChange(Operation.ASSOCIATE, ua);
+        change.target = target;
+        change.operations = operations;
+        return change;
+    }
+
+    public static PolicyChange dissociate(String ua, String target) {
+        PolicyChange change = new PolicyChange(Operation.DISSOCIATE, ua);
+        change.target = target;
+        return change;
+    }
+
+    /**
+     * @return the sequence number of the change in the log, or 0 if it has not been read from the log.
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Apply this change to the given graph.
+     *
+     * @param graph the graph to apply the change to.
+     * @throws PMException if the change cannot be applied to the graph.
+     */
+    public void apply(Graph graph) throws PMException {
+        switch (operation) {
+            case CREATE_PC:
+                if (!graph.exists(name)) {
+                    graph.createPolicyClass(name, properties);
+                }
+                break;
+            case CREATE_NODE:
+                if (!graph.exists(name)) {
+                    graph.createNode(name, type, properties, parents[0], Arrays.copyOfRange(parents, 1, parents.length));
+                }
+                break;
+            case UPDATE_NODE:
+                if (graph.exists(name)) {
+                    graph.updateNode(name, properties);
+                }
+                break;
+            case DELETE_NODE:
+                if (graph.exists(name)) {
+                    graph.deleteNode(name);
+                }
+                break;
+            case ASSIGN:
+                if (!graph.isAssigned(name, target)) {
+                    graph.assign(name, target);
+                }
+                break;
+            case DEASSIGN:
+                if (graph.isAssigned(name, target)) {
+                    graph.deassign(name, target);
+                }
+                break;
+            case ASSOCIATE:
+                graph.associate(name, target, new OperationSet(operations));
+                break;
+            case DISSOCIATE:
+                if (graph.exists(name) && graph.getSourceAssociations(name).containsKey(target)) {
+                    graph.dissociate(name, target);
+                }
+                break;
+        }
+    }
+}
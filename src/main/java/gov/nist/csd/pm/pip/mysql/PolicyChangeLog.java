@@ -0,0 +1,222 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import com.google.gson.Gson;
+import gov.nist.csd.pm.exceptions.PIPException;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The policy_changelog table. Every write to the graph made through a mirrored MemDBGraph is appended to the log with an
+ * increasing sequence number, and each mirror reads the changes after the last sequence number it applied.
+ *
+ * Sequence numbers are taken from the single row of the policy_changelog_seq table. Taking a number locks the row until
+ * the transaction ends, so the transactions that append to the log are serialized: each commits before the next one
+ * takes its number, the numbers have no gaps, and a reader never sees a change before the changes numbered below it.
+ * A gap in the log therefore means changes were deleted before a reader applied them.
+ *
+ * Each mirror records the last sequence number it applied in the policy_changelog_mirror table, and changes are only
+ * deleted once every recorded mirror has applied them.
+ */
+public class PolicyChangeLog {
+
+    private static final Gson gson = new Gson();
+
+    private final MySQLConnection conn;
+
+    public PolicyChangeLog(MySQLConnection connection) {
+        this.conn = connection;
+    }
+
+    /**
+     * Append a change to the log in its own transaction.
+     *
+     * @param change the change to append.
+     * @return the sequence number of the change.
+     * @throws PIPException if there is an error writing to the log.
+     */
+    public long append(PolicyChange change) throws PIPException {
+        try (Connection con = this.conn.getConnection()) {
+            con.setAutoCommit(false);
+            change.setSeq(nextSeq(con));
+            insert(con, change);
+            con.commit();
+            return change.getSeq();
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+
+    /**
+     * Take the next sequence number. The sequence stays locked until the transaction of this log's connection ends, so it
+     * should only be called on the log of a MySQLTransaction, before the writes the change records.
+     *
+     * @return the sequence number.
+     * @throws PIPException if there is an error updating the sequence.
+     */
+    long nextSeq() throws PIPException {
+        try (Connection con = this.conn.getConnection()) {
+            return nextSeq(con);
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+
+    /**
+     * Insert a change with the sequence number taken by nextSeq, in the same transaction.
+     *
+     * @param change the change to insert.
+     * @throws PIPException if there is an error writing to the log.
+     */
+    void insert(PolicyChange change) throws PIPException {
+        try (Connection con = this.conn.getConnection()) {
+            insert(con, change);
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+
+    private static long nextSeq(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(MySQLHelper.UPDATE_CHANGE_SEQ)) {
+            ps.executeUpdate();
+        }
+        return readSeq(con);
+    }
+
+    private static long readSeq(Connection con) throws SQLException {
+        try (
+                PreparedStatement ps = con.prepareStatement(MySQLHelper.SELECT_CHANGE_SEQ);
+                ResultSet rs = ps.executeQuery()
+        ) {
+            return rs.next() ? rs.getLong("seq") : 0;
+        }
+    }
+
+    private static void insert(Connection con, PolicyChange change) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(MySQLHelper.INSERT_CHANGE)) {
+            ps.setLong(1, change.getSeq());
+            ps.setString(2, change.getOperation().toString());
+            ps.setString(3, gson.toJson(change));
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Read the changes with a sequence number greater than the given one, in order.
+     *
+     * @param seq the sequence number of the last change already applied.
+     * @param limit the maximum number of changes to read.
+     * @return the changes after seq.
+     * @throws PIPException if there is an error reading the log.
+     */
+    public List<PolicyChange> readAfter(long seq, int limit) throws PIPException {
+        List<PolicyChange> changes = new ArrayList<>();
+        try (
+                Connection con = this.conn.getConnection();
+                PreparedStatement ps = con.prepareStatement(MySQLHelper.SELECT_CHANGES_AFTER)
+        ) {
+            ps.setLong(1, seq);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    PolicyChange change = gson.fromJson(rs.getString("payload"), PolicyChange.class);
+                    change.setSeq(rs.getLong("seq"));
+                    changes.add(change);
+                }
+            }
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+        return changes;
+    }
+
+    /**
+     * @return the sequence number of the latest committed change, or 0 if no change has been appended.
+     * @throws PIPException if there is an error reading the log.
+     */
+    public long getLatestSeq() throws PIPException {
+        try (Connection con = this.conn.getConnection()) {
+            return readSeq(con);
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+
+    /**
+     * Record the last sequence number a mirror has applied.
+     *
+     * @param mirrorId the id of the mirror.
+     * @param seq the sequence number of the last change the mirror applied.
+     * @throws PIPException if there is an error writing the position.
+     */
+    public void setPosition(String mirrorId, long seq) throws PIPException {
+        try (
+                Connection con = this.conn.getConnection();
+                PreparedStatement update = con.prepareStatement(MySQLHelper.UPDATE_MIRROR_SEQ)
+        ) {
+            update.setLong(1, seq);
+            update.setString(2, mirrorId);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+
+            try (PreparedStatement insert = con.prepareStatement(MySQLHelper.INSERT_MIRROR_SEQ)) {
+                insert.setLong(1, seq);
+                insert.setString(2, mirrorId);
+                insert.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+
+    /**
+     * Stop holding back the deletion of changes for a mirror that is closed or no longer running.
+     *
+     * @param mirrorId the id of the mirror.
+     * @throws PIPException if there is an error deleting the position.
+     */
+    public void removePosition(String mirrorId) throws PIPException {
+        try (
+                Connection con = this.conn.getConnection();
+                PreparedStatement ps = con.prepareStatement(MySQLHelper.DELETE_MIRROR)
+        ) {
+            ps.setString(1, mirrorId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the changes up to and including the given sequence number that every recorded mirror has applied. A mirror
+     * that finds changes missing from the log reloads its graph.
+     *
+     * @param seq the sequence number of the last change to delete.
+     * @return the sequence number of the last change that was deleted.
+     * @throws PIPException if there is an error deleting from the log.
+     */
+    public long deleteThrough(long seq) throws PIPException {
+        try (
+                Connection con = this.conn.getConnection();
+                PreparedStatement select = con.prepareStatement(MySQLHelper.SELECT_MIN_MIRROR_SEQ);
+                PreparedStatement delete = con.prepareStatement(MySQLHelper.DELETE_CHANGES_THROUGH)
+        ) {
+            try (ResultSet rs = select.executeQuery()) {
+                if (rs.next()) {
+                    long applied = rs.getLong("seq");
+                    if (!rs.wasNull()) {
+                        seq = Math.min(seq, applied);
+                    }
+                }
+            }
+
+            delete.setLong(1, seq);
+            delete.executeUpdate();
+            return seq;
+        } catch (SQLException e) {
+            throw new PIPException("graph", e.getMessage());
+        }
+    }
+}
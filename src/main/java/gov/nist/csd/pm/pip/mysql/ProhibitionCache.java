@@ -0,0 +1,141 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
+
+import java.util.*;
+
+/**
+ * A bounded cache of prohibitions by name and of the prohibitions for each subject. A subject with no prohibitions is
+ * cached with an empty list, so repeated lookups for the many nodes that are not the subject of a prohibition do not go
+ * to the database. The least recently used subject is dropped when the cache is full.
+ *
+ * Prohibitions are copied on the way in and out so callers cannot modify the cached values. Every write increments a
+ * generation, and values read from the database are only cached if the generation has not changed since the read started.
+ */
+class ProhibitionCache {
+
+    private final int capacity;
+    private final LinkedHashMap<String, List<Prohibition>> bySubject;
+    private final Map<String, Prohibition> byName;
+    private long generation;
+
+    ProhibitionCache(int capacity) {
+        this.capacity = capacity;
+        this.bySubject = new LinkedHashMap<String, List<Prohibition>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<Prohibition>> eldest) {
+                if (size() <= ProhibitionCache.this.capacity) {
+                    return false;
+                }
+
+                for (Prohibition p : eldest.getValue()) {
+                    byName.remove(p.getName());
+                }
+                return true;
+            }
+        };
+        this.byName = new HashMap<>();
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the prohibitions for the subject, or null if they are not cached.
+     */
+    synchronized List<Prohibition> getProhibitionsFor(String subject) {
+        List<Prohibition> prohibitions = bySubject.get(subject);
+        return prohibitions == null ? null : new ArrayList<>(copy(prohibitions));
+    }
+
+    /**
+     * @return the prohibition with the given name, or null if it is not cached.
+     */
+    synchronized Prohibition get(String name) {
+        Prohibition prohibition = byName.get(name);
+        return prohibition == null ? null : copy(prohibition);
+    }
+
+    /**
+     * Cache the prohibitions for a subject if nothing has been written since the given generation.
+     */
+    synchronized void putProhibitionsFor(String subject, List<Prohibition> prohibitions, long generation) {
+        if (capacity == 0 || generation != this.generation) {
+            return;
+        }
+
+        List<Prohibition> copies = copy(prohibitions);
+        for (Prohibition p : copies) {
+            byName.put(p.getName(), p);
+        }
+        bySubject.put(subject, copies);
+    }
+
+    /**
+     * Cache a prohibition by name if nothing has been written since the given generation.
+     */
+    synchronized void put(Prohibition prohibition, long generation) {
+        if (capacity == 0 || generation != this.generation) {
+            return;
+        }
+
+        byName.put(prohibition.getName(), copy(prohibition));
+    }
+
+    /**
+     * Write a new prohibition through to the cache.
+     */
+    synchronized void added(Prohibition prohibition) {
+        generation++;
+        if (capacity == 0) {
+            return;
+        }
+
+        Prohibition copy = copy(prohibition);
+        byName.put(copy.getName(), copy);
+        List<Prohibition> prohibitions = bySubject.get(copy.getSubject());
+        if (prohibitions != null) {
+            List<Prohibition> updated = new ArrayList<>(prohibitions);
+            updated.add(copy);
+            bySubject.put(copy.getSubject(), Collections.unmodifiableList(updated));
+        }
+    }
+
+    /**
+     * Remove a prohibition that was updated or deleted. If the prohibition's subject is not known, every subject is
+     * removed.
+     */
+    synchronized void removed(String name) {
+        generation++;
+        Prohibition prohibition = byName.remove(name);
+        if (prohibition == null) {
+            bySubject.clear();
+        } else {
+            bySubject.remove(prohibition.getSubject());
+        }
+    }
+
+    synchronized void clear() {
+        generation++;
+        bySubject.clear();
+        byName.clear();
+    }
+
+    private static Prohibition copy(Prohibition prohibition) {
+        Prohibition copy = new Prohibition(prohibition);
+        if (prohibition.getOperations() != null) {
+            copy.setOperations(new OperationSet(prohibition.getOperations()));
+        }
+        return copy;
+    }
+
+    private static List<Prohibition> copy(List<Prohibition> prohibitions) {
+        List<Prohibition> copies = new ArrayList<>();
+        for (Prohibition p : prohibitions) {
+            copies.add(copy(p));
+        }
+        return Collections.unmodifiableList(copies);
+    }
+}
@@ -0,0 +1,15 @@
+package gov.nist.csd.pm.pip.obligations;
+
+/**
+ * Interface for receiving notifications when an obligation changes.
+ */
+public interface ObligationsListener {
+
+    /**
+     * Called after the obligation with the given label is added, updated, deleted, enabled, or disabled. When an update
+     * changes the label of an obligation, this is called for both the old and the new label.
+     *
+     * @param label the label of the obligation.
+     */
+    void obligationChanged(String label);
+}
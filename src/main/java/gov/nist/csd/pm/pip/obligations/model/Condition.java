@@ -2,9 +2,12 @@ package gov.nist.csd.pm.pip.obligations.model;
 
 import gov.nist.csd.pm.pip.obligations.model.functions.Function;
 
+import java.io.Serializable;
 import java.util.List;
 
-public class Condition {
+public class Condition implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private List<Function> condition;
 
     public List<Function> getCondition() {
@@ -1,8 +1,11 @@
 package gov.nist.csd.pm.pip.obligations.model;
 
+import java.io.Serializable;
 import java.util.List;
 
-public class EventPattern {
+public class EventPattern implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private Subject      subject;
     private PolicyClass  policyClass;
     private List<String> operations;
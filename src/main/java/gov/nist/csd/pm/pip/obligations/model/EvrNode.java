@@ -2,9 +2,12 @@ package gov.nist.csd.pm.pip.obligations.model;
 
 import gov.nist.csd.pm.pip.obligations.model.functions.Function;
 
+import java.io.Serializable;
 import java.util.Map;
 
-public class EvrNode {
+public class EvrNode implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String              name;
     private String              type;
     private Map<String, String> properties;
@@ -2,7 +2,11 @@ package gov.nist.csd.pm.pip.obligations.model;
 
 import gov.nist.csd.pm.pip.obligations.model.functions.Function;
 
-public class EvrProcess {
+import java.io.Serializable;
+
+public class EvrProcess implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String   value;
     private Function function;
 
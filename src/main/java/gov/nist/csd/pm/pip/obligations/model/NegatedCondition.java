@@ -2,9 +2,11 @@ package gov.nist.csd.pm.pip.obligations.model;
 
 import gov.nist.csd.pm.pip.obligations.model.functions.Function;
 
+import java.io.Serializable;
 import java.util.List;
 
-public class NegatedCondition {
+public class NegatedCondition implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     private List<Function> condition;
 
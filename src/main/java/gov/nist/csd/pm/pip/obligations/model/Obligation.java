@@ -1,14 +1,24 @@
 package gov.nist.csd.pm.pip.obligations.model;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-public class Obligation {
+/**
+ * An obligation and its rules. An obligation returned by an Obligations store may be an unmodifiable view shared by
+ * every caller, in which case the setters throw an UnsupportedOperationException. Use the copy constructor to get a
+ * copy that can be modified and passed back to the store.
+ */
+public class Obligation implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String user;
     private boolean enabled;
     private String     label;
     private List<Rule> rules;
     private String source;
+    private transient boolean unmodifiable;
 
     public Obligation(String user) {
         this.user = user;
@@ -19,15 +29,35 @@ public class Obligation {
         this.user = obligation.user;
         this.enabled = obligation.enabled;
         this.label = obligation.label;
-        this.rules = obligation.rules;
+        this.rules = obligation.rules == null ? null : new ArrayList<>(obligation.rules);
         this.source = obligation.source;
     }
 
+    /**
+     * @return an unmodifiable copy of this obligation.
+     */
+    public Obligation unmodifiableCopy() {
+        Obligation copy = new Obligation(this);
+        copy.unmodifiable = true;
+        return copy;
+    }
+
+    public boolean isUnmodifiable() {
+        return unmodifiable;
+    }
+
+    private void checkModifiable() {
+        if (unmodifiable) {
+            throw new UnsupportedOperationException("obligation " + label + " cannot be modified, modify a copy instead");
+        }
+    }
+
     public String getUser() {
         return user;
     }
 
     public void setUser(String user) {
+        checkModifiable();
         this.user = user;
     }
 
@@ -36,6 +66,7 @@ public class Obligation {
     }
 
     public void setEnabled(boolean enabled) {
+        checkModifiable();
         this.enabled = enabled;
     }
 
@@ -44,14 +75,23 @@ public class Obligation {
     }
 
     public void setLabel(String label) {
+        checkModifiable();
         this.label = label;
     }
 
+    /**
+     * @return the rules of this obligation. The rules of an unmodifiable obligation are returned as an unmodifiable list,
+     * otherwise a copy is returned.
+     */
     public List<Rule> getRules() {
+        if (unmodifiable) {
+            return Collections.unmodifiableList(rules);
+        }
         return new ArrayList<>(rules);
     }
 
     public void setRules(List<Rule> rules) {
+        checkModifiable();
         this.rules = rules;
     }
 
@@ -60,6 +100,7 @@ public class Obligation {
     }
 
     public void setSource(String source) {
+        checkModifiable();
         this.source = source;
     }
 }
@@ -1,9 +1,12 @@
 package gov.nist.csd.pm.pip.obligations.model;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
-public class PolicyClass {
+public class PolicyClass implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private List<String> anyOf;
     private List<String> eachOf;
 
@@ -14,12 +14,14 @@ import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
 import gov.nist.csd.pm.pip.prohibitions.model.ContainerCondition;
 import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class ResponsePattern {
+public class ResponsePattern implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     private Condition    condition;
     private NegatedCondition negatedCondition;
@@ -74,6 +76,10 @@ public class ResponsePattern {
             }
 
             applyAction(graph, prohibitions, obligations, functionEvaluator, obligationLabel, eventCtx, action);
+
+            // the action may have changed the ancestors matched and the functions evaluated so far
+            eventCtx.clearAncestors();
+            eventCtx.clearFunctionResults();
         }
     }
 
@@ -244,7 +250,7 @@ public class ResponsePattern {
         }
 
         List<String> actionProhibitions = action.getProhibitions();
-        if (prohibitions != null) {
+        if (actionProhibitions != null) {
             for (String label : actionProhibitions) {
                 prohibitions.delete(label);
             }
@@ -252,15 +258,13 @@ public class ResponsePattern {
 
         List<String> rules = action.getRules();
         if (rules != null) {
-            for (String label : rules) {
-                List<Obligation> allObligations = obligations.getAll();
-                for (Obligation obligation : allObligations) {
-                    List<Rule> oblRules = obligation.getRules();
-                    for (Rule rule : oblRules) {
-                        if (rule.getLabel().equals(label)) {
-                            oblRules.remove(rule);
-                        }
-                    }
+            // remove the rules from a copy of each obligation that has them and store the copy
+            for (Obligation obligation : new ArrayList<>(obligations.getAll())) {
+                Obligation updated = new Obligation(obligation);
+                List<Rule> oblRules = updated.getRules();
+                if (oblRules.removeIf(rule -> rules.contains(rule.getLabel()))) {
+                    updated.setRules(oblRules);
+                    obligations.update(obligation.getLabel(), updated);
                 }
             }
         }
@@ -304,7 +308,7 @@ public class ResponsePattern {
     private void createRule(Graph graph, Prohibitions prohibitions, Obligations obligations,
                             String obligationLabel, EventContext eventCtx, Rule rule) throws PMException {
         // add the rule to the obligation
-        Obligation obligation = obligations.get(obligationLabel);
+        Obligation obligation = new Obligation(obligations.get(obligationLabel));
         List<Rule> rules = obligation.getRules();
         rules.add(rule);
         obligation.setRules(rules);
@@ -1,6 +1,10 @@
 package gov.nist.csd.pm.pip.obligations.model;
 
-public class Rule {
+import java.io.Serializable;
+
+public class Rule implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String label;
     private EventPattern eventPattern;
     private ResponsePattern responsePattern;
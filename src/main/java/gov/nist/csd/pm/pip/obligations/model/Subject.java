@@ -1,8 +1,11 @@
 package gov.nist.csd.pm.pip.obligations.model;
 
+import java.io.Serializable;
 import java.util.List;
 
-public class Subject {
+public class Subject implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String       user;
     private List<String> anyUser;
     private EvrProcess    process;
@@ -1,8 +1,11 @@
 package gov.nist.csd.pm.pip.obligations.model;
 
+import java.io.Serializable;
 import java.util.List;
 
-public class Target {
+public class Target implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private List<EvrNode> policyElements;
     private List<EvrNode> containers;
 
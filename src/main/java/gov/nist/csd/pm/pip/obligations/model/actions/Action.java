@@ -3,7 +3,11 @@ package gov.nist.csd.pm.pip.obligations.model.actions;
 import gov.nist.csd.pm.pip.obligations.model.Condition;
 import gov.nist.csd.pm.pip.obligations.model.NegatedCondition;
 
-public class Action {
+import java.io.Serializable;
+
+public class Action implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private Condition condition;
     private NegatedCondition negatedCondition;
 
@@ -2,10 +2,12 @@ package gov.nist.csd.pm.pip.obligations.model.actions;
 
 import gov.nist.csd.pm.pip.obligations.model.EvrNode;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 public class AssignAction extends Action {
+    private static final long serialVersionUID = 1L;
 
     private List<Assignment> assignments;
 
@@ -25,7 +27,9 @@ public class AssignAction extends Action {
         this.assignments.add(assignment);
     }
 
-    public static class Assignment {
+    public static class Assignment implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         private EvrNode what;
         private EvrNode where;
 
@@ -3,10 +3,13 @@ package gov.nist.csd.pm.pip.obligations.model.actions;
 import gov.nist.csd.pm.pip.obligations.model.EvrNode;
 import gov.nist.csd.pm.pip.obligations.model.Rule;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 public class CreateAction extends Action {
+    private static final long serialVersionUID = 1L;
+
     private List<CreateNode> createNodesList;
     private List<Rule>       rules;
 
@@ -39,7 +42,9 @@ public class CreateAction extends Action {
         this.rules.add(rule);
     }
 
-    public static class CreateNode {
+    public static class CreateNode implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         EvrNode what;
         EvrNode where;
 
@@ -5,6 +5,7 @@ import gov.nist.csd.pm.pip.obligations.model.EvrNode;
 import java.util.List;
 
 public class DeleteAction extends Action {
+    private static final long serialVersionUID = 1L;
 
     private List<EvrNode> nodes;
     private AssignAction assignments;
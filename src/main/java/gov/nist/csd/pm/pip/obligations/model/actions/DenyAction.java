@@ -3,10 +3,13 @@ package gov.nist.csd.pm.pip.obligations.model.actions;
 import gov.nist.csd.pm.pip.obligations.model.EvrNode;
 import gov.nist.csd.pm.pip.obligations.model.functions.Function;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 
 public class DenyAction extends Action {
+    private static final long serialVersionUID = 1L;
+
     private String label;
     private EvrNode      subject;
     private List<String> operations;
@@ -44,7 +47,9 @@ public class DenyAction extends Action {
         this.target = target;
     }
 
-    public static class Target {
+    public static class Target implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         private boolean         complement;
         private boolean         intersection;
         private List<Container> containers;
@@ -73,7 +78,9 @@ public class DenyAction extends Action {
             this.containers = containers;
         }
 
-        public static class Container {
+        public static class Container implements Serializable {
+            private static final long serialVersionUID = 1L;
+
             private String              name;
             private String              type;
             private Map<String, String> properties;
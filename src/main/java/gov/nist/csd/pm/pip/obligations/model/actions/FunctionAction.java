@@ -3,6 +3,7 @@ package gov.nist.csd.pm.pip.obligations.model.actions;
 import gov.nist.csd.pm.pip.obligations.model.functions.Function;
 
 public class FunctionAction extends Action {
+    private static final long serialVersionUID = 1L;
 
     private Function function;
 
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class GrantAction extends Action {
+    private static final long serialVersionUID = 1L;
 
     private EvrNode subject;
     private List<String> operations;
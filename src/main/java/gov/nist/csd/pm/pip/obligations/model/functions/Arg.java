@@ -1,6 +1,10 @@
 package gov.nist.csd.pm.pip.obligations.model.functions;
 
-public class Arg {
+import java.io.Serializable;
+
+public class Arg implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String value;
     private Function function;
 
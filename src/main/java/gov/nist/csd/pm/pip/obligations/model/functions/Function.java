@@ -1,8 +1,11 @@
 package gov.nist.csd.pm.pip.obligations.model.functions;
 
+import java.io.Serializable;
 import java.util.List;
 
-public class Function {
+public class Function implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String    name;
     private List<Arg> args;
 
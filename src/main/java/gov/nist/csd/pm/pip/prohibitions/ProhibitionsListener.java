@@ -0,0 +1,14 @@
+package gov.nist.csd.pm.pip.prohibitions;
+
+/**
+ * Interface for receiving notifications when the prohibitions of a subject change.
+ */
+public interface ProhibitionsListener {
+
+    /**
+     * Called after a prohibition with the given subject is added, updated, or deleted.
+     *
+     * @param subject the subject of the prohibition. This can be a user, user attribute, or process.
+     */
+    void prohibitionsChanged(String subject);
+}
@@ -8,6 +8,7 @@ import gov.nist.csd.pm.pdp.audit.PReviewAuditor;
 import gov.nist.csd.pm.pdp.decider.PReviewDecider;
 import gov.nist.csd.pm.pdp.services.UserContext;
 import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.GraphListener;
 import gov.nist.csd.pm.pip.memory.MemGraph;
 import gov.nist.csd.pm.pip.memory.MemObligations;
 import gov.nist.csd.pm.pip.memory.MemPIP;
@@ -20,6 +21,10 @@ import gov.nist.csd.pm.common.tx.Tx;
 import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.OA;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -145,6 +150,33 @@ class MemTxTest {
         assertTrue(graph.exists("pc1"));
     }
 
+    @Test
+    void testCommitThroughPAPHoldsGraphLock() throws PMException {
+        MemGraph memGraph = new MemGraph();
+        MemPAP pap = new MemPAP(new MemPIP(memGraph, new MemProhibitions(), new MemObligations()));
+        pap.getGraph().createPolicyClass("pc1", null);
+        pap.getGraph().createNode("oa1", OA, null, "pc1");
+        pap.getGraph().createNode("oa2", OA, null, "pc1");
+
+        // the commit holds the write lock around each change it makes to the graph
+        List<Integer> holdCounts = new ArrayList<>();
+        memGraph.addListener(new GraphListener() {
+            @Override
+            public void nodeDeleted(String name) {}
+
+            @Override
+            public void assignmentChanged(String child, String parent) {
+                holdCounts.add(((ReentrantReadWriteLock) memGraph.getLock()).getWriteHoldCount());
+            }
+
+            @Override
+            public void associationChanged(String ua, String target) {}
+        });
+        pap.runTx((g, p, o) -> g.assign("oa1", "oa2"));
+
+        assertEquals(List.of(2), holdCounts);
+    }
+
     private boolean threw = false;
     @Test
     void testExceptionWhenCreatingSameNode() throws InterruptedException, PMException {
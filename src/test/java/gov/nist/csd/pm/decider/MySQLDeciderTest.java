@@ -0,0 +1,119 @@
+package gov.nist.csd.pm.decider;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pdp.decider.MySQLDecider;
+import gov.nist.csd.pm.pdp.decider.PReviewDecider;
+import gov.nist.csd.pm.pip.mysql.MySQLConnection;
+import gov.nist.csd.pm.pip.mysql.MySQLGraph;
+import gov.nist.csd.pm.pip.mysql.MySQLProhibitions;
+import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MySQLDeciderTest {
+
+    private static final String URL = "jdbc:h2:~/policydb_core;MODE=MySQL";
+    private static final OperationSet RWE = new OperationSet("read", "write", "execute");
+
+    private MySQLConnection connection;
+    private MySQLGraph graph;
+    private MySQLProhibitions prohibitions;
+
+    @BeforeEach
+    void init() throws Exception {
+        InputStream resourceAsStream = getClass().getResourceAsStream("/mysql/policydb_core.sql");
+        if (resourceAsStream == null) {
+            throw new Exception("could not read contents of policydb_core.sql");
+        }
+
+        String sql = new String(resourceAsStream.readAllBytes());
+        try (Connection conn = DriverManager.getConnection(URL, "sa", "");
+             Statement stmt = conn.createStatement()) {
+            for (String s : sql.split(";")) {
+                stmt.executeUpdate(s);
+            }
+        }
+
+        connection = new MySQLConnection(URL, "sa", "");
+        graph = new MySQLGraph(connection);
+        prohibitions = new MySQLProhibitions(connection);
+
+        graph.createPolicyClass("pc1", null);
+        graph.createPolicyClass("pc2", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("ua2", UA, null, "ua1", "pc2");
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("oa2", OA, null, "oa1", "pc2");
+        graph.createNode("oa3", OA, null, "pc2");
+        graph.createNode("u1", U, null, "ua2");
+        graph.createNode("o1", O, null, "oa2");
+        graph.createNode("o2", O, null, "oa3");
+
+        graph.associate("ua1", "oa1", new OperationSet("read", "write"));
+        graph.associate("ua2", "oa2", new OperationSet("read", "execute"));
+        graph.associate("ua2", "oa3", RWE);
+
+        prohibitions.add(new Prohibition.Builder("deny1", "ua2", new OperationSet("execute"))
+                .addContainer("oa3", false)
+                .build());
+    }
+
+    @AfterEach
+    void close() {
+        connection.close();
+    }
+
+    @Test
+    void testMatchesGraphTraversal() throws PMException {
+        MySQLDecider decider = new MySQLDecider(connection, RWE);
+        PReviewDecider traversal = new PReviewDecider(graph, prohibitions, RWE);
+
+        for (String target : Arrays.asList("o1", "o2", "oa1", "oa2", "oa3", "pc1")) {
+            assertEquals(traversal.list("u1", "", target), decider.list("u1", "", target), target);
+        }
+
+        assertEquals(new OperationSet("read", "execute"), decider.list("u1", "", "o1"));
+        assertEquals(new OperationSet("read", "write"), decider.list("u1", "", "o2"));
+        assertTrue(decider.check("u1", "", "o2", "read", "write"));
+        assertFalse(decider.check("u1", "", "o2", "execute"));
+
+        Map<String, Set<String>> all = decider.listAll("u1", "", Arrays.asList("o1", "o2"));
+        assertEquals(new OperationSet("read", "execute"), all.get("o1"));
+        assertEquals(new OperationSet("read", "write"), all.get("o2"));
+
+        Map<String, Map<String, Set<String>>> pcPerms = decider.getPolicyClassPermissions("u1", "", "o1");
+        assertEquals(RWE, pcPerms.get("o1").get("pc1"));
+        assertEquals(new OperationSet("read", "execute"), pcPerms.get("o1").get("pc2"));
+    }
+
+    @Test
+    void testProcessProhibition() throws PMException {
+        prohibitions.add(new Prohibition.Builder("deny2", "123", new OperationSet("read"))
+                .addContainer("oa3", false)
+                .build());
+
+        MySQLDecider decider = new MySQLDecider(connection, RWE);
+        assertEquals(new OperationSet("write"), decider.list("u1", "123", "o2"));
+        assertEquals(new OperationSet("read", "write"), decider.list("u1", "", "o2"));
+    }
+
+    @Test
+    void testUnknownNodes() throws PMException {
+        MySQLDecider decider = new MySQLDecider(connection, RWE);
+        assertThrows(PMException.class, () -> decider.list("u1", "", "unknown"));
+        assertThrows(PMException.class, () -> decider.list("unknown", "", "o1"));
+    }
+}
@@ -4,7 +4,10 @@ import gov.nist.csd.pm.exceptions.PMException;
 import gov.nist.csd.pm.operations.OperationSet;
 import gov.nist.csd.pm.pdp.decider.Decider;
 import gov.nist.csd.pm.pdp.decider.PReviewDecider;
+import gov.nist.csd.pm.pdp.decider.UserContextCache;
 import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.GraphListener;
+import gov.nist.csd.pm.pip.memory.CompactGraph;
 import gov.nist.csd.pm.pip.memory.MemGraph;
 import gov.nist.csd.pm.pip.graph.model.nodes.Node;
 import gov.nist.csd.pm.pip.memory.MemProhibitions;
@@ -13,6 +16,10 @@ import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static gov.nist.csd.pm.operations.Operations.*;
 import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
@@ -741,6 +748,390 @@ class PReviewDeciderTest {
         assertTrue(decider.list("u1", "", "o1").isEmpty());
     }
 
+    @Test
+    void testUserContextCache() throws PMException {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("ua2", UA, null, "pc1");
+        graph.createNode("u1", U, null, "ua1");
+        graph.createNode("u2", U, null, "ua2");
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("o1", O, null, "oa1");
+
+        graph.associate("ua1", "oa1", new OperationSet(READ));
+
+        MemProhibitions prohibitions = new MemProhibitions();
+        UserContextCache cache = new UserContextCache(10);
+        graph.addListener(cache);
+        prohibitions.addListener(cache);
+
+        PReviewDecider decider = new PReviewDecider(graph, prohibitions, RWE);
+        decider.setUserContextCache(cache);
+
+        assertEquals(new OperationSet(READ), decider.list("u1", "", "o1"));
+        assertTrue(decider.list("u2", "", "o1").isEmpty());
+        assertEquals(2, cache.size());
+
+        // changing an association in u1's ancestry only invalidates u1
+        graph.associate("ua1", "oa1", new OperationSet(READ, WRITE));
+        assertEquals(1, cache.size());
+        assertEquals(new OperationSet(READ, WRITE), decider.list("u1", "", "o1"));
+
+        // assignments change the ancestry
+        graph.assign("u2", "ua1");
+        assertEquals(new OperationSet(READ, WRITE), decider.list("u2", "", "o1"));
+        graph.deassign("u2", "ua1");
+        assertTrue(decider.list("u2", "", "o1").isEmpty());
+
+        // prohibitions on a node in the ancestry or on the process
+        prohibitions.add(new Prohibition.Builder("deny1", "ua1", new OperationSet(WRITE))
+                .addContainer("oa1", false)
+                .build());
+        assertEquals(new OperationSet(READ), decider.list("u1", "", "o1"));
+        assertEquals(new OperationSet(READ), decider.list("u1", "123", "o1"));
+        prohibitions.add(new Prohibition.Builder("deny2", "123", new OperationSet(READ))
+                .addContainer("oa1", false)
+                .build());
+        assertTrue(decider.list("u1", "123", "o1").isEmpty());
+        prohibitions.delete("deny1");
+        assertEquals(new OperationSet(READ, WRITE), decider.list("u1", "", "o1"));
+    }
+
+    @Test
+    void testUserContextCacheEviction() throws PMException {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("o1", O, null, "oa1");
+        for (int i = 0; i < 5; i++) {
+            graph.createNode("u" + i, U, null, "ua1");
+        }
+        graph.associate("ua1", "oa1", new OperationSet(READ));
+
+        UserContextCache cache = new UserContextCache(3);
+        graph.addListener(cache);
+
+        PReviewDecider decider = new PReviewDecider(graph, RWE);
+        decider.setUserContextCache(cache);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(new OperationSet(READ), decider.list("u" + i, "", "o1"));
+        }
+        assertEquals(3, cache.size());
+
+        // every cached subject is assigned to ua1
+        graph.dissociate("ua1", "oa1");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testSetResourceOps() throws PMException {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("u1", U, null, "ua1");
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("o1", O, null, "oa1");
+        graph.associate("ua1", "oa1", new OperationSet(READ, "approve"));
+
+        UserContextCache cache = new UserContextCache(10);
+        graph.addListener(cache);
+        PReviewDecider decider = new PReviewDecider(graph, RWE);
+        decider.setUserContextCache(cache);
+
+        // approve is not a resource operation until it is defined
+        assertEquals(new OperationSet(READ), decider.list("u1", "", "o1"));
+        decider.setResourceOps(new OperationSet(READ, WRITE, "approve"));
+        assertEquals(new OperationSet(READ, "approve"), decider.list("u1", "", "o1"));
+        assertTrue(decider.check("u1", "", "o1", "approve"));
+    }
+
+    @Test
+    void testUserContextCacheDeletedNodes() throws PMException {
+        for (Graph graph : List.of(new MemGraph(), new CompactGraph())) {
+            graph.createPolicyClass("pc1", null);
+            graph.createNode("ua1", UA, null, "pc1");
+            graph.createNode("ua2", UA, null, "pc1");
+            graph.createNode("u1", U, null, "ua1");
+            graph.createNode("oa1", OA, null, "pc1");
+            graph.associate("ua1", "oa1", new OperationSet(WRITE));
+            graph.associate("ua2", "oa1", new OperationSet(READ));
+
+            UserContextCache cache = new UserContextCache(10);
+            List<String> events = new ArrayList<>();
+            GraphListener recorder = new GraphListener() {
+                @Override
+                public void nodeDeleted(String name) {
+                    events.add("deleted " + name);
+                }
+
+                @Override
+                public void assignmentChanged(String child, String parent) {
+                    events.add("assignment " + child + " " + parent);
+                }
+
+                @Override
+                public void associationChanged(String ua, String target) {
+                    events.add("association " + ua + " " + target);
+                }
+            };
+            if (graph instanceof MemGraph) {
+                ((MemGraph) graph).addListener(cache);
+                ((MemGraph) graph).addListener(recorder);
+            } else {
+                ((CompactGraph) graph).addListener(cache);
+                ((CompactGraph) graph).addListener(recorder);
+            }
+
+            PReviewDecider decider = new PReviewDecider(graph, RWE);
+            decider.setUserContextCache(cache);
+            assertEquals(new OperationSet(WRITE), decider.list("u1", "", "oa1"));
+
+            // an association target cannot be deleted while it is associated
+            assertThrows(PMException.class, () -> graph.deleteNode("oa1"));
+            graph.dissociate("ua1", "oa1");
+            graph.dissociate("ua2", "oa1");
+            graph.deleteNode("oa1");
+            graph.createNode("oa1", OA, null, "pc1");
+            assertTrue(decider.list("u1", "", "oa1").isEmpty());
+
+            // deleting a source reports the relations deleted with it
+            graph.associate("ua2", "oa1", new OperationSet(READ));
+            events.clear();
+            graph.deleteNode("ua2");
+            assertEquals(List.of("assignment ua2 pc1", "association ua2 oa1", "deleted ua2"), events);
+        }
+    }
+
+    @Test
+    void testUserContextCacheConcurrentWrites() throws Exception {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("u1", U, null, "ua1");
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("o1", O, null, "oa1");
+
+        UserContextCache cache = new UserContextCache(10);
+        graph.addListener(cache);
+
+        PReviewDecider decider = new PReviewDecider(graph, RWE);
+        decider.setUserContextCache(cache);
+        PReviewDecider uncached = new PReviewDecider(graph, RWE);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 200; i++) {
+                // check while the association changes, then check again once it has
+                List<Future<Set<String>>> checks = new ArrayList<>();
+                for (int j = 0; j < 2; j++) {
+                    checks.add(executor.submit(() -> decider.list("u1", "", "o1")));
+                }
+                if (i % 2 == 0) {
+                    graph.associate("ua1", "oa1", new OperationSet(READ));
+                } else {
+                    graph.dissociate("ua1", "oa1");
+                }
+                for (Future<Set<String>> check : checks) {
+                    check.get(10, TimeUnit.SECONDS);
+                }
+
+                assertEquals(uncached.list("u1", "", "o1"), decider.list("u1", "", "o1"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testClosureIndexMatchesTraversal() throws PMException {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createPolicyClass("pc2", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("ua2", UA, null, "ua1", "pc2");
+        graph.createNode("u1", U, null, "ua2");
+        graph.createNode("u2", U, null, "ua1");
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("oa2", OA, null, "oa1");
+        graph.createNode("oa3", OA, null, "pc2");
+        graph.createNode("oa4", OA, null, "oa2", "oa3");
+        graph.createNode("o1", O, null, "oa4");
+        graph.createNode("o2", O, null, "oa2");
+        graph.createNode("o3", O, null, "oa3", "oa1");
+
+        graph.associate("ua1", "oa1", new OperationSet(READ));
+        graph.associate("ua2", "oa2", new OperationSet(WRITE));
+        graph.associate("ua2", "oa3", new OperationSet(READ, WRITE));
+        graph.associate("ua1", "oa4", new OperationSet("execute"));
+
+        Prohibitions prohibitions = new MemProhibitions();
+        prohibitions.add(new Prohibition.Builder("deny", "u1", new OperationSet(READ))
+                .addContainer("oa3", false)
+                .addContainer("oa2", true)
+                .setIntersection(true)
+                .build());
+
+        PReviewDecider decider = new PReviewDecider(graph, prohibitions, RWE);
+        Map<String, Map<String, Set<String>>> expected = new HashMap<>();
+        for (String user : Arrays.asList("u1", "u2")) {
+            for (Node node : graph.getNodes()) {
+                expected.computeIfAbsent(user, k -> new HashMap<>()).put(node.getName(), decider.list(user, "", node.getName()));
+            }
+        }
+
+        graph.enableClosureIndex();
+        for (String user : expected.keySet()) {
+            for (String target : expected.get(user).keySet()) {
+                assertEquals(expected.get(user).get(target), decider.list(user, "", target), user + " on " + target);
+            }
+            assertEquals(expected.get("u1").get("o1"), decider.getCapabilityList("u1", "").get("o1"));
+        }
+
+        graph.deassign("oa4", "oa2");
+        assertEquals(new OperationSet(WRITE, "execute"), decider.list("u1", "", "o1"));
+        assertEquals(new OperationSet("execute"), decider.list("u2", "", "o1"));
+    }
+
+    @Test
+    void testListAll() throws PMException {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createPolicyClass("pc2", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("ua2", UA, null, "ua1", "pc2");
+        graph.createNode("u1", U, null, "ua2");
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("oa2", OA, null, "oa1");
+        graph.createNode("oa3", OA, null, "pc2");
+        graph.createNode("oa4", OA, null, "oa2", "oa3");
+        for (int i = 0; i < 10; i++) {
+            graph.createNode("o" + i, O, null, i % 2 == 0 ? "oa4" : "oa2");
+        }
+
+        graph.associate("ua1", "oa1", new OperationSet(READ));
+        graph.associate("ua2", "oa3", new OperationSet(READ, WRITE));
+        graph.associate("ua2", "oa4", new OperationSet("execute"));
+
+        Prohibitions prohibitions = new MemProhibitions();
+        prohibitions.add(new Prohibition.Builder("deny", "u1", new OperationSet(READ))
+                .addContainer("oa3", false)
+                .build());
+
+        PReviewDecider decider = new PReviewDecider(graph, prohibitions, RWE);
+        Set<String> targets = new HashSet<>();
+        for (Node node : graph.getNodes()) {
+            targets.add(node.getName());
+        }
+
+        Map<String, Set<String>> all = decider.listAll("u1", "", targets);
+        assertEquals(targets, all.keySet());
+        for (String target : targets) {
+            assertEquals(decider.list("u1", "", target), all.get(target), target);
+        }
+        assertEquals(new OperationSet("execute"), all.get("o0"));
+        assertEquals(new OperationSet(READ), all.get("o1"));
+
+        Set<String> filtered = decider.filter("u1", "", new HashSet<>(Arrays.asList("o0", "o1", "oa3", "unknown")), READ);
+        // a prohibition does not apply to its own container
+        assertEquals(Set.of("o1", "oa3"), filtered);
+        assertThrows(PMException.class, () -> decider.listAll("u1", "", Arrays.asList("o0", "unknown")));
+    }
+
+    @Test
+    void testCapabilityListSharedDescendants() throws Exception {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createPolicyClass("pc2", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("u1", U, null, "ua1");
+        graph.createNode("oa-pc2", OA, null, "pc2");
+
+        // 30 layers of two attributes, each assigned to both attributes in the layer above
+        graph.createNode("a0", OA, null, "pc1");
+        graph.createNode("b0", OA, null, "pc1");
+        for (int i = 1; i < 30; i++) {
+            graph.createNode("a" + i, OA, null, "a" + (i - 1), "b" + (i - 1));
+            graph.createNode("b" + i, OA, null, "a" + (i - 1), "b" + (i - 1));
+        }
+        graph.createNode("o1", O, null, "a29", "oa-pc2");
+        graph.createNode("o2", O, null, "b29");
+
+        graph.associate("ua1", "a0", new OperationSet(READ));
+        graph.associate("ua1", "b15", new OperationSet(WRITE));
+        graph.associate("ua1", "oa-pc2", new OperationSet(READ, WRITE));
+
+        Prohibitions prohibitions = new MemProhibitions();
+        prohibitions.add(new Prohibition.Builder("deny", "u1", new OperationSet(WRITE))
+                .addContainer("a20", false)
+                .build());
+
+        PReviewDecider decider = new PReviewDecider(graph, prohibitions, RWE);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Map<String, Set<String>>>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> decider.getCapabilityList("u1", "")));
+        }
+        executor.shutdown();
+
+        for (Future<Map<String, Set<String>>> future : futures) {
+            Map<String, Set<String>> capabilities = future.get(10, TimeUnit.SECONDS);
+            assertEquals(62, capabilities.size());
+            for (String target : capabilities.keySet()) {
+                assertEquals(decider.list("u1", "", target), capabilities.get(target), target);
+            }
+            assertEquals(new OperationSet(READ), capabilities.get("o1"));
+            assertEquals(new OperationSet(READ, WRITE), capabilities.get("b16"));
+        }
+    }
+
+    @Test
+    void testGenerateACL() throws PMException {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createPolicyClass("pc2", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("ua2", UA, null, "ua1", "pc2");
+        graph.createNode("ua3", UA, null, "pc2");
+        graph.createNode("u1", U, null, "ua2");
+        graph.createNode("u2", U, null, "ua1");
+        graph.createNode("u3", U, null, "ua2", "ua3");
+        graph.createNode("u4", U, null, "ua3");
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("oa2", OA, null, "oa1");
+        graph.createNode("oa3", OA, null, "pc2");
+        graph.createNode("o1", O, null, "oa2", "oa3");
+        graph.createNode("o2", O, null, "oa1");
+
+        graph.associate("ua1", "oa1", new OperationSet(READ));
+        graph.associate("ua2", "oa2", new OperationSet(WRITE));
+        graph.associate("ua2", "oa3", new OperationSet(READ, WRITE));
+        graph.associate("ua3", "oa3", new OperationSet("execute"));
+
+        Prohibitions prohibitions = new MemProhibitions();
+        prohibitions.add(new Prohibition.Builder("deny", "ua3", new OperationSet(WRITE))
+                .addContainer("oa2", false)
+                .build());
+
+        PReviewDecider decider = new PReviewDecider(graph, prohibitions, RWE);
+        for (String target : Arrays.asList("o1", "o2", "oa1", "oa2", "oa3")) {
+            Map<String, Set<String>> expected = new HashMap<>();
+            for (String user : Arrays.asList("u1", "u2", "u3", "u4")) {
+                expected.put(user, decider.list(user, "", target));
+            }
+
+            assertEquals(expected, decider.generateACL(target, ""), target);
+        }
+
+        Map<String, Set<String>> acl = decider.generateACL("o1", "");
+        assertEquals(new OperationSet(READ, WRITE), acl.get("u1"));
+        assertEquals(new OperationSet(READ), acl.get("u3"));
+        assertEquals(new OperationSet(), acl.get("u2"));
+        assertEquals(new OperationSet(), acl.get("u4"));
+    }
+
     private static Graph buildGraph() throws PMException {
         MemGraph graph = new MemGraph();
         Random rand = new Random();
@@ -843,4 +1234,41 @@ class PReviewDeciderTest {
 
         return graph;
     }
-}
\ No newline at end of file
+
+    @Test
+    void testManyOperations() throws PMException {
+        Graph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("ua2", UA, null, "ua1");
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("u1", U, null, "ua2");
+        graph.createNode("o1", O, null, "oa1");
+
+        // enough operations to span more than one word of the bitset
+        OperationSet resourceOps = new OperationSet();
+        for (int i = 0; i < 150; i++) {
+            resourceOps.add("op" + i);
+        }
+
+        OperationSet ua1Ops = new OperationSet("op0", "op149");
+        graph.associate("ua1", "oa1", ua1Ops);
+        graph.associate("ua2", "oa1", new OperationSet("op70", "unknown"));
+
+        Prohibitions prohibitions = new MemProhibitions();
+        prohibitions.add(new Prohibition.Builder("deny", "u1", new OperationSet("op149"))
+                .addContainer("oa1", false)
+                .build());
+
+        PReviewDecider decider = new PReviewDecider(graph, prohibitions, resourceOps);
+        assertEquals(new OperationSet("op0", "op70"), decider.list("u1", "", "o1"));
+        assertTrue(decider.check("u1", "", "o1", "op0", "op70"));
+        assertFalse(decider.check("u1", "", "o1", "op149"));
+        assertFalse(decider.check("u1", "", "o1", "unknown"));
+        assertFalse(decider.check("u1", "", "o1", "never registered"));
+
+        // resolving a decision does not change the operations stored in the graph
+        assertEquals(new OperationSet("op0", "op149"), ua1Ops);
+        assertEquals(new OperationSet("op0", "op149"), graph.getSourceAssociations("ua1").get("oa1"));
+    }
+}
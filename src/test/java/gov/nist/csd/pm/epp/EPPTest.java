@@ -3,6 +3,7 @@ package gov.nist.csd.pm.epp;
 import gov.nist.csd.pm.epp.events.AssignEvent;
 import gov.nist.csd.pm.epp.events.AssignToEvent;
 import gov.nist.csd.pm.epp.events.DeassignEvent;
+import gov.nist.csd.pm.epp.events.DeassignFromEvent;
 import gov.nist.csd.pm.exceptions.PMException;
 import gov.nist.csd.pm.operations.OperationSet;
 import gov.nist.csd.pm.pap.MemPAP;
@@ -12,7 +13,9 @@ import gov.nist.csd.pm.pdp.decider.PReviewDecider;
 import gov.nist.csd.pm.pdp.services.GraphService;
 import gov.nist.csd.pm.pdp.services.UserContext;
 import gov.nist.csd.pm.common.FunctionalEntity;
+import gov.nist.csd.pm.common.RequestExecutors;
 import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.memory.FileObligations;
 import gov.nist.csd.pm.pip.memory.MemGraph;
 import gov.nist.csd.pm.pip.graph.model.nodes.Node;
 import gov.nist.csd.pm.pip.graph.model.nodes.NodeType;
@@ -30,9 +33,19 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -132,6 +145,269 @@ class EPPTest {
         pdp.withUser(superCtx).getProhibitions().get("deny");
     }
 
+    @Test
+    void testTargetJoinsContainer() throws PMException, IOException {
+        InputStream is = getClass().getClassLoader().getResourceAsStream("epp/container_test.yml");
+        String yml = IOUtils.toString(is, StandardCharsets.UTF_8.name());
+        UserContext superCtx = new UserContext("super");
+        pdp.withUser(superCtx).getObligations().add(new EVRParser().parse(superCtx.getUser(), yml), true);
+
+        // o1 is only in oa2 once the first rule has responded, the second rule still sees it
+        pdp.getEPP().processEvent(new DeassignEvent(new UserContext(u1.getName(), "123"), o1, oa1));
+        Graph graph = pdp.withUser(superCtx).getGraph();
+        assertEquals(Set.of("oa1", "oa2"), graph.getParents(o1.getName()));
+        assertTrue(graph.exists("watched container node"));
+    }
+
+    @Test
+    void testDeleteRule() throws PMException, IOException {
+        Path path = Files.createTempFile("obligations", ".bin");
+        Files.delete(path);
+        try {
+            OperationSet ops = new OperationSet("read", "write", "execute");
+            FunctionalEntity functionalEntity = new MemPIP(new MemGraph(), new MemProhibitions(), new FileObligations(path));
+            PDP pdp = PDP.newPDP(
+                    new MemPAP(functionalEntity),
+                    new EPPOptions(),
+                    new PReviewDecider(functionalEntity.getGraph(), functionalEntity.getProhibitions(), ops),
+                    new PReviewAuditor(functionalEntity.getGraph(), ops)
+            );
+
+            UserContext superCtx = new UserContext("super");
+            Graph graph = pdp.withUser(superCtx).getGraph();
+            Node pc1 = graph.createPolicyClass("pc1", null);
+            Node oa1 = graph.createNode("oa1", NodeType.OA, null, pc1.getName());
+            Node o1 = graph.createNode("o1", NodeType.O, null, oa1.getName());
+            UserContext userCtx = new UserContext("super", "123");
+
+            InputStream is = getClass().getClassLoader().getResourceAsStream("epp/delete_rule_test.yml");
+            String yml = IOUtils.toString(is, StandardCharsets.UTF_8.name());
+            Obligation obligation = new EVRParser().parse(superCtx.getUser(), yml);
+            pdp.withUser(superCtx).getObligations().add(obligation, true);
+
+            // the first rule creates a rule that responds to assignments of o1
+            pdp.getEPP().processEvent(new AssignToEvent(userCtx, oa1, o1));
+            Obligation stored = pdp.withUser(superCtx).getObligations().get(obligation.getLabel());
+            assertEquals(3, stored.getRules().size());
+            assertThrows(UnsupportedOperationException.class, () -> stored.getRules().clear());
+            pdp.getEPP().processEvent(new AssignEvent(userCtx, o1, oa1));
+            assertTrue(graph.exists("created rule node"));
+            graph.deleteNode("created rule node");
+
+            // the second rule deletes it
+            pdp.getEPP().processEvent(new DeassignFromEvent(userCtx, oa1, o1));
+            pdp.getEPP().processEvent(new AssignEvent(userCtx, o1, oa1));
+            assertFalse(graph.exists("created rule node"));
+
+            List<String> labels = List.of("create rule", "delete rule");
+            assertEquals(labels, pdp.withUser(superCtx).getObligations().get(obligation.getLabel()).getRules().stream()
+                    .map(Rule::getLabel).collect(Collectors.toList()));
+            assertEquals(labels, new FileObligations(path).get(obligation.getLabel()).getRules().stream()
+                    .map(Rule::getLabel).collect(Collectors.toList()));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void testConcurrentObligations() throws Exception {
+        OperationSet ops = new OperationSet("read", "write", "execute");
+        FunctionalEntity functionalEntity = new MemPIP(new MemGraph(), new MemProhibitions(), new MemObligations());
+        ExecutorService executor = RequestExecutors.newPerTaskExecutor(4);
+        PDP pdp = PDP.newPDP(
+                new MemPAP(functionalEntity),
+                new EPPOptions().setObligationExecutor(executor),
+                new PReviewDecider(functionalEntity.getGraph(), functionalEntity.getProhibitions(), ops),
+                new PReviewAuditor(functionalEntity.getGraph(), ops)
+        );
+        pdp.setRequestExecutor(executor);
+
+        UserContext superCtx = new UserContext("super");
+        Graph graph = pdp.withUser(superCtx).getGraph();
+        Node pc1 = graph.createPolicyClass("pc1", null);
+        Node oa1 = graph.createNode("oa1", NodeType.OA, null, pc1.getName());
+        graph.createNode("oa2", NodeType.OA, null, pc1.getName());
+        Node o1 = graph.createNode("o1", NodeType.O, null, oa1.getName());
+        Node ua1 = graph.createNode("ua1", NodeType.UA, null, pc1.getName());
+        Node u1 = graph.createNode("u1", NodeType.U, null, ua1.getName());
+        graph.associate(ua1.getName(), oa1.getName(), new OperationSet("read", "write"));
+
+        for (String file : List.of("epp/event_test.yml", "epp/response_test.yml")) {
+            InputStream is = getClass().getClassLoader().getResourceAsStream(file);
+            String yml = IOUtils.toString(is, StandardCharsets.UTF_8.name());
+            pdp.withUser(superCtx).getObligations().add(new EVRParser().parse(superCtx.getUser(), yml), true);
+        }
+
+        // both obligations are evaluated on the executor, the events their responses cause are processed inline
+        pdp.getEPP().processEvent(new AssignToEvent(new UserContext(u1.getName(), "123"), oa1, o1));
+
+        assertTrue(pdp.submit(superCtx, w -> w.getGraph().exists("u1 assign to success")).get());
+        assertEquals(Set.of("oa2"), pdp.submit(superCtx, w -> w.getGraph().getParents("new OA")).get());
+        pdp.withUser(superCtx).getProhibitions().get("deny");
+
+        // a failed request completes its future with the exception
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> pdp.submit(superCtx, w -> w.getGraph().getNode("not a node")).get());
+        assertTrue(e.getCause() instanceof PMException);
+
+        executor.shutdown();
+    }
+
+    @Test
+    void testConcurrentProhibitions() throws Exception {
+        OperationSet ops = new OperationSet("read", "write", "execute");
+        FunctionalEntity functionalEntity = new MemPIP(new MemGraph(), new MemProhibitions(), new MemObligations());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        PDP pdp = PDP.newPDP(
+                new MemPAP(functionalEntity),
+                new EPPOptions().setObligationExecutor(executor),
+                new PReviewDecider(functionalEntity.getGraph(), functionalEntity.getProhibitions(), ops),
+                new PReviewAuditor(functionalEntity.getGraph(), ops)
+        );
+
+        UserContext superCtx = new UserContext("super");
+        Graph graph = pdp.withUser(superCtx).getGraph();
+        Node pc1 = graph.createPolicyClass("pc1", null);
+        Node oa1 = graph.createNode("oa1", NodeType.OA, null, pc1.getName());
+        Node o1 = graph.createNode("o1", NodeType.O, null, oa1.getName());
+
+        // every obligation creates its own prohibition on an assign and deletes it on a deassign
+        int count = 16;
+        for (int i = 0; i < count; i++) {
+            String yml = String.format(String.join("\n",
+                    "label: prohibitions %1$d",
+                    "rules:",
+                    "  - label: deny %1$d",
+                    "    event:",
+                    "      subject:",
+                    "      operations:",
+                    "        - assign",
+                    "      target:",
+                    "        policyElements:",
+                    "          - name: o1",
+                    "            type: O",
+                    "    response:",
+                    "      actions:",
+                    "        - deny:",
+                    "            label: deny %1$d",
+                    "            subject:",
+                    "              function:",
+                    "                name: current_process",
+                    "            operations:",
+                    "              - read",
+                    "            target:",
+                    "              containers:",
+                    "                - name: oa1",
+                    "                  type: OA",
+                    "  - label: allow %1$d",
+                    "    event:",
+                    "      subject:",
+                    "      operations:",
+                    "        - deassign",
+                    "      target:",
+                    "        policyElements:",
+                    "          - name: o1",
+                    "            type: O",
+                    "    response:",
+                    "      actions:",
+                    "        - delete:",
+                    "            prohibitions:",
+                    "              - deny %1$d"), i);
+            pdp.withUser(superCtx).getObligations().add(new EVRParser().parse(superCtx.getUser(), yml), true);
+        }
+
+        UserContext userCtx = new UserContext("super", "123");
+        for (int i = 0; i < 200; i++) {
+            pdp.getEPP().processEvent(new AssignEvent(userCtx, o1, oa1));
+            assertEquals(count, functionalEntity.getProhibitions().getAll().size());
+
+            pdp.getEPP().processEvent(new DeassignEvent(userCtx, o1, oa1));
+            assertTrue(functionalEntity.getProhibitions().getAll().isEmpty());
+        }
+
+        executor.shutdown();
+    }
+
+    @Test
+    void testEventPipeline() throws PMException, IOException {
+        OperationSet ops = new OperationSet("read", "write", "execute");
+        FunctionalEntity functionalEntity = new MemPIP(new MemGraph(), new MemProhibitions(), new MemObligations());
+        PDP pdp = PDP.newPDP(
+                new MemPAP(functionalEntity),
+                new EPPOptions().setEventPipeline(2, 4, 8),
+                new PReviewDecider(functionalEntity.getGraph(), functionalEntity.getProhibitions(), ops),
+                new PReviewAuditor(functionalEntity.getGraph(), ops)
+        );
+
+        UserContext superCtx = new UserContext("super");
+        Graph graph = pdp.withUser(superCtx).getGraph();
+        Node pc1 = graph.createPolicyClass("pc1", null);
+        Node oa1 = graph.createNode("oa1", NodeType.OA, null, pc1.getName());
+        Node oa2 = graph.createNode("oa2", NodeType.OA, null, pc1.getName());
+        Node o1 = graph.createNode("o1", NodeType.O, null, oa1.getName());
+
+        InputStream is = getClass().getClassLoader().getResourceAsStream("epp/event_test.yml");
+        String yml = IOUtils.toString(is, StandardCharsets.UTF_8.name());
+        pdp.withUser(superCtx).getObligations().add(new EVRParser().parse(superCtx.getUser(), yml), true);
+
+        // the assignment returns before the obligation responds to it
+        graph.assign(o1.getName(), oa2.getName());
+        pdp.getEPP().awaitEvents();
+        assertEquals(Set.of("oa2"), graph.getParents("anyUser assign success"));
+
+        // the response fails the second time because the node it creates already exists
+        pdp.getEPP().processEvent(new AssignEvent(superCtx, o1, oa2));
+        assertThrows(PMException.class, () -> pdp.getEPP().awaitEvents());
+        pdp.getEPP().awaitEvents();
+
+        pdp.getEPP().close();
+        assertThrows(PMException.class, () -> pdp.getEPP().processEvent(new AssignEvent(superCtx, o1, oa2)));
+    }
+
+    @Test
+    void testEventPipelineCloseWhileSubmitting() throws Exception {
+        OperationSet ops = new OperationSet("read", "write", "execute");
+        FunctionalEntity functionalEntity = new MemPIP(new MemGraph(), new MemProhibitions(), new MemObligations());
+        PDP pdp = PDP.newPDP(
+                new MemPAP(functionalEntity),
+                new EPPOptions().setEventPipeline(2, 4, 8),
+                new PReviewDecider(functionalEntity.getGraph(), functionalEntity.getProhibitions(), ops),
+                new PReviewAuditor(functionalEntity.getGraph(), ops)
+        );
+
+        UserContext superCtx = new UserContext("super");
+        Graph graph = pdp.withUser(superCtx).getGraph();
+        Node pc1 = graph.createPolicyClass("pc1", null);
+        Node oa1 = graph.createNode("oa1", NodeType.OA, null, pc1.getName());
+        Node o1 = graph.createNode("o1", NodeType.O, null, oa1.getName());
+
+        // submit until the pipeline is closed under the submitters
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> submitters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            submitters.add(executor.submit(() -> {
+                int submitted = 0;
+                while (true) {
+                    try {
+                        pdp.getEPP().processEvent(new AssignEvent(superCtx, o1, oa1));
+                        submitted++;
+                    } catch (PMException e) {
+                        return submitted;
+                    }
+                }
+            }));
+        }
+        Thread.sleep(50);
+        pdp.getEPP().close();
+        for (Future<Integer> submitter : submitters) {
+            submitter.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // every event accepted before the close is processed
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> pdp.getEPP().awaitEvents());
+    }
+
     @Test
     void testUserContainedIn() throws PMException, IOException {
         InputStream is = getClass().getClassLoader().getResourceAsStream("epp/UserContainedIn.yml");
@@ -0,0 +1,132 @@
+package gov.nist.csd.pm.epp;
+
+import gov.nist.csd.pm.epp.events.EventContext;
+import gov.nist.csd.pm.epp.functions.FunctionExecutor;
+import gov.nist.csd.pm.epp.functions.FunctionExecutor.Dependency;
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.pdp.services.UserContext;
+import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.memory.MemGraph;
+import gov.nist.csd.pm.pip.obligations.Obligations;
+import gov.nist.csd.pm.pip.obligations.model.ResponsePattern;
+import gov.nist.csd.pm.pip.obligations.model.Rule;
+import gov.nist.csd.pm.pip.obligations.model.actions.FunctionAction;
+import gov.nist.csd.pm.pip.obligations.model.functions.Arg;
+import gov.nist.csd.pm.pip.obligations.model.functions.Function;
+import gov.nist.csd.pm.pip.prohibitions.Prohibitions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FunctionEvaluatorTest {
+
+    private FunctionEvaluator functionEvaluator;
+    private CountingExecutor eventExecutor;
+    private CountingExecutor constantExecutor;
+    private Graph graph;
+
+    @BeforeEach
+    void setup() throws PMException {
+        functionEvaluator = new FunctionEvaluator();
+        eventExecutor = new CountingExecutor("count_event", Dependency.EVENT);
+        constantExecutor = new CountingExecutor("count_constant", Dependency.NONE);
+        functionEvaluator.addFunctionExecutor(eventExecutor);
+        functionEvaluator.addFunctionExecutor(constantExecutor);
+        graph = new MemGraph();
+    }
+
+    private Rule rule(Function... functions) {
+        ResponsePattern responsePattern = new ResponsePattern();
+        for (Function function : functions) {
+            responsePattern.addAction(new FunctionAction(function));
+        }
+        Rule rule = new Rule();
+        rule.setResponsePattern(responsePattern);
+        return rule;
+    }
+
+    private EventContext event() {
+        return new EventContext(new UserContext("u1", "123"), "read", null);
+    }
+
+    @Test
+    void testEventFunctionsAreEvaluatedOncePerEvent() throws PMException {
+        Function f1 = new Function("count_event", List.of());
+        Function f2 = new Function("count_event", List.of());
+        List<Function> compiled = functionEvaluator.compile(rule(f1, f2));
+
+        EventContext eventCtx = event();
+        assertEquals(1, functionEvaluator.evalObject(graph, null, null, eventCtx, f1));
+        assertEquals(1, functionEvaluator.evalObject(graph, null, null, eventCtx, f2));
+        assertEquals(2, functionEvaluator.evalObject(graph, null, null, event(), f1));
+
+        // released functions are evaluated every time
+        functionEvaluator.release(compiled);
+        assertEquals(3, functionEvaluator.evalObject(graph, null, null, eventCtx, f1));
+    }
+
+    @Test
+    void testConstantFunctionsAreFolded() throws PMException {
+        Function constant = new Function("count_constant", List.of(new Arg("a")));
+        Function nested = new Function("count_constant", List.of(new Arg(new Function("count_event", List.of()))));
+        functionEvaluator.compile(rule(constant, nested));
+        assertEquals(1, constantExecutor.count);
+
+        assertEquals(1, functionEvaluator.evalObject(graph, null, null, event(), constant));
+        assertEquals(1, functionEvaluator.evalObject(graph, null, null, event(), constant));
+
+        // a function with a function argument is not constant
+        assertEquals(2, functionEvaluator.evalObject(graph, null, null, event(), nested));
+
+        // adding an executor recompiles the functions with it
+        CountingExecutor replacement = new CountingExecutor("count_constant", Dependency.GRAPH);
+        functionEvaluator.addFunctionExecutor(replacement);
+        assertEquals(1, functionEvaluator.evalObject(graph, null, null, event(), constant));
+        assertEquals(2, functionEvaluator.evalObject(graph, null, null, event(), constant));
+    }
+
+    @Test
+    void testUnknownFunction() throws PMException {
+        Function unknown = new Function("unknown", List.of());
+        functionEvaluator.compile(rule(unknown));
+        assertThrows(PMException.class, () -> functionEvaluator.evalObject(graph, null, null, event(), unknown));
+
+        functionEvaluator.addFunctionExecutor(new CountingExecutor("unknown", Dependency.GRAPH));
+        assertEquals(1, functionEvaluator.evalObject(graph, null, null, event(), unknown));
+    }
+
+    private static class CountingExecutor implements FunctionExecutor {
+        private final String name;
+        private final Dependency dependency;
+        private int count;
+
+        CountingExecutor(String name, Dependency dependency) {
+            this.name = name;
+            this.dependency = dependency;
+        }
+
+        @Override
+        public String getFunctionName() {
+            return name;
+        }
+
+        @Override
+        public int numParams() {
+            return 0;
+        }
+
+        @Override
+        public Dependency getDependency() {
+            return dependency;
+        }
+
+        @Override
+        public Object exec(Graph graph, Prohibitions prohibitions, Obligations obligations, EventContext eventCtx,
+                           Function function, FunctionEvaluator functionEvaluator) {
+            return ++count;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package gov.nist.csd.pm.epp;
+
+import gov.nist.csd.pm.common.FunctionalEntity;
+import gov.nist.csd.pm.epp.events.AssignToEvent;
+import gov.nist.csd.pm.epp.events.DeassignEvent;
+import gov.nist.csd.pm.epp.events.ObjectAccessEvent;
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.pap.ObligationsAdmin;
+import gov.nist.csd.pm.pdp.services.UserContext;
+import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import gov.nist.csd.pm.pip.memory.MemGraph;
+import gov.nist.csd.pm.pip.memory.MemObligations;
+import gov.nist.csd.pm.pip.memory.MemPIP;
+import gov.nist.csd.pm.pip.memory.MemProhibitions;
+import gov.nist.csd.pm.pip.obligations.evr.EVRParser;
+import gov.nist.csd.pm.pip.obligations.model.Obligation;
+import gov.nist.csd.pm.pip.obligations.model.Rule;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleIndexTest {
+
+    private Graph graph;
+    private ObligationsAdmin obligations;
+    private RuleIndex index;
+    private Obligation obligation;
+    private Node oa1;
+    private Node oa2;
+    private Node o1;
+    private UserContext u1Ctx;
+
+    @BeforeEach
+    void setup() throws PMException, IOException {
+        FunctionalEntity pip = new MemPIP(new MemGraph(), new MemProhibitions(), new MemObligations());
+        graph = pip.getGraph();
+        Node pc1 = graph.createPolicyClass("pc1", null);
+        oa1 = graph.createNode("oa1", OA, null, pc1.getName());
+        oa2 = graph.createNode("oa2", OA, null, pc1.getName());
+        o1 = graph.createNode("o1", O, null, oa1.getName());
+        Node ua1 = graph.createNode("ua1", UA, null, pc1.getName());
+        graph.createNode("u1", U, null, ua1.getName());
+        graph.createNode("u2", U, null, ua1.getName());
+        u1Ctx = new UserContext("u1", "123");
+
+        obligations = new ObligationsAdmin(pip);
+        index = new RuleIndex(obligations, true);
+        obligations.addListener(index);
+
+        InputStream is = getClass().getClassLoader().getResourceAsStream("epp/event_test.yml");
+        String yml = IOUtils.toString(is, StandardCharsets.UTF_8.name());
+        obligation = new EVRParser().parse("super", yml);
+        obligations.add(obligation, true);
+    }
+
+    private List<String> candidateRules(Map<Obligation, List<Rule>> candidates) {
+        return candidates.values().stream()
+                .flatMap(List::stream)
+                .map(Rule::getLabel)
+                .toList();
+    }
+
+    @Test
+    void testCandidates() throws PMException {
+        assertEquals(List.of("u1 assign to"), candidateRules(index.getCandidates(new AssignToEvent(u1Ctx, oa1, o1))));
+
+        // no rule lists the operation
+        assertTrue(index.getCandidates(new ObjectAccessEvent(u1Ctx, "read", o1)).isEmpty());
+
+        // target containers and subjects depend on the graph when the rule is matched, so they do not narrow
+        assertEquals(List.of("anyUser in list deassign"),
+                candidateRules(index.getCandidates(new DeassignEvent(u1Ctx, o1, oa1))));
+        assertEquals(List.of("anyUser in list deassign"),
+                candidateRules(index.getCandidates(new DeassignEvent(u1Ctx, oa2, oa1))));
+        assertEquals(List.of("anyUser in list deassign"),
+                candidateRules(index.getCandidates(new DeassignEvent(new UserContext("u2", "123"), o1, oa1))));
+    }
+
+    @Test
+    void testChanges() throws PMException {
+        AssignToEvent event = new AssignToEvent(u1Ctx, oa1, o1);
+
+        obligations.setEnable(obligation.getLabel(), false);
+        assertTrue(index.getCandidates(event).isEmpty());
+
+        obligations.setEnable(obligation.getLabel(), true);
+        assertEquals(1, index.getCandidates(event).size());
+
+        obligations.delete(obligation.getLabel());
+        assertTrue(index.getCandidates(event).isEmpty());
+
+        // an index that is not notified of changes picks them up from the list of obligations
+        RuleIndex untracked = new RuleIndex(obligations, false);
+        assertTrue(untracked.getCandidates(event).isEmpty());
+        obligations.add(obligation, true);
+        assertEquals(1, untracked.getCandidates(event).size());
+        assertEquals(1, untracked.getCandidates(event).size());
+        assertEquals(1, index.getCandidates(event).size());
+
+        obligations.setEnable(obligation.getLabel(), false);
+        assertTrue(untracked.getCandidates(event).isEmpty());
+        assertTrue(untracked.getCandidates(event).isEmpty());
+        obligations.setEnable(obligation.getLabel(), true);
+        assertEquals(1, untracked.getCandidates(event).size());
+    }
+}
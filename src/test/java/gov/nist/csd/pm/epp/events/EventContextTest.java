@@ -0,0 +1,107 @@
+package gov.nist.csd.pm.epp.events;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.pdp.services.UserContext;
+import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import gov.nist.csd.pm.pip.memory.MemGraph;
+import gov.nist.csd.pm.pip.obligations.model.EventPattern;
+import gov.nist.csd.pm.pip.obligations.model.EvrNode;
+import gov.nist.csd.pm.pip.obligations.model.Subject;
+import gov.nist.csd.pm.pip.obligations.model.Target;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventContextTest {
+
+    private Graph graph;
+    private Node o1;
+
+    @BeforeEach
+    void setup() throws PMException {
+        graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("oa2", OA, null, "oa1");
+        graph.createNode("oa3", OA, null, "oa1");
+        graph.createNode("oa4", OA, null, "oa2", "oa3");
+        o1 = graph.createNode("o1", O, null, "oa4");
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("ua2", UA, null, "ua1");
+        graph.createNode("u1", U, null, "ua2");
+        graph.createNode("u2", U, null, "ua1");
+    }
+
+    @Test
+    void testGetAncestors() throws PMException {
+        EventContext eventCtx = new EventContext(new UserContext("u1", "123"), "read", o1);
+
+        // oa1 and pc1 are reached through both sides of the diamond but are only listed once
+        Set<String> ancestors = eventCtx.getAncestors(graph, "o1");
+        assertEquals(Set.of("oa4", "oa2", "oa3", "oa1", "pc1"), ancestors);
+
+        // the ancestors are computed once for the event
+        assertSame(ancestors, eventCtx.getAncestors(graph, "o1"));
+        assertNotSame(ancestors, new EventContext(new UserContext("u1", "123"), "read", o1).getAncestors(graph, "o1"));
+    }
+
+    @Test
+    void testClearAncestors() throws PMException {
+        EventContext eventCtx = new EventContext(new UserContext("u1", "123"), "read", o1);
+        Set<String> ancestors = eventCtx.getAncestors(graph, "o1");
+
+        // a response assigns o1 to another container
+        graph.createNode("oa5", OA, null, "pc1");
+        graph.assign("o1", "oa5");
+        assertSame(ancestors, eventCtx.getAncestors(graph, "o1"));
+        eventCtx.clearAncestors();
+        assertTrue(eventCtx.getAncestors(graph, "o1").contains("oa5"));
+    }
+
+    @Test
+    void testClearFunctionResults() throws PMException {
+        EventContext eventCtx = new EventContext(new UserContext("u1", "123"), "read", o1);
+        int[] calls = new int[1];
+        EventContext.FunctionCall call = () -> ++calls[0];
+
+        assertEquals(1, eventCtx.getFunctionResult(graph, List.of("f"), call));
+        assertEquals(1, eventCtx.getFunctionResult(graph, List.of("f"), call));
+        eventCtx.clearFunctionResults();
+        assertEquals(2, eventCtx.getFunctionResult(graph, List.of("f"), call));
+    }
+
+    @Test
+    void testMissingNode() throws PMException {
+        EventContext eventCtx = new EventContext(new UserContext("u1", "123"), "read", o1);
+        assertThrows(PMException.class, () -> eventCtx.getAncestors(graph, "missing"));
+
+        // the closure index does not hide a missing node
+        ((MemGraph) graph).enableClosureIndex();
+        assertThrows(PMException.class, () -> eventCtx.getAncestors(graph, "missing"));
+        assertEquals(Set.of("oa4", "oa2", "oa3", "oa1", "pc1"), eventCtx.getAncestors(graph, "o1"));
+    }
+
+    @Test
+    void testMatchesContainersAndAnyUser() throws PMException {
+        Target target = new Target();
+        target.setContainers(List.of(new EvrNode("oa1", "OA", new HashMap<>())));
+        EventPattern pattern = new EventPattern();
+        pattern.setTarget(target);
+        pattern.setSubject(new Subject(List.of("ua2")));
+
+        // u1 is contained in ua2 and o1 is contained in oa1
+        assertTrue(new EventContext(new UserContext("u1", "123"), "read", o1).matchesPattern(pattern, graph));
+        // u2 is not contained in ua2
+        assertFalse(new EventContext(new UserContext("u2", "123"), "read", o1).matchesPattern(pattern, graph));
+        // oa1 is not contained in itself
+        assertFalse(new EventContext(new UserContext("u1", "123"), "read", graph.getNode("oa1"))
+                .matchesPattern(pattern, graph));
+    }
+}
@@ -0,0 +1,28 @@
+package gov.nist.csd.pm.operations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static gov.nist.csd.pm.operations.OperationRegistry.NOT_INTERNED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationRegistryTest {
+
+    @Test
+    void testUnknownOperationsAreNotInterned() {
+        OperationRegistry registry = new OperationRegistry(List.of("read", "write"));
+        int size = registry.size();
+
+        BitOperationSet bits = registry.toBits(List.of("read", "unknown-op"));
+        assertEquals(new OperationSet("read"), registry.toOperationSet(bits));
+        assertEquals(NOT_INTERNED, registry.indexOf("unknown-op"));
+        assertEquals(size, registry.size());
+
+        // an operation defined later is interned once it is registered
+        int index = registry.register("execute");
+        assertEquals(index, registry.indexOf("execute"));
+        assertEquals(index, registry.register("execute"));
+        assertEquals(new OperationSet("read", "execute"), registry.toOperationSet(registry.toBits(List.of("read", "execute"))));
+    }
+}
@@ -0,0 +1,91 @@
+package gov.nist.csd.pm.pdp.report;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pdp.decider.PReviewDecider;
+import gov.nist.csd.pm.pip.memory.MemGraph;
+import gov.nist.csd.pm.pip.memory.MemProhibitions;
+import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessReporterTest {
+
+    private static final OperationSet RW = new OperationSet("read", "write");
+
+    private MemGraph buildGraph() throws PMException {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("ua2", UA, null, "pc1");
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("oa2", OA, null, "oa1");
+        for (int i = 0; i < 20; i++) {
+            graph.createNode("u" + i, U, null, i % 2 == 0 ? "ua1" : "ua2");
+        }
+        for (int i = 0; i < 200; i++) {
+            graph.createNode("o" + i, O, null, i % 2 == 0 ? "oa1" : "oa2");
+        }
+
+        graph.associate("ua1", "oa1", new OperationSet("read"));
+        graph.associate("ua2", "oa2", RW);
+        return graph;
+    }
+
+    @Test
+    void testGenerateACLs() throws PMException {
+        MemGraph graph = buildGraph();
+        MemProhibitions prohibitions = new MemProhibitions();
+        prohibitions.add(new Prohibition.Builder("deny", "u1", new OperationSet("write"))
+                .addContainer("oa2", false)
+                .build());
+
+        AccessReporter reporter = new AccessReporter(graph, prohibitions, RW, new ForkJoinPool(4));
+        reporter.setBatchSize(8);
+
+        Map<String, Map<String, Set<String>>> acls = new ConcurrentHashMap<>();
+        reporter.generateACLs("", acls::put);
+
+        PReviewDecider decider = new PReviewDecider(graph, prohibitions, RW);
+        assertEquals(200, acls.size());
+        for (String target : acls.keySet()) {
+            assertEquals(decider.generateACL(target, ""), acls.get(target), target);
+        }
+        assertEquals(new OperationSet("read"), acls.get("o1").get("u1"));
+        assertEquals(RW, acls.get("o1").get("u3"));
+    }
+
+    @Test
+    void testGenerateCapabilityLists() throws PMException {
+        MemGraph graph = buildGraph();
+        AccessReporter reporter = new AccessReporter(graph, null, RW);
+
+        Map<String, Map<String, Set<String>>> capabilities = new ConcurrentHashMap<>();
+        reporter.generateCapabilityLists(Arrays.asList("u0", "u1"), "", capabilities::put);
+
+        assertEquals(Set.of("u0", "u1"), capabilities.keySet());
+        assertEquals(new OperationSet("read"), capabilities.get("u0").get("o1"));
+        assertEquals(RW, capabilities.get("u1").get("o1"));
+        assertFalse(capabilities.get("u1").containsKey("o0"));
+    }
+
+    @Test
+    void testSinkFailureStopsReport() throws PMException {
+        MemGraph graph = buildGraph();
+        AccessReporter reporter = new AccessReporter(graph, null, RW);
+
+        PMException e = assertThrows(PMException.class, () -> reporter.generateACLs("", (name, permissions) -> {
+            throw new PMException("sink failed");
+        }));
+        assertEquals("sink failed", e.getMessage());
+        assertThrows(PMException.class, () -> reporter.generateACLs(Arrays.asList("o1", "unknown"), "", (name, permissions) -> {}));
+    }
+}
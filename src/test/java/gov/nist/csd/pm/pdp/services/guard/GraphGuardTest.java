@@ -16,6 +16,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -189,6 +190,23 @@ class GraphGuardTest {
             assertEquals(3, nodes.size());
         }
 
+        @Test
+        void testBatchedDecisionFails() throws PMException {
+            Graph graph = guard.pap.getGraph();
+            GraphGuard failing = new GraphGuard(guard.pap, new PReviewDecider(graph, new OperationSet("read", "write")) {
+                @Override
+                public Map<String, Set<String>> listAll(String subject, String process, Collection<String> targets)
+                        throws PMException {
+                    throw new PMException("listAll failed");
+                }
+            });
+
+            // each node is checked on its own instead
+            Set<String> nodes = new HashSet<>(Arrays.asList("oa1", "o1", "oa2"));
+            failing.filter(u1Ctx, nodes);
+            assertEquals(new HashSet<>(Arrays.asList("oa1", "o1")), nodes);
+        }
+
     }
 
     @Nested
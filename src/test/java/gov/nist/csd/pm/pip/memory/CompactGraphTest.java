@@ -0,0 +1,207 @@
+package gov.nist.csd.pm.pip.memory;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pdp.decider.PReviewDecider;
+import gov.nist.csd.pm.pip.graph.Graph;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactGraphTest {
+
+    @Test
+    void testCreateNode() throws PMException {
+        CompactGraph graph = new CompactGraph();
+
+        Node pc = graph.createPolicyClass("pc", null);
+        assertTrue(graph.getPolicyClasses().contains(pc.getName()));
+
+        assertAll(() -> assertThrows(PMException.class, () -> graph.createNode(null, null, null, "pc")),
+                () -> assertThrows(PMException.class, () -> graph.createNode(null, OA, null, "pc")),
+                () -> assertThrows(PMException.class, () -> graph.createNode("name", null, null, "pc")),
+                () -> assertThrows(PMException.class, () -> graph.createNode("pc", OA, null, "pc"))
+        );
+
+        graph.createNode("oa", OA, Node.toProperties("namespace", "test"), pc.getName());
+
+        Node node = graph.getNode("oa");
+        assertEquals("oa", node.getName());
+        assertEquals(OA, node.getType());
+        assertEquals("test", node.getProperties().get("namespace"));
+        assertEquals(Set.of("pc"), graph.getParents("oa"));
+        assertEquals(Set.of("oa"), graph.getChildren("pc"));
+    }
+
+    @Test
+    void testDeleteNode() throws PMException {
+        CompactGraph graph = new CompactGraph();
+        graph.createPolicyClass("pc", null);
+        graph.createNode("oa", OA, null, "pc");
+        graph.createNode("ua", UA, null, "pc");
+        graph.associate("ua", "oa", new OperationSet("read"));
+
+        assertThrows(PMException.class, () -> graph.deleteNode("pc"));
+        assertThrows(PMException.class, () -> graph.deleteNode("oa"));
+
+        graph.deleteNode("ua");
+        assertFalse(graph.exists("ua"));
+        assertTrue(graph.getTargetAssociations("oa").isEmpty());
+
+        graph.deleteNode("oa");
+        assertTrue(graph.getChildren("pc").isEmpty());
+
+        // ids of deleted nodes are reused
+        graph.createNode("oa2", OA, null, "pc");
+        assertTrue(graph.getNode("oa2").getProperties().isEmpty());
+        assertEquals(Set.of("oa2"), graph.getChildren("pc"));
+    }
+
+    @Test
+    void testManyNodes() throws PMException {
+        CompactGraph graph = new CompactGraph();
+        graph.createPolicyClass("pc", null);
+        graph.createNode("ua", UA, null, "pc");
+        int count = 5000;
+        for (int i = 0; i < count; i++) {
+            graph.createNode("oa" + i, OA, null, "pc");
+            graph.associate("ua", "oa" + i, new OperationSet("op" + (i % 100)));
+        }
+
+        // deleting every other node moves the entries after it in the name and association tables
+        for (int i = 0; i < count; i += 2) {
+            graph.dissociate("ua", "oa" + i);
+            graph.deleteNode("oa" + i);
+        }
+
+        Map<String, OperationSet> assocs = graph.getSourceAssociations("ua");
+        assertEquals(count / 2, assocs.size());
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            String name = "oa" + i;
+            if (i % 2 == 0) {
+                assertFalse(graph.exists(name));
+                assertEquals(-1, graph.getId(name));
+            } else {
+                assertEquals(name, graph.getName(graph.getId(name)));
+                assertTrue(ids.add(graph.getId(name)));
+                assertEquals(new OperationSet("op" + (i % 100)), assocs.get(name));
+            }
+        }
+
+        // the ids of the deleted nodes are reused
+        for (int i = 0; i < count; i += 2) {
+            graph.createNode("oa" + i, OA, null, "pc");
+            assertTrue(ids.add(graph.getId("oa" + i)));
+        }
+        assertEquals(count + 2, graph.getNodes().size());
+    }
+
+    @Test
+    void testAssign() throws PMException {
+        CompactGraph graph = new CompactGraph();
+        graph.createPolicyClass("pc", null);
+        graph.createNode("oa1", OA, null, "pc");
+        graph.createNode("oa2", OA, null, "pc");
+        graph.createNode("o1", O, null, "oa1");
+
+        assertThrows(PMException.class, () -> graph.assign("o1", "oa1"));
+        assertThrows(PMException.class, () -> graph.assign("oa1", "o1"));
+
+        graph.assign("o1", "oa2");
+        assertTrue(graph.isAssigned("o1", "oa2"));
+        assertEquals(Set.of("oa1", "oa2"), graph.getParents("o1"));
+
+        graph.deassign("o1", "oa1");
+        assertFalse(graph.isAssigned("o1", "oa1"));
+        assertEquals(Set.of("oa2"), graph.getParents("o1"));
+        assertTrue(graph.getChildren("oa1").isEmpty());
+    }
+
+    @Test
+    void testAssociate() throws PMException {
+        CompactGraph graph = new CompactGraph();
+        graph.createPolicyClass("pc", null);
+        graph.createNode("ua", UA, null, "pc");
+        graph.createNode("oa", OA, null, "pc");
+
+        assertThrows(PMException.class, () -> graph.associate("oa", "ua", new OperationSet("read")));
+
+        graph.associate("ua", "oa", new OperationSet("read", "write"));
+        assertEquals(new OperationSet("read", "write"), graph.getSourceAssociations("ua").get("oa"));
+        assertEquals(new OperationSet("read", "write"), graph.getTargetAssociations("oa").get("ua"));
+
+        graph.associate("ua", "oa", new OperationSet("execute"));
+        assertEquals(new OperationSet("execute"), graph.getSourceAssociations("ua").get("oa"));
+
+        graph.dissociate("ua", "oa");
+        assertTrue(graph.getSourceAssociations("ua").isEmpty());
+        assertTrue(graph.getTargetAssociations("oa").isEmpty());
+    }
+
+    @Test
+    void testIterateByID() throws PMException {
+        CompactGraph graph = new CompactGraph();
+        graph.createPolicyClass("pc", null);
+        graph.createNode("oa", OA, null, "pc");
+        graph.createNode("oa2", OA, null, "pc");
+        for (int i = 0; i < 1000; i++) {
+            graph.createNode("o" + i, O, null, "oa");
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            graph.deassign("o" + i, "oa");
+            graph.assign("o" + i, "oa2");
+        }
+
+        int id = graph.getId("oa");
+        Set<String> children = new HashSet<>();
+        for (int i = 0; i < graph.getChildCount(id); i++) {
+            children.add(graph.getName(graph.getChild(id, i)));
+        }
+        assertEquals(500, children.size());
+        assertEquals(children, graph.getChildren("oa"));
+        assertEquals(500, graph.getChildCount(graph.getId("oa2")));
+        assertEquals(-1, graph.getId("unknown"));
+    }
+
+    @Test
+    void testJson() throws PMException {
+        CompactGraph graph = new CompactGraph();
+        graph.createPolicyClass("pc", null);
+        graph.createNode("ua", UA, null, "pc");
+        graph.createNode("u", U, Node.toProperties("k", "v"), "ua");
+        graph.createNode("oa", OA, null, "pc");
+        graph.associate("ua", "oa", new OperationSet("read"));
+
+        MemGraph memGraph = new MemGraph();
+        memGraph.fromJson(graph.toJson());
+        assertEquals(graph.getNodes(), memGraph.getNodes());
+        assertEquals(Set.of("ua"), memGraph.getParents("u"));
+        assertEquals("v", memGraph.getNode("u").getProperties().get("k"));
+
+        CompactGraph copy = new CompactGraph();
+        copy.fromJson(memGraph.toJson());
+        Map<String, OperationSet> assocs = copy.getSourceAssociations("ua");
+        assertEquals(new OperationSet("read"), assocs.get("oa"));
+    }
+
+    @Test
+    void testDecider() throws PMException {
+        Graph graph = new CompactGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.createNode("u1", U, null, "ua1");
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("o1", O, null, "oa1");
+        graph.associate("ua1", "oa1", new OperationSet("read", "write"));
+
+        PReviewDecider decider = new PReviewDecider(graph, new OperationSet("read", "write"));
+        assertEquals(new OperationSet("read", "write"), decider.list("u1", "", "o1"));
+    }
+}
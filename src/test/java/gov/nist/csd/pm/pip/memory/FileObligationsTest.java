@@ -0,0 +1,127 @@
+package gov.nist.csd.pm.pip.memory;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.pip.obligations.evr.EVRParser;
+import gov.nist.csd.pm.pip.obligations.model.Obligation;
+import gov.nist.csd.pm.pip.obligations.model.Rule;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileObligationsTest {
+
+    private Path path;
+
+    @BeforeEach
+    void setup() throws IOException {
+        path = Files.createTempFile("obligations", ".bin");
+        Files.delete(path);
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private Obligation parse(String file) throws IOException, PMException {
+        InputStream is = getClass().getClassLoader().getResourceAsStream(file);
+        String yml = IOUtils.toString(is, StandardCharsets.UTF_8.name());
+        return new EVRParser().parse("super", yml);
+    }
+
+    private List<String> ruleLabels(Obligation obligation) {
+        return obligation.getRules().stream().map(Rule::getLabel).collect(Collectors.toList());
+    }
+
+    @Test
+    void testReopen() throws IOException, PMException {
+        Obligation eventTest = parse("epp/event_test.yml");
+        Obligation responseTest = parse("epp/response_test.yml");
+
+        FileObligations obligations = new FileObligations(path);
+        obligations.add(eventTest, true);
+        obligations.add(responseTest, true);
+        obligations.setEnable(responseTest.getLabel(), false);
+
+        FileObligations reopened = new FileObligations(path);
+        assertEquals(2, reopened.getAll().size());
+
+        Obligation obligation = reopened.get(eventTest.getLabel());
+        assertTrue(obligation.isEnabled());
+        assertEquals("super", obligation.getUser());
+        assertEquals(eventTest.getSource(), obligation.getSource());
+        assertEquals(ruleLabels(eventTest), ruleLabels(obligation));
+        assertEquals(eventTest.getRules().get(0).getEventPattern().getOperations(),
+                obligation.getRules().get(0).getEventPattern().getOperations());
+        assertFalse(reopened.get(responseTest.getLabel()).isEnabled());
+
+        reopened.delete(eventTest.getLabel());
+        assertNull(new FileObligations(path).get(eventTest.getLabel()));
+    }
+
+    @Test
+    void testSharedViews() throws IOException, PMException {
+        FileObligations obligations = new FileObligations(path);
+        Obligation eventTest = parse("epp/event_test.yml");
+        obligations.add(eventTest, true);
+
+        // reads return the same unmodifiable obligation
+        Obligation obligation = obligations.get(eventTest.getLabel());
+        assertSame(obligation, obligations.get(eventTest.getLabel()));
+        assertSame(obligations.getAll(), obligations.getAll());
+        assertThrows(UnsupportedOperationException.class, () -> obligation.setEnabled(false));
+        assertThrows(UnsupportedOperationException.class, () -> obligations.getAll().clear());
+
+        // a copy can be modified and stored
+        Obligation copy = new Obligation(obligation);
+        copy.setRules(List.of());
+        obligations.update(copy.getLabel(), copy);
+        assertTrue(obligations.get(eventTest.getLabel()).getRules().isEmpty());
+        assertFalse(obligation.getRules().isEmpty());
+    }
+
+    @Test
+    void testUnsupportedVersion() throws IOException {
+        // a file written in a format version this store does not know
+        Files.write(path, ByteBuffer.allocate(12).putInt(0x504D4F42).putInt(99).putInt(0).array());
+        assertThrows(PMException.class, () -> new FileObligations(path));
+    }
+
+    @Test
+    void testRejectedClass() throws IOException, PMException {
+        new FileObligations(path).add(parse("epp/event_test.yml"), true);
+        int version = ByteBuffer.wrap(Files.readAllBytes(path)).getInt(4);
+
+        // a record that is not an obligation is not read back
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(record)) {
+            out.writeObject(new File("obligations"));
+        }
+        Files.write(path, ByteBuffer.allocate(16 + record.size())
+                .putInt(0x504D4F42).putInt(version).putInt(1).putInt(record.size()).put(record.toByteArray())
+                .array());
+        PMException e = assertThrows(PMException.class, () -> new FileObligations(path));
+        assertTrue(e.getMessage().contains("REJECTED"), e.getMessage());
+    }
+
+    @Test
+    void testInvalidFile() throws IOException {
+        Files.writeString(path, "label: not a binary file");
+        assertThrows(PMException.class, () -> new FileObligations(path));
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.*;
 
 import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -341,4 +342,150 @@ class MemGraphTest {
         node = graph.getNode(node.getName());
         assertTrue(node.getProperties().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testClosureIndex() throws PMException {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("oa2", OA, null, "oa1");
+        graph.enableClosureIndex();
+
+        ClosureIndex index = graph.getClosureIndex();
+        assertEquals(Set.of("oa1", "pc1"), index.getAncestors("oa2"));
+        assertEquals(Set.of("pc1"), index.getPolicyClasses("oa2"));
+        assertEquals(Set.of("pc1"), index.getPolicyClasses("pc1"));
+
+        graph.createPolicyClass("pc2", null);
+        graph.createNode("oa3", OA, null, "pc2");
+        graph.createNode("o1", O, null, "oa2");
+        assertEquals(Set.of("oa2", "oa1", "pc1"), index.getAncestors("o1"));
+
+        // assigning an attribute updates its descendants
+        graph.assign("oa2", "oa3");
+        assertEquals(Set.of("oa2", "oa1", "oa3", "pc1", "pc2"), index.getAncestors("o1"));
+        assertEquals(Set.of("pc1", "pc2"), index.getPolicyClasses("o1"));
+
+        graph.deassign("oa2", "oa1");
+        assertEquals(Set.of("oa2", "oa3", "pc2"), index.getAncestors("o1"));
+        assertEquals(Set.of("pc2"), index.getPolicyClasses("o1"));
+
+        graph.deassign("o1", "oa2");
+        graph.deleteNode("o1");
+        assertTrue(index.getAncestors("o1").isEmpty());
+    }
+
+    @Test
+    void testReadsDoNotBlockEachOther() throws Exception {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("oa1", OA, null, "pc1");
+
+        graph.getLock().readLock().lock();
+        try {
+            // another thread can read while this thread holds the read lock
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            Future<Set<String>> parents = executor.submit(() -> graph.getParents("oa1"));
+            assertEquals(Set.of("pc1"), parents.get(5, TimeUnit.SECONDS));
+
+            // but cannot write
+            Future<Node> create = executor.submit(() -> graph.createNode("oa2", OA, null, "pc1"));
+            assertThrows(TimeoutException.class, () -> create.get(100, TimeUnit.MILLISECONDS));
+            executor.shutdown();
+        } finally {
+            graph.getLock().readLock().unlock();
+        }
+
+        assertTrue(graph.getChildren("pc1").contains("oa1"));
+    }
+
+    @Test
+    void testSnapshot() throws PMException {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("oa1", OA, Node.toProperties("k", "v"), "pc1");
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.associate("ua1", "oa1", new OperationSet("read"));
+
+        GraphSnapshot snapshot = graph.snapshot();
+        assertEquals(graph.getVersion(), snapshot.getVersion());
+        // the same snapshot is returned until the graph changes
+        assertSame(snapshot, graph.snapshot());
+
+        long version = graph.getVersion();
+        graph.createNode("o1", O, null, "oa1");
+        graph.updateNode("oa1", Node.toProperties("k", "v2"));
+        graph.associate("ua1", "oa1", new OperationSet("write"));
+        assertTrue(graph.getVersion() > version);
+
+        // the snapshot is not affected by later changes
+        assertEquals(version, snapshot.getVersion());
+        assertFalse(snapshot.exists("o1"));
+        assertTrue(snapshot.getChildren("oa1").isEmpty());
+        assertEquals("v", snapshot.getNode("oa1").getProperties().get("k"));
+        assertEquals(new OperationSet("read"), snapshot.getSourceAssociations("ua1").get("oa1"));
+
+        GraphSnapshot next = graph.snapshot();
+        assertNotSame(snapshot, next);
+        assertEquals(Set.of("oa1"), next.getParents("o1"));
+        assertEquals(Set.of("o1"), next.getChildren("oa1"));
+        assertEquals("v2", next.getNode("oa1").getProperties().get("k"));
+        assertEquals(new OperationSet("write"), next.getTargetAssociations("oa1").get("ua1"));
+
+        graph.deassign("o1", "oa1");
+        graph.deleteNode("o1");
+        GraphSnapshot last = graph.snapshot();
+        assertFalse(last.exists("o1"));
+        assertTrue(last.getChildren("oa1").isEmpty());
+        assertTrue(next.exists("o1"));
+        assertEquals(graph.getNodes(), last.getNodes());
+
+        assertThrows(PMException.class, () -> last.createNode("o2", O, null, "oa1"));
+        assertThrows(PMException.class, () -> last.assign("ua1", "oa1"));
+    }
+
+    @Test
+    void testChangedNodesAreBounded() throws PMException {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("oa1", OA, null, "pc1");
+
+        // nothing is recorded until a snapshot is taken
+        for (int i = 0; i < 100; i++) {
+            graph.createNode("a" + i, O, null, "oa1");
+        }
+        graph.deleteNode("a0");
+        assertEquals(0, graph.getChangedCount());
+
+        GraphSnapshot snapshot = graph.snapshot();
+        for (int i = 0; i < 20000; i++) {
+            graph.createNode("b" + i, O, null, "oa1");
+        }
+        assertTrue(graph.getChangedCount() < 20000);
+
+        // the next snapshot is built from scratch
+        GraphSnapshot next = graph.snapshot();
+        assertFalse(snapshot.exists("b0"));
+        assertEquals(graph.getNodes(), next.getNodes());
+        assertEquals(graph.getChildren("oa1"), next.getChildren("oa1"));
+        assertEquals(0, graph.getChangedCount());
+    }
+
+    @Test
+    void testSnapshotClosureIndex() throws PMException {
+        MemGraph graph = new MemGraph();
+        graph.createPolicyClass("pc1", null);
+        graph.createPolicyClass("pc2", null);
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("oa2", OA, null, "pc2");
+        graph.createNode("o1", O, null, "oa1");
+        graph.enableClosureIndex();
+
+        GraphSnapshot snapshot = graph.snapshot();
+        graph.assign("oa1", "oa2");
+
+        assertEquals(Set.of("oa1", "pc1"), snapshot.getClosureIndex().getAncestors("o1"));
+        assertEquals(Set.of("oa1", "oa2", "pc1", "pc2"), graph.snapshot().getClosureIndex().getAncestors("o1"));
+        assertEquals(Set.of("pc1", "pc2"), graph.snapshot().getClosureIndex().getPolicyClasses("o1"));
+    }
+}
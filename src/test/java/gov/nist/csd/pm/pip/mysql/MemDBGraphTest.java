@@ -0,0 +1,155 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.memory.MemGraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemDBGraphTest {
+
+    private static final String URL = "jdbc:h2:~/policydb_core;MODE=MySQL";
+
+    private MySQLConnection connection;
+    private PolicyChangeLog changeLog;
+
+    @BeforeEach
+    void init() throws Exception {
+        InputStream resourceAsStream = getClass().getResourceAsStream("/mysql/policydb_core.sql");
+        if (resourceAsStream == null) {
+            throw new Exception("could not read contents of policydb_core.sql");
+        }
+
+        String sql = new String(resourceAsStream.readAllBytes());
+        try (Connection conn = DriverManager.getConnection(URL, "sa", "");
+             Statement stmt = conn.createStatement()) {
+            for (String s : sql.split(";")) {
+                stmt.executeUpdate(s);
+            }
+        }
+
+        connection = new MySQLConnection(URL, "sa", "");
+        changeLog = new PolicyChangeLog(connection);
+    }
+
+    @AfterEach
+    void close() {
+        connection.close();
+    }
+
+    @Test
+    void testMirrorsApplyChanges() throws PMException {
+        MemDBGraph writer = new MemDBGraph(new MySQLGraph(connection), changeLog, 0);
+        MemDBGraph reader = new MemDBGraph(new MySQLGraph(connection), changeLog, 0);
+        MemDBGraph stale = new MemDBGraph(new MySQLGraph(connection), changeLog, Long.MAX_VALUE);
+
+        writer.createPolicyClass("pc1", null);
+        writer.createNode("oa1", OA, null, "pc1");
+        writer.createNode("ua1", UA, null, "pc1");
+        writer.createNode("o1", O, null, "oa1");
+        writer.associate("ua1", "oa1", new OperationSet("read"));
+
+        assertTrue(writer.exists("o1"));
+        assertEquals(Set.of("o1"), reader.getChildren("oa1"));
+        assertEquals(new OperationSet("read"), reader.getSourceAssociations("ua1").get("oa1"));
+        assertEquals(writer.getLastSeq(), reader.getLastSeq());
+
+        // a mirror within its staleness bound does not read the log until it is refreshed
+        assertFalse(stale.exists("o1"));
+        stale.refresh();
+        assertTrue(stale.exists("o1"));
+
+        reader.deassign("o1", "oa1");
+        reader.createNode("oa2", OA, null, "pc1");
+        reader.assign("o1", "oa2");
+        reader.dissociate("ua1", "oa1");
+        assertEquals(Set.of("oa2"), writer.getParents("o1"));
+        assertTrue(writer.getSourceAssociations("ua1").isEmpty());
+    }
+
+    @Test
+    void testWarmUpFromSnapshotAndLog() throws PMException {
+        MemDBGraph writer = new MemDBGraph(new MySQLGraph(connection), changeLog, 0);
+        writer.createPolicyClass("pc1", null);
+        writer.createNode("oa1", OA, null, "pc1");
+        writer.createNode("o1", O, null, "oa1");
+        writer.deassign("o1", "oa1");
+        writer.deleteNode("o1");
+        writer.createNode("o2", O, null, "oa1");
+
+        // a new mirror loads the snapshot and skips the changes the snapshot already includes
+        MemDBGraph mirror = new MemDBGraph(new MySQLGraph(connection), changeLog, 0);
+        assertEquals(changeLog.getLatestSeq(), mirror.getLastSeq());
+        assertFalse(mirror.exists("o1"));
+        assertEquals(Set.of("o2"), mirror.getChildren("oa1"));
+
+        // replaying the whole log over a snapshot that already includes it leaves the snapshot unchanged
+        MemGraph snapshot = new MemGraph();
+        snapshot.fromJson(mirror.toJson());
+        for (PolicyChange change : changeLog.readAfter(0, 100)) {
+            change.apply(snapshot);
+        }
+        assertFalse(snapshot.exists("o1"));
+        assertEquals(Set.of("o2"), snapshot.getChildren("oa1"));
+
+        changeLog.deleteThrough(mirror.getLastSeq());
+        assertTrue(changeLog.readAfter(0, 100).isEmpty());
+    }
+
+    @Test
+    void testWritesAndChangesCommitTogether() throws PMException {
+        MemDBGraph writer = new MemDBGraph(new MySQLGraph(connection), changeLog, 0);
+        writer.createPolicyClass("pc1", null);
+        writer.createNode("oa1", OA, null, "pc1");
+        long seq = changeLog.getLatestSeq();
+
+        // a write that fails in the database is not logged or applied
+        assertThrows(PMException.class, () -> writer.createNode("o1", O, null, "pc1"));
+        assertThrows(PMException.class, () -> writer.createPolicyClass("pc1", null));
+        assertEquals(seq, changeLog.getLatestSeq());
+        assertFalse(writer.exists("o1"));
+        assertFalse(new MySQLGraph(connection).exists("o1"));
+
+        // sequence numbers have no gaps
+        writer.createNode("o1", O, null, "oa1");
+        List<PolicyChange> changes = changeLog.readAfter(0, 100);
+        for (int i = 0; i < changes.size(); i++) {
+            assertEquals(i + 1, changes.get(i).getSeq());
+        }
+    }
+
+    @Test
+    void testDeleteThroughKeepsUnappliedChanges() throws PMException {
+        MemDBGraph writer = new MemDBGraph(new MySQLGraph(connection), changeLog, 0);
+        MemDBGraph stale = new MemDBGraph(new MySQLGraph(connection), changeLog, Long.MAX_VALUE);
+        writer.createPolicyClass("pc1", null);
+        writer.createNode("oa1", OA, null, "pc1");
+
+        // the stale mirror has not applied any change yet
+        assertEquals(0, changeLog.deleteThrough(writer.getLastSeq()));
+        assertEquals(2, changeLog.readAfter(0, 100).size());
+
+        stale.refresh();
+        assertEquals(writer.getLastSeq(), changeLog.deleteThrough(writer.getLastSeq()));
+        assertTrue(changeLog.readAfter(0, 100).isEmpty());
+
+        // a closed mirror does not hold back deletes, and reloads if the changes it needs were deleted
+        stale.close();
+        writer.createNode("o1", O, null, "oa1");
+        changeLog.deleteThrough(writer.getLastSeq());
+        stale.refresh();
+        assertTrue(stale.exists("o1"));
+        assertEquals(writer.getLastSeq(), stale.getLastSeq());
+    }
+}
@@ -0,0 +1,113 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.graph.dag.searcher.BreadthFirstSearcher;
+import gov.nist.csd.pm.pip.graph.dag.searcher.Direction;
+import gov.nist.csd.pm.pip.graph.dag.searcher.ParallelBreadthFirstSearcher;
+import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MySQLAsyncGraphTest {
+
+    private static final String URL = "jdbc:h2:~/policydb_core;MODE=MySQL";
+
+    private MySQLConnection connection;
+    private MySQLGraph graph;
+    private MySQLAsyncGraph asyncGraph;
+
+    @BeforeEach
+    void init() throws Exception {
+        InputStream resourceAsStream = getClass().getResourceAsStream("/mysql/policydb_core.sql");
+        if (resourceAsStream == null) {
+            throw new Exception("could not read contents of policydb_core.sql");
+        }
+
+        String sql = new String(resourceAsStream.readAllBytes());
+        try (Connection conn = DriverManager.getConnection(URL, "sa", "");
+             Statement stmt = conn.createStatement()) {
+            for (String s : sql.split(";")) {
+                stmt.executeUpdate(s);
+            }
+        }
+
+        connection = new MySQLConnection(URL, "sa", "");
+        graph = new MySQLGraph(connection);
+        asyncGraph = new MySQLAsyncGraph(graph, 4);
+
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("oa2", OA, null, "pc1");
+        graph.createNode("oa3", OA, null, "oa1", "oa2");
+        graph.createNode("o1", O, null, "oa3");
+        graph.createNode("ua1", UA, null, "pc1");
+        graph.associate("ua1", "oa1", new OperationSet("read"));
+    }
+
+    @AfterEach
+    void close() {
+        asyncGraph.close();
+        connection.close();
+    }
+
+    @Test
+    void testLookups() throws Exception {
+        assertTrue(asyncGraph.exists("o1").get());
+        assertEquals(Set.of("oa3"), asyncGraph.getParents("o1").get());
+
+        Map<String, Set<String>> parents = asyncGraph.getParents(List.of("o1", "oa3", "oa1")).get();
+        assertEquals(Set.of("oa3"), parents.get("o1"));
+        assertEquals(Set.of("oa1", "oa2"), parents.get("oa3"));
+        assertEquals(Set.of("pc1"), parents.get("oa1"));
+
+        assertEquals(new OperationSet("read"),
+                asyncGraph.getSourceAssociations(List.of("ua1")).get().get("ua1").get("oa1"));
+
+        // a failed lookup fails the future with the exception the graph threw
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> asyncGraph.getParents(List.of("o1", "not a node")).get());
+        assertTrue(e.getCause() instanceof PMException);
+
+        asyncGraph.createNode("o2", O, null, "oa2").get();
+        assertTrue(graph.exists("o2"));
+    }
+
+    @Test
+    void testParallelBreadthFirstSearch() throws PMException {
+        List<String> expected = new ArrayList<>();
+        new BreadthFirstSearcher(graph).traverse(graph.getNode("o1"), (p, c) -> {}, n -> expected.add(n.getName()),
+                Direction.PARENTS);
+
+        List<String> visited = new ArrayList<>();
+        Set<String> propagated = new HashSet<>();
+        new ParallelBreadthFirstSearcher(asyncGraph).traverse(graph.getNode("o1"),
+                (parent, child) -> propagated.add(child.getName()),
+                n -> visited.add(n.getName()),
+                Direction.PARENTS);
+
+        assertEquals(Set.copyOf(expected), Set.copyOf(visited));
+        assertEquals(expected.size(), visited.size());
+        assertEquals("o1", visited.get(0));
+        assertEquals("pc1", visited.get(visited.size() - 1));
+        assertEquals(Set.of("oa3", "oa1", "oa2", "pc1"), propagated);
+
+        // searching down from the policy class reaches every node under it
+        Set<String> children = new HashSet<>();
+        Node pc1 = graph.getNode("pc1");
+        new ParallelBreadthFirstSearcher(asyncGraph).traverse(pc1, (p, c) -> {}, n -> children.add(n.getName()),
+                Direction.CHILDREN);
+        assertEquals(Set.of("pc1", "oa1", "oa2", "oa3", "o1", "ua1"), children);
+    }
+}
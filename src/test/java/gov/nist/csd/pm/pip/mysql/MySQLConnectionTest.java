@@ -0,0 +1,134 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import gov.nist.csd.pm.exceptions.PIPException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MySQLConnectionTest {
+
+    private static final String URL = "jdbc:h2:mem:pool_test;DB_CLOSE_DELAY=-1;MODE=MySQL";
+
+    private MySQLConnection connection;
+
+    @BeforeEach
+    void init() {
+        MySQLPoolOptions options = new MySQLPoolOptions();
+        options.setMaxPoolSize(2);
+        options.setConnectionTimeout(100);
+        connection = new MySQLConnection(URL, "sa", "", options);
+    }
+
+    @AfterEach
+    void close() {
+        connection.close();
+    }
+
+    @Test
+    void testConnectionsAreReused() throws PIPException, SQLException {
+        Connection con = connection.getConnection();
+        Connection physical = con.unwrap(Connection.class);
+        con.close();
+        assertTrue(con.isClosed());
+        assertThrows(SQLException.class, con::createStatement);
+        assertEquals(1, connection.getIdleCount());
+
+        try (Connection con2 = connection.getConnection()) {
+            assertSame(physical, con2.unwrap(Connection.class));
+            assertEquals(0, connection.getIdleCount());
+        }
+    }
+
+    @Test
+    void testPoolIsBounded() throws PIPException, SQLException {
+        Connection con1 = connection.getConnection();
+        Connection con2 = connection.getConnection();
+        assertThrows(PIPException.class, () -> connection.getConnection());
+
+        con1.close();
+        try (Connection con3 = connection.getConnection()) {
+            assertFalse(con3.isClosed());
+        }
+        con2.close();
+
+        // closing a connection twice does not return it to the pool twice
+        con2.close();
+        assertEquals(2, connection.getIdleCount());
+    }
+
+    @Test
+    void testPreparedStatementsAreReused() throws PIPException, SQLException {
+        PreparedStatement physical;
+        try (Connection con = connection.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT ?")) {
+            ps.setInt(1, 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+            physical = ps.unwrap(PreparedStatement.class);
+
+            // preparing the same sql while the first statement is open returns a different statement
+            try (PreparedStatement ps2 = con.prepareStatement("SELECT ?")) {
+                assertNotSame(physical, ps2.unwrap(PreparedStatement.class));
+            }
+        }
+
+        try (Connection con = connection.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT ?")) {
+            assertSame(physical, ps.unwrap(PreparedStatement.class));
+            assertSame(con, ps.getConnection());
+
+            ps.setInt(1, 2);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(2, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void testIdleConnectionsAreEvicted() throws PIPException, SQLException {
+        MySQLPoolOptions options = new MySQLPoolOptions();
+        options.setIdleTimeout(0);
+        MySQLConnection evicting = new MySQLConnection(URL, "sa", "", options);
+
+        Connection con = evicting.getConnection();
+        Connection physical = con.unwrap(Connection.class);
+        con.close();
+
+        assertEquals(0, evicting.getIdleCount());
+        assertTrue(physical.isClosed());
+        evicting.close();
+    }
+
+    @Test
+    void testUncommittedWorkIsRolledBack() throws PIPException, SQLException {
+        try (Connection con = connection.getConnection()) {
+            con.createStatement().executeUpdate("CREATE TABLE IF NOT EXISTS pool_test (id INT)");
+            con.createStatement().executeUpdate("DELETE FROM pool_test");
+            con.setAutoCommit(false);
+            con.createStatement().executeUpdate("INSERT INTO pool_test VALUES (1)");
+        }
+
+        try (Connection con = connection.getConnection();
+             ResultSet rs = con.createStatement().executeQuery("SELECT COUNT(*) FROM pool_test")) {
+            assertTrue(con.getAutoCommit());
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void testClosedPool() {
+        connection.close();
+        assertThrows(PIPException.class, () -> connection.getConnection());
+    }
+}
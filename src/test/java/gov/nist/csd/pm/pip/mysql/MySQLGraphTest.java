@@ -5,6 +5,9 @@ import gov.nist.csd.pm.exceptions.PIPException;
 import gov.nist.csd.pm.exceptions.PMException;
 import gov.nist.csd.pm.operations.OperationSet;
 import gov.nist.csd.pm.pip.graph.model.nodes.Node;
+import gov.nist.csd.pm.pip.memory.MemGraph;
+import gov.nist.csd.pm.pip.memory.MemGraphSerializer;
+import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +24,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 public class MySQLGraphTest {
 
+    private MySQLConnection connection;
     private MySQLGraph graph;
 
     @BeforeEach
@@ -42,7 +46,7 @@ public class MySQLGraphTest {
         }
 
         // create a new MySQLGraph with the connection
-        MySQLConnection connection = new MySQLConnection("jdbc:h2:~/policydb_core;MODE=MySQL", "sa", "");
+        this.connection = new MySQLConnection("jdbc:h2:~/policydb_core;MODE=MySQL", "sa", "");
         this.graph = new MySQLGraph(connection);
     }
 
@@ -270,6 +274,69 @@ public class MySQLGraphTest {
         assertEquals(graph.getNodes().size(), nodes.size());
     }
 
+    @Test
+    void testSearchPropertyRows() throws PMException {
+        // the properties of the nodes in the schema are searchable
+        assertTrue(graph.search(PC, Node.toProperties("rep", "super_pc_rep")).stream()
+                .anyMatch(n -> n.getName().equals("super_pc")));
+
+        graph.createPolicyClass("pc1", Node.toProperties("k", "v"));
+        Node oa1 = graph.createNode("oa1", OA, Node.toProperties("k", "v"), "pc1");
+        assertEquals(2, graph.search(null, Node.toProperties("k", "v")).size());
+
+        // updating a node replaces its properties
+        graph.updateNode(oa1.getId(), "oa1", Node.toProperties("k", "v2"));
+        assertEquals(Set.of("oa1"), names(graph.search(OA, Node.toProperties("k", "v2"))));
+        assertEquals(Set.of("pc1"), names(graph.search(null, Node.toProperties("k", "v"))));
+
+        // deleting a node deletes its properties
+        graph.deassign("oa1", "pc1");
+        graph.deleteNode("oa1");
+        assertTrue(graph.search(null, Node.toProperties("k", "v2")).isEmpty());
+
+        // bulk loaded nodes are searchable
+        MemGraph memGraph = new MemGraph();
+        memGraph.createPolicyClass("pc2", null);
+        memGraph.createNode("oa2", OA, null, "pc2");
+        memGraph.createNode("o2", O, Node.toProperties("k", "v"), "oa2");
+        graph.fromJson(memGraph.toJson());
+        assertEquals(Set.of("pc1", "o2"), names(graph.search(null, Node.toProperties("k", "v"))));
+        assertTrue(names(graph.search(O, Node.toProperties("k", "*"))).contains("o2"));
+    }
+
+    @Test
+    void testPropertyValues() throws PMException {
+        // property values can be null or longer than an indexed column
+        String longValue = "v".repeat(1000);
+        Map<String, String> properties = new HashMap<>();
+        properties.put("long", longValue);
+        properties.put("null", null);
+        graph.createPolicyClass("pc1", null);
+        Node oa1 = graph.createNode("oa1", OA, properties, "pc1");
+        assertEquals(Set.of("oa1"), names(graph.search(null, Node.toProperties("long", longValue))));
+        assertEquals(properties, graph.getNode("oa1").getProperties());
+
+        graph.updateNode(oa1.getId(), "oa1", properties);
+        assertEquals(Set.of("oa1"), names(graph.search(OA, Node.toProperties("long", longValue))));
+
+        // the node is not created if its property rows cannot be written
+        Map<String, String> invalid = Node.toProperties("k".repeat(101), "v");
+        assertThrows(PIPException.class, () -> graph.createNode("oa2", OA, invalid, "pc1"));
+        assertFalse(graph.exists("oa2"));
+        assertThrows(PIPException.class, () -> graph.createPolicyClass("pc2", invalid));
+        assertFalse(graph.exists("pc2"));
+        assertThrows(PIPException.class, () -> graph.updateNode(oa1.getId(), "oa1", invalid));
+        assertEquals(properties, graph.getNode("oa1").getProperties());
+    }
+
+    private static Set<String> names(Set<Node> nodes) {
+        Set<String> names = new HashSet<>();
+        for (Node node : nodes) {
+            names.add(node.getName());
+        }
+        return names;
+    }
+
     @Test
     void testGetNodes() throws PIPException {
         int count_nodes = graph.getNodes().size();
@@ -372,4 +439,133 @@ public class MySQLGraphTest {
                 "      ]";*/
         assertTrue(json2.contains(assign));
     }
+
+    @Test
+    void testFromJsonBulkLoad() throws PMException {
+        MemGraph memGraph = new MemGraph();
+        memGraph.createPolicyClass("pc1", null);
+        memGraph.createNode("oa1", OA, Node.toProperties("k", "v"), "pc1");
+        memGraph.createNode("ua1", UA, null, "pc1");
+        memGraph.createNode("u1", U, null, "ua1");
+        memGraph.createNode("o1", O, null, "oa1");
+        memGraph.associate("ua1", "oa1", new OperationSet("read", "write"));
+
+        graph.fromJson(memGraph.toJson());
+
+        assertTrue(graph.getPolicyClasses().contains("pc1"));
+        assertEquals(Set.of("oa1", "ua1"), graph.getChildren("pc1"));
+        assertEquals(Set.of("oa1"), graph.getParents("o1"));
+        assertEquals("v", graph.getNode("oa1").getProperties().get("k"));
+        assertEquals(new OperationSet("read", "write"), graph.getSourceAssociations("ua1").get("oa1"));
+
+        MySQLGraph.JsonGraph jsonGraph = new Gson().fromJson(graph.toJson(), MySQLGraph.JsonGraph.class);
+        assertEquals(graph.getNodes().size(), jsonGraph.getNodes().size());
+        assertTrue(jsonGraph.getAssignments().stream().anyMatch(a -> a[0].equals("u1") && a[1].equals("ua1")));
+        assertTrue(jsonGraph.getAssociations().size() >= 1);
+    }
+
+    @Test
+    void testBulkLoadRollsBack() throws PMException {
+        graph.createPolicyClass("pc1", null);
+
+        MemGraph memGraph = new MemGraph();
+        memGraph.createPolicyClass("pc2", null);
+        memGraph.createNode("oa1", OA, null, "pc2");
+        memGraph.createPolicyClass("pc1", null);
+
+        MySQLBulkLoader loader = new MySQLBulkLoader(connection);
+        assertThrows(PIPException.class, () -> loader.load(memGraph));
+        assertFalse(graph.exists("pc2"));
+        assertFalse(graph.exists("oa1"));
+        assertThrows(IllegalArgumentException.class, () -> loader.setBatchSize(0));
+    }
+
+    @Test
+    void testSerializer() throws PMException {
+        MemGraph memGraph = new MemGraph();
+        memGraph.createPolicyClass("pc1", null);
+        memGraph.createNode("oa1", OA, null, "pc1");
+        memGraph.createNode("ua1", UA, null, "pc1");
+        for (int i = 0; i < 25; i++) {
+            memGraph.createNode("o" + i, O, null, "oa1");
+        }
+        memGraph.associate("ua1", "oa1", new OperationSet("read"));
+
+        MySQLGraphSerializer serializer = new MySQLGraphSerializer(graph, connection);
+        serializer.getLoader().setBatchSize(10);
+        serializer.deserialize(new MemGraphSerializer(memGraph).serialize());
+
+        assertEquals(25, graph.getChildren("oa1").size());
+        assertEquals(new OperationSet("read"), graph.getSourceAssociations("ua1").get("oa1"));
+
+        MemGraph copy = new MemGraph();
+        new MemGraphSerializer(copy).deserialize(serializer.serialize());
+        assertEquals(graph.getNodes().size(), copy.getNodes().size());
+        assertEquals(25, copy.getChildren("oa1").size());
+    }
+
+    @Test
+    void testNodeIdLookups() throws PIPException {
+        // the id cache is off by default
+        MySQLGraph graph = new MySQLGraph(connection, 100);
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("oa1", OA, null, "pc1");
+        graph.createNode("o1", O, null, "oa1");
+
+        long id = graph.getNodeIdFromName("o1");
+        assertEquals(graph.getNode("o1").getId(), id);
+        assertEquals("o1", graph.getNodeNameFromId(id));
+        assertEquals(Set.of("o1"), graph.getChildren("oa1"));
+        assertEquals(Set.of("oa1"), graph.getParents("o1"));
+        assertThrows(PIPException.class, () -> graph.getNodeIdFromName("unknown"));
+
+        // the cached id is dropped when the node is deleted and recreated
+        graph.deassign("o1", "oa1");
+        graph.deleteNode("o1");
+        assertThrows(PIPException.class, () -> graph.getNodeIdFromName("o1"));
+        assertThrows(PIPException.class, () -> graph.getNodeNameFromId(id));
+        graph.createNode("o1", O, null, "oa1");
+        assertNotEquals(id, graph.getNodeIdFromName("o1"));
+
+        // updating a node keeps its id
+        long oa1 = graph.getNodeIdFromName("oa1");
+        graph.updateNode(oa1, "oa1", Node.toProperties("k", "v"));
+        assertEquals("oa1", graph.getNodeNameFromId(oa1));
+        assertEquals(oa1, graph.getNodeIdFromName("oa1"));
+    }
+
+    @Test
+    void testSingleConnectionPool() throws PIPException {
+        // no method may borrow a second connection while it holds one, or it waits for itself
+        MySQLPoolOptions options = new MySQLPoolOptions();
+        options.setMaxPoolSize(1);
+        options.setConnectionTimeout(2000);
+        MySQLConnection single = new MySQLConnection("jdbc:h2:~/policydb_core;MODE=MySQL", "sa", "", options);
+        try {
+            MySQLGraph graph = new MySQLGraph(single);
+            graph.createPolicyClass("pc1", null);
+            graph.createNode("oa1", OA, null, "pc1");
+            graph.createNode("oa2", OA, null, "pc1");
+            graph.createNode("ua1", UA, null, "pc1");
+            graph.createNode("o1", O, null, "oa1", "oa2");
+            assertEquals(Set.of("oa1", "oa2"), graph.getParents("o1"));
+
+            graph.associate("ua1", "oa1", new OperationSet("read"));
+            assertEquals(Map.of("oa1", new OperationSet("read")), graph.getSourceAssociations("ua1"));
+            assertEquals(Map.of("ua1", new OperationSet("read")), graph.getTargetAssociations("oa1"));
+
+            MySQLProhibitions prohibitions = new MySQLProhibitions(single);
+            prohibitions.add(new Prohibition.Builder("p1", "ua1", new OperationSet("read"))
+                    .addContainer("oa1", false)
+                    .build());
+            prohibitions.update("p1", new Prohibition.Builder("p2", "ua1", new OperationSet("write"))
+                    .addContainer("oa1", true)
+                    .build());
+            assertEquals(Map.of("oa1", true), prohibitions.get("p2").getContainers());
+            prohibitions.delete("p2");
+            assertTrue(prohibitions.getAll().isEmpty());
+        } finally {
+            single.close();
+        }
+    }
 }
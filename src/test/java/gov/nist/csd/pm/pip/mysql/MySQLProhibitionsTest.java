@@ -11,11 +11,13 @@ import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.Statement;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class MySQLProhibitionsTest {
 
+    private MySQLConnection connection;
     private MySQLProhibitions prohibitions;
 
     @BeforeEach
@@ -37,7 +39,7 @@ public class MySQLProhibitionsTest {
         }
 
         // create a new MySQLGraph with the connection
-        MySQLConnection connection = new MySQLConnection("jdbc:h2:~/policydb_core;MODE=MySQL", "sa", "");
+        this.connection = new MySQLConnection("jdbc:h2:~/policydb_core;MODE=MySQL", "sa", "");
         this.prohibitions = new MySQLProhibitions(connection);
     }
 
@@ -196,4 +198,34 @@ public class MySQLProhibitionsTest {
         assertThrows(PIPException.class, () -> prohibitions.delete("a prohibition that do not exist"));
     }
 
+
+    @Test
+    void testGetProhibitionsForWithCache() throws PIPException {
+        MySQLProhibitions cached = new MySQLProhibitions(connection, 10);
+        assertTrue(cached.getProhibitionsFor("super_ua1").isEmpty());
+
+        cached.add(new Prohibition.Builder("p1", "super_ua1", new OperationSet("read"))
+                .addContainer("super_oa", false)
+                .addContainer("super_pc_rep", true)
+                .build());
+        cached.add(new Prohibition.Builder("p2", "super_ua2", new OperationSet("write"))
+                .build());
+
+        assertEquals(1, cached.getProhibitionsFor("super_ua1").size());
+        Prohibition p1 = cached.getProhibitionsFor("super_ua1").get(0);
+        assertEquals(Map.of("super_oa", false, "super_pc_rep", true), p1.getContainers());
+
+        // the cached copy cannot be changed through a returned prohibition
+        p1.getOperations().add("write");
+        assertEquals(new OperationSet("read"), cached.get("p1").getOperations());
+
+        // the uncached reader sees the same rows through the indexed query
+        assertEquals(prohibitions.getProhibitionsFor("super_ua1"), cached.getProhibitionsFor("super_ua1"));
+        assertEquals(2, prohibitions.getAll().size());
+
+        cached.delete("p1");
+        assertTrue(cached.getProhibitionsFor("super_ua1").isEmpty());
+        assertThrows(PIPException.class, () -> cached.get("p1"));
+        assertThrows(IllegalArgumentException.class, () -> new MySQLProhibitions(connection, -1));
+    }
 }
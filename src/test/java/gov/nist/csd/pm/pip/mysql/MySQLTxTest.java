@@ -0,0 +1,99 @@
+package gov.nist.csd.pm.pip.mysql;
+
+import gov.nist.csd.pm.exceptions.PMException;
+import gov.nist.csd.pm.operations.OperationSet;
+import gov.nist.csd.pm.pip.memory.MemObligations;
+import gov.nist.csd.pm.pip.memory.tx.MySQLTx;
+import gov.nist.csd.pm.pip.prohibitions.model.Prohibition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Set;
+
+import static gov.nist.csd.pm.pip.graph.model.nodes.NodeType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MySQLTxTest {
+
+    private static final String URL = "jdbc:h2:~/policydb_core;MODE=MySQL";
+
+    private MySQLConnection connection;
+    private MySQLGraph graph;
+    private MySQLProhibitions prohibitions;
+
+    @BeforeEach
+    void init() throws Exception {
+        InputStream resourceAsStream = getClass().getResourceAsStream("/mysql/policydb_core.sql");
+        if (resourceAsStream == null) {
+            throw new Exception("could not read contents of policydb_core.sql");
+        }
+
+        String sql = new String(resourceAsStream.readAllBytes());
+        try (Connection conn = DriverManager.getConnection(URL, "sa", "");
+             Statement stmt = conn.createStatement()) {
+            for (String s : sql.split(";")) {
+                stmt.executeUpdate(s);
+            }
+        }
+
+        connection = new MySQLConnection(URL, "sa", "");
+        graph = new MySQLGraph(connection);
+        prohibitions = new MySQLProhibitions(connection, 10);
+    }
+
+    @AfterEach
+    void close() {
+        connection.close();
+    }
+
+    @Test
+    void testCommit() throws PMException {
+        MySQLTx tx = new MySQLTx(graph, prohibitions, new MemObligations());
+        tx.runTx((g, p, o) -> {
+            g.createPolicyClass("pc1", null);
+            g.createNode("oa1", OA, null, "pc1");
+            g.createNode("ua1", UA, null, "pc1");
+            g.createNode("o1", O, null, "oa1");
+            g.associate("ua1", "oa1", new OperationSet("read"));
+            p.add(new Prohibition.Builder("deny1", "ua1", new OperationSet("read"))
+                    .addContainer("oa1", false)
+                    .build());
+        });
+
+        assertTrue(graph.exists("o1"));
+        assertEquals(Set.of("o1"), graph.getChildren("oa1"));
+        assertEquals(new OperationSet("read"), graph.getSourceAssociations("ua1").get("oa1"));
+        assertEquals(1, prohibitions.getProhibitionsFor("ua1").size());
+    }
+
+    @Test
+    void testRollbackOnFailedCommit() throws PMException {
+        int idle = connection.getIdleCount();
+        // cache that ua1 has no prohibitions, the failed transaction must not leave a stale entry behind
+        graph.createPolicyClass("pc1", null);
+        graph.createNode("ua1", UA, null, "pc1");
+        assertTrue(prohibitions.getProhibitionsFor("ua1").isEmpty());
+
+        MySQLTx tx = new MySQLTx(graph, prohibitions, new MemObligations());
+        assertThrows(PMException.class, () -> tx.runTx((g, p, o) -> {
+            g.createNode("oa1", OA, null, "pc1");
+            g.createNode("o1", O, null, "oa1");
+            p.add(new Prohibition.Builder("deny1", "ua1", new OperationSet("read"))
+                    .addContainer("oa1", false)
+                    .build());
+            // fails when the transaction commits, after the commands above have been written
+            g.createPolicyClass("pc1", null);
+        }));
+
+        assertFalse(graph.exists("oa1"));
+        assertFalse(graph.exists("o1"));
+        assertTrue(prohibitions.getProhibitionsFor("ua1").isEmpty());
+        assertThrows(PMException.class, () -> prohibitions.get("deny1"));
+        assertTrue(connection.getIdleCount() >= idle);
+    }
+}
@@ -5,9 +5,13 @@ DROP TABLE IF EXISTS `assignment`;
 DROP TABLE IF EXISTS `association`;
 DROP TABLE IF EXISTS `deny_obj_attribute`;
 DROP TABLE IF EXISTS `deny`;
+DROP TABLE IF EXISTS `node_properties`;
 DROP TABLE IF EXISTS `node`;
 DROP TABLE IF EXISTS `node_type`;
 DROP TABLE IF EXISTS `deny_type`;
+DROP TABLE IF EXISTS `policy_changelog`;
+DROP TABLE IF EXISTS `policy_changelog_seq`;
+DROP TABLE IF EXISTS `policy_changelog_mirror`;
 
 
 CREATE TABLE node_type (
@@ -31,6 +35,17 @@ CREATE TABLE `node` (
 
 INSERT INTO `node` VALUES (1,5,'super_pc','{"rep": "super_pc_rep", "namespace": "super", "default_oa": "super_pc_default_OA", "default_ua": "super_pc_default_UA"}'),(2,2,'super_ua1','{"namespace": "super"}'),(3,3,'super','{"namespace": "super"}'),(4,2,'super_ua2','{"namespace": "super"}'),(5,1,'super_oa','{"namespace": "super"}'),(6,2,'super_pc_default_UA','{"namespace": "super_pc"}'),(7,1,'super_pc_default_OA','{"namespace": "super_pc"}'),(8,1,'super_pc_rep','{"pc": "super_pc", "namespace": "super_pc"}'),(9,4,'super_o','{"namespace": "super"}');
 
+CREATE TABLE `node_properties` (
+                                   `node_id` int NOT NULL,
+                                   `property_key` varchar(100) NOT NULL,
+                                   `property_value` varchar DEFAULT NULL,
+                                   PRIMARY KEY (`node_id`,`property_key`),
+                                   KEY `idx_node_properties_key_value` (`property_key`,`property_value`),
+                                   CONSTRAINT `fk_node_properties_node_id` FOREIGN KEY (`node_id`) REFERENCES `node` (`node_id`) ON DELETE CASCADE
+);
+
+INSERT INTO `node_properties` VALUES (1,'namespace','super'),(1,'default_oa','super_pc_default_OA'),(1,'default_ua','super_pc_default_UA'),(1,'rep','super_pc_rep'),(2,'namespace','super'),(3,'namespace','super'),(4,'namespace','super'),(5,'namespace','super'),(6,'namespace','super_pc'),(7,'namespace','super_pc'),(8,'namespace','super_pc'),(8,'pc','super_pc'),(9,'namespace','super');
+
 CREATE TABLE `assignment` (
                               `assignment_id` int NOT NULL AUTO_INCREMENT,
                               `start_node_id` int NOT NULL,
@@ -74,6 +89,7 @@ CREATE TABLE `deny` (
                         PRIMARY KEY (`deny_id`),
                         UNIQUE KEY `deny_name` (`deny_name`),
                         UNIQUE KEY `deny_type_id` (`deny_type_id`,`user_attribute_id`),
+                        KEY `idx_deny_subject_name` (`subject_name`),
                         CONSTRAINT `fk_deny_type_id` FOREIGN KEY (`deny_type_id`) REFERENCES `deny_type` (`deny_type_id`),
                         CONSTRAINT `fk_deny_user_attribute_node_id` FOREIGN KEY (`user_attribute_id`) REFERENCES `node` (`node_id`)
 );
@@ -87,3 +103,23 @@ CREATE TABLE `deny_obj_attribute` (
                                       CONSTRAINT `fk_deny_obj_attr` FOREIGN KEY (`object_attribute_id`) REFERENCES `node` (`node_id`)
 );
 
+CREATE TABLE `policy_changelog` (
+                                    `seq` bigint NOT NULL,
+                                    `operation` varchar(20) NOT NULL,
+                                    `payload` varchar NOT NULL,
+                                    PRIMARY KEY (`seq`)
+);
+
+CREATE TABLE `policy_changelog_seq` (
+                                        `id` int NOT NULL,
+                                        `seq` bigint NOT NULL,
+                                        PRIMARY KEY (`id`)
+);
+
+INSERT INTO `policy_changelog_seq` VALUES (1,0);
+
+CREATE TABLE `policy_changelog_mirror` (
+                                           `mirror_id` varchar(64) NOT NULL,
+                                           `seq` bigint NOT NULL,
+                                           PRIMARY KEY (`mirror_id`)
+);